@@ -12,9 +12,11 @@ import it.unive.lisa.symbolic.heap.MemoryAllocation;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
 import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import it.unive.lisa.util.representation.ObjectRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -578,7 +580,12 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 			ProgramPoint pp,
 			SemanticOracle oracle)
 			throws SemanticException {
-		return typeState.getRuntimeTypesOf(e, pp, oracle);
+		// the types might be shared with the type domain: callers only get
+		// an unmodifiable view of them
+		Set<Type> types = typeState.getRuntimeTypesOf(e, pp, oracle);
+		if (types instanceof ExternalSet)
+			return ((ExternalSet<Type>) types).unmodifiableView();
+		return types == null ? null : Collections.unmodifiableSet(types);
 	}
 
 	@Override
@@ -23,13 +23,17 @@ import it.unive.lisa.symbolic.value.PushAny;
 import it.unive.lisa.symbolic.value.Variable;
 import it.unive.lisa.type.ReferenceType;
 import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.PersistentHashMap;
 import it.unive.lisa.util.collections.workset.VisitOnceFIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
 import it.unive.lisa.util.representation.StructuredRepresentation;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 
@@ -60,6 +64,14 @@ public abstract class AllocationSiteBasedAnalysis<A extends AllocationSiteBasedA
 	 */
 	public final List<HeapReplacement> replacements;
 
+	/**
+	 * The reverse index of {@link #heapEnv}, lazily built or updated from the
+	 * index of the instance this one has been derived from (if any). Since it
+	 * is fully determined by {@link #heapEnv}, it does not take part in
+	 * {@link #equals(Object)} and {@link #hashCode()}.
+	 */
+	private transient volatile SitesIndex index;
+
 	/**
 	 * Builds a new instance of allocation site-based heap.
 	 */
@@ -92,10 +104,32 @@ public abstract class AllocationSiteBasedAnalysis<A extends AllocationSiteBasedA
 		this.replacements = replacements.isEmpty() ? Collections.emptyList() : replacements;
 	}
 
+	/**
+	 * Builds a new instance of allocation site-based heap from its heap
+	 * environment and replacements, derived from {@code reference}: the heap
+	 * environment is assumed to have been obtained by modifying the one of
+	 * {@code reference}. If {@code reference} has already built its index of
+	 * allocation sites, the one of this instance will be computed by only
+	 * updating the entries that changed between the two environments.
+	 * 
+	 * @param heapEnv      the heap environment that this instance tracks
+	 * @param replacements the heap replacements of this instance
+	 * @param reference    the instance this one has been derived from
+	 */
+	protected AllocationSiteBasedAnalysis(
+			HeapEnvironment<AllocationSites> heapEnv,
+			List<HeapReplacement> replacements,
+			AllocationSiteBasedAnalysis<?> reference) {
+		this(heapEnv, replacements);
+		this.index = reference.index;
+	}
+
 	/**
 	 * Builds a new instance of this class by copying abstract information from
 	 * {@code reference} and using the given environment for storing points-to
-	 * information.
+	 * information. The new instance is derived from {@code reference}, and its
+	 * index of allocation sites is thus updated from the one of
+	 * {@code reference} instead of being built from scratch.
 	 * 
 	 * @param reference the domain whose abstract information needs to be copied
 	 * @param heapEnv   the heap environment that this instance tracks
@@ -148,23 +182,41 @@ public abstract class AllocationSiteBasedAnalysis<A extends AllocationSiteBasedA
 	}
 
 	/**
-	 * Yields an allocation site name {@code id} if it is tracked by this
-	 * domain, {@code null} otherwise.
+	 * Yields the allocation sites, tracked by this domain, that have been
+	 * generated at the given location. The lookup is performed on an index of
+	 * {@link #heapEnv} that is shared among all calls on this instance.
 	 * 
 	 * @param location allocation site's name to be searched
 	 * 
-	 * @return an allocation site name {@code id} if it is tracked by this
-	 *             domain, {@code null} otherwise
+	 * @return the allocation sites generated at the given location (possibly
+	 *             empty)
 	 */
 	protected Set<AllocationSite> getAllocatedAt(
 			String location) {
-		Set<AllocationSite> sites = new HashSet<>();
-		for (AllocationSites set : heapEnv.getValues())
-			for (AllocationSite site : set)
-				if (site.getLocationName().equals(location))
-					sites.add(site);
+		return Collections.unmodifiableSet(index().byLocation.getOrDefault(location, Collections.emptySet()));
+	}
 
-		return sites;
+	/**
+	 * Yields the identifiers that, in {@link #heapEnv}, point to the given
+	 * allocation site. The lookup is performed on an index of {@link #heapEnv}
+	 * that is shared among all calls on this instance.
+	 * 
+	 * @param site the allocation site
+	 * 
+	 * @return the identifiers pointing to {@code site} (possibly empty)
+	 */
+	protected Set<Identifier> getPointersTo(
+			AllocationSite site) {
+		return Collections.unmodifiableSet(index().pointers.getOrDefault(site, Collections.emptySet()));
+	}
+
+	private SitesIndex index() {
+		SitesIndex idx = index;
+		if (idx == null || idx.source != heapEnv.function) {
+			idx = idx == null ? SitesIndex.build(heapEnv.function) : idx.update(heapEnv.function);
+			index = idx;
+		}
+		return idx;
 	}
 
 	/**
@@ -498,7 +550,7 @@ public abstract class AllocationSiteBasedAnalysis<A extends AllocationSiteBasedA
 	public boolean knowsIdentifier(
 			Identifier id) {
 		return heapEnv.knowsIdentifier(id) || (id instanceof AllocationSite
-				&& heapEnv.getValues().stream().anyMatch(as -> as.contains((AllocationSite) id)));
+				&& index().pointers.containsKey(id));
 	}
 
 	@Override
@@ -570,4 +622,134 @@ public abstract class AllocationSiteBasedAnalysis<A extends AllocationSiteBasedA
 
 		return Satisfiability.NOT_SATISFIED;
 	}
+
+	/**
+	 * A reverse index of a heap environment, mapping each location to the
+	 * allocation sites generated there and each allocation site to the
+	 * identifiers pointing to it. Indexes are immutable: since their maps are
+	 * {@link PersistentHashMap}s, the index of an environment can be cheaply
+	 * derived from the one of another environment sharing its history, only
+	 * processing the identifiers whose mapping differs between the two.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class SitesIndex {
+
+		/**
+		 * The function of the environment this index has been built for.
+		 */
+		private final Map<Identifier, AllocationSites> source;
+
+		/**
+		 * The allocation sites generated at each location.
+		 */
+		private final PersistentHashMap<String, Set<AllocationSite>> byLocation;
+
+		/**
+		 * The identifiers pointing to each allocation site.
+		 */
+		private final PersistentHashMap<AllocationSite, Set<Identifier>> pointers;
+
+		private SitesIndex(
+				Map<Identifier, AllocationSites> source,
+				PersistentHashMap<String, Set<AllocationSite>> byLocation,
+				PersistentHashMap<AllocationSite, Set<Identifier>> pointers) {
+			this.source = source;
+			this.byLocation = byLocation;
+			this.pointers = pointers;
+		}
+
+		private static SitesIndex build(
+				Map<Identifier, AllocationSites> function) {
+			SitesIndex index = new SitesIndex(function, new PersistentHashMap<>(), new PersistentHashMap<>());
+			if (function != null) {
+				Set<Set<?>> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+				for (Entry<Identifier, AllocationSites> entry : function.entrySet())
+					index.add(entry.getKey(), entry.getValue(), owned);
+			}
+			return index;
+		}
+
+		@SuppressWarnings("unchecked")
+		private SitesIndex update(
+				Map<Identifier, AllocationSites> function) {
+			Map<Identifier, AllocationSites> from = source == null ? new PersistentHashMap<>() : source;
+			Map<Identifier, AllocationSites> to = function == null ? new PersistentHashMap<>() : function;
+			if (!(from instanceof PersistentHashMap) || !(to instanceof PersistentHashMap))
+				return build(function);
+
+			PersistentHashMap<Identifier,
+					AllocationSites> pfrom = (PersistentHashMap<Identifier, AllocationSites>) from;
+			PersistentHashMap<Identifier, AllocationSites> pto = (PersistentHashMap<Identifier, AllocationSites>) to;
+			Set<Identifier> changed = new HashSet<>(pto.keysDifferingFrom(pfrom));
+			changed.addAll(pfrom.keysDifferingFrom(pto));
+
+			SitesIndex index = new SitesIndex(function, new PersistentHashMap<>(byLocation),
+					new PersistentHashMap<>(pointers));
+			Set<Set<?>> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (Identifier id : changed) {
+				AllocationSites old = pfrom.get(id);
+				if (old != null)
+					index.remove(id, old, owned);
+				AllocationSites sites = pto.get(id);
+				if (sites != null)
+					index.add(id, sites, owned);
+			}
+			return index;
+		}
+
+		/**
+		 * Yields the set mapped to {@code key} in {@code map}, ready to be
+		 * modified in place. Sets are shared with the index this one has been
+		 * updated from, and are thus copied (or created, if missing) the first
+		 * time they are modified while building this index: {@code owned}
+		 * tracks, by identity, the sets that have already been copied.
+		 */
+		private static <K, E> Set<E> writable(
+				PersistentHashMap<K, Set<E>> map,
+				K key,
+				Set<Set<?>> owned) {
+			Set<E> set = map.get(key);
+			if (set != null && owned.contains(set))
+				return set;
+
+			set = set == null ? new HashSet<>() : new HashSet<>(set);
+			owned.add(set);
+			map.put(key, set);
+			return set;
+		}
+
+		private void add(
+				Identifier id,
+				AllocationSites sites,
+				Set<Set<?>> owned) {
+			for (AllocationSite site : sites) {
+				if (!pointers.containsKey(site))
+					writable(byLocation, site.getLocationName(), owned).add(site);
+				writable(pointers, site, owned).add(id);
+			}
+		}
+
+		private void remove(
+				Identifier id,
+				AllocationSites sites,
+				Set<Set<?>> owned) {
+			for (AllocationSite site : sites) {
+				Set<Identifier> ids = pointers.get(site);
+				if (ids == null || !ids.contains(id))
+					continue;
+				if (ids.size() > 1) {
+					writable(pointers, site, owned).remove(id);
+					continue;
+				}
+
+				pointers.remove(site);
+				String location = site.getLocationName();
+				Set<AllocationSite> located = writable(byLocation, location, owned);
+				located.remove(site);
+				if (located.isEmpty())
+					byLocation.remove(location);
+			}
+		}
+	}
 }
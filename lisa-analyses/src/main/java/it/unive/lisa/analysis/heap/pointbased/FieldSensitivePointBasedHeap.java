@@ -19,7 +19,6 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -92,6 +91,28 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 		this.fields = fields;
 	}
 
+	/**
+	 * Builds a new instance of field-sensitive point-based heap from its heap
+	 * environment, its replacements, and its field mapping, derived from
+	 * {@code reference}: the index of allocation sites of the new instance is
+	 * updated from the one of {@code reference}, instead of being built from
+	 * scratch.
+	 * 
+	 * @param heapEnv      the heap environment that this instance tracks
+	 * @param replacements the heap replacements
+	 * @param fields       the mapping between allocation sites and their fields
+	 *                         that this instance tracks
+	 * @param reference    the instance this one has been derived from
+	 */
+	protected FieldSensitivePointBasedHeap(
+			HeapEnvironment<AllocationSites> heapEnv,
+			List<HeapReplacement> replacements,
+			GenericMapLattice<AllocationSite, ExpressionSet> fields,
+			FieldSensitivePointBasedHeap reference) {
+		super(heapEnv, replacements, reference);
+		this.fields = fields;
+	}
+
 	@Override
 	public FieldSensitivePointBasedHeap mk(
 			FieldSensitivePointBasedHeap reference) {
@@ -102,14 +123,14 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 	public FieldSensitivePointBasedHeap mk(
 			FieldSensitivePointBasedHeap reference,
 			List<HeapReplacement> replacements) {
-		return new FieldSensitivePointBasedHeap(reference.heapEnv, replacements, reference.fields);
+		return new FieldSensitivePointBasedHeap(reference.heapEnv, replacements, reference.fields, reference);
 	}
 
 	@Override
 	protected FieldSensitivePointBasedHeap mk(
 			FieldSensitivePointBasedHeap reference,
 			HeapEnvironment<AllocationSites> heapEnv) {
-		return new FieldSensitivePointBasedHeap(heapEnv, reference.replacements, reference.fields);
+		return new FieldSensitivePointBasedHeap(heapEnv, reference.replacements, reference.fields, reference);
 	}
 
 	@Override
@@ -157,7 +178,8 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 		replacement.addTarget(site);
 		replacements.add(replacement);
 
-		return mk(new FieldSensitivePointBasedHeap(heap, new GenericMapLattice<>(fields.lattice, newFields)));
+		return mk(new FieldSensitivePointBasedHeap(heap, Collections.emptyList(),
+				new GenericMapLattice<>(fields.lattice, newFields), this));
 	}
 
 	@Override
@@ -198,7 +220,7 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 				}
 
 			return mk(new FieldSensitivePointBasedHeap(heapEnv, heapEnv.getSubstitution(),
-					new GenericMapLattice<>(fields.lattice, mapping)));
+					new GenericMapLattice<>(fields.lattice, mapping), this));
 		} else if (expression instanceof MemoryAllocation) {
 			String loc = expression.getCodeLocation().getCodeLocation();
 			Set<AllocationSite> alreadyAllocated = getAllocatedAt(loc);
@@ -229,11 +251,20 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 				}
 
 				if (!replacements.isEmpty()) {
-					// we must apply the replacements to our mapping as well
-					Map<Identifier, AllocationSites> map = new HashMap<>(env.getMap());
-					for (Entry<Identifier, AllocationSites> entry : env) {
-						Identifier id = entry.getKey();
-						AllocationSites sites = entry.getValue();
+					// we must apply the replacements to our mapping as well:
+					// only the identifiers pointing to one of the sources, or
+					// that are sources themselves, can be affected
+					Set<Identifier> affected = new HashSet<>();
+					for (HeapReplacement repl : replacements)
+						for (Identifier source : repl.getSources()) {
+							affected.addAll(sss.getPointersTo((AllocationSite) source));
+							if (env.getKeys().contains(source))
+								affected.add(source);
+						}
+
+					Map<Identifier, AllocationSites> map = env.mkNewFunction(env.function, false);
+					for (Identifier id : affected) {
+						AllocationSites sites = env.getState(id);
 						for (HeapReplacement repl : replacements) {
 							if (repl.getSources().contains(id))
 								// these are all one-to-one replacements
@@ -245,12 +276,12 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 					env = new HeapEnvironment<>(env.lattice, map);
 				}
 
-				return mk(new FieldSensitivePointBasedHeap(env, replacements, fields));
+				return mk(new FieldSensitivePointBasedHeap(env, replacements, fields, sss));
 			}
 		}
 
 		FieldSensitivePointBasedHeap sss = super.smallStepSemantics(expression, pp, oracle);
-		return mk(new FieldSensitivePointBasedHeap(sss.heapEnv, fields));
+		return mk(new FieldSensitivePointBasedHeap(sss.heapEnv, Collections.emptyList(), fields, sss));
 	}
 
 	private void addField(
@@ -386,14 +417,14 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 	public FieldSensitivePointBasedHeap popScope(
 			ScopeToken scope)
 			throws SemanticException {
-		return mk(new FieldSensitivePointBasedHeap(heapEnv.popScope(scope), fields));
+		return mk(new FieldSensitivePointBasedHeap(heapEnv.popScope(scope), Collections.emptyList(), fields, this));
 	}
 
 	@Override
 	public FieldSensitivePointBasedHeap pushScope(
 			ScopeToken scope)
 			throws SemanticException {
-		return mk(new FieldSensitivePointBasedHeap(heapEnv.pushScope(scope), fields));
+		return mk(new FieldSensitivePointBasedHeap(heapEnv.pushScope(scope), Collections.emptyList(), fields, this));
 	}
 
 	@Override
@@ -422,7 +453,8 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 			throws SemanticException {
 		return mk(new FieldSensitivePointBasedHeap(heapEnv.lub(other.heapEnv),
 				Collections.emptyList(),
-				fields.lub(other.fields)));
+				fields.lub(other.fields),
+				this));
 	}
 
 	@Override
@@ -431,7 +463,8 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 			throws SemanticException {
 		return mk(new FieldSensitivePointBasedHeap(heapEnv.glb(other.heapEnv),
 				Collections.emptyList(),
-				fields.glb(other.fields)));
+				fields.glb(other.fields),
+				this));
 	}
 
 	@Override
@@ -445,13 +478,15 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 	public FieldSensitivePointBasedHeap forgetIdentifier(
 			Identifier id)
 			throws SemanticException {
-		return mk(new FieldSensitivePointBasedHeap(heapEnv.forgetIdentifier(id), fields));
+		return mk(new FieldSensitivePointBasedHeap(heapEnv.forgetIdentifier(id), Collections.emptyList(), fields,
+				this));
 	}
 
 	@Override
 	public FieldSensitivePointBasedHeap forgetIdentifiersIf(
 			Predicate<Identifier> test)
 			throws SemanticException {
-		return mk(new FieldSensitivePointBasedHeap(heapEnv.forgetIdentifiersIf(test), fields));
+		return mk(new FieldSensitivePointBasedHeap(heapEnv.forgetIdentifiersIf(test), Collections.emptyList(),
+				fields, this));
 	}
 }
@@ -51,6 +51,23 @@ public class PointBasedHeap extends AllocationSiteBasedAnalysis<PointBasedHeap>
 		super(heapEnv, replacements.isEmpty() ? Collections.emptyList() : replacements);
 	}
 
+	/**
+	 * Builds a new instance of field-insensitive point-based heap from its heap
+	 * environment, derived from {@code reference}: the index of allocation
+	 * sites of the new instance is updated from the one of {@code reference},
+	 * instead of being built from scratch.
+	 * 
+	 * @param heapEnv      the heap environment that this instance tracks
+	 * @param replacements the heap replacements of this instance
+	 * @param reference    the instance this one has been derived from
+	 */
+	protected PointBasedHeap(
+			HeapEnvironment<AllocationSites> heapEnv,
+			List<HeapReplacement> replacements,
+			PointBasedHeap reference) {
+		super(heapEnv, replacements, reference);
+	}
+
 	@Override
 	public PointBasedHeap mk(
 			PointBasedHeap reference) {
@@ -61,14 +78,14 @@ public class PointBasedHeap extends AllocationSiteBasedAnalysis<PointBasedHeap>
 	public PointBasedHeap mk(
 			PointBasedHeap reference,
 			List<HeapReplacement> replacements) {
-		return new PointBasedHeap(reference.heapEnv, replacements);
+		return new PointBasedHeap(reference.heapEnv, replacements, reference);
 	}
 
 	@Override
 	protected PointBasedHeap mk(
 			PointBasedHeap reference,
 			HeapEnvironment<AllocationSites> heapEnv) {
-		return new PointBasedHeap(heapEnv, reference.replacements);
+		return new PointBasedHeap(heapEnv, reference.replacements, reference);
 	}
 
 	@Override
@@ -90,14 +107,14 @@ public class PointBasedHeap extends AllocationSiteBasedAnalysis<PointBasedHeap>
 	public PointBasedHeap lubAux(
 			PointBasedHeap other)
 			throws SemanticException {
-		return mk(new PointBasedHeap(heapEnv.lub(other.heapEnv)));
+		return mk(new PointBasedHeap(heapEnv.lub(other.heapEnv), Collections.emptyList(), this));
 	}
 
 	@Override
 	public PointBasedHeap glbAux(
 			PointBasedHeap other)
 			throws SemanticException {
-		return mk(new PointBasedHeap(heapEnv.glb(other.heapEnv)));
+		return mk(new PointBasedHeap(heapEnv.glb(other.heapEnv), Collections.emptyList(), this));
 	}
 
 	@Override
@@ -111,27 +128,27 @@ public class PointBasedHeap extends AllocationSiteBasedAnalysis<PointBasedHeap>
 	public PointBasedHeap popScope(
 			ScopeToken scope)
 			throws SemanticException {
-		return mk(new PointBasedHeap(heapEnv.popScope(scope)));
+		return mk(new PointBasedHeap(heapEnv.popScope(scope), Collections.emptyList(), this));
 	}
 
 	@Override
 	public PointBasedHeap pushScope(
 			ScopeToken scope)
 			throws SemanticException {
-		return mk(new PointBasedHeap(heapEnv.pushScope(scope)));
+		return mk(new PointBasedHeap(heapEnv.pushScope(scope), Collections.emptyList(), this));
 	}
 
 	@Override
 	public PointBasedHeap forgetIdentifier(
 			Identifier id)
 			throws SemanticException {
-		return mk(new PointBasedHeap(heapEnv.forgetIdentifier(id)));
+		return mk(new PointBasedHeap(heapEnv.forgetIdentifier(id), Collections.emptyList(), this));
 	}
 
 	@Override
 	public PointBasedHeap forgetIdentifiersIf(
 			Predicate<Identifier> test)
 			throws SemanticException {
-		return mk(new PointBasedHeap(heapEnv.forgetIdentifiersIf(test)));
+		return mk(new PointBasedHeap(heapEnv.forgetIdentifiersIf(test), Collections.emptyList(), this));
 	}
 }
@@ -221,7 +221,7 @@ public final class SimpleAutomaton extends Automaton<SimpleAutomaton, StringSymb
 				}
 
 			result.removeTransitions(toRemove);
-			result.getTransitions().addAll(toAdd);
+			toAdd.forEach(result::addTransition);
 
 			result.minimize();
 
@@ -264,7 +264,7 @@ public final class SimpleAutomaton extends Automaton<SimpleAutomaton, StringSymb
 			}
 
 			result.removeTransitions(toRemove);
-			result.getTransitions().addAll(toAdd);
+			toAdd.forEach(result::addTransition);
 
 			result.minimize();
 
@@ -420,7 +420,7 @@ public class Tarsis implements BaseNonRelationalValueDomain<Tarsis>, ContainsCha
 				fsaDelta.add(new Transition<>(t.getSource(), t.getDestination(),
 						new StringSymbol(t.getSymbol().toString())));
 
-			return new FSA(new SimpleAutomaton(exploded.getStates(), fsaDelta));
+			return new FSA(new SimpleAutomaton(new TreeSet<>(exploded.getStates()), fsaDelta));
 		}
 
 		SortedSet<State> fsaStates = new TreeSet<>(exploded.getStates());
@@ -68,6 +68,41 @@ public class ExecutionTrace {
 		return tokens[tokens.length - 1];
 	}
 
+	/**
+	 * Yields the token at the given position of this trace, where position
+	 * {@code 0} holds the first token that has been pushed.
+	 * 
+	 * @param index the position of the token
+	 * 
+	 * @return the token
+	 */
+	public TraceToken getToken(
+			int index) {
+		return tokens[index];
+	}
+
+	/**
+	 * Yields the number of tokens in this trace.
+	 * 
+	 * @return the length of this trace
+	 */
+	public int length() {
+		return tokens.length;
+	}
+
+	/**
+	 * Yields the number of {@link LoopSummary} tokens in this trace.
+	 * 
+	 * @return the number of loop summaries
+	 */
+	public int numberOfLoopSummaries() {
+		int count = 0;
+		for (TraceToken token : tokens)
+			if (token instanceof LoopSummary)
+				count++;
+		return count;
+	}
+
 	/**
 	 * Yields the number of {@link Branching} tokens in this trace.
 	 * 
@@ -20,12 +20,17 @@ import it.unive.lisa.type.Untyped;
 import it.unive.lisa.util.representation.MapRepresentation;
 import it.unive.lisa.util.representation.StringRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
@@ -36,14 +41,26 @@ import org.apache.commons.lang3.tuple.Pair;
  * intraprocedural control-flow constructs, as calls are abstracted away before
  * reaching this domain. <br>
  * <br>
- * Traces are never merged: instead, we limit the size of the traces we can
- * track, and we leave the choice of when and where to compact traces to other
- * analysis components. Specifically, an {@link ExecutionTrace} will contain at
- * most {@link #MAX_CONDITIONS} {@link Branching} tokens, and will track at most
- * {@link #MAX_LOOP_ITERATIONS} iterations for each loop (through
- * {@link LoopIteration} tokens) before summarizing the next ones with a
- * {@link LoopSummary} token. Both values are editable and customizable before
- * the analysis starts.<br>
+ * By default, traces are never merged: instead, we limit the size of the
+ * traces we can track, and we leave the choice of when and where to compact
+ * traces to other analysis components. Specifically, an {@link ExecutionTrace}
+ * will contain at most {@link #MAX_CONDITIONS} {@link Branching} tokens, and
+ * will track at most {@link #MAX_LOOP_ITERATIONS} iterations for each loop
+ * (through {@link LoopIteration} tokens) before summarizing the next ones with
+ * a {@link LoopSummary} token. Per-trace operations can also be evaluated in
+ * parallel by setting {@link #PARALLEL_THRESHOLD}. All values are editable and
+ * customizable before the analysis starts. Moreover, a budget on the number
+ * of traces can be given through
+ * {@link #TracePartitioning(AbstractState, int)}: whenever traversing a
+ * condition produces more traces than the budget, the least informative ones
+ * are smashed into the empty trace, that does not partition the states it
+ * holds. The budget is only enforced where traces are created, as
+ * {@link #lub(Lattice)} and {@link #widening(Lattice)} must yield upper bounds
+ * of their arguments: joins of different paths (or of different fixpoint
+ * iterations) can thus exceed it. The number of times each policy has been
+ * applied during an analysis can be queried through {@link #getLimitMerges()},
+ * {@link #getBudgetMerges()} and {@link #getParallelEvaluations()} on any of
+ * the states it produced.<br>
  * <br>
  * As this class extends {@link FunctionalLattice}, one access individual traces
  * and their approximations using {@link #getKeys()}, {@link #getValues()},
@@ -77,19 +94,91 @@ public class TracePartitioning<A extends AbstractState<A>>
 	public static int MAX_CONDITIONS = 5;
 
 	/**
-	 * Builds a new instance of this domain.
+	 * The minimum number of traces that an instance of this domain must
+	 * contain for assignments, small step semantics and assumptions to evaluate
+	 * the state of each trace in parallel, using the fork-join pool running
+	 * the analysis (or the common one). Non-positive values disable parallel
+	 * evaluation.
+	 */
+	public static int PARALLEL_THRESHOLD = 0;
+
+	/**
+	 * The order in which traces are smashed when their number exceeds the
+	 * budget: traces that summarize more loops have already lost the
+	 * information about the iterations they traversed and come first,
+	 * followed by the longest ones. Remaining ties are broken comparing the
+	 * tokens of the traces in the order they were pushed (see
+	 * {@link #compareTokens(TraceToken, TraceToken)}), so that merges depend
+	 * neither on the hashes nor on the textual representation of the traces.
+	 */
+	private static final Comparator<ExecutionTrace> LEAST_INFORMATIVE_FIRST = Comparator
+			.comparingInt(ExecutionTrace::numberOfLoopSummaries).reversed()
+			.thenComparing(Comparator.comparingInt(ExecutionTrace::length).reversed())
+			.thenComparing(TracePartitioning::compareTokens);
+
+	/**
+	 * The maximum number of traces that traversing a condition can produce:
+	 * when more traces are produced, the least informative ones (according to
+	 * {@link #LEAST_INFORMATIVE_FIRST}) are smashed into the empty trace.
+	 * Non-positive values leave the number of traces unbounded.
+	 */
+	private final int maxTraces;
+
+	/**
+	 * The counters of the policies applied by this domain, shared by all the
+	 * instances derived from the same one built through a public constructor.
+	 */
+	private final Counters counters;
+
+	/**
+	 * Builds a new instance of this domain, with no bound on the number of
+	 * traces.
 	 * 
 	 * @param lattice a singleton of the underlying abstract states
 	 */
 	public TracePartitioning(
 			A lattice) {
+		this(lattice, 0);
+	}
+
+	/**
+	 * Builds a new instance of this domain, smashing the least informative
+	 * traces whenever traversing a condition produces more than
+	 * {@code maxTraces} of them. Traces summarizing more loops (through
+	 * {@link LoopSummary} tokens) are considered less informative, followed by
+	 * the longest ones.
+	 * 
+	 * @param lattice   a singleton of the underlying abstract states
+	 * @param maxTraces the maximum number of traces, where non-positive
+	 *                      values leave it unbounded
+	 */
+	public TracePartitioning(
+			A lattice,
+			int maxTraces) {
 		super(lattice);
+		this.maxTraces = maxTraces;
+		this.counters = new Counters();
 	}
 
 	private TracePartitioning(
 			A lattice,
-			Map<ExecutionTrace, A> function) {
+			Map<ExecutionTrace, A> function,
+			int maxTraces,
+			Counters counters) {
 		super(lattice, function);
+		this.maxTraces = maxTraces;
+		this.counters = counters;
+	}
+
+	/**
+	 * Yields the maximum number of traces that traversing a condition can
+	 * produce before the least informative ones get smashed together.
+	 * 
+	 * @return the maximum number of traces, where non-positive values mean
+	 *             that it is unbounded
+	 */
+	public int getMaxTraces() {
+		return maxTraces;
 	}
 
 	@Override
@@ -108,12 +197,12 @@ public class TracePartitioning<A extends AbstractState<A>>
 
 	@Override
 	public TracePartitioning<A> top() {
-		return new TracePartitioning<>(lattice.top(), null);
+		return new TracePartitioning<>(lattice.top(), null, maxTraces, counters);
 	}
 
 	@Override
 	public TracePartitioning<A> bottom() {
-		return new TracePartitioning<>(lattice.bottom(), null);
+		return new TracePartitioning<>(lattice.bottom(), null, maxTraces, counters);
 	}
 
 	@Override
@@ -129,10 +218,13 @@ public class TracePartitioning<A extends AbstractState<A>>
 		Map<ExecutionTrace, A> result = mkNewFunction(null, false);
 		if (isTop() || function == null)
 			result.put(new ExecutionTrace(), lattice.assign(id, expression, pp, oracle));
-		else
-			for (Entry<ExecutionTrace, A> trace : this)
-				result.put(trace.getKey(), trace.getValue().assign(id, expression, pp, oracle));
-		return new TracePartitioning<>(lattice, result);
+		else {
+			List<Entry<ExecutionTrace, A>> traces = new ArrayList<>(function.entrySet());
+			List<A> states = evaluate(traces, state -> state.assign(id, expression, pp, oracle));
+			for (int i = 0; i < traces.size(); i++)
+				result.put(traces.get(i).getKey(), states.get(i));
+		}
+		return new TracePartitioning<>(lattice, result, maxTraces, counters);
 	}
 
 	@Override
@@ -147,10 +239,13 @@ public class TracePartitioning<A extends AbstractState<A>>
 		Map<ExecutionTrace, A> result = mkNewFunction(null, false);
 		if (isTop() || function == null)
 			result.put(new ExecutionTrace(), lattice.smallStepSemantics(expression, pp, oracle));
-		else
-			for (Entry<ExecutionTrace, A> trace : this)
-				result.put(trace.getKey(), trace.getValue().smallStepSemantics(expression, pp, oracle));
-		return new TracePartitioning<>(lattice, result);
+		else {
+			List<Entry<ExecutionTrace, A>> traces = new ArrayList<>(function.entrySet());
+			List<A> states = evaluate(traces, state -> state.smallStepSemantics(expression, pp, oracle));
+			for (int i = 0; i < traces.size(); i++)
+				result.put(traces.get(i).getKey(), states.get(i));
+		}
+		return new TracePartitioning<>(lattice, result, maxTraces, counters);
 	}
 
 	@Override
@@ -170,11 +265,12 @@ public class TracePartitioning<A extends AbstractState<A>>
 			ExecutionTrace trace = new ExecutionTrace();
 			ExecutionTrace nextTrace = generateTraceFor(trace, struct, src, dest);
 			result.put(nextTrace, lattice.top());
-		} else
-			for (Entry<ExecutionTrace, A> trace : this) {
-				A state = trace.getValue();
-				ExecutionTrace tokens = trace.getKey();
-				A assume = state.assume(expression, src, dest, oracle);
+		} else {
+			List<Entry<ExecutionTrace, A>> traces = new ArrayList<>(function.entrySet());
+			List<A> states = evaluate(traces, state -> state.assume(expression, src, dest, oracle));
+			for (int i = 0; i < traces.size(); i++) {
+				ExecutionTrace tokens = traces.get(i).getKey();
+				A assume = states.get(i);
 				if (assume.isBottom())
 					// we only keep traces that can escape the loop
 					continue;
@@ -183,14 +279,17 @@ public class TracePartitioning<A extends AbstractState<A>>
 				// when we hit one of the limits, more traces can get smashed
 				// into one
 				A prev = result.get(nextTrace);
+				if (prev != null)
+					counters.limitMerges.incrementAndGet();
 				result.put(nextTrace, prev == null ? assume : assume.lub(prev));
 			}
+		}
 
 		if (result.isEmpty())
 			// no traces pass the condition, so this branch is unreachable
 			return bottom();
 
-		return new TracePartitioning<>(lattice, result);
+		return new TracePartitioning<>(lattice, bound(result), maxTraces, counters);
 	}
 
 	private static ExecutionTrace generateTraceFor(
@@ -232,7 +331,7 @@ public class TracePartitioning<A extends AbstractState<A>>
 		Map<ExecutionTrace, A> result = mkNewFunction(null, false);
 		for (Entry<ExecutionTrace, A> trace : this)
 			result.put(trace.getKey(), trace.getValue().forgetIdentifier(id));
-		return new TracePartitioning<>(lattice, result);
+		return new TracePartitioning<>(lattice, result, maxTraces, counters);
 	}
 
 	@Override
@@ -245,7 +344,7 @@ public class TracePartitioning<A extends AbstractState<A>>
 		Map<ExecutionTrace, A> result = mkNewFunction(null, false);
 		for (Entry<ExecutionTrace, A> trace : this)
 			result.put(trace.getKey(), trace.getValue().forgetIdentifiersIf(test));
-		return new TracePartitioning<>(lattice, result);
+		return new TracePartitioning<>(lattice, result, maxTraces, counters);
 	}
 
 	@Override
@@ -280,7 +379,7 @@ public class TracePartitioning<A extends AbstractState<A>>
 		Map<ExecutionTrace, A> result = mkNewFunction(null, false);
 		for (Entry<ExecutionTrace, A> trace : this)
 			result.put(trace.getKey(), trace.getValue().pushScope(token));
-		return new TracePartitioning<>(lattice, result);
+		return new TracePartitioning<>(lattice, result, maxTraces, counters);
 	}
 
 	@Override
@@ -293,7 +392,7 @@ public class TracePartitioning<A extends AbstractState<A>>
 		Map<ExecutionTrace, A> result = mkNewFunction(null, false);
 		for (Entry<ExecutionTrace, A> trace : this)
 			result.put(trace.getKey(), trace.getValue().popScope(token));
-		return new TracePartitioning<>(lattice, result);
+		return new TracePartitioning<>(lattice, result, maxTraces, counters);
 	}
 
 	@Override
@@ -314,7 +413,7 @@ public class TracePartitioning<A extends AbstractState<A>>
 	public TracePartitioning<A> mk(
 			A lattice,
 			Map<ExecutionTrace, A> function) {
-		return new TracePartitioning<>(lattice, function);
+		return new TracePartitioning<>(lattice, function, maxTraces, counters);
 	}
 
 	/**
@@ -442,7 +541,7 @@ public class TracePartitioning<A extends AbstractState<A>>
 		Map<ExecutionTrace, A> result = mkNewFunction(null, false);
 		for (Entry<ExecutionTrace, A> trace : this)
 			result.put(trace.getKey(), trace.getValue().withTopMemory());
-		return new TracePartitioning<>(lattice, result);
+		return new TracePartitioning<>(lattice, result, maxTraces, counters);
 	}
 
 	@Override
@@ -453,7 +552,7 @@ public class TracePartitioning<A extends AbstractState<A>>
 		Map<ExecutionTrace, A> result = mkNewFunction(null, false);
 		for (Entry<ExecutionTrace, A> trace : this)
 			result.put(trace.getKey(), trace.getValue().withTopValues());
-		return new TracePartitioning<>(lattice, result);
+		return new TracePartitioning<>(lattice, result, maxTraces, counters);
 	}
 
 	@Override
@@ -464,7 +563,7 @@ public class TracePartitioning<A extends AbstractState<A>>
 		Map<ExecutionTrace, A> result = mkNewFunction(null, false);
 		for (Entry<ExecutionTrace, A> trace : this)
 			result.put(trace.getKey(), trace.getValue().withTopTypes());
-		return new TracePartitioning<>(lattice, result);
+		return new TracePartitioning<>(lattice, result, maxTraces, counters);
 	}
 
 	@Override
@@ -525,4 +624,256 @@ public class TracePartitioning<A extends AbstractState<A>>
 		else
 			return AbstractState.super.split(expr, src, dest, oracle);
 	}
+
+	/**
+	 * Applies an operation to the state of each of the given traces, yielding
+	 * the results in the same order. If there are at least
+	 * {@link #PARALLEL_THRESHOLD} traces, states are processed in parallel.
+	 * 
+	 * @param traces    the traces to process
+	 * @param operation the operation to apply
+	 * 
+	 * @return the results of the operation, one for each trace
+	 * 
+	 * @throws SemanticException if the operation fails on one of the traces
+	 */
+	private List<A> evaluate(
+			List<Entry<ExecutionTrace, A>> traces,
+			TraceOperation<A> operation)
+			throws SemanticException {
+		List<A> results = new ArrayList<>(traces.size());
+		if (PARALLEL_THRESHOLD <= 0 || traces.size() < PARALLEL_THRESHOLD) {
+			for (Entry<ExecutionTrace, A> trace : traces)
+				results.add(operation.apply(trace.getValue()));
+			return results;
+		}
+
+		counters.parallelEvaluations.incrementAndGet();
+		Object[] states = new Object[traces.size()];
+		SemanticException[] errors = new SemanticException[traces.size()];
+		IntStream.range(0, traces.size()).parallel().forEach(i -> {
+			try {
+				states[i] = operation.apply(traces.get(i).getValue());
+			} catch (SemanticException e) {
+				errors[i] = e;
+			}
+		});
+
+		// errors are reported following the order of the traces, so that
+		// the outcome does not depend on the scheduling
+		for (int i = 0; i < states.length; i++) {
+			if (errors[i] != null)
+				throw errors[i];
+			@SuppressWarnings("unchecked")
+			A state = (A) states[i];
+			results.add(state);
+		}
+		return results;
+	}
+
+	/**
+	 * Bounds the number of traces in the given function to
+	 * {@link #maxTraces}, smashing the least informative ones (according to
+	 * {@link #LEAST_INFORMATIVE_FIRST}) into the empty trace. Since the states
+	 * of the smashed traces no longer belong to any of them, the empty trace
+	 * is used as a fixed target: this way, traces smashed at different
+	 * fixpoint iterations still end up in the same partition.
+	 * 
+	 * @param function the function to bound
+	 * 
+	 * @return the bounded function
+	 * 
+	 * @throws SemanticException if an error occurs while merging states
+	 */
+	private Map<ExecutionTrace, A> bound(
+			Map<ExecutionTrace, A> function)
+			throws SemanticException {
+		if (maxTraces <= 0 || function == null || function.size() <= maxTraces)
+			return function;
+
+		ExecutionTrace target = new ExecutionTrace();
+		Map<ExecutionTrace, A> result = mkNewFunction(function, false);
+		List<ExecutionTrace> ranked = new ArrayList<>(function.keySet());
+		A smashed;
+		int excess;
+		if (ranked.remove(target)) {
+			// the target is already one of the traces we keep
+			smashed = result.remove(target);
+			excess = function.size() - maxTraces;
+		} else {
+			smashed = lattice.bottom();
+			excess = function.size() - maxTraces + 1;
+		}
+
+		ranked.sort(LEAST_INFORMATIVE_FIRST);
+		for (ExecutionTrace trace : ranked.subList(0, excess))
+			smashed = smashed.lub(result.remove(trace));
+		result.put(target, smashed);
+		counters.budgetMerges.incrementAndGet();
+		return result;
+	}
+
+	private static int compareTokens(
+			ExecutionTrace first,
+			ExecutionTrace second) {
+		int len = Math.min(first.length(), second.length());
+		for (int i = 0; i < len; i++) {
+			int cmp = compareTokens(first.getToken(i), second.getToken(i));
+			if (cmp != 0)
+				return cmp;
+		}
+		return Integer.compare(first.length(), second.length());
+	}
+
+	/**
+	 * Compares two tokens on the location of their program points first, and
+	 * then on their kind: {@link LoopSummary} tokens come first, followed by
+	 * {@link LoopIteration} tokens (deeper iterations first) and then by
+	 * {@link Branching} tokens (false branches first).
+	 * 
+	 * @param first  the first token
+	 * @param second the second token
+	 * 
+	 * @return a negative integer, zero, or a positive integer as the first
+	 *             token comes before, together with, or after the second one
+	 */
+	private static int compareTokens(
+			TraceToken first,
+			TraceToken second) {
+		int cmp = first.getProgramPoint().getLocation().compareTo(second.getProgramPoint().getLocation());
+		if (cmp != 0)
+			return cmp;
+		cmp = Integer.compare(rank(first), rank(second));
+		if (cmp != 0)
+			return cmp;
+		if (first instanceof LoopIteration)
+			return Integer.compare(((LoopIteration) second).getIteration(), ((LoopIteration) first).getIteration());
+		if (first instanceof Branching)
+			return Boolean.compare(((Branching) first).isTrueBranch(), ((Branching) second).isTrueBranch());
+		return 0;
+	}
+
+	private static int rank(
+			TraceToken token) {
+		if (token instanceof LoopSummary)
+			return 0;
+		if (token instanceof LoopIteration)
+			return 1;
+		if (token instanceof Branching)
+			return 2;
+		return 3;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = super.hashCode();
+		result = prime * result + maxTraces;
+		return result;
+	}
+
+	@Override
+	public boolean equals(
+			Object obj) {
+		if (this == obj)
+			return true;
+		if (!super.equals(obj))
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		TracePartitioning<?> other = (TracePartitioning<?>) obj;
+		if (maxTraces != other.maxTraces)
+			return false;
+		return true;
+	}
+
+	/**
+	 * Yields the number of times that traces have been smashed together since
+	 * they reached {@link #MAX_LOOP_ITERATIONS} or {@link #MAX_CONDITIONS}, by
+	 * this instance and by all the ones derived from the same instance built
+	 * through a public constructor.
+	 * 
+	 * @return the number of merges due to trace limits
+	 */
+	public long getLimitMerges() {
+		return counters.limitMerges.get();
+	}
+
+	/**
+	 * Yields the number of times that traces have been smashed together since
+	 * their number exceeded the budget given at construction, by this
+	 * instance and by all the ones derived from the same instance built
+	 * through a public constructor.
+	 * 
+	 * @return the number of merges due to the trace budget
+	 */
+	public long getBudgetMerges() {
+		return counters.budgetMerges.get();
+	}
+
+	/**
+	 * Yields the number of times that the states of the traces have been
+	 * evaluated in parallel since their number reached
+	 * {@link #PARALLEL_THRESHOLD}, by this instance and by all the ones
+	 * derived from the same instance built through a public constructor.
+	 * 
+	 * @return the number of parallel evaluations
+	 */
+	public long getParallelEvaluations() {
+		return counters.parallelEvaluations.get();
+	}
+
+	/**
+	 * Resets the counters of the policies applied by this domain, that are
+	 * shared by all the instances derived from the same instance built through
+	 * a public constructor.
+	 */
+	public void resetCounters() {
+		counters.limitMerges.set(0);
+		counters.budgetMerges.set(0);
+		counters.parallelEvaluations.set(0);
+	}
+
+	/**
+	 * The counters of the policies applied by instances of this domain. Each
+	 * instance built through a public constructor (that is, each analysis)
+	 * owns a fresh set of counters, that is then shared with all the
+	 * instances derived from it, so that concurrent analyses do not mix their
+	 * statistics. Counters are not part of the state, and are thus ignored by
+	 * {@link TracePartitioning#equals(Object)}.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static class Counters {
+
+		private final AtomicLong limitMerges = new AtomicLong();
+
+		private final AtomicLong budgetMerges = new AtomicLong();
+
+		private final AtomicLong parallelEvaluations = new AtomicLong();
+	}
+
+	/**
+	 * An operation on the state of a single trace.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <A> the type of {@link AbstractState}
+	 */
+	@FunctionalInterface
+	private interface TraceOperation<A> {
+
+		/**
+		 * Applies this operation.
+		 * 
+		 * @param state the state of the trace
+		 * 
+		 * @return the resulting state
+		 * 
+		 * @throws SemanticException if an error occurs during the computation
+		 */
+		A apply(
+				A state)
+				throws SemanticException;
+	}
 }
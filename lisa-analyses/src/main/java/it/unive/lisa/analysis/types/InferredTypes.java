@@ -27,6 +27,7 @@ import it.unive.lisa.type.NullType;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.TypeSystem;
 import it.unive.lisa.type.TypeTokenType;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import it.unive.lisa.util.representation.SetRepresentation;
 import it.unive.lisa.util.representation.StringRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
@@ -38,7 +39,10 @@ import java.util.stream.Collectors;
 
 /**
  * An {@link InferredValue} holding a set of {@link Type}s, representing the
- * inferred runtime types of an {@link Expression}.
+ * inferred runtime types of an {@link Expression}. Whenever a {@link TypeSystem}
+ * is available, the types are stored in an {@link ExternalSet} backed by
+ * {@link TypeSystem#getTypeCache()}, so that lattice operations between
+ * elements built from the same type system are carried out on bitsets.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
@@ -82,7 +86,8 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 	public InferredTypes(
 			TypeSystem typeSystem,
 			Set<Type> types) {
-		this(typeSystem != null && types.equals(typeSystem.getTypes()), types);
+		this.elements = typeSystem == null ? types : typeSystem.mkTypeSet(types);
+		this.isTop = typeSystem != null && elements.equals(typeSystem.getTypeSet());
 	}
 
 	/**
@@ -100,11 +105,19 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 		this.isTop = isTop;
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * <br>
+	 * The returned set is an unmodifiable view of the types held by this
+	 * instance.
+	 */
 	@Override
 	public Set<Type> getRuntimeTypes() {
 		if (elements == null)
 			Collections.emptySet();
-		return elements;
+		if (elements instanceof ExternalSet)
+			return ((ExternalSet<Type>) elements).unmodifiableView();
+		return elements == null ? null : Collections.unmodifiableSet(elements);
 	}
 
 	@Override
@@ -154,7 +167,7 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 		if (!eval.isTop())
 			return eval;
 		TypeSystem types = pp.getProgram().getTypes();
-		return new InferredTypes(types, id.getStaticType().allInstances(types));
+		return new InferredTypes(types, types.getInstances(id.getStaticType()));
 	}
 
 	@Override
@@ -165,8 +178,8 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 			throws SemanticException {
 		TypeSystem types = pp.getProgram().getTypes();
 		if (pushAny.getStaticType().isUntyped())
-			return new InferredTypes(true, types.getTypes());
-		return new InferredTypes(types, pushAny.getStaticType().allInstances(types));
+			return new InferredTypes(true, types.getTypeSet());
+		return new InferredTypes(types, types.getInstances(pushAny.getStaticType()));
 	}
 
 	@Override
@@ -200,7 +213,7 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 			ProgramPoint pp,
 			SemanticOracle oracle) {
 		TypeSystem types = pp.getProgram().getTypes();
-		Set<Type> elems = arg.isTop() ? types.getTypes() : arg.elements;
+		Set<Type> elems = arg.isTop() ? types.getTypeSet() : arg.elements;
 		Set<Type> inferred = operator.typeInference(types, elems);
 		if (inferred.isEmpty())
 			return BOTTOM;
@@ -215,8 +228,8 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 			ProgramPoint pp,
 			SemanticOracle oracle) {
 		TypeSystem types = pp.getProgram().getTypes();
-		Set<Type> lelems = left.isTop() ? types.getTypes() : left.elements;
-		Set<Type> relems = right.isTop() ? types.getTypes() : right.elements;
+		Set<Type> lelems = left.isTop() ? types.getTypeSet() : left.elements;
+		Set<Type> relems = right.isTop() ? types.getTypeSet() : right.elements;
 		Set<Type> inferred = operator.typeInference(types, lelems, relems);
 		if (inferred.isEmpty())
 			return BOTTOM;
@@ -232,9 +245,9 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 			ProgramPoint pp,
 			SemanticOracle oracle) {
 		TypeSystem types = pp.getProgram().getTypes();
-		Set<Type> lelems = left.isTop() ? types.getTypes() : left.elements;
-		Set<Type> melems = middle.isTop() ? types.getTypes() : middle.elements;
-		Set<Type> relems = right.isTop() ? types.getTypes() : right.elements;
+		Set<Type> lelems = left.isTop() ? types.getTypeSet() : left.elements;
+		Set<Type> melems = middle.isTop() ? types.getTypeSet() : middle.elements;
+		Set<Type> relems = right.isTop() ? types.getTypeSet() : right.elements;
 		Set<Type> inferred = operator.typeInference(types, lelems, melems, relems);
 		if (inferred.isEmpty())
 			return BOTTOM;
@@ -249,8 +262,8 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 			ProgramPoint pp,
 			SemanticOracle oracle) {
 		TypeSystem types = pp.getProgram().getTypes();
-		Set<Type> lelems = left.isTop() ? types.getTypes() : left.elements;
-		Set<Type> relems = right.isTop() ? types.getTypes() : right.elements;
+		Set<Type> lelems = left.isTop() ? types.getTypeSet() : left.elements;
+		Set<Type> relems = right.isTop() ? types.getTypeSet() : right.elements;
 		if (operator == ComparisonEq.INSTANCE || operator == ComparisonNe.INSTANCE) {
 			Set<Type> lfiltered = lelems.stream().filter(Type::isTypeTokenType).collect(Collectors.toSet());
 			Set<Type> rfiltered = relems.stream().filter(Type::isTypeTokenType).collect(Collectors.toSet());
@@ -264,15 +277,14 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 				if (lelems.size() == 1 && lelems.equals(relems))
 					// only one element, and it is the same
 					return Satisfiability.SATISFIED;
-				else if (intersection(lelems, relems).isEmpty()
-						&& !typeTokensIntersect(lfiltered, rfiltered))
+				else if (!intersect(lelems, relems) && !typeTokensIntersect(lfiltered, rfiltered))
 					// no common elements, they cannot be equal
 					return Satisfiability.NOT_SATISFIED;
 				else
 					// we don't know really
 					return Satisfiability.UNKNOWN;
 			} else {
-				if (intersection(lelems, relems).isEmpty() && !typeTokensIntersect(lfiltered, rfiltered))
+				if (!intersect(lelems, relems) && !typeTokensIntersect(lfiltered, rfiltered))
 					// no common elements, they cannot be equal
 					return Satisfiability.SATISFIED;
 				else if (lelems.size() == 1 && lelems.equals(relems))
@@ -301,6 +313,28 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 		return Satisfiability.UNKNOWN;
 	}
 
+	/**
+	 * Checks whether or not the two given sets of types have at least one
+	 * element in common, using bitwise operations if both are
+	 * {@link ExternalSet}s built from the same cache.
+	 */
+	private static boolean intersect(
+			Set<Type> left,
+			Set<Type> right) {
+		if (sameCache(left, right))
+			// intersects yields true if the two sets are the same instance,
+			// even if empty
+			return !left.isEmpty() && ((ExternalSet<Type>) left).intersects((ExternalSet<Type>) right);
+		return !intersection(left, right).isEmpty();
+	}
+
+	private static boolean sameCache(
+			Set<Type> left,
+			Set<Type> right) {
+		return left instanceof ExternalSet && right instanceof ExternalSet
+				&& ((ExternalSet<Type>) left).getCache() == ((ExternalSet<Type>) right).getCache();
+	}
+
 	/**
 	 * Checks whether or not the two given set of type tokens intersects,
 	 * meaning that there exists at least one type token {@code t1} from
@@ -336,6 +370,9 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 	public InferredTypes lubAux(
 			InferredTypes other)
 			throws SemanticException {
+		if (sameCache(elements, other.elements))
+			return new InferredTypes(null, ((ExternalSet<Type>) elements).union((ExternalSet<Type>) other.elements));
+
 		Set<Type> lub = new HashSet<>(elements);
 		lub.addAll(other.elements);
 		return new InferredTypes(null, lub);
@@ -345,6 +382,8 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 	public boolean lessOrEqualAux(
 			InferredTypes other)
 			throws SemanticException {
+		if (sameCache(elements, other.elements))
+			return ((ExternalSet<Type>) other.elements).contains((ExternalSet<Type>) elements);
 		return other.elements.containsAll(elements);
 	}
 
@@ -352,7 +391,13 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((elements == null) ? 0 : elements.hashCode());
+		// the hash of sets is the sum of the hashes of their elements, but
+		// external sets do not follow this contract
+		int hash = 0;
+		if (elements != null)
+			for (Type t : elements)
+				hash += t.hashCode();
+		result = prime * result + hash;
 		result = prime * result + (isTop ? 1231 : 1237);
 		return result;
 	}
@@ -385,8 +430,8 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 			ProgramPoint pp,
 			SemanticOracle oracle) {
 		TypeSystem types = pp.getProgram().getTypes();
-		Set<Type> lelems = left.isTop() ? types.getTypes() : left.elements;
-		Set<Type> relems = right.isTop() ? types.getTypes() : right.elements;
+		Set<Type> lelems = left.isTop() ? types.getTypeSet() : left.elements;
+		Set<Type> relems = right.isTop() ? types.getTypeSet() : right.elements;
 		Set<Type> inferred = cast.getOperator().typeInference(types, lelems, relems);
 		if (inferred.isEmpty())
 			return BOTTOM;
@@ -401,8 +446,8 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 			ProgramPoint pp,
 			SemanticOracle oracle) {
 		TypeSystem types = pp.getProgram().getTypes();
-		Set<Type> lelems = left.isTop() ? types.getTypes() : left.elements;
-		Set<Type> relems = right.isTop() ? types.getTypes() : right.elements;
+		Set<Type> lelems = left.isTop() ? types.getTypeSet() : left.elements;
+		Set<Type> relems = right.isTop() ? types.getTypeSet() : right.elements;
 		Set<Type> inferred = conv.getOperator().typeInference(types, lelems, relems);
 		if (inferred.isEmpty())
 			return BOTTOM;
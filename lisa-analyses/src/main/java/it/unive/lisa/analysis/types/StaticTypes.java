@@ -67,7 +67,7 @@ public class StaticTypes implements BaseNonRelationalTypeDomain<StaticTypes> {
 	public Set<Type> getRuntimeTypes() {
 		if (this.isBottom())
 			Collections.emptySet();
-		return type.allInstances(types);
+		return types == null ? type.allInstances(types) : types.getInstances(type);
 	}
 
 	@Override
@@ -159,8 +159,8 @@ public class StaticTypes implements BaseNonRelationalTypeDomain<StaticTypes> {
 				} catch (ClassCastException e) {
 					throw new SemanticException(expression + " is not a value expression");
 				}
-				Set<Type> lelems = left.type.allInstances(types);
-				Set<Type> relems = right.type.allInstances(types);
+				Set<Type> lelems = types.getInstances(left.type);
+				Set<Type> relems = types.getInstances(right.type);
 				Set<Type> inferred = binary.getOperator().typeInference(types, lelems, relems);
 				if (inferred.isEmpty())
 					return BOTTOM;
@@ -180,8 +180,8 @@ public class StaticTypes implements BaseNonRelationalTypeDomain<StaticTypes> {
 			SemanticOracle oracle)
 			throws SemanticException {
 		TypeSystem types = pp.getProgram().getTypes();
-		Set<Type> lelems = left.type.allInstances(types);
-		Set<Type> relems = right.type.allInstances(types);
+		Set<Type> lelems = types.getInstances(left.type);
+		Set<Type> relems = types.getInstances(right.type);
 		return new InferredTypes().satisfiesBinaryExpression(operator, new InferredTypes(types, lelems),
 				new InferredTypes(types, relems), pp, oracle);
 	}
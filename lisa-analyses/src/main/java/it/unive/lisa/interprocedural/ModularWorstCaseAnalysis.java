@@ -26,14 +26,22 @@ import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.util.collections.workset.WorkingSet;
 import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
  * A worst case modular analysis were all cfg calls are treated as open calls.
+ * Since each cfg is analyzed in isolation, fixpoints can be computed in
+ * parallel by setting
+ * {@link it.unive.lisa.conf.LiSAConfiguration#analysisThreads} to a value
+ * greater than one: results do not depend on the number of threads.
  * 
  * @param <A> the {@link AbstractState} of the analysis
  */
@@ -84,33 +92,85 @@ public class ModularWorstCaseAnalysis<A extends AbstractState<A>> implements Int
 						.compareTo(c2.getDescriptor().getLocation()));
 		all.addAll(app.getAllCFGs());
 
-		for (CFG cfg : IterationLogger.iterate(LOG, all, "Computing fixpoint over the whole program",
-				"cfgs"))
-			try {
-				AnalysisState<A> st = entryState.bottom();
-				StatementStore<A> store = new StatementStore<>(st);
-
-				if (results == null) {
-					AnalyzedCFG<A> graph = conf.optimize
-							? new OptimizedAnalyzedCFG<>(cfg, ID, st, this)
-							: new AnalyzedCFG<>(cfg, ID, entryState);
-					CFGResults<A> value = new CFGResults<>(graph);
-					this.results = new FixpointResults<>(value.top());
-				}
-
-				AnalysisState<A> prepared = entryState;
-				for (Parameter arg : cfg.getDescriptor().getFormals()) {
-					CodeLocation loc = arg.getLocation();
-					Assignment a = new Assignment(cfg, loc,
-							new VariableRef(cfg, loc, arg.getName()),
-							arg.getStaticType().unknownValue(cfg, loc));
-					prepared = a.forwardSemantics(prepared, this, store);
-				}
-
-				results.putResult(cfg, ID, cfg.fixpoint(prepared, this, WorkingSet.of(fixpointWorkingSet), conf, ID));
-			} catch (SemanticException e) {
-				throw new FixpointException("Error while creating the entrystate for " + cfg, e);
+		if (all.isEmpty())
+			return;
+
+		initResults(entryState, conf, all.iterator().next());
+		if (conf.analysisThreads > 1 && all.size() > 1)
+			analyzeInParallel(entryState, fixpointWorkingSet, conf, all);
+		else
+			for (CFG cfg : IterationLogger.iterate(LOG, all, "Computing fixpoint over the whole program",
+					"cfgs"))
+				analyze(cfg, entryState, fixpointWorkingSet, conf);
+	}
+
+	private void initResults(
+			AnalysisState<A> entryState,
+			FixpointConfiguration conf,
+			CFG cfg) {
+		AnalysisState<A> st = entryState.bottom();
+		AnalyzedCFG<A> graph = conf.optimize
+				? new OptimizedAnalyzedCFG<>(cfg, ID, st, this)
+				: new AnalyzedCFG<>(cfg, ID, entryState);
+		CFGResults<A> value = new CFGResults<>(graph);
+		this.results = new FixpointResults<>(value.top());
+	}
+
+	private void analyzeInParallel(
+			AnalysisState<A> entryState,
+			Class<? extends WorkingSet<Statement>> fixpointWorkingSet,
+			FixpointConfiguration conf,
+			Collection<CFG> all)
+			throws FixpointException {
+		int threads = Math.min(conf.analysisThreads, all.size());
+		LOG.info("Computing fixpoint over the whole program ({} cfgs) using {} threads", all.size(), threads);
+
+		List<ForkJoinTask<FixpointException>> tasks = new ArrayList<>(all.size());
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			for (CFG cfg : all)
+				tasks.add(pool.submit(() -> {
+					try {
+						analyze(cfg, entryState, fixpointWorkingSet, conf);
+						return null;
+					} catch (FixpointException e) {
+						return e;
+					}
+				}));
+
+			// errors are reported following the order of the cfgs, so that
+			// the outcome does not depend on the scheduling
+			for (ForkJoinTask<FixpointException> task : tasks) {
+				FixpointException e = task.join();
+				if (e != null)
+					throw e;
 			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private void analyze(
+			CFG cfg,
+			AnalysisState<A> entryState,
+			Class<? extends WorkingSet<Statement>> fixpointWorkingSet,
+			FixpointConfiguration conf)
+			throws FixpointException {
+		try {
+			StatementStore<A> store = new StatementStore<>(entryState.bottom());
+			AnalysisState<A> prepared = entryState;
+			for (Parameter arg : cfg.getDescriptor().getFormals()) {
+				CodeLocation loc = arg.getLocation();
+				Assignment a = new Assignment(cfg, loc,
+						new VariableRef(cfg, loc, arg.getName()),
+						arg.getStaticType().unknownValue(cfg, loc));
+				prepared = a.forwardSemantics(prepared, this, store);
+			}
+
+			results.putResult(cfg, ID, cfg.fixpoint(prepared, this, WorkingSet.of(fixpointWorkingSet), conf, ID));
+		} catch (SemanticException e) {
+			throw new FixpointException("Error while creating the entrystate for " + cfg, e);
+		}
 	}
 
 	@Override
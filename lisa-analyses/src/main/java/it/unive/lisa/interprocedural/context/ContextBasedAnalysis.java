@@ -10,6 +10,11 @@ import it.unive.lisa.analysis.ScopeToken;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.StatementStore;
 import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.symbols.Aliases;
+import it.unive.lisa.analysis.symbols.NameSymbol;
+import it.unive.lisa.analysis.symbols.QualifiedNameSymbol;
+import it.unive.lisa.analysis.symbols.Symbol;
+import it.unive.lisa.analysis.symbols.SymbolAliasing;
 import it.unive.lisa.conf.FixpointConfiguration;
 import it.unive.lisa.interprocedural.CFGResults;
 import it.unive.lisa.interprocedural.CallGraphBasedAnalysis;
@@ -18,6 +23,7 @@ import it.unive.lisa.interprocedural.InterproceduralAnalysisException;
 import it.unive.lisa.interprocedural.NoEntryPointException;
 import it.unive.lisa.interprocedural.OpenCallPolicy;
 import it.unive.lisa.interprocedural.ScopeId;
+import it.unive.lisa.interprocedural.SummaryStore;
 import it.unive.lisa.interprocedural.callgraph.CallGraph;
 import it.unive.lisa.interprocedural.context.recursion.Recursion;
 import it.unive.lisa.interprocedural.context.recursion.RecursionSolver;
@@ -26,23 +32,35 @@ import it.unive.lisa.program.Application;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CodeMember;
 import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.fixpoints.CFGFixpoint.CompoundState;
 import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.call.CFGCall;
 import it.unive.lisa.program.cfg.statement.call.Call;
+import it.unive.lisa.program.cfg.statement.call.ResolvedCall;
+import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
 import it.unive.lisa.program.language.parameterassignment.ParameterAssigningStrategy;
 import it.unive.lisa.util.StringUtilities;
+import it.unive.lisa.util.collections.workset.VisitOnceFIFOWorkingSet;
+import it.unive.lisa.util.collections.workset.VisitOnceWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
+import it.unive.lisa.util.datastructures.graph.GraphVisitor;
 import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
@@ -56,7 +74,7 @@ import org.apache.logging.log4j.Logger;
  * 
  * @param <A> the {@link AbstractState} of the analysis
  */
-public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphBasedAnalysis<A> {
+public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphBasedAnalysis<A> implements Cloneable {
 
 	private static final Logger LOG = LogManager.getLogger(ContextBasedAnalysis.class);
 
@@ -65,7 +83,7 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 	 * current one, as their approximation for at least one context changed
 	 * during the iteration.
 	 */
-	private final Collection<CodeMember> triggers;
+	private Collection<CodeMember> triggers;
 
 	/**
 	 * Whether or not a new recursion has been discovered in the latest fixpoint
@@ -93,6 +111,31 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 	 */
 	protected FixpointConfiguration conf;
 
+	/**
+	 * The store holding the summaries of previous analyses that can be reused
+	 * in the current fixpoint iteration, or {@code null} if summaries cannot
+	 * be reused.
+	 */
+	private SummaryStore summaries;
+
+	/**
+	 * The cfgs whose results have been taken from {@link #summaries}.
+	 */
+	private Set<CFG> reused;
+
+	/**
+	 * The cfgs that can be reached from the entrypoints processed by this
+	 * analysis, if this is a worker of a parallel iteration, or {@code null}
+	 * otherwise.
+	 */
+	private Set<CFG> reachable;
+
+	/**
+	 * Whether or not this worker met a call resolved to a cfg outside of
+	 * {@link #reachable}.
+	 */
+	private boolean escaped;
+
 	/**
 	 * Builds the analysis, using {@link LastCallToken}s.
 	 */
@@ -126,6 +169,8 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 		this.triggers = other.triggers;
 		this.workingSet = other.workingSet;
 		this.pendingRecursions = false;
+		this.summaries = other.summaries;
+		this.reused = other.reused;
 	}
 
 	@Override
@@ -140,6 +185,8 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 		this.token = token.startingId();
 		this.workingSet = null;
 		this.pendingRecursions = false;
+		this.summaries = null;
+		this.reused = null;
 		this.triggers.clear();
 	}
 
@@ -153,6 +200,8 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 		this.conf = conf;
 		// new fixpoint execution: reset
 		this.results = null;
+		this.summaries = conf.getSummaryStore();
+		this.reused = ConcurrentHashMap.newKeySet();
 
 		if (app.getEntryPoints().isEmpty())
 			throw new NoEntryPointException();
@@ -166,12 +215,33 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 						c2) -> c1.getDescriptor().getLocation().compareTo(c2.getDescriptor().getLocation()));
 		entryPoints.addAll(app.getEntryPoints());
 
+		List<EntrypointGroup> groups = conf.analysisThreads > 1 ? partitionEntrypoints(entryState, entryPoints) : null;
+		if (groups != null) {
+			LOG.info("Entrypoints partitioned into {} independent groups", groups.size());
+			if (groups.size() == 1)
+				groups = null;
+		}
+
 		do {
 			LOG.info("Performing {} fixpoint iteration", StringUtilities.ordinal(iter + 1));
 			triggers.clear();
 			pendingRecursions = false;
 
-			processEntrypoints(entryState, empty, entryPoints);
+			if (groups == null)
+				processEntrypoints(entryState, empty, entryPoints);
+			else if (!processEntrypointsInParallel(entryState, empty, groups)) {
+				// the results depend on how the workers have been scheduled:
+				// they are discarded, and the analysis starts over
+				LOG.warn("Calls resolved outside of the independent groups of entrypoints (e.g., through"
+						+ " symbol aliasing): restarting the analysis sequentially");
+				groups = null;
+				results = null;
+				summaries = conf.getSummaryStore();
+				reused.clear();
+				triggers.clear();
+				pendingRecursions = false;
+				processEntrypoints(entryState, empty, entryPoints);
+			}
 
 			if (pendingRecursions) {
 				Set<Recursion<A>> recursions = new HashSet<>();
@@ -189,8 +259,74 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 			toRemove.removeAll(triggers);
 			toRemove.stream().filter(CFG.class::isInstance).map(CFG.class::cast).forEach(results::forget);
 
+			// summaries are fixpoints of the previous analysis: they can be
+			// reused only before results start to be recomputed
+			summaries = null;
 			iter++;
 		} while (!triggers.isEmpty());
+
+		if (conf.getSummaryStore() != null && !reused.isEmpty())
+			restoreSummarizedCallees(conf.getSummaryStore(), entryState);
+	}
+
+	/**
+	 * Yields the result of a previous analysis of the given cfg in the given
+	 * context, if it is available among the {@link #summaries} and if it has
+	 * been computed starting from an over-approximation of the given entry
+	 * state. If so, the result is also stored among the ones of this analysis.
+	 * 
+	 * @param cfg        the cfg
+	 * @param token      the context
+	 * @param entryState the entry state
+	 * 
+	 * @return the result, or {@code null} if no reusable result exists
+	 * 
+	 * @throws SemanticException if an exception happens while comparing the
+	 *                               entry states or storing the result
+	 */
+	private AnalyzedCFG<A> reuseSummary(
+			CFG cfg,
+			ContextSensitivityToken token,
+			AnalysisState<A> entryState)
+			throws SemanticException {
+		if (summaries == null || !canShortcut(cfg))
+			return null;
+
+		AnalyzedCFG<A> previous = summaries.getSummary(cfg, token, entryState, this);
+		if (previous == null || !entryState.lessOrEqual(previous.getEntryState()))
+			return null;
+
+		results.putResult(cfg, token, previous);
+		reused.add(cfg);
+		return previous;
+	}
+
+	/**
+	 * Stores the summaries of the callees of the cfgs whose results have been
+	 * reused among the results of this analysis, as their fixpoints have not
+	 * been computed.
+	 * 
+	 * @param store     the store holding the summaries
+	 * @param singleton an instance of the {@link AnalysisState} of the
+	 *                      analysis
+	 */
+	private void restoreSummarizedCallees(
+			SummaryStore store,
+			AnalysisState<A> singleton) {
+		Set<CFG> callees = new HashSet<>();
+		for (CFG cfg : reused)
+			callees.addAll(store.getSummarizedCalleesTransitively(cfg));
+
+		try {
+			for (CFG callee : callees) {
+				CFGResults<A> local = results.get(callee);
+				for (AnalyzedCFG<A> res : store.getSummaries(callee, singleton, this))
+					if (local == null || !local.contains(res.getId()))
+						results.putResult(callee, res.getId(), res);
+			}
+		} catch (SemanticException e) {
+			throw new AnalysisExecutionException("Unable to restore the results of summarized cfgs", e);
+		}
 	}
 
 	private void solveRecursions(
@@ -267,24 +403,237 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 		}
 	}
 
+	private void initResults(
+			AnalysisState<A> entryState,
+			ContextSensitivityToken empty,
+			CFG cfg) {
+		AnalyzedCFG<A> graph = conf.optimize
+				? new OptimizedAnalyzedCFG<>(cfg, empty, entryState.bottom(), this)
+				: new AnalyzedCFG<>(cfg, empty, entryState);
+		CFGResults<A> value = new CFGResults<>(graph);
+		this.results = new FixpointResults<>(value.top());
+	}
+
+	/**
+	 * Partitions the given entrypoints into groups that can be analyzed
+	 * independently, that is, such that no {@link CFG} can be reached through
+	 * calls from entrypoints of different groups. Reachability is computed
+	 * syntactically, considering each {@link UnresolvedCall} as a call to all
+	 * {@link CFG}s with the same name as its target, or whose name is aliased
+	 * to it by the {@link SymbolAliasing} of the entry state: calls whose
+	 * target name does not match any {@link CFG} are open calls, and do not
+	 * reach any code. Calls whose targets cannot be determined syntactically
+	 * are instead assumed to reach every {@link CFG} of the application,
+	 * forcing their entrypoint into the same group of all the others. Since
+	 * the groups do not share any {@link CFG}, analyzing them concurrently
+	 * yields the same results of analyzing the entrypoints sequentially.
+	 * Aliases introduced during the analysis cannot be known in advance:
+	 * workers detect calls resolved outside of their group, and the analysis
+	 * is then restarted sequentially. Entrypoints keep their relative order
+	 * inside each group.
+	 * 
+	 * @param entryState  the entry state of the analysis
+	 * @param entryPoints the entrypoints, in the order they are analyzed
+	 * 
+	 * @return the groups of entrypoints
+	 */
+	private List<EntrypointGroup> partitionEntrypoints(
+			AnalysisState<A> entryState,
+			Collection<CFG> entryPoints) {
+		Map<String, Collection<CodeMember>> byName = new HashMap<>();
+		for (CodeMember cm : app.getAllCodeCodeMembers())
+			byName.computeIfAbsent(cm.getDescriptor().getName(), n -> new HashSet<>()).add(cm);
+
+		SymbolAliasing aliasing = entryState.getInfo(SymbolAliasing.INFO_KEY, SymbolAliasing.class);
+		if (aliasing != null) {
+			// calls using an alias can reach the members with the aliased name
+			Map<String, Collection<CodeMember>> aliased = new HashMap<>();
+			for (Entry<Symbol, Aliases> entry : aliasing) {
+				Collection<CodeMember> members = byName.get(nameOf(entry.getKey()));
+				if (members != null)
+					for (Symbol alias : entry.getValue()) {
+						String name = nameOf(alias);
+						if (name != null)
+							aliased.computeIfAbsent(name, n -> new HashSet<>()).addAll(members);
+					}
+			}
+			aliased.forEach((name, members) -> byName.computeIfAbsent(name, n -> new HashSet<>()).addAll(members));
+		}
+
+		List<CFG> entries = new ArrayList<>(entryPoints);
+		List<Collection<CFG>> reachable = new ArrayList<>(entries.size());
+		int[] parent = new int[entries.size()];
+		Map<CFG, Integer> owners = new HashMap<>();
+		for (int i = 0; i < entries.size(); i++) {
+			parent[i] = i;
+			reachable.add(syntacticallyReachable(entries.get(i), byName, app.getAllCFGs()));
+			for (CFG cfg : reachable.get(i)) {
+				Integer other = owners.putIfAbsent(cfg, i);
+				if (other != null)
+					parent[find(parent, i)] = find(parent, other);
+			}
+		}
+
+		Map<Integer, EntrypointGroup> groups = new LinkedHashMap<>();
+		for (int i = 0; i < entries.size(); i++) {
+			EntrypointGroup group = groups.computeIfAbsent(find(parent, i), r -> new EntrypointGroup());
+			group.entrypoints.add(entries.get(i));
+			group.reachable.addAll(reachable.get(i));
+		}
+		return new ArrayList<>(groups.values());
+	}
+
+	private static String nameOf(
+			Symbol symbol) {
+		if (symbol instanceof NameSymbol)
+			return ((NameSymbol) symbol).getName();
+		if (symbol instanceof QualifiedNameSymbol)
+			return ((QualifiedNameSymbol) symbol).getName();
+		// qualifier aliases do not change the name
+		return null;
+	}
+
+	private static int find(
+			int[] parent,
+			int i) {
+		while (parent[i] != i)
+			i = parent[i] = parent[parent[i]];
+		return i;
+	}
+
+	private static Collection<CFG> syntacticallyReachable(
+			CFG entry,
+			Map<String, Collection<CodeMember>> byName,
+			Collection<CFG> all) {
+		Collection<Call> calls = new ArrayList<>();
+		GraphVisitor<CFG, Statement, Edge, Collection<Call>> collector = new GraphVisitor<>() {
+
+			@Override
+			public boolean visit(
+					Collection<Call> tool,
+					CFG graph,
+					Statement node) {
+				if (node instanceof Call)
+					tool.add((Call) node);
+				return true;
+			}
+		};
+
+		VisitOnceWorkingSet<CFG> ws = VisitOnceFIFOWorkingSet.mk();
+		ws.push(entry);
+		while (!ws.isEmpty()) {
+			CFG current = ws.pop();
+			calls.clear();
+			for (Statement node : current.getNodes())
+				node.accept(collector, calls);
+
+			for (Call call : calls) {
+				Collection<CodeMember> targets;
+				if (call instanceof UnresolvedCall)
+					// no member with that name: this is an open call
+					targets = byName.getOrDefault(((UnresolvedCall) call).getTargetName(),
+							Collections.emptySet());
+				else if (call instanceof ResolvedCall)
+					targets = ((ResolvedCall) call).getTargets();
+				else
+					// unknown targets: they might be resolved to any member
+					return all;
+
+				for (CodeMember target : targets)
+					if (target instanceof CFG)
+						ws.push((CFG) target);
+			}
+		}
+
+		return ws.getSeen();
+	}
+
+	/**
+	 * Yields a worker that processes a group of entrypoints independently from
+	 * the other groups. Workers are shallow copies of this analysis: they are
+	 * instances of the same class, so that every hook overridden by subclasses
+	 * is honored on worker threads as well, and they share the results, the
+	 * configuration and the call graph of this analysis. Only the context
+	 * token, the triggers and the pending recursions are private to each
+	 * worker.
+	 * 
+	 * @param group the group processed by the worker
+	 * 
+	 * @return the worker
+	 */
+	@SuppressWarnings("unchecked")
+	private ContextBasedAnalysis<A> fork(
+			EntrypointGroup group) {
+		ContextBasedAnalysis<A> worker;
+		try {
+			worker = (ContextBasedAnalysis<A>) clone();
+		} catch (CloneNotSupportedException e) {
+			// cannot happen, as this class is cloneable
+			throw new AnalysisExecutionException("Unable to create a worker for " + getClass().getName(), e);
+		}
+		worker.triggers = new HashSet<>();
+		worker.pendingRecursions = false;
+		worker.reachable = group.reachable;
+		worker.escaped = false;
+		return worker;
+	}
+
+	/**
+	 * Processes the given groups of entrypoints concurrently.
+	 * 
+	 * @return {@code false} if a worker met a call resolved outside of its
+	 *             group, meaning that the results might depend on the
+	 *             scheduling of the workers
+	 */
+	private boolean processEntrypointsInParallel(
+			AnalysisState<A> entryState,
+			ContextSensitivityToken empty,
+			List<EntrypointGroup> groups) {
+		if (results == null)
+			initResults(entryState, empty, groups.iterator().next().entrypoints.iterator().next());
+
+		List<ContextBasedAnalysis<A>> workers = new ArrayList<>(groups.size());
+		for (EntrypointGroup group : groups)
+			workers.add(fork(group));
+
+		ForkJoinPool pool = new ForkJoinPool(Math.min(conf.analysisThreads, groups.size()));
+		try {
+			List<ForkJoinTask<?>> tasks = new ArrayList<>(groups.size());
+			for (int i = 0; i < groups.size(); i++) {
+				ContextBasedAnalysis<A> worker = workers.get(i);
+				List<CFG> group = groups.get(i).entrypoints;
+				tasks.add(pool.submit(() -> worker.processEntrypoints(entryState, empty, group)));
+			}
+			// join rethrows the exceptions raised by the tasks
+			tasks.forEach(ForkJoinTask::join);
+		} finally {
+			pool.shutdown();
+		}
+
+		// workers are merged in the same order of the groups, for determinism
+		for (ContextBasedAnalysis<A> worker : workers) {
+			if (worker.escaped)
+				return false;
+			triggers.addAll(worker.triggers);
+			pendingRecursions |= worker.pendingRecursions;
+		}
+		return true;
+	}
+
 	private void processEntrypoints(
 			AnalysisState<A> entryState,
 			ContextSensitivityToken empty,
 			Collection<CFG> entryPoints) {
 		for (CFG cfg : IterationLogger.iterate(LOG, entryPoints, "Processing entrypoints", "entries"))
 			try {
-				if (results == null) {
-					AnalyzedCFG<A> graph = conf.optimize
-							? new OptimizedAnalyzedCFG<>(cfg, empty, entryState.bottom(), this)
-							: new AnalyzedCFG<>(cfg, empty, entryState);
-					CFGResults<A> value = new CFGResults<>(graph);
-					this.results = new FixpointResults<>(value.top());
-				}
+				if (results == null)
+					initResults(entryState, empty, cfg);
 
 				token = empty;
 				AnalysisState<A> entryStateCFG = prepareEntryStateOfEntryPoint(entryState, cfg);
-				results.putResult(cfg, empty,
-						cfg.fixpoint(entryStateCFG, this, WorkingSet.of(workingSet), conf, empty));
+				if (reuseSummary(cfg, empty, entryStateCFG) == null)
+					results.putResult(cfg, empty,
+							cfg.fixpoint(entryStateCFG, this, WorkingSet.of(workingSet), conf, empty));
 			} catch (SemanticException e) {
 				throw new AnalysisExecutionException("Error while creating the entrystate for " + cfg, e);
 			} catch (FixpointException e) {
@@ -412,10 +761,17 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 			ExpressionSet[] parameters,
 			StatementStore<A> expressions)
 			throws SemanticException {
+		if (reachable != null && !reachable.containsAll(call.getTargetedCFGs())) {
+			// other workers might be processing the targets: the whole
+			// iteration will be discarded, so there is no need to go further
+			escaped = true;
+			return entryState.bottom();
+		}
+
 		callgraph.registerCall(call);
 
 		if (shouldCheckForRecursions() && (call.getTargetedCFGs().stream().anyMatch(call.getCFG()::equals)
-				|| callgraph.getCalleesTransitively(call.getTargets()).contains(call.getCFG()))) {
+				|| call.getTargets().stream().anyMatch(target -> callgraph.isReachable(target, call.getCFG())))) {
 			// this calls introduces a loop in the call graph -> recursion
 			// we need a special fixpoint to compute its result
 			// we compute that at the end of each fixpoint iteration
@@ -449,9 +805,14 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 					expressions,
 					scope,
 					cfg);
+			if (states == null && shouldStoreFixpointResults())
+				// the result might have been computed by a previous analysis
+				states = reuseSummary(cfg, token, prepared.getLeft());
 
 			AnalysisState<A> exitState;
-			if (canShortcut(cfg) && states != null && prepared.getLeft().lessOrEqual(states.getEntryState()))
+			boolean reused = canShortcut(cfg) && states != null
+					&& prepared.getLeft().lessOrEqual(states.getEntryState());
+			if (reused)
 				// no need to compute the fixpoint: we already have an
 				// (over-)approximation of the result computed starting from
 				// an over-approximation of the entry state
@@ -468,6 +829,9 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 				exitState = fixpointResult.getExitState();
 			}
 
+			if (conf.getListener() != null)
+				conf.getListener().callResolved(call, cfg, token, reused);
+
 			// save the resulting state
 			result = result.lub(unscope(call, scope, exitState));
 		}
@@ -475,4 +839,17 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 		token = callerToken;
 		return result;
 	}
+
+	/**
+	 * A group of entrypoints that can be analyzed independently from the
+	 * other groups, together with the cfgs reachable from them.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static class EntrypointGroup {
+
+		private final List<CFG> entrypoints = new ArrayList<>();
+
+		private final Set<CFG> reachable = new HashSet<>();
+	}
 }
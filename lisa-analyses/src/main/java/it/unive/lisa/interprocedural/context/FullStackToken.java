@@ -91,6 +91,11 @@ public class FullStackToken implements ContextSensitivityToken {
 		return calls.isEmpty();
 	}
 
+	@Override
+	public List<CFGCall> getCallStack() {
+		return Collections.unmodifiableList(calls);
+	}
+
 	@Override
 	public ContextSensitivityToken push(
 			CFGCall c) {
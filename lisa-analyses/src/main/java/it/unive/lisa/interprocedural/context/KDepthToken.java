@@ -108,6 +108,11 @@ public class KDepthToken implements ContextSensitivityToken {
 		return calls.isEmpty();
 	}
 
+	@Override
+	public List<CFGCall> getCallStack() {
+		return Collections.unmodifiableList(calls);
+	}
+
 	@Override
 	public ContextSensitivityToken push(
 			CFGCall c) {
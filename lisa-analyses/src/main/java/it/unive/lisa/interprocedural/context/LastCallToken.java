@@ -2,6 +2,8 @@ package it.unive.lisa.interprocedural.context;
 
 import it.unive.lisa.analysis.ScopeToken;
 import it.unive.lisa.program.cfg.statement.call.CFGCall;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A context sensitive token representing a single {@link ScopeToken}. The token
@@ -76,6 +78,11 @@ public class LastCallToken implements ContextSensitivityToken {
 		return call == null;
 	}
 
+	@Override
+	public List<CFGCall> getCallStack() {
+		return call == null ? Collections.emptyList() : Collections.singletonList(call);
+	}
+
 	@Override
 	public ContextSensitivityToken push(
 			CFGCall c) {
@@ -25,6 +25,7 @@ import it.unive.lisa.analysis.string.fsa.StringSymbol;
 import it.unive.lisa.analysis.string.tarsis.RegexAutomaton;
 import it.unive.lisa.analysis.symbols.Symbol;
 import it.unive.lisa.analysis.traces.ExecutionTrace;
+import it.unive.lisa.analysis.traces.TracePartitioning;
 import it.unive.lisa.analysis.traces.TraceToken;
 import it.unive.lisa.analysis.types.StaticTypes;
 import it.unive.lisa.conf.FixpointConfiguration;
@@ -33,6 +34,7 @@ import it.unive.lisa.imp.IMPFeatures;
 import it.unive.lisa.imp.types.IMPTypeSystem;
 import it.unive.lisa.interprocedural.CFGResults;
 import it.unive.lisa.interprocedural.FixpointResults;
+import it.unive.lisa.interprocedural.SummaryStore;
 import it.unive.lisa.interprocedural.callgraph.CallGraphEdge;
 import it.unive.lisa.interprocedural.callgraph.CallGraphNode;
 import it.unive.lisa.interprocedural.context.ContextInsensitiveToken;
@@ -89,9 +91,12 @@ import it.unive.lisa.type.Type;
 import it.unive.lisa.type.TypeTokenType;
 import it.unive.lisa.type.Untyped;
 import it.unive.lisa.util.collections.IterableArray;
+import it.unive.lisa.util.collections.PersistentHashMap;
 import it.unive.lisa.util.collections.externalSet.BitExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
 import it.unive.lisa.util.collections.externalSet.UniversalExternalSet;
+import it.unive.lisa.util.collections.externalSet.UnmodifiableExternalSet;
 import it.unive.lisa.util.collections.workset.ConcurrentFIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.ConcurrentLIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.DuplicateFreeFIFOWorkingSet;
@@ -212,6 +217,10 @@ public class EqualityContractVerificationTest {
 					// equality, but we fix the hashcode as it is still used in
 					// some filenames
 					&& clazz != ContextInsensitiveToken.class
+					// persistent maps inherit the equality of AbstractMap,
+					// and they are compared with standard maps in their own
+					// tests
+					&& !PersistentHashMap.class.isAssignableFrom(clazz)
 					// some testing classes that we do not care about end up
 					// here
 					&& !clazz.getName().contains("Test"))
@@ -315,6 +324,11 @@ public class EqualityContractVerificationTest {
 		// suppress nullity: the cache will never be null
 		verify(BitExternalSet.class, false, Warning.NULL_FIELDS, Warning.NONFINAL_FIELDS);
 		verify(UniversalExternalSet.class, false, Warning.NULL_FIELDS);
+		ExternalSetCache<String> cache = new ExternalSetCache<>();
+		verify(UnmodifiableExternalSet.class, false,
+				verifier -> verifier.withPrefabValues(ExternalSet.class, cache.mkSingletonSet("a"),
+						cache.mkSingletonSet("b")),
+				Warning.NULL_FIELDS);
 
 		verify(AdjacencyMatrix.class);
 		verify(NodeEdges.class);
@@ -466,6 +480,9 @@ public class EqualityContractVerificationTest {
 			if (subject.getName().contains("Test"))
 				// some testing domain that we do not care about end up here
 				continue;
+			else if (subject == TracePartitioning.class)
+				// counters are shared statistics, not part of the state
+				verify(subject, verifier -> verifier.withIgnoredFields("counters"), Warning.NONFINAL_FIELDS);
 			else if (FunctionalLattice.class.isAssignableFrom(subject)
 					|| SetLattice.class.isAssignableFrom(subject)
 					|| InverseSetLattice.class.isAssignableFrom(subject)
@@ -520,7 +537,7 @@ public class EqualityContractVerificationTest {
 	}
 
 	@Test
-	public void testInterproceduralObjects() {
+	public void testInterproceduralObjects() throws ClassNotFoundException {
 		verify(CallGraphEdge.class);
 		verify(CallGraphNode.class, verifier -> verifier.withIgnoredFields("graph"));
 		verify(CFGResults.class, Warning.NONFINAL_FIELDS);
@@ -534,6 +551,8 @@ public class EqualityContractVerificationTest {
 			else if (token != ContextInsensitiveToken.class)
 				// there always is a unique instance of ContextInsensitiveToken
 				verify(token);
+		// contexts of results restored from summaries are not visible
+		verify(Class.forName(SummaryStore.class.getName() + "$StoredScope"));
 	}
 
 	@Test
@@ -0,0 +1,244 @@
+package it.unive.lisa.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.nonrelational.value.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.types.InferredTypes;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.imp.IMPFeatures;
+import it.unive.lisa.imp.types.IMPTypeSystem;
+import it.unive.lisa.interprocedural.InterproceduralAnalysisException;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
+import it.unive.lisa.interprocedural.UniqueScope;
+import it.unive.lisa.interprocedural.WorstCasePolicy;
+import it.unive.lisa.interprocedural.callgraph.CallGraphConstructionException;
+import it.unive.lisa.interprocedural.callgraph.RTACallGraph;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeMemberDescriptor;
+import it.unive.lisa.program.cfg.controlFlow.ControlFlowExtractor;
+import it.unive.lisa.program.cfg.controlFlow.Loop;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.program.cfg.statement.comparison.LessThan;
+import it.unive.lisa.program.cfg.statement.literal.Int32Literal;
+import it.unive.lisa.program.cfg.statement.numeric.Addition;
+import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.Test;
+
+public class OptimizedAnalyzedCFGTest {
+
+	private static int line = 0;
+
+	private static SourceCodeLocation loc() {
+		return new SourceCodeLocation("testing", ++line, 0);
+	}
+
+	private static class Setup {
+
+		private final Program program = new Program(new IMPFeatures(), new IMPTypeSystem());
+
+		private final CFG cfg = new CFG(new CodeMemberDescriptor(loc(), program, false, "loop"));
+
+		private final List<Statement> nodes = new ArrayList<>();
+
+		private final List<Expression> inner = new ArrayList<>();
+
+		/**
+		 * x = 0; while (x < 10) { x = x + 1; y = x; } z = x; return; or, if
+		 * {@code doWhile} holds, x = 0; do { x = x + 1; y = x; } while (x <
+		 * 10); z = x; return;
+		 */
+		private Setup(
+				boolean doWhile) {
+			Statement init = assign("x", new Int32Literal(cfg, loc(), 0));
+			VariableRef x = new VariableRef(cfg, loc(), "x");
+			Statement cond = new LessThan(cfg, loc(), x, new Int32Literal(cfg, loc(), 10));
+			inner.add(x);
+			VariableRef x2 = new VariableRef(cfg, loc(), "x");
+			Statement incr = assign("x", new Addition(cfg, loc(), x2, new Int32Literal(cfg, loc(), 1)));
+			inner.add(x2);
+			Statement copy = assign("y", new VariableRef(cfg, loc(), "x"));
+			Statement after = assign("z", new VariableRef(cfg, loc(), "x"));
+			Statement ret = new Ret(cfg, loc());
+
+			cfg.addNode(init, true);
+			for (Statement st : List.of(cond, incr, copy, after, ret))
+				cfg.addNode(st);
+			nodes.addAll(List.of(init, cond, incr, copy, after, ret));
+
+			cfg.addEdge(new SequentialEdge(init, doWhile ? incr : cond));
+			cfg.addEdge(new TrueEdge(cond, incr));
+			cfg.addEdge(new SequentialEdge(incr, copy));
+			cfg.addEdge(new SequentialEdge(copy, cond));
+			cfg.addEdge(new FalseEdge(cond, after));
+			cfg.addEdge(new SequentialEdge(after, ret));
+			if (doWhile)
+				// the extractor does not recognize do-while loops
+				cfg.addControlFlowStructure(new Loop(cfg.getNodeList(), cond, after, List.of(incr, copy)));
+			else
+				cfg.extractControlFlowStructures(new ControlFlowExtractor());
+			cfg.computeBasicBlocks();
+		}
+
+		private Statement assign(
+				String name,
+				Expression value) {
+			VariableRef target = new VariableRef(cfg, loc(), name);
+			inner.add(target);
+			inner.add(value);
+			return new Assignment(cfg, loc(), target, value);
+		}
+
+		@SuppressWarnings("unchecked")
+		private OptimizedAnalyzedCFG<
+				SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>, TypeEnvironment<InferredTypes>>> run(
+						FixpointConfiguration conf)
+						throws FixpointException,
+						InterproceduralAnalysisException,
+						CallGraphConstructionException {
+			ModularWorstCaseAnalysis<
+					SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+							TypeEnvironment<InferredTypes>>> analysis = new ModularWorstCaseAnalysis<>();
+			RTACallGraph callgraph = new RTACallGraph();
+			Application app = new Application(program);
+			callgraph.init(app);
+			analysis.init(app, callgraph, WorstCasePolicy.INSTANCE);
+
+			AnalysisState<
+					SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+							TypeEnvironment<InferredTypes>>> entry = new AnalysisState<>(
+									new SimpleAbstractState<>(
+											new MonolithicHeap(),
+											new ValueEnvironment<>(new Interval()),
+											new TypeEnvironment<>(new InferredTypes())),
+									new ExpressionSet());
+			return (OptimizedAnalyzedCFG<
+					SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+							TypeEnvironment<InferredTypes>>>) cfg.fixpoint(entry, analysis, FIFOWorkingSet.mk(), conf,
+									new UniqueScope());
+		}
+	}
+
+	private static FixpointConfiguration conf(
+			int cacheSize,
+			Predicate<Statement> hotspots) {
+		LiSAConfiguration base = new LiSAConfiguration();
+		base.optimize = true;
+		base.unwindingCacheSize = cacheSize;
+		base.hotspots = hotspots;
+		return new FixpointConfiguration(base);
+	}
+
+	private static void checkReplayMatchesUnwinding(
+			int cacheSize)
+			throws FixpointException,
+			InterproceduralAnalysisException,
+			CallGraphConstructionException {
+		Setup setup = new Setup(false);
+		FixpointConfiguration conf = conf(cacheSize, null);
+		OptimizedAnalyzedCFG<?> replayed = setup.run(conf);
+
+		// the results of the body of the loop are not stored
+		assertFalse(replayed.hasPostStateOf(setup.nodes.get(3)));
+		assertTrue(replayed.hasPostStateOf(setup.nodes.get(1)));
+
+		checkReplayMatchesUnwinding(setup, conf, replayed);
+		assertFalse(replayed.getUnwindedAnalysisStateAfter(setup.nodes.get(3), conf).isBottom());
+	}
+
+	private static void checkReplayMatchesUnwinding(
+			Setup setup,
+			FixpointConfiguration conf,
+			OptimizedAnalyzedCFG<?> replayed)
+			throws FixpointException,
+			InterproceduralAnalysisException,
+			CallGraphConstructionException {
+		OptimizedAnalyzedCFG<?> unwinded = setup.run(conf);
+		unwinded.unwind(conf);
+
+		List<Statement> queries = new ArrayList<>(setup.nodes);
+		queries.addAll(setup.inner);
+		for (Statement st : queries)
+			assertEquals("Wrong post-state for '" + st + "'",
+					unwinded.getUnwindedAnalysisStateAfter(st, conf),
+					replayed.getUnwindedAnalysisStateAfter(st, conf));
+	}
+
+	@Test
+	public void testReplayMatchesUnwinding()
+			throws FixpointException,
+			InterproceduralAnalysisException,
+			CallGraphConstructionException {
+		checkReplayMatchesUnwinding(LiSAConfiguration.DEFAULT_UNWINDING_CACHE_SIZE);
+	}
+
+	@Test
+	public void testReplayWithEvictions()
+			throws FixpointException,
+			InterproceduralAnalysisException,
+			CallGraphConstructionException {
+		checkReplayMatchesUnwinding(1);
+	}
+
+	private static <A extends AbstractState<A>> void storeTop(
+			OptimizedAnalyzedCFG<A> cfg,
+			Statement st,
+			FixpointConfiguration conf) {
+		cfg.storePostStateOf(st, cfg.getUnwindedAnalysisStateAfter(st, conf).top());
+	}
+
+	@Test
+	public void testReplayOfLoopHeadBlock()
+			throws FixpointException,
+			InterproceduralAnalysisException,
+			CallGraphConstructionException {
+		// the whole body of the do-while is a single basic block, reached
+		// from both the initialization and the widening point, and it
+		// contains a hotspot
+		Setup setup = new Setup(true);
+		Statement incr = setup.nodes.get(2);
+		Statement copy = setup.nodes.get(3);
+		Statement cond = setup.nodes.get(1);
+		FixpointConfiguration conf = conf(LiSAConfiguration.DEFAULT_UNWINDING_CACHE_SIZE, st -> st == incr);
+		OptimizedAnalyzedCFG<?> replayed = setup.run(conf);
+
+		assertEquals(2, replayed.getBasicBlocks().get(incr).length);
+		assertTrue(replayed.hasPostStateOf(cond));
+		assertTrue(replayed.hasPostStateOf(incr));
+		assertFalse(replayed.hasPostStateOf(copy));
+
+		checkReplayMatchesUnwinding(setup, conf, replayed);
+
+		// stored results are used as-is by the statements following them
+		OptimizedAnalyzedCFG<?> altered = setup.run(conf);
+		storeTop(altered, incr, conf);
+		assertNotEquals(replayed.getUnwindedAnalysisStateAfter(copy, conf),
+				altered.getUnwindedAnalysisStateAfter(copy, conf));
+		for (Expression e : setup.inner)
+			if (e.getRootStatement() == copy || e.getRootStatement() == cond)
+				assertNotEquals("Stored post-state not used for '" + e + "'",
+						replayed.getUnwindedAnalysisStateAfter(e, conf),
+						altered.getUnwindedAnalysisStateAfter(e, conf));
+	}
+}
@@ -0,0 +1,82 @@
+package it.unive.lisa.analysis.dataflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.TestParameterProvider;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SemanticOracle;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.program.type.Int32Type;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import org.junit.Test;
+
+public class DataflowBitsetTest {
+
+	private final ProgramPoint pp = TestParameterProvider.provideParam(null, ProgramPoint.class);
+	private final SemanticOracle oracle = TestParameterProvider.provideParam(null, SemanticOracle.class);
+
+	private Variable var(
+			int i) {
+		return new Variable(Int32Type.INSTANCE, "x" + i, pp.getLocation());
+	}
+
+	private Constant cst(
+			int i) {
+		return new Constant(Int32Type.INSTANCE, i, pp.getLocation());
+	}
+
+	@Test
+	public void testPossibleBitsetsMatchHashSets() throws SemanticException {
+		PossibleDataflowDomain<ReachingDefinitions> plain = new PossibleDataflowDomain<>(new ReachingDefinitions());
+		PossibleDataflowDomain<ReachingDefinitions> bits = new PossibleDataflowDomain<>(new ReachingDefinitions(),
+				true);
+		PossibleDataflowDomain<ReachingDefinitions> plainLub = plain.bottom(), bitsLub = bits.bottom();
+
+		for (int i = 0; i < 200; i++) {
+			plain = plain.assign(var(i % 70), cst(i), pp, oracle);
+			bits = bits.assign(var(i % 70), cst(i), pp, oracle);
+			assertTrue(bits.getDataflowElements() instanceof ExternalSet);
+			assertEquals(plain.getDataflowElements(), bits.getDataflowElements());
+			assertEquals(plain.hashCode(), bits.hashCode());
+			assertEquals(plain.representation(), bits.representation());
+
+			plainLub = plainLub.lub(plain);
+			bitsLub = bitsLub.lub(bits);
+			assertEquals(plainLub.getDataflowElements(), bitsLub.getDataflowElements());
+			assertTrue(bits.lessOrEqual(bitsLub));
+			assertEquals(plain.lessOrEqual(plainLub), bits.lessOrEqual(bitsLub));
+			assertEquals(plainLub.lessOrEqual(plain), bitsLub.lessOrEqual(bits));
+		}
+
+		plain = plain.forgetIdentifier(var(3));
+		bits = bits.forgetIdentifier(var(3));
+		assertEquals(plain, bits);
+		assertFalse(bitsLub.lessOrEqual(bits));
+		assertEquals(plainLub.glb(plain), bitsLub.glb(bits));
+	}
+
+	@Test
+	public void testDefiniteBitsetsMatchHashSets() throws SemanticException {
+		DefiniteDataflowDomain<ConstantPropagation> plain = new DefiniteDataflowDomain<>(new ConstantPropagation());
+		DefiniteDataflowDomain<ConstantPropagation> bits = new DefiniteDataflowDomain<>(new ConstantPropagation(),
+				true);
+		DefiniteDataflowDomain<ConstantPropagation> plainPrev = plain, bitsPrev = bits;
+
+		for (int i = 0; i < 200; i++) {
+			plain = plain.assign(var(i % 70), cst(i % 3), pp, oracle);
+			bits = bits.assign(var(i % 70), cst(i % 3), pp, oracle);
+			assertEquals(plain, bits);
+			assertEquals(plain.hashCode(), bits.hashCode());
+
+			assertEquals(plain.lub(plainPrev), bits.lub(bitsPrev));
+			assertEquals(plain.lessOrEqual(plainPrev), bits.lessOrEqual(bitsPrev));
+			assertEquals(plainPrev.lessOrEqual(plain), bitsPrev.lessOrEqual(bits));
+			plainPrev = plain;
+			bitsPrev = bits;
+		}
+	}
+}
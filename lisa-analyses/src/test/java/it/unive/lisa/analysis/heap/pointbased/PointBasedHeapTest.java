@@ -33,6 +33,7 @@ import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Set;
 import org.junit.Test;
 
 public class PointBasedHeapTest {
@@ -459,4 +460,85 @@ public class PointBasedHeapTest {
 		expectedRewritten = new ExpressionSet(expectedUnknownAlloc);
 		assertEquals(expectedRewritten, xAssign.rewrite(deref, pp1, fakeOracle));
 	}
+
+	@Test
+	public void testAllocationSitesIndex() throws SemanticException {
+		Variable z = new Variable(untyped, "z", pp1.getLocation());
+		PointBasedHeap heap = topHeap.assign(x,
+				new HeapReference(untyped,
+						new MemoryAllocation(untyped, loc1), loc1),
+				pp1, fakeOracle);
+		// the index of heap is built here, and derived from then on
+		assertEquals(Collections.singleton(alloc1), heap.getAllocatedAt(loc1.getCodeLocation()));
+
+		PointBasedHeap yAssign = heap.assign(y,
+				new HeapReference(untyped,
+						new MemoryAllocation(untyped, loc2), loc2),
+				pp2, fakeOracle);
+		PointBasedHeap zAssign = heap.assign(z, x, pp1, fakeOracle);
+		PointBasedHeap lub = yAssign.lub(zAssign).forgetIdentifier(x);
+
+		assertEquals(Collections.singleton(alloc1), lub.getAllocatedAt(loc1.getCodeLocation()));
+		assertEquals(Collections.singleton(alloc2), lub.getAllocatedAt(loc2.getCodeLocation()));
+		assertEquals(Collections.singleton(z), lub.getPointersTo(alloc1));
+		assertEquals(Collections.singleton(y), lub.getPointersTo(alloc2));
+		assertTrue(lub.knowsIdentifier(alloc2));
+		assertTrue(lub.forgetIdentifier(z).getAllocatedAt(loc1.getCodeLocation()).isEmpty());
+		assertFalse(lub.forgetIdentifier(z).knowsIdentifier(alloc1));
+
+		// derived indexes must match the ones built from scratch
+		PointBasedHeap fresh = new PointBasedHeap(lub.heapEnv);
+		for (CodeLocation loc : new CodeLocation[] { loc1, loc2 })
+			assertEquals(fresh.getAllocatedAt(loc.getCodeLocation()), lub.getAllocatedAt(loc.getCodeLocation()));
+	}
+
+	@Test
+	public void testDerivedIndexesDoNotAlterTheirOrigin() throws SemanticException {
+		Variable z = new Variable(untyped, "z", pp1.getLocation());
+		PointBasedHeap heap = topHeap.assign(x,
+				new HeapReference(untyped,
+						new MemoryAllocation(untyped, loc1), loc1),
+				pp1, fakeOracle);
+		assertEquals(Collections.singleton(x), heap.getPointersTo(alloc1));
+
+		// sets of the index are modified in place only once copied
+		PointBasedHeap zAssign = heap.assign(z, x, pp1, fakeOracle);
+		PointBasedHeap yAssign = zAssign.assign(y,
+				new HeapReference(untyped,
+						new MemoryAllocation(untyped, loc2), loc2),
+				pp2, fakeOracle);
+		assertEquals(Set.of(x, z), zAssign.getPointersTo(alloc1));
+		assertEquals(Collections.singleton(y), yAssign.getPointersTo(alloc2));
+		assertEquals(Collections.singleton(x), heap.getPointersTo(alloc1));
+		assertTrue(heap.getAllocatedAt(loc2.getCodeLocation()).isEmpty());
+
+		PointBasedHeap forgotten = yAssign.forgetIdentifier(x).forgetIdentifier(z);
+		assertTrue(forgotten.getAllocatedAt(loc1.getCodeLocation()).isEmpty());
+		assertEquals(Set.of(x, z), yAssign.getPointersTo(alloc1));
+		assertEquals(Collections.singleton(alloc1), zAssign.getAllocatedAt(loc1.getCodeLocation()));
+	}
+
+	@Test
+	public void testWeakeningOnlyRewritesPointers() throws SemanticException {
+		FieldSensitivePointBasedHeap empty = new FieldSensitivePointBasedHeap();
+		MemoryAllocation allocation = new MemoryAllocation(untyped, loc1);
+		FieldSensitivePointBasedHeap heap = empty.smallStepSemantics(allocation, pp1, fakeOracle)
+				.assign(x, new HeapReference(untyped, allocation, loc1), pp1, fakeOracle)
+				.assign(y, new HeapReference(untyped, new MemoryAllocation(untyped, loc2), loc2), pp2, fakeOracle);
+
+		AllocationSite strong = new HeapAllocationSite(untyped, loc1.getCodeLocation(), false, loc1);
+		AllocationSite other = new HeapAllocationSite(untyped, loc2.getCodeLocation(), false, loc2);
+		assertEquals(Collections.singleton(x), heap.getPointersTo(strong));
+
+		// a second allocation at loc1 turns the first site into a weak one
+		FieldSensitivePointBasedHeap weakened = heap.smallStepSemantics(allocation, pp1, fakeOracle);
+		assertEquals(1, weakened.getSubstitution().size());
+		assertEquals(Collections.singleton(strong), weakened.getSubstitution().get(0).getSources());
+		assertEquals(new AllocationSites(Collections.singleton(strong.toWeak()), false),
+				weakened.heapEnv.getState(x));
+		assertEquals(heap.heapEnv.getState(y), weakened.heapEnv.getState(y));
+		assertEquals(Collections.singleton(strong.toWeak()), weakened.getAllocatedAt(loc1.getCodeLocation()));
+		assertTrue(weakened.getPointersTo(strong).isEmpty());
+		assertEquals(Collections.singleton(y), weakened.getPointersTo(other));
+	}
 }
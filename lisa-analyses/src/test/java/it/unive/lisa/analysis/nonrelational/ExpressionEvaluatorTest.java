@@ -0,0 +1,119 @@
+package it.unive.lisa.analysis.nonrelational;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import it.unive.lisa.TestParameterProvider;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SemanticOracle;
+import it.unive.lisa.analysis.nonrelational.value.BaseNonRelationalValueDomain;
+import it.unive.lisa.analysis.nonrelational.value.BaseNonRelationalValueDomain.ValueEvaluationCompiler;
+import it.unive.lisa.analysis.nonrelational.value.BaseNonRelationalValueDomain.EvaluationVisitor;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.numeric.Parity;
+import it.unive.lisa.analysis.numeric.Sign;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.program.type.Int32Type;
+import it.unive.lisa.symbolic.heap.HeapDereference;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.symbolic.value.operator.binary.NumericNonOverflowingAdd;
+import it.unive.lisa.symbolic.value.operator.binary.NumericNonOverflowingMul;
+import it.unive.lisa.symbolic.value.operator.binary.NumericNonOverflowingSub;
+import it.unive.lisa.symbolic.value.operator.unary.NumericNegation;
+import it.unive.lisa.util.numeric.MathNumber;
+import java.util.List;
+import org.junit.Test;
+
+public class ExpressionEvaluatorTest {
+
+	private final ProgramPoint pp = TestParameterProvider.provideParam(null, ProgramPoint.class);
+	private final SemanticOracle oracle = TestParameterProvider.provideParam(null, SemanticOracle.class);
+	private final CodeLocation loc = pp.getLocation();
+	private final Variable x = new Variable(Int32Type.INSTANCE, "x", loc);
+	private final Variable y = new Variable(Int32Type.INSTANCE, "y", loc);
+
+	private Constant constant(
+			int value) {
+		return new Constant(Int32Type.INSTANCE, value, loc);
+	}
+
+	private List<ValueExpression> expressions() {
+		// x, 5, -x, x + 5, (x - y) * -(3 + y), y * z (z is unknown)
+		return List.of(
+				x,
+				constant(5),
+				new UnaryExpression(Int32Type.INSTANCE, x, NumericNegation.INSTANCE, loc),
+				new BinaryExpression(Int32Type.INSTANCE, x, constant(5), NumericNonOverflowingAdd.INSTANCE, loc),
+				new BinaryExpression(Int32Type.INSTANCE,
+						new BinaryExpression(Int32Type.INSTANCE, x, y, NumericNonOverflowingSub.INSTANCE, loc),
+						new UnaryExpression(Int32Type.INSTANCE,
+								new BinaryExpression(Int32Type.INSTANCE, constant(3), y,
+										NumericNonOverflowingAdd.INSTANCE, loc),
+								NumericNegation.INSTANCE, loc),
+						NumericNonOverflowingMul.INSTANCE, loc),
+				new BinaryExpression(Int32Type.INSTANCE, y, new Variable(Int32Type.INSTANCE, "z", loc),
+						NumericNonOverflowingMul.INSTANCE, loc));
+	}
+
+	private <T extends BaseNonRelationalValueDomain<T>> void checkSameResults(
+			T singleton,
+			T xValue,
+			T yValue)
+			throws SemanticException {
+		ValueEnvironment<T> env = new ValueEnvironment<>(singleton).putState(x, xValue).putState(y, yValue);
+		for (ValueExpression expression : expressions()) {
+			T expected = expression.accept(new EvaluationVisitor<>(singleton), env, pp, oracle);
+			assertEquals("Compiled evaluation of " + expression + " differs from the visitor", expected,
+					singleton.eval(expression, env, pp, oracle));
+			// the second evaluation uses the cached evaluator
+			assertEquals("Cached evaluation of " + expression + " differs from the visitor", expected,
+					singleton.eval(expression, env, pp, oracle));
+		}
+	}
+
+	@Test
+	public void testCompiledEvaluationMatchesVisitor() throws SemanticException {
+		Interval interval = new Interval();
+		checkSameResults(interval, new Interval(1, 4), new Interval(new MathNumber(-2), MathNumber.PLUS_INFINITY));
+		checkSameResults(interval, new Interval(1, 4), interval.bottom());
+
+		Sign sign = new Sign();
+		checkSameResults(sign, sign.evalNonNullConstant(constant(3), pp, oracle),
+				sign.evalNonNullConstant(constant(-1), pp, oracle));
+
+		Parity parity = new Parity();
+		checkSameResults(parity, parity.evalNonNullConstant(constant(3), pp, oracle),
+				parity.evalNonNullConstant(constant(2), pp, oracle));
+	}
+
+	@Test
+	public void testEvaluatorsAreCachedPerDomainClass() throws SemanticException {
+		ValueExpression expression = expressions().get(4);
+		Interval interval = new Interval();
+		ExpressionEvaluator<Interval, ValueEnvironment<Interval>, Interval> first = ValueEvaluationCompiler
+				.of(interval).compile(expression);
+		assertSame(ValueEvaluationCompiler.of(interval), ValueEvaluationCompiler.of(new Interval(1, 2)));
+		assertSame(first, ValueEvaluationCompiler.of(new Interval(1, 2)).compile(expression));
+		assertNotSame(first, ValueEvaluationCompiler.of(interval).compile(expressions().get(4)));
+		assertNotSame(first, ValueEvaluationCompiler.of(new Sign()).compile(expression));
+		assertSame(ValueEvaluationCompiler.of(new Sign()).compile(expression),
+				ValueEvaluationCompiler.of(new Sign()).compile(expression));
+	}
+
+	@Test(expected = SemanticException.class)
+	public void testHeapExpressionsAreRejectedAtEvaluation() throws SemanticException {
+		Interval interval = new Interval();
+		HeapDereference deref = new HeapDereference(Int32Type.INSTANCE, x, loc);
+		UnaryExpression expression = new UnaryExpression(Int32Type.INSTANCE, deref, NumericNegation.INSTANCE, loc);
+		ExpressionEvaluator<Interval, ValueEnvironment<Interval>, Interval> evaluator = ValueEvaluationCompiler
+				.of(interval).compile(expression);
+		evaluator.evaluate(expression, interval, new ValueEnvironment<>(interval), pp, oracle);
+	}
+}
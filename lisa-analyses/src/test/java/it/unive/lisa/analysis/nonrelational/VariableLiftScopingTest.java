@@ -0,0 +1,124 @@
+package it.unive.lisa.analysis.nonrelational;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.TestParameterProvider;
+import it.unive.lisa.analysis.ScopeToken;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.pointbased.HeapAllocationSite;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.program.type.Int32Type;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.OutOfScopeIdentifier;
+import it.unive.lisa.symbolic.value.Variable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+public class VariableLiftScopingTest {
+
+	private final ProgramPoint pp = TestParameterProvider.provideParam(null, ProgramPoint.class);
+	private final CodeLocation loc = pp.getLocation();
+	private final ScopeToken token = new ScopeToken(pp);
+	private final Variable x = new Variable(Int32Type.INSTANCE, "x", loc);
+	private final Variable y = new Variable(Int32Type.INSTANCE, "y", loc);
+	private final HeapAllocationSite site = new HeapAllocationSite(Int32Type.INSTANCE, "site", false, loc);
+
+	@Test
+	public void testPushAndPopRewriteOnlyScopedIdentifiers() throws SemanticException {
+		ValueEnvironment<Interval> env = new ValueEnvironment<>(new Interval())
+				.putState(x, new Interval(1, 1))
+				.putState(site, new Interval(2, 3));
+
+		ValueEnvironment<Interval> pushed = env.pushScope(token);
+		OutOfScopeIdentifier scopedX = new OutOfScopeIdentifier(x, token, loc);
+		assertEquals(2, pushed.getKeys().size());
+		assertFalse(pushed.getKeys().contains(x));
+		assertEquals(new Interval(1, 1), pushed.getState(scopedX));
+		assertEquals(new Interval(2, 3), pushed.getState(site));
+
+		// y is a local of the callee, and it disappears on return
+		ValueEnvironment<Interval> popped = pushed.putState(y, new Interval(4, 4)).popScope(token);
+		assertEquals(env, popped);
+	}
+
+	@Test
+	public void testUnaffectedEnvironmentsAreNotRebuilt() throws SemanticException {
+		ValueEnvironment<Interval> env = new ValueEnvironment<>(new Interval()).putState(site, new Interval(2, 3));
+		assertSame(env, env.pushScope(token));
+		assertSame(env, env.popScope(token));
+
+		ValueEnvironment<Interval> empty = new ValueEnvironment<>(new Interval());
+		assertTrue(empty.pushScope(token).getKeys().isEmpty());
+	}
+
+	@Test
+	public void testScopedIdentifiersAreIndexed() throws SemanticException {
+		ValueEnvironment<Interval> env = new ValueEnvironment<>(new Interval())
+				.putState(x, new Interval(1, 1))
+				.putState(site, new Interval(2, 3));
+		assertTrue(env.function instanceof ScopedIdentifierMap);
+		assertEquals(Set.of(x), ((ScopedIdentifierMap<Interval>) env.function).getScopedKeys());
+
+		ValueEnvironment<Interval> pushed = env.pushScope(token);
+		OutOfScopeIdentifier scopedX = new OutOfScopeIdentifier(x, token, loc);
+		assertEquals(Set.of(scopedX), ((ScopedIdentifierMap<Interval>) pushed.function).getScopedKeys());
+		// the index of the original environment is not affected
+		assertEquals(Set.of(x), ((ScopedIdentifierMap<Interval>) env.function).getScopedKeys());
+
+		ValueEnvironment<Interval> popped = pushed.putState(y, new Interval(4, 4)).popScope(token);
+		assertEquals(Set.of(x), ((ScopedIdentifierMap<Interval>) popped.function).getScopedKeys());
+		assertTrue(((ScopedIdentifierMap<Interval>) popped.forgetIdentifier(x).function).getScopedKeys().isEmpty());
+	}
+
+	@Test
+	public void testIndexFollowsUpdates() {
+		Map<Identifier, Interval> plain = new HashMap<>();
+		plain.put(x, new Interval(1, 1));
+		plain.put(site, new Interval(2, 3));
+		ScopedIdentifierMap<Interval> map = new ScopedIdentifierMap<>(plain);
+		assertEquals(plain, map);
+		assertEquals(Set.of(x), map.getScopedKeys());
+
+		ScopedIdentifierMap<Interval> copy = new ScopedIdentifierMap<>(map);
+		copy.put(y, new Interval(4, 4));
+		copy.remove(x);
+		copy.remove(site);
+		assertEquals(Set.of(y), copy.getScopedKeys());
+		assertEquals(Set.of(x), map.getScopedKeys());
+
+		copy.keySet().removeIf(y::equals);
+		assertTrue(copy.getScopedKeys().isEmpty());
+		map.clear();
+		assertTrue(map.getScopedKeys().isEmpty());
+	}
+
+	@Test
+	public void testIndexIsBuiltLazily() {
+		ScopedIdentifierMap<Interval> map = new ScopedIdentifierMap<>();
+		map.put(x, new Interval(1, 1));
+		map.put(site, new Interval(2, 3));
+		// copies made before the first scoping build their own index
+		ScopedIdentifierMap<Interval> before = new ScopedIdentifierMap<>(map);
+		before.put(y, new Interval(4, 4));
+		assertEquals(Set.of(x), map.getScopedKeys());
+		assertEquals(Set.of(x, y), before.getScopedKeys());
+
+		// copies made afterwards inherit the index and keep it updated
+		ScopedIdentifierMap<Interval> after = new ScopedIdentifierMap<>(map);
+		after.put(x, new Interval(5, 5));
+		after.put(y, new Interval(4, 4));
+		after.remove(site);
+		assertEquals(Set.of(x, y), after.getScopedKeys());
+		after.remove(x);
+		assertEquals(Set.of(y), after.getScopedKeys());
+		assertEquals(Set.of(x), map.getScopedKeys());
+	}
+}
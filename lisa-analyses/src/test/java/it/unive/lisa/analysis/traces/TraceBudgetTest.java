@@ -0,0 +1,350 @@
+package it.unive.lisa.analysis.traces;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.DefaultConfiguration;
+import it.unive.lisa.TestParameterProvider;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SemanticOracle;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.nonrelational.value.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.types.InferredTypes;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.imp.IMPFeatures;
+import it.unive.lisa.imp.types.IMPTypeSystem;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
+import it.unive.lisa.interprocedural.UniqueScope;
+import it.unive.lisa.interprocedural.WorstCasePolicy;
+import it.unive.lisa.interprocedural.callgraph.RTACallGraph;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeMemberDescriptor;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.program.cfg.controlFlow.ControlFlowExtractor;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.program.cfg.statement.comparison.LessThan;
+import it.unive.lisa.program.cfg.statement.literal.Int32Literal;
+import it.unive.lisa.program.cfg.statement.numeric.Addition;
+import it.unive.lisa.program.type.BoolType;
+import it.unive.lisa.program.type.Int32Type;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class TraceBudgetTest {
+
+	private static int line = 0;
+
+	private static SourceCodeLocation loc() {
+		return new SourceCodeLocation("traces", ++line, 0);
+	}
+
+	private static final ProgramPoint pp = TestParameterProvider.provideParam(null, ProgramPoint.class);
+
+	private static final SemanticOracle oracle = TestParameterProvider.provideParam(null, SemanticOracle.class);
+
+	private final Variable x = new Variable(Int32Type.INSTANCE, "x", pp.getLocation());
+
+	private final SimpleAbstractState<MonolithicHeap,
+			ValueEnvironment<Interval>,
+			TypeEnvironment<InferredTypes>> singleton = DefaultConfiguration.defaultAbstractState();
+
+	private final Program program = new Program(new IMPFeatures(), new IMPTypeSystem());
+
+	private final CFG cfg = new CFG(new CodeMemberDescriptor(loc(), program, false, "traces"));
+
+	private final Statement loop, branch, then, ret;
+
+	private final ExecutionTrace summary, first, second;
+
+	/**
+	 * x = 0; while (x < 10) { if (x < 5) x = x + 1; else x = x + 2; } return;
+	 */
+	public TraceBudgetTest() {
+		Statement init = new Assignment(cfg, loc(), new VariableRef(cfg, loc(), "x"),
+				new Int32Literal(cfg, loc(), 0));
+		loop = new LessThan(cfg, loc(), new VariableRef(cfg, loc(), "x"), new Int32Literal(cfg, loc(), 10));
+		branch = new LessThan(cfg, loc(), new VariableRef(cfg, loc(), "x"), new Int32Literal(cfg, loc(), 5));
+		then = new Assignment(cfg, loc(), new VariableRef(cfg, loc(), "x"),
+				new Addition(cfg, loc(), new VariableRef(cfg, loc(), "x"), new Int32Literal(cfg, loc(), 1)));
+		Statement otherwise = new Assignment(cfg, loc(), new VariableRef(cfg, loc(), "x"),
+				new Addition(cfg, loc(), new VariableRef(cfg, loc(), "x"), new Int32Literal(cfg, loc(), 2)));
+		Statement join = new NoOp(cfg, loc());
+		ret = new Ret(cfg, loc());
+
+		cfg.addNode(init, true);
+		cfg.addNode(loop);
+		cfg.addNode(branch);
+		cfg.addNode(then);
+		cfg.addNode(otherwise);
+		cfg.addNode(join);
+		cfg.addNode(ret);
+		cfg.addEdge(new SequentialEdge(init, loop));
+		cfg.addEdge(new TrueEdge(loop, branch));
+		cfg.addEdge(new TrueEdge(branch, then));
+		cfg.addEdge(new FalseEdge(branch, otherwise));
+		cfg.addEdge(new SequentialEdge(then, join));
+		cfg.addEdge(new SequentialEdge(otherwise, join));
+		cfg.addEdge(new SequentialEdge(join, loop));
+		cfg.addEdge(new FalseEdge(loop, ret));
+		cfg.extractControlFlowStructures(new ControlFlowExtractor());
+		cfg.computeBasicBlocks();
+
+		summary = new ExecutionTrace().push(new LoopSummary(loop));
+		first = new ExecutionTrace().push(new LoopIteration(loop, 0));
+		second = new ExecutionTrace().push(new LoopIteration(loop, 1));
+	}
+
+	private SimpleAbstractState<MonolithicHeap,
+			ValueEnvironment<Interval>,
+			TypeEnvironment<InferredTypes>> state(
+					int value)
+					throws SemanticException {
+		return singleton.assign(x, new Constant(Int32Type.INSTANCE, value, pp.getLocation()), pp, oracle);
+	}
+
+	private TracePartitioning<SimpleAbstractState<MonolithicHeap,
+			ValueEnvironment<Interval>,
+			TypeEnvironment<InferredTypes>>> traces(
+					int maxTraces,
+					int first,
+					ExecutionTrace... traces)
+					throws SemanticException {
+		Map<ExecutionTrace, SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> function = new HashMap<>();
+		for (int i = 0; i < traces.length; i++)
+			function.put(traces[i], state(first + i));
+		return new TracePartitioning<>(singleton, maxTraces).mk(singleton, function);
+	}
+
+	private ExecutionTrace taken(
+			ExecutionTrace trace) {
+		return trace.push(new Branching(branch, true));
+	}
+
+	@Test
+	public void testBudgetSmashesLeastInformativeTraces() throws SemanticException {
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> traces = traces(2, 1, summary, first, second);
+		Constant condition = new Constant(BoolType.INSTANCE, true, pp.getLocation());
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> assumed = traces.assume(condition, branch, then, oracle);
+
+		assertEquals(2, assumed.getKeys().size());
+		// the summary is the least informative trace, and deeper iterations
+		// come before shallower ones on ties
+		assertTrue(assumed.getKeys().contains(new ExecutionTrace()));
+		assertTrue(assumed.getKeys().contains(taken(first)));
+		assertEquals(state(1).lub(state(3)), assumed.getState(new ExecutionTrace()));
+		assertEquals(state(2), assumed.getState(taken(first)));
+		assertEquals(1, assumed.getBudgetMerges());
+		assertEquals(2, assumed.getMaxTraces());
+
+		// bounding must not lose any state
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> unbounded = traces(0, 1, summary, first, second)
+						.assume(condition, branch, then, oracle);
+		assertEquals(3, unbounded.getKeys().size());
+		assertEquals(unbounded.collapse(), assumed.collapse());
+		assertEquals(0, unbounded.getBudgetMerges());
+		assertEquals(1, assumed.getBudgetMerges());
+	}
+
+	@Test
+	public void testBudgetKeepsTheEmptyTrace() throws SemanticException {
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> traces = traces(2, 1, new ExecutionTrace(), summary, first);
+		Constant condition = new Constant(BoolType.INSTANCE, true, pp.getLocation());
+		// ret is not a condition, so no token is pushed
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> assumed = traces.assume(condition, ret, ret, oracle);
+
+		// the empty trace already exists, so only one trace must be smashed
+		// into it
+		assertEquals(2, assumed.getKeys().size());
+		assertTrue(assumed.getKeys().contains(new ExecutionTrace()));
+		assertTrue(assumed.getKeys().contains(first));
+		assertEquals(state(1).lub(state(2)), assumed.getState(new ExecutionTrace()));
+		assertEquals(state(3), assumed.getState(first));
+		assertEquals(1, assumed.getBudgetMerges());
+	}
+
+	@Test
+	public void testBudgetPreservesUpperBounds() throws SemanticException {
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> left = traces(1, 1, summary);
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> right = traces(1, 2, first);
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> lub = left.lub(right);
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> widening = left.widening(right);
+
+		// joins can exceed the budget, but never lose traces
+		assertEquals(2, lub.getKeys().size());
+		assertTrue(left.lessOrEqual(lub));
+		assertTrue(right.lessOrEqual(lub));
+		assertTrue(left.lessOrEqual(widening));
+		assertTrue(right.lessOrEqual(widening));
+		assertEquals(0, lub.getBudgetMerges());
+		assertEquals(0, widening.getBudgetMerges());
+	}
+
+	@Test
+	public void testBudgetIsPartOfTheDomain() throws SemanticException {
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> traces = traces(2, 1, summary);
+		assertEquals(2, traces.top().getMaxTraces());
+		assertEquals(2, traces.bottom().getMaxTraces());
+		assertEquals(2, traces.lub(traces(2, 2, first)).getMaxTraces());
+		assertEquals(0, new TracePartitioning<>(singleton).getMaxTraces());
+		assertNotEquals(traces, traces(3, 1, summary));
+		// counters are not part of the state
+		assertEquals(traces, traces(2, 1, summary));
+	}
+
+	@Test
+	public void testCountersAreNotShared() throws SemanticException {
+		Constant condition = new Constant(BoolType.INSTANCE, true, pp.getLocation());
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> traces = traces(1, 1, summary, first);
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> other = traces(1, 1, summary, first);
+		TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> assumed = traces.assume(condition, branch, then, oracle);
+
+		// derived instances share the counters of the original one
+		assertEquals(1, traces.getBudgetMerges());
+		assertEquals(1, assumed.getBudgetMerges());
+		assertEquals(1, assumed.top().getBudgetMerges());
+		assertEquals(0, other.getBudgetMerges());
+
+		assumed.resetCounters();
+		assertEquals(0, traces.getBudgetMerges());
+	}
+
+	private AnalyzedCFG<TracePartitioning<SimpleAbstractState<MonolithicHeap,
+			ValueEnvironment<Interval>,
+			TypeEnvironment<InferredTypes>>>> run(
+					int maxTraces)
+					throws Exception {
+		ModularWorstCaseAnalysis<TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>>> analysis = new ModularWorstCaseAnalysis<>();
+		RTACallGraph callgraph = new RTACallGraph();
+		Application app = new Application(program);
+		callgraph.init(app);
+		analysis.init(app, callgraph, WorstCasePolicy.INSTANCE);
+
+		AnalysisState<TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>>> entry = new AnalysisState<>(
+						new TracePartitioning<>(singleton, maxTraces),
+						new ExpressionSet());
+		return cfg.fixpoint(entry, analysis, FIFOWorkingSet.mk(),
+				new FixpointConfiguration(new LiSAConfiguration()), new UniqueScope());
+	}
+
+	@Test
+	public void testFixpointWithBudget() throws Exception {
+		AnalyzedCFG<TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>>> unbounded = run(0);
+		assertEquals(0, unbounded.getAnalysisStateAfter(ret).getState().getBudgetMerges());
+		assertTrue(unbounded.getAnalysisStateAfter(then).getState().getKeys().size() > 2);
+
+		AnalyzedCFG<TracePartitioning<SimpleAbstractState<MonolithicHeap,
+				ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>>> bounded = run(2);
+		assertTrue(bounded.getAnalysisStateAfter(ret).getState().getBudgetMerges() > 0);
+
+		// joins of different iterations can exceed the budget, but fewer
+		// traces are tracked overall, and the bounded analysis still
+		// over-approximates the unbounded one
+		int unboundedTraces = 0, boundedTraces = 0;
+		for (Statement st : cfg.getNodes()) {
+			TracePartitioning<SimpleAbstractState<MonolithicHeap,
+					ValueEnvironment<Interval>,
+					TypeEnvironment<InferredTypes>>> precise = unbounded.getAnalysisStateAfter(st).getState();
+			TracePartitioning<SimpleAbstractState<MonolithicHeap,
+					ValueEnvironment<Interval>,
+					TypeEnvironment<InferredTypes>>> approx = bounded.getAnalysisStateAfter(st).getState();
+			unboundedTraces += precise.getKeys().size();
+			boundedTraces += approx.getKeys().size();
+			assertTrue(precise.collapse().lessOrEqual(approx.collapse()));
+		}
+		assertTrue(boundedTraces < unboundedTraces);
+		assertFalse(bounded.getAnalysisStateAfter(ret).getState().isBottom());
+	}
+
+	@Test
+	public void testParallelEvaluationMatchesSequential() throws SemanticException {
+		int prev = TracePartitioning.PARALLEL_THRESHOLD;
+		try {
+			TracePartitioning<SimpleAbstractState<MonolithicHeap,
+					ValueEnvironment<Interval>,
+					TypeEnvironment<InferredTypes>>> traces = traces(0, 1, summary, first, second);
+			Constant constant = new Constant(Int32Type.INSTANCE, 5, pp.getLocation());
+
+			TracePartitioning.PARALLEL_THRESHOLD = 0;
+			TracePartitioning<SimpleAbstractState<MonolithicHeap,
+					ValueEnvironment<Interval>,
+					TypeEnvironment<InferredTypes>>> assigned = traces.assign(x, constant, pp, oracle);
+			TracePartitioning<SimpleAbstractState<MonolithicHeap,
+					ValueEnvironment<Interval>,
+					TypeEnvironment<InferredTypes>>> evaluated = traces.smallStepSemantics(constant, pp, oracle);
+			assertEquals(0, traces.getParallelEvaluations());
+
+			TracePartitioning.PARALLEL_THRESHOLD = 2;
+			assertEquals(assigned, traces.assign(x, constant, pp, oracle));
+			assertEquals(evaluated, traces.smallStepSemantics(constant, pp, oracle));
+			assertEquals(2, traces.getParallelEvaluations());
+
+			// below the threshold, evaluation stays sequential
+			TracePartitioning<SimpleAbstractState<MonolithicHeap,
+					ValueEnvironment<Interval>,
+					TypeEnvironment<InferredTypes>>> single = traces(0, 1, summary);
+			single.assign(x, constant, pp, oracle);
+			assertEquals(0, single.getParallelEvaluations());
+			assertEquals(2, traces.getParallelEvaluations());
+		} finally {
+			TracePartitioning.PARALLEL_THRESHOLD = prev;
+		}
+	}
+}
@@ -2,6 +2,8 @@ package it.unive.lisa.analysis.types;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import it.unive.lisa.TestParameterProvider;
@@ -46,10 +48,12 @@ import it.unive.lisa.symbolic.value.operator.unary.StringLength;
 import it.unive.lisa.symbolic.value.operator.unary.TypeOf;
 import it.unive.lisa.symbolic.value.operator.unary.UnaryOperator;
 import it.unive.lisa.type.NumericType;
+import it.unive.lisa.type.ReferenceType;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.TypeSystem;
 import it.unive.lisa.type.TypeTokenType;
 import it.unive.lisa.type.Untyped;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -519,4 +523,53 @@ public class InferredTypesTest {
 		satisfies(TypeCheck.INSTANCE, bool, right, Satisfiability.NOT_SATISFIED);
 		satisfies(TypeCheck.INSTANCE, bool_or_string, right, Satisfiability.UNKNOWN);
 	}
+
+	@Test
+	public void testBitsetsMatchPlainSets() throws SemanticException {
+		for (InferredTypes left : combos.values())
+			for (InferredTypes right : combos.values()) {
+				if (left.isTop() || right.isTop())
+					continue;
+				assertTrue(left.getRuntimeTypes() instanceof ExternalSet);
+
+				InferredTypes plainLeft = new InferredTypes(null, new HashSet<>(left.getRuntimeTypes()));
+				InferredTypes plainRight = new InferredTypes(null, new HashSet<>(right.getRuntimeTypes()));
+				InferredTypes lub = left.lub(right);
+				InferredTypes plainLub = plainLeft.lub(plainRight);
+				assertEquals(plainLub, lub);
+				assertEquals(plainLub.hashCode(), lub.hashCode());
+				assertEquals(plainLeft, left);
+				assertEquals(plainLeft.hashCode(), left.hashCode());
+				assertEquals(plainLeft.lessOrEqual(plainRight), left.lessOrEqual(right));
+				assertEquals(plainLeft.lessOrEqual(plainRight), plainLeft.lessOrEqual(right));
+			}
+	}
+
+	@Test
+	public void testInstancesAreCached() {
+		TypeSystem ts = new IMPTypeSystem();
+		ExternalSet<Type> ints = ts.getInstances(Int32Type.INSTANCE);
+		ExternalSet<Type> all = ts.getTypeSet();
+		assertSame(ints, ts.getInstances(Int32Type.INSTANCE));
+		assertSame(all, ts.getTypeSet());
+		assertEquals(Int32Type.INSTANCE.allInstances(ts), ints);
+		assertEquals(ts.getTypes(), all);
+
+		assertTrue(ts.registerType(new ReferenceType(StringType.INSTANCE)));
+		assertNotSame(ints, ts.getInstances(Int32Type.INSTANCE));
+		assertNotSame(all, ts.getTypeSet());
+		assertEquals(ts.getTypes(), ts.getTypeSet());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testCachedInstancesAreUnmodifiable() {
+		new IMPTypeSystem().getInstances(Int32Type.INSTANCE).add(StringType.INSTANCE);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testRuntimeTypesAreUnmodifiable() throws SemanticException {
+		TypeSystem ts = new IMPTypeSystem();
+		InferredTypes ints = new InferredTypes(ts, ts.getInstances(Int32Type.INSTANCE));
+		ints.lub(new InferredTypes(ts, StringType.INSTANCE)).getRuntimeTypes().clear();
+	}
 }
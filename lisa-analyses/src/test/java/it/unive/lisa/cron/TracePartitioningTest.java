@@ -20,4 +20,21 @@ public class TracePartitioningTest extends AnalysisTestExecutor {
 		perform(conf);
 		TracePartitioning.MAX_LOOP_ITERATIONS = prev;
 	}
+
+	@Test
+	public void testParallelTracePartitioning() {
+		CronConfiguration conf = new CronConfiguration();
+		conf.abstractState = new TracePartitioning<>(DefaultConfiguration.defaultAbstractState());
+		conf.serializeResults = true;
+		int prev = TracePartitioning.MAX_LOOP_ITERATIONS;
+		int prevThreshold = TracePartitioning.PARALLEL_THRESHOLD;
+		TracePartitioning.MAX_LOOP_ITERATIONS = 3;
+		// results must not change when traces are evaluated in parallel
+		TracePartitioning.PARALLEL_THRESHOLD = 2;
+		conf.testDir = "traces";
+		conf.programFile = "traces.imp";
+		perform(conf);
+		TracePartitioning.MAX_LOOP_ITERATIONS = prev;
+		TracePartitioning.PARALLEL_THRESHOLD = prevThreshold;
+	}
 }
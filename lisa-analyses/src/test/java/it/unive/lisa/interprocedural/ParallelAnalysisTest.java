@@ -0,0 +1,300 @@
+package it.unive.lisa.interprocedural;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.nonrelational.value.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.symbols.NameSymbol;
+import it.unive.lisa.analysis.symbols.SymbolAliasing;
+import it.unive.lisa.analysis.types.InferredTypes;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.imp.IMPFeatures;
+import it.unive.lisa.imp.types.IMPTypeSystem;
+import it.unive.lisa.interprocedural.callgraph.CallResolutionException;
+import it.unive.lisa.interprocedural.callgraph.RTACallGraph;
+import it.unive.lisa.interprocedural.context.ContextBasedAnalysis;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeMemberDescriptor;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.fixpoints.FixpointListener;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Return;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.program.cfg.statement.call.CFGCall;
+import it.unive.lisa.program.cfg.statement.call.Call;
+import it.unive.lisa.program.cfg.statement.call.Call.CallType;
+import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
+import it.unive.lisa.program.cfg.statement.literal.Int32Literal;
+import it.unive.lisa.program.cfg.statement.numeric.Addition;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.util.collections.workset.WorkingSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ParallelAnalysisTest {
+
+	private static final int ENTRYPOINTS = 4;
+
+	private static class Setup {
+
+		private int line = 0;
+
+		private final Program program = new Program(new IMPFeatures(), new IMPTypeSystem());
+
+		private final List<CFG> cfgs = new ArrayList<>();
+
+		private final Application app;
+
+		/**
+		 * h_i() { x = i; return x; } shared() { s = 0; return s; } e_i() { y =
+		 * h_i(); z = print(y); w = shared(); return; } where print is not part
+		 * of the program and shared is only called by e_0 and e_1
+		 */
+		private Setup() {
+			callee("shared", 0);
+			for (int i = 0; i < ENTRYPOINTS; i++) {
+				CFG callee = callee("h" + i, i);
+				CFG entry = new CFG(new CodeMemberDescriptor(loc(), program, false, "e" + i));
+				Statement call = new Assignment(entry, loc(), new VariableRef(entry, loc(), "y"),
+						new UnresolvedCall(entry, loc(), CallType.STATIC, null, callee.getDescriptor().getName()));
+				Statement open = new Assignment(entry, loc(), new VariableRef(entry, loc(), "z"),
+						new UnresolvedCall(entry, loc(), CallType.STATIC, null, "print",
+								new VariableRef(entry, loc(), "y")));
+				Statement sum = new Assignment(entry, loc(), new VariableRef(entry, loc(), "w"),
+						i < 2
+								? new UnresolvedCall(entry, loc(), CallType.STATIC, null, "shared")
+								: new Addition(entry, loc(), new VariableRef(entry, loc(), "y"),
+										new Int32Literal(entry, loc(), i)));
+				Statement end = new Ret(entry, loc());
+				entry.addNode(call, true);
+				entry.addNode(open);
+				entry.addNode(sum);
+				entry.addNode(end);
+				entry.addEdge(new SequentialEdge(call, open));
+				entry.addEdge(new SequentialEdge(open, sum));
+				entry.addEdge(new SequentialEdge(sum, end));
+				program.addCodeMember(entry);
+				program.addEntryPoint(entry);
+				cfgs.add(entry);
+			}
+			app = new Application(program);
+		}
+
+		private CFG callee(
+				String name,
+				int c) {
+			CFG callee = new CFG(new CodeMemberDescriptor(loc(), program, false, name));
+			Statement assign = new Assignment(callee, loc(), new VariableRef(callee, loc(), "x"),
+					new Int32Literal(callee, loc(), c));
+			Statement ret = new Return(callee, loc(), new VariableRef(callee, loc(), "x"));
+			callee.addNode(assign, true);
+			callee.addNode(ret);
+			callee.addEdge(new SequentialEdge(assign, ret));
+			program.addCodeMember(callee);
+			cfgs.add(callee);
+			return callee;
+		}
+
+		private SourceCodeLocation loc() {
+			return new SourceCodeLocation("parallel", ++line, 0);
+		}
+	}
+
+	/**
+	 * An analysis overriding a hook that is not related to parallelism: its
+	 * behavior must be the same on every worker.
+	 */
+	private static class CountingAnalysis<A extends AbstractState<A>>
+			extends
+			ContextBasedAnalysis<A> {
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public AnalysisState<A> getAbstractResultOf(
+				CFGCall call,
+				AnalysisState<A> entryState,
+				ExpressionSet[] parameters,
+				StatementStore<A> expressions)
+				throws SemanticException {
+			calls.incrementAndGet();
+			return super.getAbstractResultOf(call, entryState, parameters, expressions);
+		}
+	}
+
+	/**
+	 * An analysis resolving calls with aliases that are not part of the
+	 * analysis state, and that thus cannot be known before the analysis
+	 * starts.
+	 */
+	private static class AliasingAnalysis<A extends AbstractState<A>>
+			extends
+			CountingAnalysis<A> {
+
+		@Override
+		public Call resolve(
+				UnresolvedCall call,
+				Set<Type>[] types,
+				SymbolAliasing aliasing)
+				throws CallResolutionException {
+			return super.resolve(call, types, ALIASING);
+		}
+	}
+
+	/**
+	 * Calls to h0 also reach h3.
+	 */
+	private static final SymbolAliasing ALIASING = new SymbolAliasing().alias(new NameSymbol("h3"),
+			new NameSymbol("h0"));
+
+	private static Map<Statement, Set<AnalysisState<?>>> run(
+			Setup setup,
+			int threads,
+			InterproceduralAnalysis<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+					TypeEnvironment<InferredTypes>>> analysis,
+			Collection<Thread> workers)
+			throws Exception {
+		return run(setup, threads, analysis, workers, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<Statement, Set<AnalysisState<?>>> run(
+			Setup setup,
+			int threads,
+			InterproceduralAnalysis<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+					TypeEnvironment<InferredTypes>>> analysis,
+			Collection<Thread> workers,
+			SymbolAliasing aliasing)
+			throws Exception {
+		LiSAConfiguration base = new LiSAConfiguration();
+		base.analysisThreads = threads;
+		base.fixpointListener = new FixpointListener() {
+
+			@Override
+			public synchronized void fixpointStarted(
+					CFG cfg,
+					ScopeId id) {
+				workers.add(Thread.currentThread());
+			}
+		};
+
+		RTACallGraph callgraph = new RTACallGraph();
+		callgraph.init(setup.app);
+		analysis.init(setup.app, callgraph, WorstCasePolicy.INSTANCE);
+		AnalysisState<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> entry = new AnalysisState<>(
+						new SimpleAbstractState<>(
+								new MonolithicHeap(),
+								new ValueEnvironment<>(new Interval()),
+								new TypeEnvironment<>(new InferredTypes())),
+						new ExpressionSet());
+		if (aliasing != null)
+			entry = entry.storeInfo(SymbolAliasing.INFO_KEY, aliasing);
+		analysis.fixpoint(
+				entry,
+				(Class<? extends WorkingSet<Statement>>) base.fixpointWorkingSet,
+				new FixpointConfiguration(base));
+
+		Map<Statement, Set<AnalysisState<?>>> states = new HashMap<>();
+		for (CFG cfg : setup.cfgs) {
+			Collection<? extends AnalyzedCFG<?>> results = analysis.getAnalysisResultsOf(cfg);
+			assertFalse(results.isEmpty());
+			for (AnalyzedCFG<?> result : results)
+				for (Statement st : cfg.getNodes())
+					states.computeIfAbsent(st, k -> new HashSet<>()).add(result.getAnalysisStateAfter(st));
+		}
+		return states;
+	}
+
+	@Test
+	public void testContextBasedResultsMatchSequential() throws Exception {
+		Setup setup = new Setup();
+		Collection<Thread> main = new ArrayList<>(), workers = new ArrayList<>();
+		CountingAnalysis<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> sequential = new CountingAnalysis<>(),
+						parallel = new CountingAnalysis<>();
+		Map<Statement, Set<AnalysisState<?>>> expected = run(setup, 1, sequential, main);
+		Map<Statement, Set<AnalysisState<?>>> actual = run(setup, ENTRYPOINTS, parallel, workers);
+
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, actual);
+		// hooks overridden by subclasses are honored by workers
+		assertEquals(ENTRYPOINTS + 2, sequential.calls.get());
+		assertEquals(sequential.calls.get(), parallel.calls.get());
+		assertTrue(main.stream().noneMatch(ForkJoinWorkerThread.class::isInstance));
+		// open calls do not prevent the analysis from going parallel
+		assertTrue(workers.stream().anyMatch(ForkJoinWorkerThread.class::isInstance));
+	}
+
+	@Test
+	public void testModularResultsMatchSequential() throws Exception {
+		Setup setup = new Setup();
+		Collection<Thread> main = new ArrayList<>(), workers = new ArrayList<>();
+		Map<Statement, Set<AnalysisState<?>>> expected = run(setup, 1, new ModularWorstCaseAnalysis<>(), main);
+		Map<Statement, Set<AnalysisState<?>>> actual = run(setup, ENTRYPOINTS, new ModularWorstCaseAnalysis<>(),
+				workers);
+
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, actual);
+		assertEquals(setup.cfgs.size(), main.size());
+		assertEquals(setup.cfgs.size(), workers.size());
+		assertTrue(main.stream().noneMatch(ForkJoinWorkerThread.class::isInstance));
+		assertTrue(workers.stream().anyMatch(ForkJoinWorkerThread.class::isInstance));
+	}
+
+	@Test
+	public void testAliasesOfTheEntryStateAreHonored() throws Exception {
+		Setup setup = new Setup();
+		Collection<Thread> main = new ArrayList<>(), workers = new ArrayList<>();
+		CountingAnalysis<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> sequential = new CountingAnalysis<>(),
+						parallel = new CountingAnalysis<>();
+		Map<Statement, Set<AnalysisState<?>>> expected = run(setup, 1, sequential, main, ALIASING);
+		Map<Statement, Set<AnalysisState<?>>> actual = run(setup, ENTRYPOINTS, parallel, workers, ALIASING);
+
+		assertEquals(expected, actual);
+		// e0 and e3 are in the same group, that is analyzed only once
+		assertEquals(sequential.calls.get(), parallel.calls.get());
+		assertTrue(workers.stream().anyMatch(ForkJoinWorkerThread.class::isInstance));
+	}
+
+	@Test
+	public void testUnknownAliasesRestartSequentially() throws Exception {
+		Setup setup = new Setup();
+		Collection<Thread> main = new ArrayList<>(), workers = new ArrayList<>();
+		CountingAnalysis<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> sequential = new AliasingAnalysis<>(),
+						parallel = new AliasingAnalysis<>();
+		Map<Statement, Set<AnalysisState<?>>> expected = run(setup, 1, sequential, main);
+		Map<Statement, Set<AnalysisState<?>>> actual = run(setup, ENTRYPOINTS, parallel, workers);
+
+		assertEquals(expected, actual);
+		// the calls of the discarded parallel iteration are counted as well
+		assertTrue(parallel.calls.get() > sequential.calls.get());
+	}
+}
@@ -0,0 +1,325 @@
+package it.unive.lisa.interprocedural;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.nonrelational.value.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.types.InferredTypes;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.imp.IMPFeatures;
+import it.unive.lisa.imp.types.IMPTypeSystem;
+import it.unive.lisa.interprocedural.callgraph.RTACallGraph;
+import it.unive.lisa.interprocedural.context.ContextBasedAnalysis;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeMemberDescriptor;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.fixpoints.FixpointListener;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Return;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.program.cfg.statement.call.Call.CallType;
+import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
+import it.unive.lisa.program.cfg.statement.literal.Int32Literal;
+import it.unive.lisa.program.cfg.statement.numeric.Addition;
+import it.unive.lisa.util.collections.workset.WorkingSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import org.junit.Test;
+
+public class SummaryStoreTest {
+
+	private static class Setup {
+
+		private int line = 0;
+
+		private final Program program = new Program(new IMPFeatures(), new IMPTypeSystem());
+
+		private final CFG main, callee;
+
+		private final Application app;
+
+		/**
+		 * callee() { x = c; return x; } main() { y = callee(); z = y + m;
+		 * return; }
+		 */
+		private Setup(
+				int c,
+				int m) {
+			callee = new CFG(new CodeMemberDescriptor(loc(), program, false, "callee"));
+			Statement assign = new Assignment(callee, loc(), new VariableRef(callee, loc(), "x"),
+					new Int32Literal(callee, loc(), c));
+			Statement ret = new Return(callee, loc(), new VariableRef(callee, loc(), "x"));
+			callee.addNode(assign, true);
+			callee.addNode(ret);
+			callee.addEdge(new SequentialEdge(assign, ret));
+
+			main = new CFG(new CodeMemberDescriptor(loc(), program, false, "main"));
+			Statement call = new Assignment(main, loc(), new VariableRef(main, loc(), "y"),
+					new UnresolvedCall(main, loc(), CallType.STATIC, null, "callee"));
+			Statement sum = new Assignment(main, loc(), new VariableRef(main, loc(), "z"),
+					new Addition(main, loc(), new VariableRef(main, loc(), "y"), new Int32Literal(main, loc(), m)));
+			Statement end = new Ret(main, loc());
+			main.addNode(call, true);
+			main.addNode(sum);
+			main.addNode(end);
+			main.addEdge(new SequentialEdge(call, sum));
+			main.addEdge(new SequentialEdge(sum, end));
+
+			program.addCodeMember(callee);
+			program.addCodeMember(main);
+			program.addEntryPoint(main);
+			app = new Application(program);
+		}
+
+		private SourceCodeLocation loc() {
+			return new SourceCodeLocation("summaries", ++line, 0);
+		}
+	}
+
+	private static Collection<String> run(
+			Setup setup,
+			SummaryStore store,
+			Collection<AnalyzedCFG<?>> mainResults)
+			throws Exception {
+		return run(setup, store, mainResults, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Collection<String> run(
+			Setup setup,
+			SummaryStore store,
+			Collection<AnalyzedCFG<?>> mainResults,
+			Predicate<Statement> hotspots)
+			throws Exception {
+		Set<String> computed = new TreeSet<>();
+		LiSAConfiguration base = new LiSAConfiguration();
+		base.summaryStore = store;
+		base.hotspots = hotspots;
+		base.fixpointListener = new FixpointListener() {
+
+			@Override
+			public synchronized void fixpointStarted(
+					CFG cfg,
+					ScopeId id) {
+				computed.add(cfg.getDescriptor().getName());
+			}
+		};
+
+		ContextBasedAnalysis<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> analysis = new ContextBasedAnalysis<>();
+		RTACallGraph callgraph = new RTACallGraph();
+		callgraph.init(setup.app);
+		analysis.init(setup.app, callgraph, WorstCasePolicy.INSTANCE);
+		if (store != null)
+			store.validate(base, setup.app);
+
+		analysis.fixpoint(
+				new AnalysisState<>(
+						new SimpleAbstractState<>(
+								new MonolithicHeap(),
+								new ValueEnvironment<>(new Interval()),
+								new TypeEnvironment<>(new InferredTypes())),
+						new ExpressionSet()),
+				(Class<? extends WorkingSet<Statement>>) base.fixpointWorkingSet,
+				new FixpointConfiguration(base));
+		if (store != null)
+			store.update(base, setup.app, callgraph, analysis.getFixpointResults());
+
+		mainResults.addAll(analysis.getAnalysisResultsOf(setup.main));
+		// callees of reused summaries must be part of the results too
+		assertEquals(1, analysis.getAnalysisResultsOf(setup.callee).size());
+		// reused results must refer to the current program
+		assertBound(setup.main, analysis.getAnalysisResultsOf(setup.main));
+		assertBound(setup.callee, analysis.getAnalysisResultsOf(setup.callee));
+		return computed;
+	}
+
+	private static void assertBound(
+			CFG cfg,
+			Collection<? extends AnalyzedCFG<?>> results) {
+		for (AnalyzedCFG<?> result : results) {
+			Collection<Statement> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+			nodes.addAll(cfg.getNodes());
+			for (Statement node : result.getNodes())
+				assertTrue(nodes.contains(node));
+			for (Statement st : result.getStoredStates().keySet())
+				assertTrue(nodes.contains(st) || nodes.contains(((Expression) st).getRootStatement()));
+			for (Statement st : result.getEntryStates().keySet())
+				assertTrue(nodes.contains(st));
+		}
+	}
+
+	/**
+	 * A codec that keeps states in memory, used to check that everything else
+	 * in a persisted store survives a reload.
+	 */
+	private static class RegistryCodec implements StateCodec {
+
+		private final List<AnalysisState<?>> states = new ArrayList<>();
+
+		private boolean failing = false;
+
+		@Override
+		public String encode(
+				AnalysisState<?> state)
+				throws IOException {
+			if (failing)
+				throw new IOException("Cannot encode " + state);
+			states.add(state);
+			return String.valueOf(states.size() - 1);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <A extends AbstractState<A>> AnalysisState<A> decode(
+				String encoded,
+				AnalysisState<A> singleton)
+				throws IOException {
+			return (AnalysisState<A>) states.get(Integer.parseInt(encoded));
+		}
+	}
+
+	private static void assertSameResults(
+			Setup setup,
+			Collection<AnalyzedCFG<?>> expected,
+			Collection<AnalyzedCFG<?>> actual) {
+		assertEquals(1, expected.size());
+		assertEquals(1, actual.size());
+		AnalyzedCFG<?> exp = expected.iterator().next(), act = actual.iterator().next();
+		for (Statement st : setup.main.getNodes())
+			assertEquals(exp.getAnalysisStateAfter(st), act.getAnalysisStateAfter(st));
+	}
+
+	@Test
+	public void testStructuralHash() {
+		Setup first = new Setup(1, 2), second = new Setup(1, 2), changed = new Setup(3, 2);
+		assertEquals(SummaryStore.hash(first.main), SummaryStore.hash(second.main));
+		assertEquals(SummaryStore.hash(first.callee), SummaryStore.hash(second.callee));
+		assertEquals(SummaryStore.hash(first.main), SummaryStore.hash(changed.main));
+		assertNotEquals(SummaryStore.hash(first.callee), SummaryStore.hash(changed.callee));
+	}
+
+	private static CFG sameLocation(
+			Program program,
+			boolean assignmentFirst) {
+		SourceCodeLocation loc = new SourceCodeLocation("summaries", 1, 0);
+		CFG cfg = new CFG(new CodeMemberDescriptor(loc, program, false, "f"));
+		Statement assign = new Assignment(cfg, loc, new VariableRef(cfg, loc, "x"), new Int32Literal(cfg, loc, 1));
+		Statement noop = new NoOp(cfg, loc);
+		Statement ret = new Ret(cfg, new SourceCodeLocation("summaries", 2, 0));
+		cfg.addNode(assign);
+		cfg.addNode(noop);
+		cfg.addNode(ret);
+		Statement first = assignmentFirst ? assign : noop, second = assignmentFirst ? noop : assign;
+		cfg.addEdge(new SequentialEdge(first, second));
+		cfg.addEdge(new SequentialEdge(second, ret));
+		return cfg;
+	}
+
+	@Test
+	public void testHashDistinguishesNodesWithSameLocation() {
+		Program program = new Program(new IMPFeatures(), new IMPTypeSystem());
+		// same nodes, and edges connecting the same locations
+		assertEquals(SummaryStore.hash(sameLocation(program, true)), SummaryStore.hash(sameLocation(program, true)));
+		assertNotEquals(SummaryStore.hash(sameLocation(program, true)),
+				SummaryStore.hash(sameLocation(program, false)));
+	}
+
+	@Test
+	public void testUnchangedProgramIsNotRecomputed() throws Exception {
+		SummaryStore store = new SummaryStore();
+		Collection<AnalyzedCFG<?>> expected = new ArrayList<>(), actual = new ArrayList<>();
+		assertEquals(Set.of("callee", "main"), run(new Setup(1, 2), store, expected));
+		assertEquals(2, store.size());
+
+		Setup setup = new Setup(1, 2);
+		assertTrue(run(setup, store, actual).isEmpty());
+		assertSameResults(setup, expected, actual);
+		assertEquals(2, store.size());
+	}
+
+	@Test
+	public void testChangedCalleeInvalidatesCallers() throws Exception {
+		SummaryStore store = new SummaryStore();
+		run(new Setup(1, 2), store, new ArrayList<>());
+
+		Collection<AnalyzedCFG<?>> expected = new ArrayList<>(), actual = new ArrayList<>();
+		Setup setup = new Setup(3, 2);
+		assertEquals(Set.of("callee", "main"), run(setup, store, actual));
+		run(new Setup(3, 2), null, expected);
+		assertSameResults(setup, expected, actual);
+	}
+
+	@Test
+	public void testChangedCallerReusesCallees() throws Exception {
+		SummaryStore store = new SummaryStore();
+		run(new Setup(1, 2), store, new ArrayList<>());
+
+		Collection<AnalyzedCFG<?>> expected = new ArrayList<>(), actual = new ArrayList<>();
+		Setup setup = new Setup(1, 5);
+		assertEquals(Set.of("main"), run(setup, store, actual));
+		run(new Setup(1, 5), null, expected);
+		assertSameResults(setup, expected, actual);
+	}
+
+	@Test
+	public void testPersistedSummariesAreReloaded() throws Exception {
+		Path file = Files.createTempDirectory("summaries").resolve("summaries.json");
+		RegistryCodec codec = new RegistryCodec();
+		Collection<AnalyzedCFG<?>> expected = new ArrayList<>(), actual = new ArrayList<>();
+		assertEquals(Set.of("callee", "main"), run(new Setup(1, 2), new SummaryStore(file, codec), expected));
+		assertTrue(Files.exists(file));
+
+		// a new store, as the one of a new process, reads back the summaries
+		SummaryStore reloaded = new SummaryStore(file, codec);
+		assertEquals(2, reloaded.size());
+		Setup setup = new Setup(1, 2);
+		assertTrue(run(setup, reloaded, actual).isEmpty());
+		assertSameResults(setup, expected, actual);
+
+		// states that cannot be encoded are not persisted
+		codec.failing = true;
+		run(new Setup(1, 2), new SummaryStore(file, codec), new ArrayList<>());
+		assertEquals(Set.of("callee", "main"), run(new Setup(1, 2), new SummaryStore(file, codec), new ArrayList<>()));
+	}
+
+	@Test
+	public void testHotspotsDoNotInvalidateSummaries() throws Exception {
+		SummaryStore store = new SummaryStore();
+		Setup first = new Setup(1, 2), second = new Setup(1, 2);
+		run(first, store, new ArrayList<>(), st -> st.getCFG() == first.main);
+		// an equivalent predicate, with a different textual representation
+		assertTrue(run(second, store, new ArrayList<>(), st -> st.getCFG() == second.main).isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPersistenceRequiresCodec() throws IOException {
+		new SummaryStore(Files.createTempDirectory("summaries").resolve("summaries.json"), null);
+	}
+}
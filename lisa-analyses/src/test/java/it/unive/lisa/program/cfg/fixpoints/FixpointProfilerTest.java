@@ -0,0 +1,182 @@
+package it.unive.lisa.program.cfg.fixpoints;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.nonrelational.value.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.types.InferredTypes;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.imp.IMPFeatures;
+import it.unive.lisa.imp.types.IMPTypeSystem;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
+import it.unive.lisa.interprocedural.ScopeId;
+import it.unive.lisa.interprocedural.UniqueScope;
+import it.unive.lisa.interprocedural.WorstCasePolicy;
+import it.unive.lisa.interprocedural.callgraph.RTACallGraph;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeMemberDescriptor;
+import it.unive.lisa.program.cfg.controlFlow.ControlFlowExtractor;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.program.cfg.statement.comparison.LessThan;
+import it.unive.lisa.program.cfg.statement.literal.Int32Literal;
+import it.unive.lisa.program.cfg.statement.numeric.Addition;
+import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class FixpointProfilerTest {
+
+	private static int line = 0;
+
+	private static SourceCodeLocation loc() {
+		return new SourceCodeLocation("profiling", ++line, 0);
+	}
+
+	private final Program program = new Program(new IMPFeatures(), new IMPTypeSystem());
+
+	private final CFG cfg = new CFG(new CodeMemberDescriptor(loc(), program, false, "loop"));
+
+	private final Statement init, cond, incr;
+
+	/**
+	 * x = 0; while (x < 100) { x = x + 1; } return;
+	 */
+	public FixpointProfilerTest() {
+		init = new Assignment(cfg, loc(), new VariableRef(cfg, loc(), "x"), new Int32Literal(cfg, loc(), 0));
+		cond = new LessThan(cfg, loc(), new VariableRef(cfg, loc(), "x"), new Int32Literal(cfg, loc(), 100));
+		incr = new Assignment(cfg, loc(), new VariableRef(cfg, loc(), "x"),
+				new Addition(cfg, loc(), new VariableRef(cfg, loc(), "x"), new Int32Literal(cfg, loc(), 1)));
+		Statement ret = new Ret(cfg, loc());
+
+		cfg.addNode(init, true);
+		cfg.addNode(cond);
+		cfg.addNode(incr);
+		cfg.addNode(ret);
+		cfg.addEdge(new SequentialEdge(init, cond));
+		cfg.addEdge(new TrueEdge(cond, incr));
+		cfg.addEdge(new SequentialEdge(incr, cond));
+		cfg.addEdge(new FalseEdge(cond, ret));
+		cfg.extractControlFlowStructures(new ControlFlowExtractor());
+		cfg.computeBasicBlocks();
+	}
+
+	private AnalyzedCFG<
+			SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>, TypeEnvironment<InferredTypes>>> run(
+					FixpointConfiguration conf)
+					throws Exception {
+		ModularWorstCaseAnalysis<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> analysis = new ModularWorstCaseAnalysis<>();
+		RTACallGraph callgraph = new RTACallGraph();
+		Application app = new Application(program);
+		callgraph.init(app);
+		analysis.init(app, callgraph, WorstCasePolicy.INSTANCE);
+
+		AnalysisState<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> entry = new AnalysisState<>(
+						new SimpleAbstractState<>(
+								new MonolithicHeap(),
+								new ValueEnvironment<>(new Interval()),
+								new TypeEnvironment<>(new InferredTypes())),
+						new ExpressionSet());
+		return cfg.fixpoint(entry, analysis, FIFOWorkingSet.mk(), conf, new UniqueScope());
+	}
+
+	@Test
+	public void testProfiledResultsAreUnchanged() throws Exception {
+		LiSAConfiguration base = new LiSAConfiguration();
+		FixpointConfiguration plain = new FixpointConfiguration(base);
+		base.profileFixpoints = true;
+		FixpointConfiguration profiled = new FixpointConfiguration(base);
+		assertEquals(null, plain.getListener());
+		assertEquals(profiled.getProfiler(), profiled.getListener());
+		AnalyzedCFG<?> expected = run(plain), actual = run(profiled);
+		for (Statement st : cfg.getNodes())
+			assertEquals(expected.getAnalysisStateAfter(st), actual.getAnalysisStateAfter(st));
+	}
+
+	@Test
+	public void testMetrics() throws Exception {
+		AtomicInteger started = new AtomicInteger(), ended = new AtomicInteger(), widenings = new AtomicInteger();
+		LiSAConfiguration base = new LiSAConfiguration();
+		base.profileFixpoints = true;
+		base.fixpointListener = new FixpointListener() {
+
+			@Override
+			public void fixpointStarted(
+					CFG cfg,
+					ScopeId id) {
+				started.incrementAndGet();
+			}
+
+			@Override
+			public void fixpointEnded(
+					CFG cfg,
+					ScopeId id,
+					long elapsed) {
+				ended.incrementAndGet();
+			}
+
+			@Override
+			public void statesJoined(
+					CFG cfg,
+					Statement node,
+					boolean widening) {
+				if (widening)
+					widenings.incrementAndGet();
+			}
+		};
+		FixpointConfiguration conf = new FixpointConfiguration(base);
+		run(conf);
+		assertEquals(1, started.get());
+		assertEquals(1, ended.get());
+		assertTrue(widenings.get() > 0);
+
+		StringWriter writer = new StringWriter();
+		conf.getProfiler().dumpJson(writer);
+		JsonNode profile = new ObjectMapper().readTree(writer.toString());
+		JsonNode loop = profile.get(cfg.getDescriptor().getFullSignatureWithParNames());
+		assertEquals(1, loop.get("contexts").size());
+		assertTrue(loop.get("time").asLong() > 0);
+
+		JsonNode statements = loop.get("statements");
+		JsonNode first = statements.get(init.getLocation() + ": " + init);
+		assertEquals(1, first.get("pops").asLong());
+		assertEquals(1, first.get("evaluations").asLong());
+		assertEquals(0, first.get("lubs").asLong());
+		assertTrue(first.get("stateSize").asLong() > 0);
+
+		// the loop is not bounded before widening
+		JsonNode head = statements.get(cond.getLocation() + ": " + cond);
+		assertEquals(widenings.get(), head.get("widenings").asInt());
+		assertEquals(base.wideningThreshold, head.get("lubs").asInt());
+		assertTrue(head.get("pops").asLong() > base.wideningThreshold);
+		JsonNode body = statements.get(incr.getLocation() + ": " + incr);
+		assertEquals(body.get("pops").asLong(), body.get("evaluations").asLong());
+
+		writer = new StringWriter();
+		conf.getProfiler().dumpCsv(writer);
+		String[] lines = writer.toString().split("\n");
+		assertEquals("cfg,statement,pops,evaluations,time,lubs,widenings,stateSize", lines[0]);
+		assertEquals(statements.size() + 1, lines.length);
+	}
+}
@@ -0,0 +1,181 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.DefaultConfiguration;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.LiSAReport;
+import it.unive.lisa.imp.IMPFrontend;
+import it.unive.lisa.imp.ParsingException;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
+import it.unive.lisa.interprocedural.context.ContextBasedAnalysis;
+import it.unive.lisa.program.Program;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks complete runs of {@link LiSA} on the IMP programs used by the
+ * cron tests of {@code lisa-analyses}, using the
+ * {@link DefaultConfiguration#defaultAbstractState() default abstract state}.
+ * The directory containing the programs is read from the
+ * {@value #TESTCASES_PROPERTY} system property, that the build sets
+ * automatically.<br>
+ * <br>
+ * Each program can be replicated several times, renaming its classes in each
+ * copy: the copies do not interact, and can thus be analyzed in parallel by
+ * setting {@link it.unive.lisa.conf.LiSAConfiguration#analysisThreads}.
+ * Comparing the timings for different numbers of {@link #threads} on the same
+ * number of {@link #replicas} measures how the analyses scale.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AnalysisBenchmark {
+
+	/**
+	 * The name of the system property holding the path to the directory
+	 * containing the programs to analyze.
+	 */
+	public static final String TESTCASES_PROPERTY = "lisa.benchmarks.testcases";
+
+	private static final Pattern UNIT_DECLARATION = Pattern.compile("\\b(?:class|interface)\\s+(\\w+)");
+
+	/**
+	 * The program to analyze, relative to the directory of the test cases.
+	 */
+	@Param({
+			"numeric/numeric.imp",
+			"numeric/pentagons.imp",
+			"heap/heap-pp.imp",
+			"string/strings.imp",
+			"interprocedural/factorial.imp",
+			"interprocedural/context.imp",
+			"type-inference/inference.imp"
+	})
+	public String program;
+
+	/**
+	 * The interprocedural analysis to use, either {@code modular} for
+	 * {@link ModularWorstCaseAnalysis} or {@code context} for
+	 * {@link ContextBasedAnalysis}.
+	 */
+	@Param({ "modular", "context" })
+	public String interprocedural;
+
+	/**
+	 * The number of threads used by the analysis.
+	 */
+	@Param({ "1", "4" })
+	public int threads;
+
+	/**
+	 * The number of copies of the program that are analyzed together.
+	 */
+	@Param({ "1", "8" })
+	public int replicas;
+
+	private String workdir;
+
+	private String source;
+
+	private Program parsed;
+
+	/**
+	 * Creates the working directory of the analysis and reads the program to
+	 * analyze, replicating it {@link #replicas} times.
+	 * 
+	 * @throws IOException if the directory cannot be created or the program
+	 *                         cannot be read
+	 */
+	@Setup(Level.Trial)
+	public void createWorkdir()
+			throws IOException {
+		workdir = Files.createTempDirectory("lisa-benchmarks").toString();
+		String testcases = System.getProperty(TESTCASES_PROPERTY);
+		if (testcases == null)
+			throw new IllegalStateException("The " + TESTCASES_PROPERTY + " system property is not set");
+		source = replicate(Files.readString(Paths.get(testcases, program)), replicas);
+	}
+
+	/**
+	 * Yields {@code copies} copies of the given IMP program, where the classes
+	 * and interfaces of the {@code i}-th copy are renamed by appending
+	 * {@code _i} to their names. Since the copies are concatenated, their code
+	 * members have distinct locations.
+	 * 
+	 * @param source the IMP program
+	 * @param copies the number of copies
+	 * 
+	 * @return the replicated program
+	 */
+	public static String replicate(
+			String source,
+			int copies) {
+		if (copies <= 1)
+			return source;
+
+		Set<String> names = new HashSet<>();
+		Matcher m = UNIT_DECLARATION.matcher(source);
+		while (m.find())
+			names.add(m.group(1));
+		if (names.isEmpty())
+			return source;
+		Pattern references = Pattern.compile("\\b(" + String.join("|", names) + ")\\b");
+
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < copies; i++) {
+			String suffix = "_" + i;
+			result.append(references.matcher(source).replaceAll(r -> r.group(1) + suffix)).append("\n");
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Parses the program to analyze. This happens before each invocation since
+	 * the analysis modifies the program.
+	 * 
+	 * @throws ParsingException if the program cannot be parsed
+	 */
+	@Setup(Level.Invocation)
+	public void parse()
+			throws ParsingException {
+		parsed = IMPFrontend.processText(source, false);
+	}
+
+	/**
+	 * Runs the analysis.
+	 * 
+	 * @return the report of the analysis
+	 */
+	@Benchmark
+	public LiSAReport run() {
+		DefaultConfiguration conf = new DefaultConfiguration();
+		conf.workdir = workdir;
+		conf.abstractState = DefaultConfiguration.defaultAbstractState();
+		conf.analysisThreads = threads;
+		if (interprocedural.equals("context"))
+			conf.interproceduralAnalysis = new ContextBasedAnalysis<>();
+		return new LiSA(conf).run(parsed);
+	}
+}
@@ -0,0 +1,202 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.string.fsa.SimpleAutomaton;
+import it.unive.lisa.util.datastructures.automaton.Automaton;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the most expensive operations of {@link Automaton}s, using
+ * {@link SimpleAutomaton}s. The non-deterministic automaton is built as the
+ * union of {@code size} random words, followed by the star of one of them to
+ * introduce cycles.<br>
+ * <br>
+ * Since {@link Automaton#minimize()} caches its result, minimization
+ * benchmarks work on a fresh copy of the automaton: {@link #copy()} measures
+ * the cost of the copy alone. {@link #brzozowski()} measures the minimization
+ * through Brzozowski's algorithm (that is, reversing and determinizing twice),
+ * that {@link #minimizeDeterministic()} can be compared against. Similarly,
+ * results of {@link Automaton#isContained(Automaton)} are memoized between
+ * minimal automata, keyed by their structure: {@link #isContained()} and
+ * {@link #isNotContained()} work on copies that are not known to be minimal,
+ * while {@link #isContainedMinimal()} measures the memoized check.
+ * {@link #isContainedByComplement()} measures the inclusion check through the
+ * emptiness of the intersection with the complement, that
+ * {@link #isContained()} can be compared against.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AutomatonBenchmark {
+
+	/**
+	 * The number of words whose union forms the automaton.
+	 */
+	@Param({ "5", "20", "50" })
+	public int size;
+
+	private SimpleAutomaton nondeterministic;
+
+	private SimpleAutomaton deterministic;
+
+	private SimpleAutomaton minimal;
+
+	private SimpleAutomaton subset;
+
+	private SimpleAutomaton minimalCopy;
+
+	private SimpleAutomaton subsetCopy;
+
+	/**
+	 * Builds the automata.
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(size);
+		SimpleAutomaton words = new SimpleAutomaton(word(random));
+		SimpleAutomaton half = words;
+		for (int i = 1; i < size; i++) {
+			words = words.union(new SimpleAutomaton(word(random)));
+			if (i == size / 2)
+				half = words;
+		}
+
+		SimpleAutomaton loop = new SimpleAutomaton(word(random)).star();
+		nondeterministic = words.concat(loop);
+		deterministic = nondeterministic.determinize();
+		minimal = nondeterministic.minimize();
+		subset = half.concat(loop).minimize();
+		minimalCopy = minimal.copy();
+		subsetCopy = subset.copy();
+	}
+
+	private static String word(
+			Random random) {
+		int length = 3 + random.nextInt(6);
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			sb.append((char) ('a' + random.nextInt(3)));
+		return sb.toString();
+	}
+
+	/**
+	 * Benchmarks {@link Automaton#determinize()}.
+	 * 
+	 * @return the deterministic automaton
+	 */
+	@Benchmark
+	public SimpleAutomaton determinize() {
+		return nondeterministic.determinize();
+	}
+
+	/**
+	 * Benchmarks {@link Automaton#copy()}, that is part of all minimization
+	 * benchmarks.
+	 * 
+	 * @return the copy
+	 */
+	@Benchmark
+	public SimpleAutomaton copy() {
+		return deterministic.copy();
+	}
+
+	/**
+	 * Benchmarks {@link Automaton#minimize()} on a non-deterministic
+	 * automaton.
+	 * 
+	 * @return the minimal automaton
+	 */
+	@Benchmark
+	public SimpleAutomaton minimize() {
+		return nondeterministic.copy().minimize();
+	}
+
+	/**
+	 * Benchmarks {@link Automaton#minimize()} on a deterministic automaton.
+	 * 
+	 * @return the minimal automaton
+	 */
+	@Benchmark
+	public SimpleAutomaton minimizeDeterministic() {
+		return deterministic.copy().minimize();
+	}
+
+	/**
+	 * Benchmarks the minimization of a deterministic automaton through
+	 * Brzozowski's algorithm.
+	 * 
+	 * @return the minimal automaton
+	 */
+	@Benchmark
+	public SimpleAutomaton brzozowski() {
+		return deterministic.copy()
+				.reverse().determinize().removeUnreachableStates()
+				.reverse().determinize().removeUnreachableStates();
+	}
+
+	/**
+	 * Benchmarks {@link Automaton#isContained(Automaton)} when the inclusion
+	 * holds.
+	 * 
+	 * @return whether the language of the smaller automaton is contained in
+	 *             the one of the bigger automaton
+	 */
+	@Benchmark
+	public boolean isContained() {
+		return subsetCopy.isContained(minimalCopy);
+	}
+
+	/**
+	 * Benchmarks {@link Automaton#isContained(Automaton)} when the inclusion
+	 * does not hold.
+	 * 
+	 * @return whether the language of the bigger automaton is contained in the
+	 *             one of the smaller automaton
+	 */
+	@Benchmark
+	public boolean isNotContained() {
+		return minimalCopy.isContained(subsetCopy);
+	}
+
+	/**
+	 * Benchmarks the inclusion check through the emptiness of the intersection
+	 * with the complement.
+	 * 
+	 * @return whether the language of the smaller automaton is contained in
+	 *             the one of the bigger automaton
+	 */
+	@Benchmark
+	public boolean isContainedByComplement() {
+		return subsetCopy.intersection(minimalCopy.complement(subsetCopy.commonAlphabet(minimalCopy)))
+				.minimize()
+				.acceptsEmptyLanguage();
+	}
+
+	/**
+	 * Benchmarks {@link Automaton#isContained(Automaton)} between minimal
+	 * automata, whose result is memoized.
+	 * 
+	 * @return whether the language of the smaller automaton is contained in
+	 *             the one of the bigger automaton
+	 */
+	@Benchmark
+	public boolean isContainedMinimal() {
+		return subset.isContained(minimal);
+	}
+}
@@ -0,0 +1,131 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.util.collections.externalSet.BitExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the operations of {@link BitExternalSet}s. Both sets contain
+ * roughly half of the elements of a cache holding {@code size} elements.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExternalSetBenchmark {
+
+	/**
+	 * The number of elements in the cache.
+	 */
+	@Param({ "64", "1024", "16384" })
+	public int size;
+
+	private ExternalSet<Integer> left;
+
+	private ExternalSet<Integer> right;
+
+	private int probe;
+
+	/**
+	 * Builds the sets.
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(size);
+		ExternalSetCache<Integer> cache = new ExternalSetCache<>();
+		List<Integer> l = new ArrayList<>();
+		List<Integer> r = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			if (random.nextBoolean())
+				l.add(i);
+			if (random.nextBoolean())
+				r.add(i);
+		}
+
+		left = cache.mkSet(l);
+		right = cache.mkSet(r);
+		probe = size / 2;
+	}
+
+	/**
+	 * Benchmarks {@link ExternalSet#union(ExternalSet)}.
+	 * 
+	 * @return the union of the two sets
+	 */
+	@Benchmark
+	public ExternalSet<Integer> union() {
+		return left.union(right);
+	}
+
+	/**
+	 * Benchmarks {@link ExternalSet#intersection(ExternalSet)}.
+	 * 
+	 * @return the intersection of the two sets
+	 */
+	@Benchmark
+	public ExternalSet<Integer> intersection() {
+		return left.intersection(right);
+	}
+
+	/**
+	 * Benchmarks {@link ExternalSet#difference(ExternalSet)}.
+	 * 
+	 * @return the difference between the two sets
+	 */
+	@Benchmark
+	public ExternalSet<Integer> difference() {
+		return left.difference(right);
+	}
+
+	/**
+	 * Benchmarks {@link ExternalSet#contains(ExternalSet)}.
+	 * 
+	 * @return whether the first set contains the second one
+	 */
+	@Benchmark
+	public boolean containsSet() {
+		return left.contains(right);
+	}
+
+	/**
+	 * Benchmarks {@link ExternalSet#contains(Object)}.
+	 * 
+	 * @return whether the first set contains an element
+	 */
+	@Benchmark
+	public boolean containsElement() {
+		return left.contains(probe);
+	}
+
+	/**
+	 * Benchmarks the iteration over all the elements of a set.
+	 * 
+	 * @return the sum of the elements of the first set
+	 */
+	@Benchmark
+	public long iterate() {
+		long sum = 0;
+		for (Integer i : left)
+			sum += i;
+		return sum;
+	}
+}
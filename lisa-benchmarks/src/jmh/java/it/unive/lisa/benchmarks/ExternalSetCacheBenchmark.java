@@ -0,0 +1,174 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the contention on a shared {@link ExternalSetCache}. Each
+ * invocation runs {@code threads} tasks at once, each performing
+ * {@value #OPERATIONS} operations on sets backed by the same cache holding
+ * {@value #SIZE} elements. Since reads of the cache do not acquire locks, the
+ * time of an invocation should stay roughly constant as long as there are
+ * enough cores for all threads.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExternalSetCacheBenchmark {
+
+	private static final int SIZE = 4096;
+
+	private static final int OPERATIONS = 10_000;
+
+	/**
+	 * The number of threads accessing the cache at once.
+	 */
+	@Param({ "1", "2", "4", "8", "16", "32" })
+	public int threads;
+
+	private ExecutorService executor;
+
+	private ExternalSetCache<Integer> cache;
+
+	private ExternalSet<Integer> set;
+
+	private Integer[] probes;
+
+	/**
+	 * Builds the cache, the shared set and the thread pool.
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(SIZE);
+		cache = new ExternalSetCache<>();
+		List<Integer> elements = new ArrayList<>();
+		for (int i = 0; i < SIZE; i++)
+			if (random.nextBoolean())
+				elements.add(i);
+		set = cache.mkSet(elements);
+		// the universe of the cache is the whole range
+		for (int i = 0; i < SIZE; i++)
+			cache.mkSingletonSet(i);
+
+		probes = new Integer[SIZE];
+		for (int i = 0; i < SIZE; i++)
+			probes[i] = random.nextInt(2 * SIZE);
+
+		executor = Executors.newFixedThreadPool(threads);
+	}
+
+	/**
+	 * Shuts down the thread pool.
+	 */
+	@TearDown
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Benchmarks concurrent membership tests, each looking up the index of an
+	 * element in the cache.
+	 * 
+	 * @return the number of elements found
+	 * 
+	 * @throws InterruptedException if a task is interrupted
+	 * @throws ExecutionException   if a task fails
+	 */
+	@Benchmark
+	public long lookups()
+			throws InterruptedException,
+			ExecutionException {
+		return run(() -> {
+			long found = 0;
+			for (int i = 0; i < OPERATIONS; i++)
+				if (set.contains(probes[i % SIZE]))
+					found++;
+			return found;
+		});
+	}
+
+	/**
+	 * Benchmarks concurrent iterations over a set, each retrieving the
+	 * elements from the cache.
+	 * 
+	 * @return the sum of the elements visited
+	 * 
+	 * @throws InterruptedException if a task is interrupted
+	 * @throws ExecutionException   if a task fails
+	 */
+	@Benchmark
+	public long iterations()
+			throws InterruptedException,
+			ExecutionException {
+		return run(() -> {
+			long sum = 0;
+			int visited = 0;
+			while (visited < OPERATIONS)
+				for (Integer e : set) {
+					sum += e;
+					visited++;
+				}
+			return sum;
+		});
+	}
+
+	/**
+	 * Benchmarks concurrent additions of elements that are already in the
+	 * cache, that are resolved without synchronization.
+	 * 
+	 * @return the sum of the sizes of the sets built
+	 * 
+	 * @throws InterruptedException if a task is interrupted
+	 * @throws ExecutionException   if a task fails
+	 */
+	@Benchmark
+	public long additions()
+			throws InterruptedException,
+			ExecutionException {
+		return run(() -> {
+			ExternalSet<Integer> result = cache.mkEmptySet();
+			for (int i = 0; i < OPERATIONS; i++)
+				result.add(probes[i % SIZE] % SIZE);
+			return (long) result.size();
+		});
+	}
+
+	private long run(
+			Callable<Long> task)
+			throws InterruptedException,
+			ExecutionException {
+		List<Future<Long>> futures = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++)
+			futures.add(executor.submit(task));
+		long result = 0;
+		for (Future<Long> future : futures)
+			result += future.get();
+		return result;
+	}
+}
@@ -0,0 +1,113 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.DefaultConfiguration;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.nonrelational.value.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.types.InferredTypes;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.imp.IMPFrontend;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
+import it.unive.lisa.interprocedural.UniqueScope;
+import it.unive.lisa.interprocedural.WorstCasePolicy;
+import it.unive.lisa.interprocedural.callgraph.RTACallGraph;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the fixpoint computation over a single {@link CFG}, using the
+ * default abstract state (intervals, monolithic heap and inferred types), on
+ * the synthetic programs generated by {@link SyntheticPrograms}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixpointBenchmark {
+
+	/**
+	 * The shape of the analyzed cfg.
+	 */
+	@Param({ SyntheticPrograms.SEQUENCE, SyntheticPrograms.BRANCHES, SyntheticPrograms.LOOPS })
+	public String shape;
+
+	/**
+	 * The number of repetitions of the shape inside the analyzed cfg.
+	 */
+	@Param({ "10", "100" })
+	public int size;
+
+	private CFG cfg;
+
+	private ModularWorstCaseAnalysis<
+			SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>, TypeEnvironment<InferredTypes>>> analysis;
+
+	private AnalysisState<
+			SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>, TypeEnvironment<InferredTypes>>> entry;
+
+	private FixpointConfiguration conf;
+
+	/**
+	 * Parses the synthetic program and prepares the analysis.
+	 * 
+	 * @throws Exception if the program cannot be parsed or the analysis cannot
+	 *                       be initialized
+	 */
+	@Setup
+	public void setup()
+			throws Exception {
+		Program program = IMPFrontend.processText(SyntheticPrograms.generate(shape, size));
+		cfg = program.getAllCFGs().iterator().next();
+		cfg.computeAdjacencyIndex();
+
+		Application app = new Application(program);
+		RTACallGraph callgraph = new RTACallGraph();
+		callgraph.init(app);
+		analysis = new ModularWorstCaseAnalysis<>();
+		analysis.init(app, callgraph, WorstCasePolicy.INSTANCE);
+
+		entry = new AnalysisState<>(DefaultConfiguration.defaultAbstractState(), new ExpressionSet());
+		LiSAConfiguration base = new LiSAConfiguration();
+		base.optimize = false;
+		conf = new FixpointConfiguration(base);
+	}
+
+	/**
+	 * Computes the fixpoint over the cfg.
+	 * 
+	 * @return the analyzed cfg
+	 * 
+	 * @throws FixpointException if the fixpoint computation fails
+	 */
+	@Benchmark
+	public AnalyzedCFG<
+			SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>, TypeEnvironment<InferredTypes>>> fixpoint()
+					throws FixpointException {
+		return cfg.fixpoint(entry, analysis, FIFOWorkingSet.mk(), conf, new UniqueScope());
+	}
+}
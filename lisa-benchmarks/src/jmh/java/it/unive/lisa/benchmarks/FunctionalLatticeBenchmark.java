@@ -0,0 +1,120 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.lattices.FunctionalLattice;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.program.type.Int32Type;
+import it.unive.lisa.symbolic.value.Variable;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the operations of {@link FunctionalLattice}s, instantiated as
+ * {@link ValueEnvironment}s of {@link Interval}s. The two compared functions
+ * share the same keys, and differ only on a fraction of them, as it happens
+ * between consecutive iterations of a fixpoint.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FunctionalLatticeBenchmark {
+
+	/**
+	 * The number of keys of the functions.
+	 */
+	@Param({ "10", "100", "1000", "10000" })
+	public int size;
+
+	/**
+	 * The percentage of keys whose values differ between the two functions.
+	 */
+	@Param({ "1", "10", "100" })
+	public int changed;
+
+	private ValueEnvironment<Interval> left;
+
+	private ValueEnvironment<Interval> right;
+
+	/**
+	 * Builds the functions to compare.
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(size);
+		int[] lows = new int[size];
+		int[] highs = new int[size];
+		left = new ValueEnvironment<>(new Interval());
+		for (int i = 0; i < size; i++) {
+			lows[i] = random.nextInt(100);
+			highs[i] = lows[i] + random.nextInt(100);
+			left = left.putState(variable(i), new Interval(lows[i], highs[i]));
+		}
+
+		right = left;
+		int step = 100 / changed;
+		for (int i = 0; i < size; i += step)
+			right = right.putState(variable(i), new Interval(lows[i], highs[i] + 10));
+	}
+
+	private static Variable variable(
+			int i) {
+		return new Variable(Int32Type.INSTANCE, "x" + i, SyntheticLocation.INSTANCE);
+	}
+
+	/**
+	 * Benchmarks {@link FunctionalLattice#lub(FunctionalLattice)}.
+	 * 
+	 * @return the least upper bound of the two functions
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public ValueEnvironment<Interval> lub()
+			throws SemanticException {
+		return left.lub(right);
+	}
+
+	/**
+	 * Benchmarks {@link FunctionalLattice#widening(FunctionalLattice)}.
+	 * 
+	 * @return the widening of the two functions
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public ValueEnvironment<Interval> widening()
+			throws SemanticException {
+		return left.widening(right);
+	}
+
+	/**
+	 * Benchmarks {@link FunctionalLattice#lessOrEqual(FunctionalLattice)}.
+	 * 
+	 * @return whether the first function is less or equal than the second one
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public boolean lessOrEqual()
+			throws SemanticException {
+		return left.lessOrEqual(right);
+	}
+}
@@ -0,0 +1,219 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.numeric.Pentagon;
+import it.unive.lisa.analysis.numeric.UpperBounds;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.program.type.Int32Type;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.symbolic.value.operator.binary.NumericNonOverflowingAdd;
+import it.unive.lisa.symbolic.value.operator.binary.NumericNonOverflowingDiv;
+import it.unive.lisa.symbolic.value.operator.binary.NumericNonOverflowingMul;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the lattice operations of {@link Interval} and {@link Pentagon},
+ * together with the arithmetic of intervals. All of these are carried out on
+ * {@link it.unive.lisa.util.numeric.MathNumber}s. Pentagons are built over
+ * {@code size} variables, where each variable is bounded by the next one.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NumericDomainsBenchmark {
+
+	/**
+	 * The number of variables tracked by the pentagons.
+	 */
+	@Param({ "10", "100" })
+	public int size;
+
+	private Interval leftInterval;
+
+	private Interval rightInterval;
+
+	private Interval divisor;
+
+	private Pentagon leftPentagon;
+
+	private Pentagon rightPentagon;
+
+	/**
+	 * Builds the abstract values to compare.
+	 */
+	@Setup
+	public void setup() {
+		leftInterval = new Interval(-10, 100);
+		rightInterval = new Interval(0, 1000);
+		divisor = new Interval(3, 7);
+
+		Random random = new Random(size);
+		Variable[] vars = new Variable[size];
+		for (int i = 0; i < size; i++)
+			vars[i] = new Variable(Int32Type.INSTANCE, "x" + i, SyntheticLocation.INSTANCE);
+
+		ValueEnvironment<Interval> leftIntervals = new ValueEnvironment<>(new Interval());
+		ValueEnvironment<Interval> rightIntervals = new ValueEnvironment<>(new Interval());
+		ValueEnvironment<UpperBounds> bounds = new ValueEnvironment<>(new UpperBounds());
+		for (int i = 0; i < size; i++) {
+			int low = random.nextInt(100);
+			leftIntervals = leftIntervals.putState(vars[i], new Interval(low, low + 10));
+			rightIntervals = rightIntervals.putState(vars[i], new Interval(low - 5, low + 20));
+			if (i < size - 1) {
+				Set<Identifier> bound = new HashSet<>();
+				bound.add(vars[i + 1]);
+				bounds = bounds.putState(vars[i], new UpperBounds(bound));
+			}
+		}
+
+		leftPentagon = new Pentagon(leftIntervals, bounds);
+		rightPentagon = new Pentagon(rightIntervals, bounds);
+	}
+
+	/**
+	 * Benchmarks {@link Interval#lub(Interval)}.
+	 * 
+	 * @return the least upper bound of the two intervals
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public Interval intervalLub()
+			throws SemanticException {
+		return leftInterval.lub(rightInterval);
+	}
+
+	/**
+	 * Benchmarks {@link Interval#glb(Interval)}.
+	 * 
+	 * @return the greatest lower bound of the two intervals
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public Interval intervalGlb()
+			throws SemanticException {
+		return leftInterval.glb(rightInterval);
+	}
+
+	/**
+	 * Benchmarks {@link Interval#widening(Interval)}.
+	 * 
+	 * @return the widening of the two intervals
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public Interval intervalWidening()
+			throws SemanticException {
+		return leftInterval.widening(rightInterval);
+	}
+
+	/**
+	 * Benchmarks {@link Interval#lessOrEqual(Interval)}.
+	 * 
+	 * @return whether the first interval is less or equal than the second one
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public boolean intervalLessOrEqual()
+			throws SemanticException {
+		return leftInterval.lessOrEqual(rightInterval);
+	}
+
+	/**
+	 * Benchmarks {@link Pentagon#lub(Pentagon)}.
+	 * 
+	 * @return the least upper bound of the two pentagons
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public Pentagon pentagonLub()
+			throws SemanticException {
+		return leftPentagon.lub(rightPentagon);
+	}
+
+	/**
+	 * Benchmarks {@link Pentagon#widening(Pentagon)}.
+	 * 
+	 * @return the widening of the two pentagons
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public Pentagon pentagonWidening()
+			throws SemanticException {
+		return leftPentagon.widening(rightPentagon);
+	}
+
+	/**
+	 * Benchmarks {@link Pentagon#lessOrEqual(Pentagon)}.
+	 * 
+	 * @return whether the first pentagon is less or equal than the second one
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public boolean pentagonLessOrEqual()
+			throws SemanticException {
+		return leftPentagon.lessOrEqual(rightPentagon);
+	}
+
+	/**
+	 * Benchmarks the addition of two {@link Interval}s.
+	 * 
+	 * @return the sum of the two intervals
+	 */
+	@Benchmark
+	public Interval intervalAddition() {
+		return leftInterval.evalBinaryExpression(NumericNonOverflowingAdd.INSTANCE, leftInterval, rightInterval,
+				null, null);
+	}
+
+	/**
+	 * Benchmarks the multiplication of two {@link Interval}s.
+	 * 
+	 * @return the product of the two intervals
+	 */
+	@Benchmark
+	public Interval intervalMultiplication() {
+		return leftInterval.evalBinaryExpression(NumericNonOverflowingMul.INSTANCE, leftInterval, rightInterval,
+				null, null);
+	}
+
+	/**
+	 * Benchmarks the division of two {@link Interval}s, where the divisor does
+	 * not contain zero.
+	 * 
+	 * @return the quotient of the two intervals
+	 */
+	@Benchmark
+	public Interval intervalDivision() {
+		return rightInterval.evalBinaryExpression(NumericNonOverflowingDiv.INSTANCE, rightInterval, divisor, null,
+				null);
+	}
+}
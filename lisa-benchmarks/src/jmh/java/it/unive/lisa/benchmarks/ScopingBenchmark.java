@@ -0,0 +1,111 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.ScopeToken;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.heap.pointbased.HeapAllocationSite;
+import it.unive.lisa.analysis.nonrelational.VariableLift;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.type.Int32Type;
+import it.unive.lisa.symbolic.value.Variable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the scoping of {@link VariableLift}s, instantiated as
+ * {@link ValueEnvironment}s of {@link Interval}s, as it happens on each call
+ * edge, together with the cost of updating environments that are never
+ * scoped. Each environment maps {@link #size} variables, that are rewritten
+ * when scoping, and four times as many heap locations, that are not.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScopingBenchmark {
+
+	/**
+	 * The number of variables of the environment.
+	 */
+	@Param({ "10", "100", "1000" })
+	public int size;
+
+	private ValueEnvironment<Interval> env;
+
+	private ScopeToken token;
+
+	private Variable[] locals;
+
+	private Interval value;
+
+	/**
+	 * Builds the environment to scope.
+	 */
+	@Setup
+	public void setup() {
+		value = new Interval(1, 2);
+		env = new ValueEnvironment<>(new Interval());
+		for (int i = 0; i < size; i++)
+			env = env.putState(variable("x" + i), value);
+		for (int i = 0; i < 4 * size; i++)
+			env = env.putState(new HeapAllocationSite(Int32Type.INSTANCE, "site" + i, false,
+					SyntheticLocation.INSTANCE), value);
+
+		token = new ScopeToken(new Parameter(SyntheticLocation.INSTANCE, "call", Int32Type.INSTANCE));
+		locals = new Variable[10];
+		for (int i = 0; i < locals.length; i++)
+			locals[i] = variable("l" + i);
+	}
+
+	private static Variable variable(
+			String name) {
+		return new Variable(Int32Type.INSTANCE, name, SyntheticLocation.INSTANCE);
+	}
+
+	/**
+	 * Benchmarks a call edge: the scope is pushed, the callee assigns its
+	 * locals, and the scope is popped.
+	 * 
+	 * @return the environment after the call
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public ValueEnvironment<Interval> call()
+			throws SemanticException {
+		ValueEnvironment<Interval> callee = env.pushScope(token);
+		for (Variable local : locals)
+			callee = callee.putState(local, value);
+		return callee.popScope(token);
+	}
+
+	/**
+	 * Benchmarks the assignment of fresh variables to an environment that is
+	 * never scoped.
+	 * 
+	 * @return the updated environment
+	 */
+	@Benchmark
+	public ValueEnvironment<Interval> freshAssignments() {
+		ValueEnvironment<Interval> result = env;
+		for (Variable local : locals)
+			result = result.putState(local, value);
+		return result;
+	}
+}
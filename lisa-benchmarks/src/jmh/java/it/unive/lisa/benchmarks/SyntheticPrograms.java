@@ -0,0 +1,70 @@
+package it.unive.lisa.benchmarks;
+
+/**
+ * Generator of synthetic IMP programs with a controllable shape and size, used
+ * as input for benchmarks.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class SyntheticPrograms {
+
+	/**
+	 * Straight-line code: a sequence of assignments.
+	 */
+	public static final String SEQUENCE = "sequence";
+
+	/**
+	 * A sequence of if-then-else statements.
+	 */
+	public static final String BRANCHES = "branches";
+
+	/**
+	 * A sequence of two nested loops.
+	 */
+	public static final String LOOPS = "loops";
+
+	private SyntheticPrograms() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields the source code of an IMP class named {@code bench} containing a
+	 * single method, {@code main}, with the given shape and size.
+	 * 
+	 * @param shape one of {@link #SEQUENCE}, {@link #BRANCHES} and
+	 *                  {@link #LOOPS}
+	 * @param size  the number of times the shape is repeated in the body of
+	 *                  the method
+	 * 
+	 * @return the source code of the program
+	 */
+	public static String generate(
+			String shape,
+			int size) {
+		StringBuilder body = new StringBuilder("def v = 0;\n");
+		for (int i = 0; i < size; i++)
+			switch (shape) {
+			case SEQUENCE:
+				body.append("v = v + ").append(i).append(";\n");
+				break;
+			case BRANCHES:
+				body.append("if (v > ").append(i).append(") v = v - 1; else v = v + ").append(i).append(";\n");
+				break;
+			case LOOPS:
+				body.append("def i").append(i).append(" = 0;\n")
+						.append("while (i").append(i).append(" < 10) {\n")
+						.append("def j").append(i).append(" = 0;\n")
+						.append("while (j").append(i).append(" < i").append(i).append(") {\n")
+						.append("j").append(i).append(" = j").append(i).append(" + 1;\n")
+						.append("v = v + 1;\n")
+						.append("}\n")
+						.append("i").append(i).append(" = i").append(i).append(" + 1;\n")
+						.append("}\n");
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown program shape: " + shape);
+			}
+
+		return "class bench {\nmain() {\n" + body + "return v;\n}\n}";
+	}
+}
@@ -23,9 +23,9 @@ import it.unive.lisa.type.TypeSystem;
 import it.unive.lisa.type.Untyped;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
@@ -39,7 +39,7 @@ import org.apache.commons.lang3.tuple.Pair;
  */
 public final class ArrayType implements it.unive.lisa.type.ArrayType {
 
-	private static final Map<Pair<Type, Integer>, ArrayType> types = new HashMap<>();
+	private static final Map<Pair<Type, Integer>, ArrayType> types = new ConcurrentHashMap<>();
 
 	/**
 	 * Clears the cache of {@link ArrayType}s created up to now.
@@ -11,11 +11,11 @@ import it.unive.lisa.type.Untyped;
 import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A type representing an IMP class defined in an IMP program. ClassTypes are
@@ -28,7 +28,7 @@ import java.util.Set;
  */
 public final class ClassType implements InMemoryType, UnitType {
 
-	private static final Map<String, ClassType> types = new HashMap<>();
+	private static final Map<String, ClassType> types = new ConcurrentHashMap<>();
 
 	/**
 	 * Clears the cache of {@link ClassType}s created up to now.
@@ -9,11 +9,11 @@ import it.unive.lisa.type.Untyped;
 import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A type representing an IMP interface defined in an IMP program. Interface
@@ -26,7 +26,7 @@ import java.util.Set;
  */
 public final class InterfaceType implements UnitType {
 
-	private static final Map<String, InterfaceType> types = new HashMap<>();
+	private static final Map<String, InterfaceType> types = new ConcurrentHashMap<>();
 
 	/**
 	 * Clears the cache of {@link InterfaceType}s created up to now.
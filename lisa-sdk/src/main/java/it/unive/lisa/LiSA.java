@@ -30,6 +30,16 @@ public class LiSA {
 	 */
 	public static final String REPORT_NAME = "report.json";
 
+	/**
+	 * The name of the json profile of fixpoints that LiSA can optionally dump.
+	 */
+	public static final String PROFILE_NAME = "profile.json";
+
+	/**
+	 * The name of the csv profile of fixpoints that LiSA can optionally dump.
+	 */
+	public static final String PROFILE_CSV_NAME = "profile.csv";
+
 	/**
 	 * The {@link FileManager} instance that will be used during analyses
 	 */
@@ -84,7 +94,8 @@ public class LiSA {
 			throw new AnalysisException("LiSA has encountered an exception while executing the analysis", e);
 		}
 
-		LiSARunInfo stats = new LiSARunInfo(warnings, fileManager.createdFiles(), app, start, new DateTime());
+		LiSARunInfo stats = new LiSARunInfo(warnings, fileManager.createdFiles(), app, conf.callGraph, start,
+				new DateTime());
 		LOG.info("LiSA statistics:\n" + stats);
 
 		LiSAReport report = new LiSAReport(conf, stats, warnings, fileManager.createdFiles());
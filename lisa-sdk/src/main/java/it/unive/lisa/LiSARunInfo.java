@@ -3,6 +3,8 @@ package it.unive.lisa;
 import it.unive.lisa.checks.semantic.SemanticCheck;
 import it.unive.lisa.checks.syntactic.SyntacticCheck;
 import it.unive.lisa.checks.warnings.Warning;
+import it.unive.lisa.interprocedural.callgraph.BaseCallGraph;
+import it.unive.lisa.interprocedural.callgraph.CallGraph;
 import it.unive.lisa.program.Application;
 import it.unive.lisa.program.Global;
 import it.unive.lisa.program.Program;
@@ -144,6 +146,24 @@ public class LiSARunInfo {
 	 */
 	public final String duration;
 
+	/**
+	 * The number of calls resolved by the {@link CallGraph}, excluding the ones
+	 * whose resolution was cached.
+	 */
+	public final long callResolutions;
+
+	/**
+	 * The number of calls whose resolution was taken from the cache of the
+	 * {@link CallGraph}.
+	 */
+	public final long cachedCallResolutions;
+
+	/**
+	 * The total time spent by the {@link CallGraph} resolving calls, formatted
+	 * through {@link #PERIOD_FORMAT}.
+	 */
+	public final String callResolutionTime;
+
 	/**
 	 * Builds the run info.
 	 * 
@@ -159,6 +179,27 @@ public class LiSARunInfo {
 			Application app,
 			DateTime start,
 			DateTime end) {
+		this(warnings, files, app, null, start, end);
+	}
+
+	/**
+	 * Builds the run info.
+	 * 
+	 * @param warnings  the warnings generated by the analysis
+	 * @param files     the files generated by the analysis
+	 * @param app       the {@link Application} under analysis
+	 * @param callGraph the {@link CallGraph} used during the analysis (can be
+	 *                      {@code null})
+	 * @param start     the start time
+	 * @param end       the end time
+	 */
+	public LiSARunInfo(
+			Collection<Warning> warnings,
+			Collection<String> files,
+			Application app,
+			CallGraph callGraph,
+			DateTime start,
+			DateTime end) {
 		this.version = VersionInfo.VERSION;
 		this.warnings = warnings.size();
 		this.files = files.size();
@@ -176,6 +217,17 @@ public class LiSARunInfo {
 		this.end = end.toString();
 		this.duration = PERIOD_FORMAT.print(new Period(start, end)).trim();
 
+		if (callGraph instanceof BaseCallGraph) {
+			BaseCallGraph base = (BaseCallGraph) callGraph;
+			this.callResolutions = base.getResolutionsCount();
+			this.cachedCallResolutions = base.getCachedResolutionsCount();
+			this.callResolutionTime = PERIOD_FORMAT.print(new Period(base.getResolutionTime() / 1_000_000)).trim();
+		} else {
+			this.callResolutions = 0;
+			this.cachedCallResolutions = 0;
+			this.callResolutionTime = "";
+		}
+
 		StatementCounter counter = new StatementCounter();
 		app.getAllCFGs().forEach(c -> c.accept(counter, null));
 		this.statements = counter.statements;
@@ -224,7 +276,8 @@ public class LiSARunInfo {
 	 * Checks whether the given run information match this one in terms of
 	 * analyzed code and analysis results. This corresponds to calling
 	 * {@link #equals(Object)}, but ignoring {@link #version},
-	 * {@link #duration}, {@link #end}, and {@link #start}.
+	 * {@link #duration}, {@link #end}, {@link #start}, and the call resolution
+	 * statistics.
 	 * 
 	 * @param other the other run info
 	 * 
@@ -269,6 +322,8 @@ public class LiSARunInfo {
 				"\nCFGs: " + cfgs +
 				"\nStatements: " + statements +
 				"\nExpressions: " + expressions +
+				"\nCall Resolutions: " + callResolutions + " (" + cachedCallResolutions + " cached, "
+				+ (callResolutionTime.isEmpty() ? "0ms" : callResolutionTime) + ")" +
 				"\nGenerated Warnings: " + warnings +
 				"\nGenerated Files: " + files;
 	}
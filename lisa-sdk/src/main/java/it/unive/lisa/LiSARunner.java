@@ -18,6 +18,8 @@ import it.unive.lisa.interprocedural.callgraph.CallGraph;
 import it.unive.lisa.interprocedural.callgraph.CallGraphConstructionException;
 import it.unive.lisa.logging.IterationLogger;
 import it.unive.lisa.logging.TimerLogger;
+import it.unive.lisa.outputs.GraphStreamWrapper;
+import it.unive.lisa.outputs.serializableGraph.SerializableCFG;
 import it.unive.lisa.outputs.serializableGraph.SerializableGraph;
 import it.unive.lisa.outputs.serializableGraph.SerializableValue;
 import it.unive.lisa.program.Application;
@@ -25,6 +27,7 @@ import it.unive.lisa.program.Program;
 import it.unive.lisa.program.ProgramValidationException;
 import it.unive.lisa.program.SyntheticLocation;
 import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.fixpoints.FixpointProfiler;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.value.Skip;
 import it.unive.lisa.type.ReferenceType;
@@ -100,6 +103,10 @@ public class LiSARunner<A extends AbstractState<A>> {
 		FixpointConfiguration fixconf = new FixpointConfiguration(conf);
 		CheckTool tool = new CheckTool(conf, fileManager);
 
+		// the structure of the cfgs is now final: we can compile
+		// their adjacency for faster traversals
+		allCFGs.forEach(CFG::computeAdjacencyIndex);
+
 		if (conf.optimize)
 			allCFGs.forEach(CFG::computeBasicBlocks);
 
@@ -114,8 +121,19 @@ public class LiSARunner<A extends AbstractState<A>> {
 		if (canAnalyze()) {
 			init(app);
 
+			if (conf.summaryStore != null)
+				conf.summaryStore.validate(conf, app);
+
 			analyze(fixconf);
 
+			if (conf.summaryStore != null)
+				conf.summaryStore.update(conf, app, callGraph, interproc.getFixpointResults());
+
+			if (fixconf.getSplitCache() != null)
+				LOG.info("Final {}", fixconf.getSplitCache());
+			if (fixconf.getExpressionInterner() != null)
+				LOG.info("Final {}", fixconf.getExpressionInterner());
+
 			if (conf.serializeResults || conf.analysisGraphs != GraphType.NONE)
 				dumpResults(allCFGs, fixconf);
 
@@ -125,6 +143,9 @@ public class LiSARunner<A extends AbstractState<A>> {
 				tool = runSemanticChecks(app, allCFGs, tool, semanticChecks);
 			else
 				LOG.warn("Skipping semantic checks execution since none have been provided");
+
+			if (fixconf.getProfiler() != null)
+				dumpProfile(fixconf.getProfiler());
 		}
 
 		dumpSupportFiles();
@@ -157,13 +178,10 @@ public class LiSARunner<A extends AbstractState<A>> {
 	private void dumpInputs(
 			Collection<CFG> allCFGs) {
 		for (CFG cfg : IterationLogger.iterate(LOG, allCFGs, "Dumping input cfgs", "cfgs")) {
-			SerializableGraph graph = cfg.toSerializableGraph();
 			String filename = cfg.getDescriptor().getFullSignatureWithParNames() + "_cfg";
 
 			try {
-				fileManager.mkJsonFile(filename, writer -> graph.dump(writer));
-
-				dumpSingleGraph(filename, graph);
+				dumpGraph(filename, cfg, null, true);
 			} catch (IOException e) {
 				LOG.error("Exception while dumping the analysis results on {}",
 						cfg.getDescriptor().getFullSignature());
@@ -248,15 +266,16 @@ public class LiSARunner<A extends AbstractState<A>> {
 
 		for (CFG cfg : IterationLogger.iterate(LOG, allCFGs, "Dumping analysis results", "cfgs"))
 			for (AnalyzedCFG<A> result : interproc.getAnalysisResultsOf(cfg)) {
-				SerializableGraph graph = result.toSerializableGraph(labeler);
+				if (conf.optimize && conf.dumpForcesUnwinding)
+					// all results are needed: unwinding the whole graph at
+					// once is cheaper than replaying each basic block
+					((OptimizedAnalyzedCFG<A>) result).unwind(fixconf);
 				String filename = cfg.getDescriptor().getFullSignatureWithParNames();
 				if (!result.getId().isStartingId())
 					filename += "_" + result.getId().hashCode();
 
 				try {
-					if (conf.serializeResults)
-						fileManager.mkJsonFile(filename, writer -> graph.dump(writer));
-					dumpSingleGraph(filename, graph);
+					dumpGraph(filename, result, labeler, conf.serializeResults);
 				} catch (IOException e) {
 					LOG.error("Exception while dumping the analysis results on {}",
 							cfg.getDescriptor().getFullSignature());
@@ -265,26 +284,62 @@ public class LiSARunner<A extends AbstractState<A>> {
 			}
 	}
 
+	private void dumpGraph(
+			String filename,
+			CFG cfg,
+			BiFunction<CFG, Statement, SerializableValue> labeler,
+			boolean json)
+			throws IOException {
+		// the json and the graph are produced by the same walk over the cfg,
+		// without building its serializable graph
+		SerializableGraph.Converter<? extends GraphStreamWrapper> converter = converter();
+		if (converter == null) {
+			if (json)
+				fileManager.mkJsonFile(filename, writer -> SerializableCFG.dump(cfg, labeler, writer));
+		} else if (json)
+			fileManager.mkJsonFile(filename,
+					writer -> dumpSingleGraph(filename, SerializableCFG.dump(cfg, labeler, writer, converter)));
+		else
+			dumpSingleGraph(filename, SerializableCFG.dump(cfg, labeler, null, converter));
+	}
+
+	private SerializableGraph.Converter<? extends GraphStreamWrapper> converter() {
+		switch (conf.analysisGraphs) {
+		case DOT:
+			return SerializableGraph.dot();
+		case GRAPHML:
+			return SerializableGraph.graphml(false);
+		case GRAPHML_WITH_SUBNODES:
+			return SerializableGraph.graphml(true);
+		case HTML:
+			return SerializableGraph.html(false, "results");
+		case HTML_WITH_SUBNODES:
+			return SerializableGraph.html(true, "results");
+		case NONE:
+			return null;
+		default:
+			throw new AnalysisExecutionException("Unknown graph type: " + conf.analysisGraphs);
+		}
+	}
+
 	private void dumpSingleGraph(
 			String filename,
-			SerializableGraph graph)
+			GraphStreamWrapper graph)
 			throws IOException {
 		switch (conf.analysisGraphs) {
 		case DOT:
-			fileManager.mkDotFile(filename, writer -> graph.toDot().dump(writer));
+			fileManager.mkDotFile(filename, graph::dump);
 			break;
 		case GRAPHML:
-			fileManager.mkGraphmlFile(filename, writer -> graph.toGraphml(false).dump(writer));
-			break;
 		case GRAPHML_WITH_SUBNODES:
-			fileManager.mkGraphmlFile(filename, writer -> graph.toGraphml(true).dump(writer));
+			fileManager.mkGraphmlFile(filename, graph::dump);
 			break;
 		case HTML:
-			fileManager.mkHtmlFile(filename, writer -> graph.toHtml(false, "results").dump(writer));
+			fileManager.mkHtmlFile(filename, graph::dump);
 			fileManager.usedPlainCytoscape();
 			break;
 		case HTML_WITH_SUBNODES:
-			fileManager.mkHtmlFile(filename, writer -> graph.toHtml(true, "results").dump(writer));
+			fileManager.mkHtmlFile(filename, graph::dump);
 			fileManager.usedCompoundCytoscape();
 			break;
 		case NONE:
@@ -310,6 +365,17 @@ public class LiSARunner<A extends AbstractState<A>> {
 		return tool2;
 	}
 
+	private void dumpProfile(
+			FixpointProfiler profiler) {
+		LOG.info("Dumping fixpoint profile to '" + LiSA.PROFILE_NAME + "' and '" + LiSA.PROFILE_CSV_NAME + "'");
+		try {
+			fileManager.mkOutputFile(LiSA.PROFILE_NAME, profiler::dumpJson);
+			fileManager.mkOutputFile(LiSA.PROFILE_CSV_NAME, profiler::dumpCsv);
+		} catch (IOException e) {
+			LOG.error("Unable to dump fixpoint profile", e);
+		}
+	}
+
 	private void dumpSupportFiles() {
 		try {
 			// we dumped at least one file: need to copy the
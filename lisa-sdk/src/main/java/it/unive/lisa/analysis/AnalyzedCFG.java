@@ -145,6 +145,30 @@ public class AnalyzedCFG<A extends AbstractState<A>>
 		return id;
 	}
 
+	/**
+	 * Yields the entry states stored in this result, that is, the state
+	 * computed before each entrypoint of the cfg.
+	 * 
+	 * @return an unmodifiable view of the entry states
+	 */
+	public Map<Statement, AnalysisState<A>> getEntryStates() {
+		Map<Statement, AnalysisState<A>> map = entryStates.getMap();
+		return map == null ? Collections.emptyMap() : Collections.unmodifiableMap(map);
+	}
+
+	/**
+	 * Yields the post-states stored in this result, that is, the ones of the
+	 * statements and expressions that have been kept after the fixpoint
+	 * computation. Differently from {@link #getAnalysisStateAfter(Statement)},
+	 * this method never computes states that are missing from the result.
+	 * 
+	 * @return an unmodifiable view of the post-states
+	 */
+	public Map<Statement, AnalysisState<A>> getStoredStates() {
+		Map<Statement, AnalysisState<A>> map = results.getMap();
+		return map == null ? Collections.emptyMap() : Collections.unmodifiableMap(map);
+	}
+
 	/**
 	 * Yields the computed result before a given statement (entry state).
 	 *
@@ -29,8 +29,12 @@ import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
 import it.unive.lisa.util.datastructures.graph.algorithms.Fixpoint;
 import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -46,8 +50,10 @@ import org.apache.logging.log4j.Logger;
  * {@link Statement}s such that {@link LiSAConfiguration#hotspots} holds).
  * Approximations for other statements can be retrieved through
  * {@link #getUnwindedAnalysisStateAfter(Statement, FixpointConfiguration)},
- * that will first expand the results using
- * {@link #unwind(FixpointConfiguration)}.
+ * that replays only the basic block containing the statement (and the ones
+ * preceding it whose results are not available), or through
+ * {@link #unwind(FixpointConfiguration)}, that expands the results of the
+ * whole graph.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -62,6 +68,29 @@ public class OptimizedAnalyzedCFG<A extends AbstractState<A>> extends AnalyzedCF
 
 	private StatementStore<A> expanded;
 
+	/**
+	 * The basic blocks that have been replayed to answer queries on single
+	 * statements, indexed by their leader and ordered from the least recently
+	 * used one.
+	 */
+	private LinkedHashMap<Statement, UnwindedBlock> blocks;
+
+	/**
+	 * The leader of the basic block containing each statement.
+	 */
+	private Map<Statement, Statement> leaders;
+
+	/**
+	 * The position of each statement inside its basic block.
+	 */
+	private Map<Statement, Integer> positions;
+
+	/**
+	 * The post-states of the inner expressions stored in the non-unwinded
+	 * results, indexed by their root statement.
+	 */
+	private Map<Statement, StatementStore<A>> storedExpressions;
+
 	/**
 	 * Builds the control flow graph, storing the given mapping between nodes
 	 * and fixpoint computation results.
@@ -152,8 +181,15 @@ public class OptimizedAnalyzedCFG<A extends AbstractState<A>> extends AnalyzedCF
 	/**
 	 * Yields the computed result at a given statement (exit state). If such a
 	 * state is not available as it was discarded due to optimization, and
-	 * fixpoint's results have not been unwinded yet, a fixpoint iteration is
-	 * executed in-place through {@link #unwind(FixpointConfiguration)}.
+	 * fixpoint's results have not been unwinded yet, the basic block
+	 * containing the statement is replayed up to it, starting from the
+	 * post-states of its predecessors. Predecessors whose post-states are not
+	 * available are computed by replaying their basic blocks in the same way.
+	 * At most {@link FixpointConfiguration#unwindingCacheSize} replayed blocks
+	 * are kept for subsequent queries. If the replay is not possible (e.g.,
+	 * because a loop has no widening point whose post-state is available), a
+	 * fixpoint iteration is executed in-place through
+	 * {@link #unwind(FixpointConfiguration)}.
 	 *
 	 * @param st   the statement
 	 * @param conf the {@link FixpointConfiguration} to use for running the fast
@@ -170,11 +206,159 @@ public class OptimizedAnalyzedCFG<A extends AbstractState<A>> extends AnalyzedCF
 		if (expanded != null)
 			return expanded.getState(st);
 
+		AnalysisState<A> replayed = null;
+		try {
+			replayed = replay(st, conf);
+		} catch (FixpointException e) {
+			LOG.debug("Unable to replay the basic block of '" + st + "' in " + this + ", unwinding all results", e);
+		}
+		if (replayed != null)
+			return replayed;
+
 		unwind(conf);
 
 		return expanded.getState(st);
 	}
 
+	/**
+	 * Replays the basic block containing the given statement up to it.
+	 * 
+	 * @return the post-state of {@code st}, or {@code null} if the basic
+	 *             blocks of this graph are not available
+	 * 
+	 * @throws FixpointException if the replay is not possible
+	 */
+	private synchronized AnalysisState<A> replay(
+			Statement st,
+			FixpointConfiguration conf)
+			throws FixpointException {
+		if (leaders == null && !indexBlocks())
+			return null;
+		if (blocks == null)
+			blocks = new LinkedHashMap<>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<Statement, UnwindedBlock> eldest) {
+					return size() > conf.unwindingCacheSize;
+				}
+			};
+
+		Statement root = st instanceof Expression ? ((Expression) st).getRootStatement() : st;
+		Statement leader = leaders.get(root);
+		if (leader == null)
+			throw new FixpointException("'" + root + "' is not part of a basic block of " + this);
+
+		AscendingFixpoint<A> asc = new AscendingFixpoint<>(this, new PrecomputedAnalysis(), conf);
+		// blocks used by this query: they cannot be evicted until the query
+		// is completed
+		Map<Statement, UnwindedBlock> used = new HashMap<>();
+		Deque<UnwindedBlock> stack = new ArrayDeque<>();
+		Deque<Integer> targets = new ArrayDeque<>();
+		Set<Statement> visiting = new HashSet<>();
+		stack.push(block(leader, used));
+		targets.push(positions.get(root));
+		visiting.add(leader);
+
+		while (!stack.isEmpty()) {
+			UnwindedBlock current = stack.peek();
+			if (!current.hasEntry()) {
+				// at most one missing predecessor is pushed at a time, so
+				// that the stack holds a path of the graph
+				UnwindedBlock missing = null;
+				int target = -1;
+				for (Statement pred : predecessorsOf(current.leader())) {
+					if (results.getKeys().contains(pred))
+						continue;
+					Statement predLeader = leaders.get(pred);
+					if (predLeader == null)
+						continue;
+					UnwindedBlock block = block(predLeader, used);
+					if (block.hasEntry()) {
+						block.replay(positions.get(pred), asc);
+						continue;
+					}
+					if (visiting.contains(predLeader))
+						throw new FixpointException("Cycle without available results found while replaying '"
+								+ current.leader() + "' in " + this);
+					missing = block;
+					target = positions.get(pred);
+					break;
+				}
+
+				if (missing != null) {
+					stack.push(missing);
+					targets.push(target);
+					visiting.add(missing.leader());
+					continue;
+				}
+
+				current.computeEntry(asc, used);
+			}
+
+			current.replay(targets.pop(), asc);
+			visiting.remove(current.leader());
+			stack.pop();
+		}
+
+		for (UnwindedBlock block : used.values())
+			blocks.put(block.leader(), block);
+
+		UnwindedBlock block = used.get(leader);
+		if (st != root && !block.states.getKeys().contains(st))
+			// the root might not have been replayed
+			block.expand(root, asc);
+		return block.states.getState(st);
+	}
+
+	private StatementStore<A> storedExpressionsOf(
+			Statement root) {
+		if (storedExpressions == null) {
+			storedExpressions = new HashMap<>();
+			for (Entry<Statement, AnalysisState<A>> entry : results)
+				if (entry.getKey() instanceof Expression) {
+					Expression e = (Expression) entry.getKey();
+					if (e.getRootStatement() != e)
+						storedExpressions
+								.computeIfAbsent(e.getRootStatement(),
+										r -> new StatementStore<>(results.lattice.bottom()))
+								.put(e, entry.getValue());
+				}
+		}
+
+		StatementStore<A> stored = storedExpressions.get(root);
+		return stored == null ? new StatementStore<>(results.lattice.bottom()) : stored;
+	}
+
+	private UnwindedBlock block(
+			Statement leader,
+			Map<Statement, UnwindedBlock> used) {
+		return used.computeIfAbsent(leader, l -> {
+			UnwindedBlock cached = blocks.get(l);
+			return cached != null ? cached : new UnwindedBlock(getBasicBlocks().get(l));
+		});
+	}
+
+	private boolean indexBlocks() {
+		Map<Statement, Statement[]> bbs;
+		try {
+			bbs = getBasicBlocks();
+		} catch (IllegalStateException e) {
+			return false;
+		}
+
+		leaders = new HashMap<>();
+		positions = new HashMap<>();
+		for (Entry<Statement, Statement[]> bb : bbs.entrySet())
+			for (int i = 0; i < bb.getValue().length; i++) {
+				leaders.put(bb.getValue()[i], bb.getKey());
+				positions.put(bb.getValue()[i], i);
+			}
+		return true;
+	}
+
 	/**
 	 * Runs an ascending fixpoint computation starting with the results
 	 * available in this graph, with the purpose of propagating the
@@ -249,10 +433,171 @@ public class OptimizedAnalyzedCFG<A extends AbstractState<A>> extends AnalyzedCF
 	 * @param st        the statement
 	 * @param postState the poststate
 	 */
-	public void storePostStateOf(
+	public synchronized void storePostStateOf(
 			Statement st,
 			AnalysisState<A> postState) {
 		results.put(st, postState);
+		// replayed blocks might depend on the previous value
+		blocks = null;
+		storedExpressions = null;
+	}
+
+	/**
+	 * A prefix of a basic block that has been replayed starting from the
+	 * post-states of the predecessors of its leader.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private class UnwindedBlock {
+
+		private final Statement[] block;
+
+		/**
+		 * The post-states of the replayed statements and of their inner
+		 * expressions.
+		 */
+		private final StatementStore<A> states;
+
+		/**
+		 * Whether or not the entry state of the block has been computed.
+		 */
+		private boolean entryComputed;
+
+		/**
+		 * The state of the last replayed statement, or the entry state of the
+		 * block if no statement has been replayed yet. This is {@code null} if
+		 * the block is unreachable.
+		 */
+		private CompoundState<A> last;
+
+		/**
+		 * The number of replayed statements.
+		 */
+		private int replayed;
+
+		/**
+		 * The entry states of the replayed statements whose post-states have
+		 * been taken from the non-unwinded results, used to compute the
+		 * post-states of their inner expressions if those are queried.
+		 */
+		private final Map<Statement, CompoundState<A>> seeded = new HashMap<>();
+
+		private UnwindedBlock(
+				Statement[] block) {
+			this.block = block;
+			this.states = new StatementStore<>(results.lattice.bottom());
+		}
+
+		private Statement leader() {
+			return block[0];
+		}
+
+		private boolean hasEntry() {
+			return entryComputed;
+		}
+
+		/**
+		 * Computes the entry state of the block as the fixpoint would do,
+		 * assuming that the post-states of all predecessors of the leader are
+		 * either stored in the results or already replayed.
+		 */
+		private void computeEntry(
+				AscendingFixpoint<A> asc,
+				Map<Statement, UnwindedBlock> used)
+				throws FixpointException {
+			Statement leader = leader();
+			AnalysisState<A> bottom = results.lattice.bottom();
+			StatementStore<A> bot = new StatementStore<>(bottom);
+			CompoundState<A> entry = entryStates.getKeys().contains(leader)
+					? CompoundState.of(entryStates.getState(leader), bot)
+					: null;
+			try {
+				for (Statement pred : predecessorsOf(leader)) {
+					AnalysisState<A> post;
+					if (results.getKeys().contains(pred))
+						post = results.getState(pred);
+					else {
+						UnwindedBlock block = used.get(leaders.get(pred));
+						// unreachable predecessors never have a result
+						if (block == null || block.last == null)
+							continue;
+						post = block.states.getState(pred);
+					}
+
+					CompoundState<A> state = asc.traverse(getEdgeConnecting(pred, leader),
+							CompoundState.of(post, bot));
+					entry = entry == null ? state : asc.union(leader, entry, state);
+				}
+			} catch (SemanticException e) {
+				throw new FixpointException("Unable to compute the entry state of '" + leader + "' in " + this, e);
+			}
+
+			last = entry;
+			entryComputed = true;
+		}
+
+		/**
+		 * Replays the statements of the block up to the given position
+		 * (included), if they have not been replayed yet. Statements whose
+		 * post-states are available in the non-unwinded results are not
+		 * recomputed: their results are the ones of the fixpoint (e.g., the
+		 * widened ones of widening points), and the following statements
+		 * must start from them.
+		 */
+		private void replay(
+				int position,
+				AscendingFixpoint<A> asc)
+				throws FixpointException {
+			if (last == null)
+				return;
+
+			try {
+				for (; replayed <= position; replayed++) {
+					Statement current = block[replayed];
+					CompoundState<A> entry = last;
+					if (replayed > 0) {
+						Statement prev = block[replayed - 1];
+						if (predecessorsOf(current).size() != 1)
+							throw new FixpointException(
+									"'" + current + "' has more than one predecessor inside its basic block");
+						entry = asc.traverse(getEdgeConnecting(prev, current), last);
+					}
+
+					if (results.getKeys().contains(current)) {
+						seeded.put(current, entry);
+						last = CompoundState.of(results.getState(current), storedExpressionsOf(current));
+					} else
+						last = asc.semantics(current, entry);
+					states.put(current, last.postState);
+					for (Entry<Statement, AnalysisState<A>> inner : last.intermediateStates)
+						states.put(inner.getKey(), inner.getValue());
+				}
+			} catch (SemanticException e) {
+				throw new FixpointException("Unable to replay '" + block[replayed] + "' in " + this, e);
+			}
+		}
+
+		/**
+		 * Computes the post-states of the inner expressions of the given
+		 * statement that are not available, if its post-state has been taken
+		 * from the non-unwinded results.
+		 */
+		private void expand(
+				Statement root,
+				AscendingFixpoint<A> asc)
+				throws FixpointException {
+			CompoundState<A> entry = seeded.remove(root);
+			if (entry == null)
+				return;
+
+			try {
+				for (Entry<Statement, AnalysisState<A>> inner : asc.semantics(root, entry).intermediateStates)
+					if (!states.getKeys().contains(inner.getKey()))
+						states.put(inner.getKey(), inner.getValue());
+			} catch (SemanticException e) {
+				throw new FixpointException("Unable to replay '" + root + "' in " + this, e);
+			}
+		}
 	}
 
 	private class PrecomputedAnalysis implements InterproceduralAnalysis<A> {
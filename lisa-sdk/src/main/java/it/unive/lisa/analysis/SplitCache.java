@@ -0,0 +1,216 @@
+package it.unive.lisa.analysis;
+
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * A bounded memo for the results of
+ * {@link AnalysisState#split(SymbolicExpression, ProgramPoint, ProgramPoint)}.
+ * Conditional edges leaving the same node split the same entry state on the
+ * same condition: this cache lets the second edge reuse the split computed by
+ * the first one. Results are keyed by the node where the condition is
+ * evaluated, the condition itself, and the entry state. When more than
+ * {@link #getMaxSize()} results are stored, the least recently used one is
+ * evicted.<br>
+ * <br>
+ * Instances of this class are thread-safe, and are meant to be owned by a
+ * single analysis run (see
+ * {@link it.unive.lisa.conf.FixpointConfiguration#getSplitCache()}).
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class SplitCache {
+
+	private final int maxSize;
+
+	private final Map<Key, Pair<AnalysisState<?>, AnalysisState<?>>> results;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Builds the cache.
+	 * 
+	 * @param maxSize the maximum number of results to keep
+	 */
+	public SplitCache(
+			int maxSize) {
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("The size of the split cache must be positive");
+		this.maxSize = maxSize;
+		this.results = new LinkedHashMap<>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Key, Pair<AnalysisState<?>, AnalysisState<?>>> eldest) {
+				if (size() <= SplitCache.this.maxSize)
+					return false;
+				evictions.incrementAndGet();
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Yields the result of splitting {@code state} on {@code expression},
+	 * that is, the pair of states where {@code expression} holds and does not
+	 * hold, respectively. The result is taken from this cache if present, and
+	 * is otherwise computed and stored.
+	 * 
+	 * @param <A>        the type of {@link AbstractState}
+	 * @param state      the state to split
+	 * @param expression the expression to split on
+	 * @param src        the program point where {@code expression} is
+	 *                       evaluated
+	 * @param dest       the program point where the execution will move after
+	 *                       the split
+	 * 
+	 * @return the pair of states where {@code expression} holds and does not
+	 *             hold, respectively
+	 * 
+	 * @throws SemanticException if something goes wrong during the split
+	 */
+	@SuppressWarnings("unchecked")
+	public <A extends AbstractState<A>> Pair<AnalysisState<A>, AnalysisState<A>> split(
+			AnalysisState<A> state,
+			SymbolicExpression expression,
+			ProgramPoint src,
+			ProgramPoint dest)
+			throws SemanticException {
+		Key key = new Key(src, expression, state);
+		Pair<AnalysisState<?>, AnalysisState<?>> cached;
+		synchronized (results) {
+			cached = results.get(key);
+		}
+
+		if (cached != null) {
+			hits.incrementAndGet();
+			return Pair.of((AnalysisState<A>) cached.getLeft(), (AnalysisState<A>) cached.getRight());
+		}
+
+		misses.incrementAndGet();
+		// computed outside of the lock: concurrent misses on the same key will
+		// compute the same result
+		Pair<AnalysisState<A>, AnalysisState<A>> split = state.split(expression, src, dest);
+		synchronized (results) {
+			results.put(key, Pair.of(split.getLeft(), split.getRight()));
+		}
+		return split;
+	}
+
+	/**
+	 * Yields the maximum number of results kept by this cache.
+	 * 
+	 * @return the maximum size
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Yields the number of results currently stored in this cache.
+	 * 
+	 * @return the number of results
+	 */
+	public int size() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+
+	/**
+	 * Yields the number of lookups that have been answered using a stored
+	 * result.
+	 * 
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Yields the number of lookups that required the computation of a new
+	 * result.
+	 * 
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Yields the number of results that have been evicted from this cache to
+	 * respect its maximum size.
+	 * 
+	 * @return the number of evictions
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * Removes all results from this cache. Counters are not reset.
+	 */
+	public void clear() {
+		synchronized (results) {
+			results.clear();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "split cache: " + size() + "/" + maxSize + " results, " + hits + " hits, " + misses + " misses, "
+				+ evictions + " evictions";
+	}
+
+	private static final class Key {
+
+		private final ProgramPoint src;
+
+		private final SymbolicExpression expression;
+
+		private final AnalysisState<?> state;
+
+		// states can be expensive to hash: we compute it only once
+		private final int hash;
+
+		private Key(
+				ProgramPoint src,
+				SymbolicExpression expression,
+				AnalysisState<?> state) {
+			this.src = src;
+			this.expression = expression;
+			this.state = state;
+			this.hash = Objects.hash(src, expression, state);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(
+				Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return hash == other.hash
+					&& Objects.equals(src, other.src)
+					&& Objects.equals(expression, other.expression)
+					&& (state == other.state || Objects.equals(state, other.state));
+		}
+	}
+}
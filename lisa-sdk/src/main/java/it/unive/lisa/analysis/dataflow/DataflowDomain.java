@@ -9,6 +9,7 @@ import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import it.unive.lisa.util.representation.SetRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
 import java.util.Collection;
@@ -17,11 +18,20 @@ import java.util.LinkedList;
 import java.util.Set;
 import java.util.function.BooleanSupplier;
 import java.util.function.Predicate;
+import org.apache.commons.collections4.SetUtils;
 
 /**
  * A dataflow domain that collects instances of {@link DataflowElement}. A
  * dataflow domain is a value domain that is represented as a set of elements,
- * that can be retrieved through {@link #getDataflowElements()}.
+ * that can be retrieved through {@link #getDataflowElements()}.<br>
+ * <br>
+ * If the elements of the domain are stored in an {@link ExternalSet}, all the
+ * instances derived from it (e.g., through semantic operations, lubs and glbs)
+ * share the same {@link it.unive.lisa.util.collections.externalSet.ExternalSetCache}:
+ * each element is numbered the first time it is generated, and sets of elements
+ * are bitsets over such numbering. Gen and kill are then applied in-place on a
+ * copy of the bitset, that is frozen when the new instance is built, and
+ * lattice operations are carried out word-wise.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -129,7 +139,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		if (guard.getAsBoolean())
 			return (D) this;
 
-		Set<E> updated = new HashSet<>(getDataflowElements());
+		Set<E> updated = copy(elements);
 		for (E killed : kill.get())
 			updated.remove(killed);
 		for (E generated : gen.get())
@@ -165,8 +175,9 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		if (toRemove.isEmpty())
 			return (D) this;
 
-		Set<E> updated = new HashSet<>(elements);
-		updated.removeAll(toRemove);
+		Set<E> updated = copy(elements);
+		for (E removed : toRemove)
+			updated.remove(removed);
 		return mk(domain, updated, false, false);
 	}
 
@@ -186,8 +197,9 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		if (toRemove.isEmpty())
 			return (D) this;
 
-		Set<E> updated = new HashSet<>(elements);
-		updated.removeAll(toRemove);
+		Set<E> updated = copy(elements);
+		for (E removed : toRemove)
+			updated.remove(removed);
 		return mk(domain, updated, false, false);
 	}
 
@@ -205,7 +217,13 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((domain == null) ? 0 : domain.hashCode());
-		result = prime * result + ((elements == null) ? 0 : elements.hashCode());
+		// the hash of sets is the sum of the hashes of their elements, but
+		// external sets do not follow this contract
+		int hash = 0;
+		if (elements != null)
+			for (E e : elements)
+				hash += e.hashCode();
+		result = prime * result + hash;
 		result = prime * result + (isBottom ? 1231 : 1237);
 		result = prime * result + (isTop ? 1231 : 1237);
 		return result;
@@ -245,7 +263,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 
 	@Override
 	public D top() {
-		return mk(domain, new HashSet<>(), true, false);
+		return mk(domain, emptyLike(elements), true, false);
 	}
 
 	@Override
@@ -255,7 +273,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 
 	@Override
 	public D bottom() {
-		return mk(domain, new HashSet<>(), false, true);
+		return mk(domain, emptyLike(elements), false, true);
 	}
 
 	@Override
@@ -280,7 +298,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		if (isTop() || isBottom())
 			return (D) this;
 
-		Set<E> result = new HashSet<>();
+		Set<E> result = emptyLike(elements);
 		E pushed;
 		for (E element : this.elements)
 			if ((pushed = element.pushScope(scope)) != null)
@@ -297,7 +315,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		if (isTop() || isBottom())
 			return (D) this;
 
-		Set<E> result = new HashSet<>();
+		Set<E> result = emptyLike(elements);
 		E popped;
 		for (E element : this.elements)
 			if ((popped = element.popScope(scope)) != null)
@@ -316,4 +334,82 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 			Identifier id) {
 		return elements.stream().anyMatch(e -> e.getInvolvedIdentifiers().contains(id));
 	}
+
+	private static <E> Set<E> copy(
+			Set<E> elements) {
+		if (elements instanceof ExternalSet)
+			return ((ExternalSet<E>) elements).copy();
+		return new HashSet<>(elements);
+	}
+
+	private static <E> Set<E> emptyLike(
+			Set<E> elements) {
+		if (elements instanceof ExternalSet)
+			return ((ExternalSet<E>) elements).getCache().mkEmptySet();
+		return new HashSet<>();
+	}
+
+	private static <E> boolean sameCache(
+			Set<E> left,
+			Set<E> right) {
+		return left instanceof ExternalSet && right instanceof ExternalSet
+				&& ((ExternalSet<E>) left).getCache() == ((ExternalSet<E>) right).getCache();
+	}
+
+	/**
+	 * Yields the union of the given sets of elements. If both sets are
+	 * {@link ExternalSet}s backed by the same cache, the union is computed
+	 * word-wise on their bitsets.
+	 * 
+	 * @param <E>   the type of elements
+	 * @param left  the first set
+	 * @param right the second set
+	 * 
+	 * @return the union
+	 */
+	static <E> Set<E> union(
+			Set<E> left,
+			Set<E> right) {
+		if (sameCache(left, right))
+			return ((ExternalSet<E>) left).union((ExternalSet<E>) right);
+		return SetUtils.union(left, right);
+	}
+
+	/**
+	 * Yields the intersection of the given sets of elements. If both sets are
+	 * {@link ExternalSet}s backed by the same cache, the intersection is
+	 * computed word-wise on their bitsets.
+	 * 
+	 * @param <E>   the type of elements
+	 * @param left  the first set
+	 * @param right the second set
+	 * 
+	 * @return the intersection
+	 */
+	static <E> Set<E> intersection(
+			Set<E> left,
+			Set<E> right) {
+		if (sameCache(left, right))
+			return ((ExternalSet<E>) left).intersection((ExternalSet<E>) right);
+		return SetUtils.intersection(left, right);
+	}
+
+	/**
+	 * Yields whether {@code container} contains all the elements of
+	 * {@code contained}. If both sets are {@link ExternalSet}s backed by the
+	 * same cache, the check is carried out word-wise on their bitsets.
+	 * 
+	 * @param <E>       the type of elements
+	 * @param container the set that should contain the other
+	 * @param contained the set that should be contained in the other
+	 * 
+	 * @return whether or not {@code container} contains {@code contained}
+	 */
+	static <E> boolean includes(
+			Set<E> container,
+			Set<E> contained) {
+		if (sameCache(container, contained))
+			return ((ExternalSet<E>) container).contains((ExternalSet<E>) contained);
+		return container.containsAll(contained);
+	}
 }
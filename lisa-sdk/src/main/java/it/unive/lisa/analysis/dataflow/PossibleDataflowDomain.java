@@ -2,9 +2,9 @@ package it.unive.lisa.analysis.dataflow;
 
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.lattices.SetLattice;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
 import java.util.HashSet;
 import java.util.Set;
-import org.apache.commons.collections4.SetUtils;
 
 /**
  * A {@link DataflowDomain} for <b>possible</b> dataflow analysis. Being
@@ -30,6 +30,24 @@ public class PossibleDataflowDomain<E extends DataflowElement<PossibleDataflowDo
 		super(domain, new HashSet<>(), true, false);
 	}
 
+	/**
+	 * Builds an empty domain, optionally storing its elements in bitsets. If
+	 * {@code bitsets} is {@code true}, the elements of this domain and of all
+	 * the instances derived from it are numbered through a fresh
+	 * {@link ExternalSetCache}, so that <i>gen</i> and <i>kill</i> operations
+	 * and lattice operations work on bitsets instead of hash sets.
+	 * 
+	 * @param domain  a singleton instance to be used during semantic
+	 *                    operations to perform <i>kill</i> and <i>gen</i>
+	 *                    operations
+	 * @param bitsets whether or not elements should be stored in bitsets
+	 */
+	public PossibleDataflowDomain(
+			E domain,
+			boolean bitsets) {
+		super(domain, bitsets ? new ExternalSetCache<E>().mkEmptySet() : new HashSet<>(), true, false);
+	}
+
 	private PossibleDataflowDomain(
 			E domain,
 			Set<E> elements,
@@ -51,7 +69,7 @@ public class PossibleDataflowDomain<E extends DataflowElement<PossibleDataflowDo
 	public PossibleDataflowDomain<E> lubAux(
 			PossibleDataflowDomain<E> other)
 			throws SemanticException {
-		Set<E> union = SetUtils.union(this.getDataflowElements(), other.getDataflowElements());
+		Set<E> union = union(this.getDataflowElements(), other.getDataflowElements());
 		return new PossibleDataflowDomain<>(domain, union, false, false);
 	}
 
@@ -59,14 +77,14 @@ public class PossibleDataflowDomain<E extends DataflowElement<PossibleDataflowDo
 	public boolean lessOrEqualAux(
 			PossibleDataflowDomain<E> other)
 			throws SemanticException {
-		return other.getDataflowElements().containsAll(this.getDataflowElements());
+		return includes(other.getDataflowElements(), this.getDataflowElements());
 	}
 
 	@Override
 	public PossibleDataflowDomain<E> glbAux(
 			PossibleDataflowDomain<E> other)
 			throws SemanticException {
-		Set<E> intersection = SetUtils.intersection(this.getDataflowElements(), other.getDataflowElements());
+		Set<E> intersection = intersection(this.getDataflowElements(), other.getDataflowElements());
 		return new PossibleDataflowDomain<>(domain, intersection, false, false);
 	}
 }
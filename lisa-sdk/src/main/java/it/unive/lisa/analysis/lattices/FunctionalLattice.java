@@ -3,12 +3,12 @@ package it.unive.lisa.analysis.lattices;
 import it.unive.lisa.analysis.BaseLattice;
 import it.unive.lisa.analysis.Lattice;
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.util.collections.PersistentHashMap;
 import it.unive.lisa.util.representation.MapRepresentation;
 import it.unive.lisa.util.representation.StringRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -17,7 +17,14 @@ import java.util.Set;
 
 /**
  * A generic functional abstract domain that performs the functional lifting of
- * the lattice on the elements of the co-domain.
+ * the lattice on the elements of the co-domain. Unless
+ * {@link #mkNewFunction(Map, boolean)} is overridden, functions are stored in
+ * {@link PersistentHashMap}s: copying a function is a constant-time operation,
+ * and updating the copy only duplicates the path to the updated key. Functions
+ * derived from one another thus share most of their structure, that is
+ * exploited by {@link #lessOrEqualAux(FunctionalLattice)} and by the lifting
+ * of lub, glb, widening and narrowing to avoid comparing or combining values
+ * that are shared by reference.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -30,6 +37,20 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 		BaseLattice<F>,
 		Iterable<Map.Entry<K, V>> {
 
+	/**
+	 * Whether or not a subclass of this class uses the implementation of
+	 * {@link #lubKeys(Set, Set)} provided by this class, that yields the union
+	 * of the given sets.
+	 */
+	private static final ClassValue<Boolean> UNION_KEYS = inheritsKeyLifter("lubKeys");
+
+	/**
+	 * Whether or not a subclass of this class uses the implementation of
+	 * {@link #glbKeys(Set, Set)} provided by this class, that yields the
+	 * intersection of the given sets.
+	 */
+	private static final ClassValue<Boolean> INTERSECTION_KEYS = inheritsKeyLifter("glbKeys");
+
 	/**
 	 * The function implemented by this lattice.
 	 */
@@ -66,7 +87,9 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	/**
 	 * Creates a new instance of the underlying function. The purpose of this
 	 * method is to provide a common function implementation to every subclass
-	 * that does not have implementation-specific requirements.
+	 * that does not have implementation-specific requirements. The returned
+	 * function is a {@link PersistentHashMap}, that shares its structure with
+	 * {@code other} if the latter is also a {@link PersistentHashMap}.
 	 * 
 	 * @param other        an optional function to copy, can be {@code null}
 	 * @param preserveNull whether a null {@code other} should cause a
@@ -78,8 +101,8 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 			Map<K, V> other,
 			boolean preserveNull) {
 		if (other == null)
-			return preserveNull ? null : new HashMap<>();
-		return new HashMap<>(other);
+			return preserveNull ? null : new PersistentHashMap<>();
+		return new PersistentHashMap<>(other);
 	}
 
 	/**
@@ -189,7 +212,7 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	public F lubAux(
 			F other)
 			throws SemanticException {
-		return functionalLift(other, lattice.bottom(), this::lubKeys, (
+		return sharedLift(other, lattice.bottom(), true, (
 				o1,
 				o2) -> o1 == null ? o2 : o1.lub(o2));
 	}
@@ -198,7 +221,7 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	public F glbAux(
 			F other)
 			throws SemanticException {
-		return functionalLift(other, lattice.top(), this::glbKeys, (
+		return sharedLift(other, lattice.top(), false, (
 				o1,
 				o2) -> o1 == null ? o2 : o1.glb(o2));
 	}
@@ -207,7 +230,7 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	public F wideningAux(
 			F other)
 			throws SemanticException {
-		return functionalLift(other, lattice.bottom(), this::lubKeys, (
+		return sharedLift(other, lattice.bottom(), true, (
 				o1,
 				o2) -> o1 == null ? o2 : o1.widening(o2));
 	}
@@ -216,7 +239,7 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	public F narrowingAux(
 			F other)
 			throws SemanticException {
-		return functionalLift(other, lattice.top(), this::glbKeys, (
+		return sharedLift(other, lattice.top(), false, (
 				o1,
 				o2) -> o1 == null ? o2 : o1.narrowing(o2));
 	}
@@ -310,6 +333,94 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 		return mk(lattice.lub(other.lattice), function);
 	}
 
+	/**
+	 * Similar to {@link #functionalLift}, using {@link #lubKeys(Set, Set)} (if
+	 * {@code union} holds) or {@link #glbKeys(Set, Set)} (otherwise) as key
+	 * lifter, but assumes that {@code valueLifter} is idempotent, that is, that
+	 * lifting a value with itself yields the value back. When both functions
+	 * are {@link PersistentHashMap}s and the key lifter is the one of this
+	 * class (that is, it does not merge nor rename keys), this is exploited by
+	 * building the result on top of a copy of the function of {@code this},
+	 * and by visiting, through
+	 * {@link PersistentHashMap#keysDifferingFrom(PersistentHashMap)}, only the
+	 * keys that are mapped to different objects in the two functions or that
+	 * are mapped by only one of them.
+	 * 
+	 * @param other       the other functional lattice
+	 * @param missing     the lattice element to use for the lift when a key has
+	 *                        no mapping in one of the two functions
+	 * @param union       whether the keys of the result are the union or the
+	 *                        intersection of the keys of the two functions
+	 * @param valueLifter the idempotent value lifter
+	 * 
+	 * @return the functional lift between {@code this} and {@code other}
+	 * 
+	 * @throws SemanticException if something goes wrong while lifting the
+	 *                               lattice elements
+	 */
+	@SuppressWarnings("unchecked")
+	private F sharedLift(
+			F other,
+			V missing,
+			boolean union,
+			FunctionalLift<V> valueLifter)
+			throws SemanticException {
+		if (!(function instanceof PersistentHashMap)
+				|| !(other.function instanceof PersistentHashMap)
+				|| !(union ? UNION_KEYS : INTERSECTION_KEYS).get(getClass()))
+			return functionalLift(other, missing, union ? this::lubKeys : this::glbKeys, valueLifter);
+
+		PersistentHashMap<K, V> mine = (PersistentHashMap<K, V>) function;
+		PersistentHashMap<K, V> theirs = (PersistentHashMap<K, V>) other.function;
+		// keys that are not part of the differences keep the value of this
+		Map<K, V> function = mkNewFunction(mine, false);
+		for (K key : mine.keysDifferingFrom(theirs))
+			if (theirs.containsKey(key))
+				function.put(key, lift(key, mine.get(key), theirs.get(key), valueLifter));
+			else if (union)
+				function.put(key, lift(key, mine.get(key), missing, valueLifter));
+			else
+				function.remove(key);
+
+		if (union)
+			// keys mapped by both functions have already been lifted
+			for (K key : theirs.keysDifferingFrom(mine))
+				if (!mine.containsKey(key))
+					function.put(key, lift(key, missing, theirs.get(key), valueLifter));
+		return mk(lattice.lub(other.lattice), function);
+	}
+
+	private static ClassValue<Boolean> inheritsKeyLifter(
+			String name) {
+		// subclasses overriding a key lifter might merge or rename keys, and
+		// their lifts thus cannot be restricted to the keys that differ
+		return new ClassValue<>() {
+
+			@Override
+			protected Boolean computeValue(
+					Class<?> type) {
+				try {
+					return type.getMethod(name, Set.class, Set.class).getDeclaringClass() == FunctionalLattice.class;
+				} catch (NoSuchMethodException e) {
+					return false;
+				}
+			}
+		};
+	}
+
+	private V lift(
+			K key,
+			V s1,
+			V s2,
+			FunctionalLift<V> valueLifter)
+			throws SemanticException {
+		try {
+			return valueLifter.lift(s1, s2);
+		} catch (SemanticException e) {
+			throw new SemanticException("Exception during functional lifting of key '" + key + "'", e);
+		}
+	}
+
 	/**
 	 * Yields the union of the keys between {@code k1} and {@code k2}.
 	 * 
@@ -350,15 +461,22 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public boolean lessOrEqualAux(
 			F other)
 			throws SemanticException {
-		if (function != null)
-			for (K key : function.keySet()) {
+		if (function != null) {
+			Iterable<K> keys = function.keySet();
+			if (function instanceof PersistentHashMap && other.function instanceof PersistentHashMap)
+				// keys mapped to the same object in both functions are skipped
+				keys = ((PersistentHashMap<K, V>) function)
+						.keysDifferingFrom((PersistentHashMap<K, V>) other.function);
+			for (K key : keys) {
 				V state = getState(key);
 				if (state != null && !state.lessOrEqual(other.getState(key)))
 					return false;
 			}
+		}
 
 		return true;
 	}
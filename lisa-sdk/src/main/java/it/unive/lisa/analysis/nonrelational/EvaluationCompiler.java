@@ -0,0 +1,650 @@
+package it.unive.lisa.analysis.nonrelational;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SemanticOracle;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.ExpressionVisitor;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapDereference;
+import it.unive.lisa.symbolic.heap.HeapReference;
+import it.unive.lisa.symbolic.heap.MemoryAllocation;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.NullConstant;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.symbolic.value.PushInv;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.symbolic.value.TernaryExpression;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.operator.binary.BinaryOperator;
+import it.unive.lisa.symbolic.value.operator.binary.TypeCast;
+import it.unive.lisa.symbolic.value.operator.binary.TypeConv;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link ExpressionVisitor} that compiles expressions into
+ * {@link ExpressionEvaluator}s for non-relational domains. The produced
+ * evaluators evaluate the children of an expression first, return the first
+ * child evaluating to bottom (if any), and otherwise delegate to one of the
+ * {@code eval*} hooks of this class, that concrete compilers implement by
+ * invoking the corresponding method of the domain. Heap expressions cannot be
+ * processed: their evaluators fail when they are evaluated.<br>
+ * <br>
+ * Compiled evaluators are cached inside the compiler, keyed by the identity of
+ * the expression they have been compiled from, and the cache does not keep its
+ * keys alive: an evaluator is discarded as soon as its expression is no longer
+ * reachable. For this to work, evaluators never capture the expressions they
+ * evaluate: these are instead passed to {@link ExpressionEvaluator#evaluate}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <T> the type of domain using the compiled evaluators
+ * @param <E> the type of environment where expressions are evaluated
+ * @param <R> the type of the result of the evaluations
+ */
+public abstract class EvaluationCompiler<T, E, R>
+		implements
+		ExpressionVisitor<ExpressionEvaluator<T, E, R>> {
+
+	private final String heapError;
+
+	private final Map<Object, ExpressionEvaluator<T, E, R>> evaluators = new ConcurrentHashMap<>();
+
+	private final ReferenceQueue<SymbolicExpression> collected = new ReferenceQueue<>();
+
+	/**
+	 * Builds the compiler.
+	 * 
+	 * @param heapError the message of the {@link SemanticException} raised
+	 *                      when an heap expression is evaluated
+	 */
+	protected EvaluationCompiler(
+			String heapError) {
+		this.heapError = heapError;
+	}
+
+	/**
+	 * Yields the evaluator of the given expression, compiling it only if this
+	 * compiler has never compiled the very same expression (that is, the same
+	 * object) before. Expressions that are equal but not identical are
+	 * compiled separately.
+	 * 
+	 * @param expression the expression to compile
+	 * 
+	 * @return the evaluator of the expression
+	 * 
+	 * @throws SemanticException if an error occurs during the compilation
+	 */
+	public final ExpressionEvaluator<T, E, R> compile(
+			SymbolicExpression expression)
+			throws SemanticException {
+		ExpressionEvaluator<T, E, R> evaluator = evaluators.get(new Lookup(expression));
+		if (evaluator == null) {
+			evaluator = expression.accept(this);
+			Object stale;
+			while ((stale = collected.poll()) != null)
+				evaluators.remove(stale);
+			evaluators.put(new WeakKey(expression, collected), evaluator);
+		}
+		return evaluator;
+	}
+
+	/**
+	 * Yields {@code true} if the given result of an evaluation is bottom.
+	 * 
+	 * @param result the result
+	 * 
+	 * @return whether or not the result is bottom
+	 */
+	protected abstract boolean isBottom(
+			R result);
+
+	/**
+	 * Evaluates a {@link UnaryExpression} whose argument has been evaluated to
+	 * a non-bottom result.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param expression  the expression to evaluate
+	 * @param arg         the result of the evaluation of the argument
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalUnaryExpression(
+			T domain,
+			UnaryExpression expression,
+			R arg,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	/**
+	 * Evaluates a {@link BinaryExpression} whose operator is neither
+	 * {@link TypeCast} nor {@link TypeConv}, and whose arguments have been
+	 * evaluated to non-bottom results.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param expression  the expression to evaluate
+	 * @param left        the result of the evaluation of the left argument
+	 * @param right       the result of the evaluation of the right argument
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalBinaryExpression(
+			T domain,
+			BinaryExpression expression,
+			R left,
+			R right,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	/**
+	 * Evaluates a {@link BinaryExpression} whose operator is {@link TypeCast},
+	 * and whose arguments have been evaluated to non-bottom results.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param expression  the expression to evaluate
+	 * @param left        the result of the evaluation of the left argument
+	 * @param right       the result of the evaluation of the right argument
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalTypeCast(
+			T domain,
+			BinaryExpression expression,
+			R left,
+			R right,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	/**
+	 * Evaluates a {@link BinaryExpression} whose operator is {@link TypeConv},
+	 * and whose arguments have been evaluated to non-bottom results.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param expression  the expression to evaluate
+	 * @param left        the result of the evaluation of the left argument
+	 * @param right       the result of the evaluation of the right argument
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalTypeConv(
+			T domain,
+			BinaryExpression expression,
+			R left,
+			R right,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	/**
+	 * Evaluates a {@link TernaryExpression} whose arguments have been
+	 * evaluated to non-bottom results.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param expression  the expression to evaluate
+	 * @param left        the result of the evaluation of the left argument
+	 * @param middle      the result of the evaluation of the middle argument
+	 * @param right       the result of the evaluation of the right argument
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalTernaryExpression(
+			T domain,
+			TernaryExpression expression,
+			R left,
+			R middle,
+			R right,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	/**
+	 * Evaluates a {@link Skip}.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param expression  the expression to evaluate
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalSkip(
+			T domain,
+			Skip expression,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	/**
+	 * Evaluates a {@link PushAny}.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param expression  the expression to evaluate
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalPushAny(
+			T domain,
+			PushAny expression,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	/**
+	 * Evaluates a {@link PushInv}.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param expression  the expression to evaluate
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalPushInv(
+			T domain,
+			PushInv expression,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	/**
+	 * Evaluates a {@link NullConstant}.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalNullConstant(
+			T domain,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	/**
+	 * Evaluates a {@link Constant} that is not a {@link NullConstant}.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param expression  the expression to evaluate
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalNonNullConstant(
+			T domain,
+			Constant expression,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	/**
+	 * Evaluates an {@link Identifier}.
+	 * 
+	 * @param domain      the domain performing the evaluation
+	 * @param expression  the expression to evaluate
+	 * @param environment the environment where the expression is evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	protected abstract R evalIdentifier(
+			T domain,
+			Identifier expression,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+
+	private ExpressionEvaluator<T, E, R> heap(
+			ExpressionEvaluator<T, E, R> receiver,
+			ExpressionEvaluator<T, E, R> child) {
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> {
+			AccessChild access = (AccessChild) expr;
+			receiver.evaluate(access.getContainer(), domain, environment, pp, oracle);
+			child.evaluate(access.getChild(), domain, environment, pp, oracle);
+			throw new SemanticException(heapError);
+		};
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			AccessChild expression,
+			ExpressionEvaluator<T, E, R> receiver,
+			ExpressionEvaluator<T, E, R> child,
+			Object... params) {
+		return heap(receiver, child);
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			MemoryAllocation expression,
+			Object... params) {
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> {
+			throw new SemanticException(heapError);
+		};
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			HeapReference expression,
+			ExpressionEvaluator<T, E, R> arg,
+			Object... params) {
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> {
+			arg.evaluate(((HeapReference) expr).getExpression(), domain, environment, pp, oracle);
+			throw new SemanticException(heapError);
+		};
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			HeapDereference expression,
+			ExpressionEvaluator<T, E, R> arg,
+			Object... params) {
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> {
+			arg.evaluate(((HeapDereference) expr).getExpression(), domain, environment, pp, oracle);
+			throw new SemanticException(heapError);
+		};
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			UnaryExpression expression,
+			ExpressionEvaluator<T, E, R> arg,
+			Object... params) {
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> {
+			UnaryExpression unary = (UnaryExpression) expr;
+			R a = arg.evaluate(unary.getExpression(), domain, environment, pp, oracle);
+			if (isBottom(a))
+				return a;
+			return evalUnaryExpression(domain, unary, a, environment, pp, oracle);
+		};
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			BinaryExpression expression,
+			ExpressionEvaluator<T, E, R> left,
+			ExpressionEvaluator<T, E, R> right,
+			Object... params) {
+		BinaryOperator operator = expression.getOperator();
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> {
+			BinaryExpression binary = (BinaryExpression) expr;
+			R l = left.evaluate(binary.getLeft(), domain, environment, pp, oracle);
+			R r = right.evaluate(binary.getRight(), domain, environment, pp, oracle);
+			if (isBottom(l))
+				return l;
+			if (isBottom(r))
+				return r;
+
+			if (operator == TypeCast.INSTANCE)
+				return evalTypeCast(domain, binary, l, r, environment, pp, oracle);
+			if (operator == TypeConv.INSTANCE)
+				return evalTypeConv(domain, binary, l, r, environment, pp, oracle);
+			return evalBinaryExpression(domain, binary, l, r, environment, pp, oracle);
+		};
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			TernaryExpression expression,
+			ExpressionEvaluator<T, E, R> left,
+			ExpressionEvaluator<T, E, R> middle,
+			ExpressionEvaluator<T, E, R> right,
+			Object... params) {
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> {
+			TernaryExpression ternary = (TernaryExpression) expr;
+			R l = left.evaluate(ternary.getLeft(), domain, environment, pp, oracle);
+			R m = middle.evaluate(ternary.getMiddle(), domain, environment, pp, oracle);
+			R r = right.evaluate(ternary.getRight(), domain, environment, pp, oracle);
+			if (isBottom(l))
+				return l;
+			if (isBottom(m))
+				return m;
+			if (isBottom(r))
+				return r;
+
+			return evalTernaryExpression(domain, ternary, l, m, r, environment, pp, oracle);
+		};
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			Skip expression,
+			Object... params) {
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> evalSkip(domain, (Skip) expr, environment, pp, oracle);
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			PushAny expression,
+			Object... params) {
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> evalPushAny(domain, (PushAny) expr, environment, pp, oracle);
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			PushInv expression,
+			Object... params) {
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> evalPushInv(domain, (PushInv) expr, environment, pp, oracle);
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			Constant expression,
+			Object... params) {
+		if (expression instanceof NullConstant)
+			return (
+					expr,
+					domain,
+					environment,
+					pp,
+					oracle) -> evalNullConstant(domain, environment, pp, oracle);
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> evalNonNullConstant(domain, (Constant) expr, environment, pp, oracle);
+	}
+
+	@Override
+	public ExpressionEvaluator<T, E, R> visit(
+			Identifier expression,
+			Object... params) {
+		return (
+				expr,
+				domain,
+				environment,
+				pp,
+				oracle) -> evalIdentifier(domain, (Identifier) expr, environment, pp, oracle);
+	}
+
+	/**
+	 * A key of the cache of evaluators, that refers to its expression weakly
+	 * and that is equal to another key only if they refer to the same
+	 * expression.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class WeakKey extends WeakReference<SymbolicExpression> {
+
+		private final int hash;
+
+		private WeakKey(
+				SymbolicExpression expression,
+				ReferenceQueue<SymbolicExpression> queue) {
+			super(expression, queue);
+			this.hash = System.identityHashCode(expression);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(
+				Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof WeakKey))
+				return false;
+			SymbolicExpression expression = get();
+			return expression != null && expression == ((WeakKey) obj).get();
+		}
+	}
+
+	/**
+	 * A short-lived key used to look up the cache of evaluators without
+	 * allocating a {@link WeakKey}. It is only ever passed to
+	 * {@link Map#get(Object)}, that compares it with the stored keys through
+	 * its own {@link #equals(Object)}.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Lookup {
+
+		private final SymbolicExpression expression;
+
+		private Lookup(
+				SymbolicExpression expression) {
+			this.expression = expression;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(expression);
+		}
+
+		@Override
+		public boolean equals(
+				Object obj) {
+			return obj instanceof WeakKey && ((WeakKey) obj).get() == expression;
+		}
+	}
+}
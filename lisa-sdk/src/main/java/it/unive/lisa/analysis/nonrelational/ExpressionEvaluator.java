@@ -0,0 +1,49 @@
+package it.unive.lisa.analysis.nonrelational;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SemanticOracle;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.symbolic.SymbolicExpression;
+
+/**
+ * An evaluator of a {@link SymbolicExpression}, compiled once from the tree of
+ * the expression by an {@link EvaluationCompiler} and then reused for all of
+ * its evaluations. Evaluators depend neither on a specific instance of the
+ * domain that uses them nor on the expression object they have been compiled
+ * from: both are passed to
+ * {@link #evaluate(SymbolicExpression, Object, Object, ProgramPoint, SemanticOracle)},
+ * so that evaluators can be cached without keeping their expressions alive.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <T> the type of domain using this evaluator
+ * @param <E> the type of environment where the expression is evaluated
+ * @param <R> the type of the result of the evaluation
+ */
+@FunctionalInterface
+public interface ExpressionEvaluator<T, E, R> {
+
+	/**
+	 * Evaluates the given expression, that must be the one that this
+	 * evaluator has been compiled from.
+	 * 
+	 * @param expression  the expression to evaluate
+	 * @param domain      the instance of the domain performing the evaluation
+	 * @param environment the environment where the expression must be
+	 *                        evaluated
+	 * @param pp          the program point that where this operation is being
+	 *                        evaluated
+	 * @param oracle      the oracle for inter-domain communication
+	 * 
+	 * @return the result of the evaluation
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	R evaluate(
+			SymbolicExpression expression,
+			T domain,
+			E environment,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException;
+}
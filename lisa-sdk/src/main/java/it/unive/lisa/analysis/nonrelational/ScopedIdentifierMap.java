@@ -0,0 +1,114 @@
+package it.unive.lisa.analysis.nonrelational;
+
+import it.unive.lisa.analysis.ScopeToken;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.collections.PersistentHashMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link PersistentHashMap} from {@link Identifier}s that can also keep
+ * track, in a second persistent map, of the keys that can be scoped (that is,
+ * the ones for which {@link Identifier#canBeScoped()} holds). This allows
+ * {@link VariableLift}s to push and pop scopes visiting only the identifiers
+ * that are affected by {@link Identifier#pushScope(ScopeToken)} and
+ * {@link Identifier#popScope(ScopeToken)}.<br>
+ * <br>
+ * The index is built lazily, the first time that {@link #getScopedKeys()} is
+ * invoked, and it is then inherited by all the copies of the map. Only
+ * indexed maps pay the second insertion on {@link #put(Identifier, Object)}
+ * and {@link #remove(Object)}, and only when these add or remove a key: maps
+ * that are never scoped (e.g., the ones built by the lattice operations of
+ * the fixpoint) cost exactly as plain {@link PersistentHashMap}s, while the
+ * ones derived from a scoped map (e.g., the states of a callee, that will be
+ * popped on return) keep the index up to date. Since the index is persistent
+ * as well, copying an instance of this class is still a constant-time
+ * operation.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <T> the type of the values
+ */
+class ScopedIdentifierMap<T> extends PersistentHashMap<Identifier, T> {
+
+	/**
+	 * The keys of this map that can be scoped, mapped to themselves, or
+	 * {@code null} if they have not been indexed yet.
+	 */
+	private volatile PersistentHashMap<Identifier, Identifier> scoped;
+
+	/**
+	 * Builds an empty map.
+	 */
+	ScopedIdentifierMap() {
+		super();
+	}
+
+	/**
+	 * Builds a map containing the same mappings of the given one. If
+	 * {@code other} is an instance of this class, this is a constant-time
+	 * operation as the two maps will share both their tries and, if
+	 * {@code other} has one, their indexes.
+	 * 
+	 * @param other the map to copy
+	 */
+	ScopedIdentifierMap(
+			Map<Identifier, T> other) {
+		super(other);
+		if (other instanceof ScopedIdentifierMap) {
+			PersistentHashMap<Identifier, Identifier> index = ((ScopedIdentifierMap<T>) other).scoped;
+			if (index != null)
+				this.scoped = new PersistentHashMap<>(index);
+		}
+	}
+
+	/**
+	 * Yields the keys of this map that can be scoped, indexing them if this
+	 * has not happened yet.
+	 * 
+	 * @return an unmodifiable view of the scoped keys
+	 */
+	Set<Identifier> getScopedKeys() {
+		PersistentHashMap<Identifier, Identifier> index = scoped;
+		if (index == null) {
+			index = new PersistentHashMap<>();
+			for (Identifier id : keySet())
+				if (id != null && id.canBeScoped())
+					index.put(id, id);
+			scoped = index;
+		}
+		return Collections.unmodifiableSet(index.keySet());
+	}
+
+	@Override
+	public T put(
+			Identifier key,
+			T value) {
+		int size = size();
+		T prev = super.put(key, value);
+		// rebinding a key leaves the index untouched
+		PersistentHashMap<Identifier, Identifier> index = scoped;
+		if (index != null && size() != size && key != null && key.canBeScoped())
+			index.put(key, key);
+		return prev;
+	}
+
+	@Override
+	public T remove(
+			Object key) {
+		int size = size();
+		T prev = super.remove(key);
+		PersistentHashMap<Identifier, Identifier> index = scoped;
+		if (index != null && size() != size)
+			index.remove(key);
+		return prev;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		if (scoped != null)
+			scoped = new PersistentHashMap<>();
+	}
+}
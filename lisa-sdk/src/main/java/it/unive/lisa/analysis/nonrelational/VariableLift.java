@@ -10,13 +10,15 @@ import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.util.collections.CollectionsDiffBuilder;
+import it.unive.lisa.util.collections.PersistentHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
-import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -87,62 +89,90 @@ public abstract class VariableLift<M extends VariableLift<M, E, T>,
 	public M pushScope(
 			ScopeToken scope)
 			throws SemanticException {
-		AtomicReference<SemanticException> holder = new AtomicReference<>();
-
-		M result = liftIdentifiers(id -> {
-			try {
-				return (Identifier) id.pushScope(scope);
-			} catch (SemanticException e) {
-				holder.set(e);
-			}
-			return null;
-		});
-
-		if (holder.get() != null)
-			throw new SemanticException("Pushing the scope '" + scope + "' raised an error", holder.get());
-
-		return result;
+		try {
+			return liftIdentifiers(scope, true);
+		} catch (SemanticException e) {
+			throw new SemanticException("Pushing the scope '" + scope + "' raised an error", e);
+		}
 	}
 
 	@Override
 	public M popScope(
 			ScopeToken scope)
 			throws SemanticException {
-		AtomicReference<SemanticException> holder = new AtomicReference<>();
-
-		M result = liftIdentifiers(id -> {
-			try {
-				return (Identifier) id.popScope(scope);
-			} catch (SemanticException e) {
-				holder.set(e);
-			}
-			return null;
-		});
-
-		if (holder.get() != null)
-			throw new SemanticException("Popping the scope '" + scope + "' raised an error", holder.get());
+		try {
+			return liftIdentifiers(scope, false);
+		} catch (SemanticException e) {
+			throw new SemanticException("Popping the scope '" + scope + "' raised an error", e);
+		}
+	}
 
-		return result;
+	/**
+	 * Creates a new instance of the underlying function. The returned function
+	 * is a {@link PersistentHashMap} that can also index the identifiers that
+	 * can be scoped, sharing both its structure and its index (if any) with
+	 * {@code other} if the latter has been created by this method.
+	 * 
+	 * @param other        an optional function to copy, can be {@code null}
+	 * @param preserveNull whether a null {@code other} should cause a
+	 *                         {@code null} return value or an empty function
+	 * 
+	 * @return a new function
+	 */
+	@Override
+	public Map<Identifier, T> mkNewFunction(
+			Map<Identifier, T> other,
+			boolean preserveNull) {
+		if (other == null)
+			return preserveNull ? null : new ScopedIdentifierMap<>();
+		return new ScopedIdentifierMap<>(other);
 	}
 
+	/**
+	 * Pushes or pops the given scope on all the identifiers of this lift.
+	 * Identifiers that cannot be scoped (e.g., heap locations) are left
+	 * untouched in a copy of the current function: since functions are
+	 * persistent maps that index the identifiers that can be scoped, only
+	 * those are visited and rewritten, instead of the whole mapping. The index
+	 * is built by the first scoping of a function, and the copy inherits it,
+	 * so that the matching pop only visits the scoped identifiers.
+	 */
 	@SuppressWarnings("unchecked")
 	private M liftIdentifiers(
-			UnaryOperator<Identifier> lifter)
+			ScopeToken scope,
+			boolean push)
 			throws SemanticException {
-		if (isBottom() || isTop())
+		if (isBottom() || isTop() || function == null)
 			return (M) this;
 
-		Map<Identifier, T> function = mkNewFunction(null, false);
-		for (Identifier id : getKeys()) {
-			Identifier lifted = lifter.apply(id);
-			if (lifted != null)
-				if (!function.containsKey(lifted))
-					function.put(lifted, getState(id));
-				else
-					function.put(lifted, getState(id).lub(function.get(lifted)));
-
+		// functions that have not been created by mkNewFunction are not
+		// indexed, and need to be fully scanned
+		Collection<Identifier> candidates = function instanceof ScopedIdentifierMap
+				? ((ScopedIdentifierMap<T>) function).getScopedKeys()
+				: function.keySet();
+		List<Pair<Identifier, T>> lifted = new ArrayList<>();
+		List<Identifier> changed = new ArrayList<>();
+		for (Identifier id : candidates) {
+			Identifier l = (Identifier) (push ? id.pushScope(scope) : id.popScope(scope));
+			if (l == id)
+				continue;
+			changed.add(id);
+			if (l != null)
+				lifted.add(Pair.of(l, function.get(id)));
 		}
 
+		if (changed.isEmpty())
+			return (M) this;
+
+		Map<Identifier, T> function = mkNewFunction(this.function, false);
+		for (Identifier id : changed)
+			function.remove(id);
+		for (Pair<Identifier, T> pair : lifted)
+			if (!function.containsKey(pair.getLeft()))
+				function.put(pair.getLeft(), pair.getRight());
+			else
+				function.put(pair.getLeft(), pair.getRight().lub(function.get(pair.getLeft())));
+
 		return mk(lattice, function);
 	}
 
@@ -4,6 +4,7 @@ import it.unive.lisa.analysis.BaseLattice;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.SemanticOracle;
 import it.unive.lisa.analysis.lattices.Satisfiability;
+import it.unive.lisa.analysis.nonrelational.EvaluationCompiler;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.ExpressionVisitor;
 import it.unive.lisa.symbolic.SymbolicExpression;
@@ -216,6 +217,187 @@ public interface BaseInferredValue<T extends BaseInferredValue<T>> extends BaseL
 
 	}
 
+	/**
+	 * The {@link EvaluationCompiler} of {@link BaseInferredValue}
+	 * instances. The produced evaluators yield the same results of
+	 * {@link EvaluationVisitor}, but they are built once for each expression
+	 * and domain class, and their evaluation does not need to dispatch on the
+	 * visitor nor to pass untyped parameters around. A single compiler, and
+	 * thus a single cache of evaluators, exists for each domain class.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <T> the concrete type of the domain using the compiled evaluators
+	 */
+	public class InferredEvaluationCompiler<T extends BaseInferredValue<T>>
+			extends
+			EvaluationCompiler<T, InferenceSystem<T>, InferredPair<T>> {
+
+		private static final ClassValue<InferredEvaluationCompiler<?>> COMPILERS = new ClassValue<>() {
+
+			@Override
+			protected InferredEvaluationCompiler<?> computeValue(
+					Class<?> type) {
+				return new InferredEvaluationCompiler<>();
+			}
+		};
+
+		private InferredEvaluationCompiler() {
+			super("Cannot process a heap expression with an inferred value domain");
+		}
+
+		/**
+		 * Yields the compiler of evaluators for the class of the given domain.
+		 * 
+		 * @param <T>    the concrete type of the domain
+		 * @param domain the domain that will use the evaluators
+		 * 
+		 * @return the compiler for the class of the domain
+		 */
+		@SuppressWarnings("unchecked")
+		public static <T extends BaseInferredValue<T>> InferredEvaluationCompiler<T> of(
+				T domain) {
+			return (InferredEvaluationCompiler<T>) COMPILERS.get(domain.getClass());
+		}
+
+		@Override
+		protected boolean isBottom(
+				InferredPair<T> result) {
+			return result.getInferred().isBottom();
+		}
+
+		@Override
+		protected InferredPair<T> evalUnaryExpression(
+				T domain,
+				UnaryExpression expression,
+				InferredPair<T> arg,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalUnaryExpression(expression.getOperator(), arg.getInferred(), environment.getExecutionState(), pp, oracle);
+		}
+
+		@Override
+		protected InferredPair<T> evalBinaryExpression(
+				T domain,
+				BinaryExpression expression,
+				InferredPair<T> left,
+				InferredPair<T> right,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalBinaryExpression(expression.getOperator(), left.getInferred(), right.getInferred(), environment.getExecutionState(), pp, oracle);
+		}
+
+		@Override
+		protected InferredPair<T> evalTypeCast(
+				T domain,
+				BinaryExpression expression,
+				InferredPair<T> left,
+				InferredPair<T> right,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalTypeCast(expression, left.getInferred(), right.getInferred(), environment.getExecutionState(), pp, oracle);
+		}
+
+		@Override
+		protected InferredPair<T> evalTypeConv(
+				T domain,
+				BinaryExpression expression,
+				InferredPair<T> left,
+				InferredPair<T> right,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalTypeConv(expression, left.getInferred(), right.getInferred(), environment.getExecutionState(), pp, oracle);
+		}
+
+		@Override
+		protected InferredPair<T> evalTernaryExpression(
+				T domain,
+				TernaryExpression expression,
+				InferredPair<T> left,
+				InferredPair<T> middle,
+				InferredPair<T> right,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalTernaryExpression(expression.getOperator(), left.getInferred(), middle.getInferred(), right.getInferred(),
+					environment.getExecutionState(), pp, oracle);
+		}
+
+		@Override
+		protected InferredPair<T> evalSkip(
+				T domain,
+				Skip expression,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalSkip(expression, environment.getExecutionState(), pp, oracle);
+		}
+
+		@Override
+		protected InferredPair<T> evalPushAny(
+				T domain,
+				PushAny expression,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalPushAny(expression, environment.getExecutionState(), pp, oracle);
+		}
+
+		@Override
+		protected InferredPair<T> evalPushInv(
+				T domain,
+				PushInv expression,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalPushInv(expression, environment.getExecutionState(), pp, oracle);
+		}
+
+		@Override
+		protected InferredPair<T> evalNullConstant(
+				T domain,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalNullConstant(environment.getExecutionState(), pp, oracle);
+		}
+
+		@Override
+		protected InferredPair<T> evalNonNullConstant(
+				T domain,
+				Constant expression,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalNonNullConstant(expression, environment.getExecutionState(), pp, oracle);
+		}
+
+		@Override
+		protected InferredPair<T> evalIdentifier(
+				T domain,
+				Identifier expression,
+				InferenceSystem<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalIdentifier(expression, environment, pp, oracle);
+		}
+	}
+
 	@Override
 	default Satisfiability satisfies(
 			ValueExpression expression,
@@ -305,7 +487,8 @@ public interface BaseInferredValue<T extends BaseInferredValue<T>> extends BaseL
 			ProgramPoint pp,
 			SemanticOracle oracle)
 			throws SemanticException {
-		return expression.accept(new EvaluationVisitor<>((T) this), environment, pp, oracle);
+		T domain = (T) this;
+		return InferredEvaluationCompiler.of(domain).compile(expression).evaluate(expression, domain, environment, pp, oracle);
 	}
 
 	/**
@@ -5,6 +5,7 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.SemanticOracle;
 import it.unive.lisa.analysis.lattices.Satisfiability;
 import it.unive.lisa.analysis.nonrelational.Environment;
+import it.unive.lisa.analysis.nonrelational.EvaluationCompiler;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.ExpressionVisitor;
 import it.unive.lisa.symbolic.SymbolicExpression;
@@ -207,6 +208,186 @@ public interface BaseNonRelationalTypeDomain<T extends BaseNonRelationalTypeDoma
 		}
 	}
 
+	/**
+	 * The {@link EvaluationCompiler} of {@link BaseNonRelationalTypeDomain}
+	 * instances. The produced evaluators yield the same results of
+	 * {@link EvaluationVisitor}, but they are built once for each expression
+	 * and domain class, and their evaluation does not need to dispatch on the
+	 * visitor nor to pass untyped parameters around. A single compiler, and
+	 * thus a single cache of evaluators, exists for each domain class.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <T> the concrete type of the domain using the compiled evaluators
+	 */
+	public class TypeEvaluationCompiler<T extends BaseNonRelationalTypeDomain<T>>
+			extends
+			EvaluationCompiler<T, TypeEnvironment<T>, T> {
+
+		private static final ClassValue<TypeEvaluationCompiler<?>> COMPILERS = new ClassValue<>() {
+
+			@Override
+			protected TypeEvaluationCompiler<?> computeValue(
+					Class<?> type) {
+				return new TypeEvaluationCompiler<>();
+			}
+		};
+
+		private TypeEvaluationCompiler() {
+			super("Cannot process a heap expression with a non-relational type domain");
+		}
+
+		/**
+		 * Yields the compiler of evaluators for the class of the given domain.
+		 * 
+		 * @param <T>    the concrete type of the domain
+		 * @param domain the domain that will use the evaluators
+		 * 
+		 * @return the compiler for the class of the domain
+		 */
+		@SuppressWarnings("unchecked")
+		public static <T extends BaseNonRelationalTypeDomain<T>> TypeEvaluationCompiler<T> of(
+				T domain) {
+			return (TypeEvaluationCompiler<T>) COMPILERS.get(domain.getClass());
+		}
+
+		@Override
+		protected boolean isBottom(
+				T result) {
+			return result.isBottom();
+		}
+
+		@Override
+		protected T evalUnaryExpression(
+				T domain,
+				UnaryExpression expression,
+				T arg,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalUnaryExpression(expression.getOperator(), arg, pp, oracle);
+		}
+
+		@Override
+		protected T evalBinaryExpression(
+				T domain,
+				BinaryExpression expression,
+				T left,
+				T right,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalBinaryExpression(expression.getOperator(), left, right, pp, oracle);
+		}
+
+		@Override
+		protected T evalTypeCast(
+				T domain,
+				BinaryExpression expression,
+				T left,
+				T right,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalTypeCast(expression, left, right, pp, oracle);
+		}
+
+		@Override
+		protected T evalTypeConv(
+				T domain,
+				BinaryExpression expression,
+				T left,
+				T right,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalTypeConv(expression, left, right, pp, oracle);
+		}
+
+		@Override
+		protected T evalTernaryExpression(
+				T domain,
+				TernaryExpression expression,
+				T left,
+				T middle,
+				T right,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalTernaryExpression(expression.getOperator(), left, middle, right, pp, oracle);
+		}
+
+		@Override
+		protected T evalSkip(
+				T domain,
+				Skip expression,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalSkip(expression, pp, oracle);
+		}
+
+		@Override
+		protected T evalPushAny(
+				T domain,
+				PushAny expression,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalPushAny(expression, pp, oracle);
+		}
+
+		@Override
+		protected T evalPushInv(
+				T domain,
+				PushInv expression,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalPushInv(expression, pp, oracle);
+		}
+
+		@Override
+		protected T evalNullConstant(
+				T domain,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalNullConstant(pp, oracle);
+		}
+
+		@Override
+		protected T evalNonNullConstant(
+				T domain,
+				Constant expression,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalNonNullConstant(expression, pp, oracle);
+		}
+
+		@Override
+		protected T evalIdentifier(
+				T domain,
+				Identifier expression,
+				TypeEnvironment<T> environment,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return domain.evalIdentifier(expression, environment, pp, oracle);
+		}
+	}
+
 	@Override
 	default Satisfiability satisfies(
 			ValueExpression expression,
@@ -288,7 +469,8 @@ public interface BaseNonRelationalTypeDomain<T extends BaseNonRelationalTypeDoma
 			ProgramPoint pp,
 			SemanticOracle oracle)
 			throws SemanticException {
-		return expression.accept(new EvaluationVisitor<>((T) this), environment, pp, oracle);
+		T domain = (T) this;
+		return TypeEvaluationCompiler.of(domain).compile(expression).evaluate(expression, domain, environment, pp, oracle);
 	}
 
 	@Override
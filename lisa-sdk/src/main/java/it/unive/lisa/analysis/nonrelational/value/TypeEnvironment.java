@@ -12,6 +12,7 @@ import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -96,10 +97,26 @@ public class TypeEnvironment<T extends NonRelationalTypeDomain<T>>
 			return eval((ValueExpression) e, pp, oracle).getRuntimeTypes();
 
 		ExpressionSet vexps = oracle.rewrite(e, pp, oracle);
-		Set<Type> result = new HashSet<>();
-		for (SymbolicExpression vexp : vexps)
-			result.addAll(eval((ValueExpression) vexp, pp, oracle).getRuntimeTypes());
-		return result;
+		Set<Type> result = null;
+		boolean copied = false;
+		for (SymbolicExpression vexp : vexps) {
+			Set<Type> types = eval((ValueExpression) vexp, pp, oracle).getRuntimeTypes();
+			if (result == null)
+				result = types;
+			else if (result instanceof ExternalSet && types instanceof ExternalSet
+					&& ((ExternalSet<Type>) result).getCache() == ((ExternalSet<Type>) types).getCache())
+				// sets of types built from the same type system are joined
+				// bitwise
+				result = ((ExternalSet<Type>) result).union((ExternalSet<Type>) types);
+			else {
+				if (!copied) {
+					result = new HashSet<>(result);
+					copied = true;
+				}
+				result.addAll(types);
+			}
+		}
+		return result == null ? new HashSet<>() : result;
 	}
 
 	@Override
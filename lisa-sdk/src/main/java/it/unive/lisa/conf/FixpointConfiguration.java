@@ -1,11 +1,21 @@
 package it.unive.lisa.conf;
 
+import it.unive.lisa.analysis.SplitCache;
 import it.unive.lisa.conf.LiSAConfiguration.DescendingPhaseType;
+import it.unive.lisa.interprocedural.SummaryStore;
+import it.unive.lisa.program.cfg.fixpoints.FixpointListener;
+import it.unive.lisa.program.cfg.fixpoints.FixpointProfiler;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.ExpressionInterner;
 import java.util.function.Predicate;
 
 /**
- * An immutable configuration holding fixpoint-specific parameters.
+ * An immutable configuration holding fixpoint-specific parameters. Since an
+ * instance of this class is created for each analysis run, it also holds the
+ * {@link SplitCache}, the {@link ExpressionInterner}, the
+ * {@link FixpointListener} and the {@link SummaryStore} that are shared by all
+ * fixpoints of the run, that do not take part in {@link #equals(Object)} and
+ * {@link #hashCode()}.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
@@ -46,6 +56,46 @@ public class FixpointConfiguration extends BaseConfiguration {
 	 */
 	public final Predicate<Statement> hotspots;
 
+	/**
+	 * Holder of {@link LiSAConfiguration#useSplitCache}.
+	 */
+	public final boolean useSplitCache;
+
+	/**
+	 * Holder of {@link LiSAConfiguration#splitCacheSize}.
+	 */
+	public final int splitCacheSize;
+
+	/**
+	 * Holder of {@link LiSAConfiguration#analysisThreads}.
+	 */
+	public final int analysisThreads;
+
+	/**
+	 * Holder of {@link LiSAConfiguration#unwindingCacheSize}.
+	 */
+	public final int unwindingCacheSize;
+
+	/**
+	 * Holder of {@link LiSAConfiguration#useExpressionInterning}.
+	 */
+	public final boolean useExpressionInterning;
+
+	/**
+	 * Holder of {@link LiSAConfiguration#profileFixpoints}.
+	 */
+	public final boolean profileFixpoints;
+
+	private final SplitCache splitCache;
+
+	private final ExpressionInterner interner;
+
+	private final FixpointProfiler profiler;
+
+	private final FixpointListener listener;
+
+	private final SummaryStore summaryStore;
+
 	/**
 	 * Builds the configuration.
 	 * 
@@ -60,5 +110,77 @@ public class FixpointConfiguration extends BaseConfiguration {
 		this.optimize = parent.optimize;
 		this.hotspots = parent.hotspots;
 		this.useWideningPoints = parent.useWideningPoints;
+		this.useSplitCache = parent.useSplitCache;
+		this.splitCacheSize = parent.splitCacheSize;
+		this.analysisThreads = parent.analysisThreads;
+		this.unwindingCacheSize = parent.unwindingCacheSize;
+		this.useExpressionInterning = parent.useExpressionInterning;
+		this.splitCache = useSplitCache ? new SplitCache(splitCacheSize) : null;
+		this.interner = useExpressionInterning ? new ExpressionInterner() : null;
+		this.profileFixpoints = parent.profileFixpoints;
+		this.profiler = profileFixpoints ? new FixpointProfiler() : null;
+		if (profiler == null)
+			this.listener = parent.fixpointListener;
+		else if (parent.fixpointListener == null)
+			this.listener = profiler;
+		else
+			this.listener = parent.fixpointListener.andThen(profiler);
+		this.summaryStore = parent.summaryStore;
+	}
+
+	/**
+	 * Yields the {@link SplitCache} to be used by fixpoints configured with
+	 * this object, or {@code null} if {@link #useSplitCache} is {@code false}.
+	 * 
+	 * @return the cache, or {@code null}
+	 */
+	public SplitCache getSplitCache() {
+		return splitCache;
+	}
+
+	/**
+	 * Yields the {@link ExpressionInterner} to be used by fixpoints configured
+	 * with this object, or {@code null} if {@link #useExpressionInterning} is
+	 * {@code false}.
+	 * 
+	 * @return the interner, or {@code null}
+	 */
+	public ExpressionInterner getExpressionInterner() {
+		return interner;
+	}
+
+	/**
+	 * Yields the {@link FixpointProfiler} collecting the metrics of fixpoints
+	 * configured with this object, or {@code null} if
+	 * {@link #profileFixpoints} is {@code false}.
+	 * 
+	 * @return the profiler, or {@code null}
+	 */
+	public FixpointProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Yields the {@link FixpointListener} to be notified by fixpoints
+	 * configured with this object, or {@code null} if no listener has been
+	 * installed through {@link LiSAConfiguration#fixpointListener} and
+	 * {@link #profileFixpoints} is {@code false}. When both are present, events
+	 * are forwarded to both of them.
+	 * 
+	 * @return the listener, or {@code null}
+	 */
+	public FixpointListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Yields the {@link SummaryStore} holding the summaries computed by
+	 * previous analyses, or {@code null} if no store has been installed
+	 * through {@link LiSAConfiguration#summaryStore}.
+	 * 
+	 * @return the store, or {@code null}
+	 */
+	public SummaryStore getSummaryStore() {
+		return summaryStore;
 	}
 }
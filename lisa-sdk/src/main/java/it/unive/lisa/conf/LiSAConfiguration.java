@@ -3,16 +3,20 @@ package it.unive.lisa.conf;
 import it.unive.lisa.LiSA;
 import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.analysis.SplitCache;
 import it.unive.lisa.checks.semantic.SemanticCheck;
 import it.unive.lisa.checks.syntactic.SyntacticCheck;
 import it.unive.lisa.checks.warnings.Warning;
 import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.interprocedural.OpenCallPolicy;
+import it.unive.lisa.interprocedural.SummaryStore;
 import it.unive.lisa.interprocedural.WorstCasePolicy;
 import it.unive.lisa.interprocedural.callgraph.CallGraph;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.controlFlow.ControlFlowExtractor;
 import it.unive.lisa.program.cfg.controlFlow.ControlFlowStructure;
+import it.unive.lisa.program.cfg.fixpoints.FixpointListener;
+import it.unive.lisa.program.cfg.fixpoints.FixpointProfiler;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.call.OpenCall;
 import it.unive.lisa.util.collections.CollectionUtilities;
@@ -122,6 +126,18 @@ public class LiSAConfiguration extends BaseConfiguration {
 	 */
 	public static final int DEFAULT_GLB_THRESHOLD = 5;
 
+	/**
+	 * The default maximum number of results kept by the {@link SplitCache} of
+	 * an analysis.
+	 */
+	public static final int DEFAULT_SPLIT_CACHE_SIZE = 10_000;
+
+	/**
+	 * The default maximum number of basic blocks whose unwinded results are
+	 * kept by each {@link it.unive.lisa.analysis.OptimizedAnalyzedCFG}.
+	 */
+	public static final int DEFAULT_UNWINDING_CACHE_SIZE = 1_000;
+
 	/**
 	 * The collection of {@link SyntacticCheck}s to execute. These checks will
 	 * be immediately executed after LiSA is started, as they do not require any
@@ -246,7 +262,10 @@ public class LiSAConfiguration extends BaseConfiguration {
 
 	/**
 	 * The concrete class of {@link WorkingSet} to be used in fixpoints.
-	 * Defaults to {@link DuplicateFreeFIFOWorkingSet}.
+	 * Defaults to {@link DuplicateFreeFIFOWorkingSet}. Using
+	 * {@link it.unive.lisa.util.collections.workset.WTOWorkingSet} makes
+	 * fixpoints process nodes in weak topological order, stabilizing inner
+	 * loops before evaluating the code that follows them.
 	 */
 	public Class<?> fixpointWorkingSet = DuplicateFreeFIFOWorkingSet.class;
 
@@ -306,6 +325,80 @@ public class LiSAConfiguration extends BaseConfiguration {
 	 */
 	public boolean dumpForcesUnwinding = false;
 
+	/**
+	 * When {@link #optimize} is {@code true}, this field controls the maximum
+	 * number of basic blocks whose results are kept by each
+	 * {@link it.unive.lisa.analysis.OptimizedAnalyzedCFG} after being unwinded
+	 * to answer queries on single statements. When more blocks are unwinded,
+	 * the least recently used ones are discarded. Defaults to
+	 * {@link #DEFAULT_UNWINDING_CACHE_SIZE}.
+	 */
+	public int unwindingCacheSize = DEFAULT_UNWINDING_CACHE_SIZE;
+
+	/**
+	 * Whether or not conditional edges should share the splits of the states
+	 * computed at their source through a {@link SplitCache}. The cache is owned
+	 * by a single analysis run, and it is discarded when the run terminates.
+	 * Defaults to {@code true}.
+	 */
+	public boolean useSplitCache = true;
+
+	/**
+	 * The maximum number of results kept by the {@link SplitCache} when
+	 * {@link #useSplitCache} is {@code true}. When more results are produced,
+	 * the least recently used ones are evicted. Defaults to
+	 * {@link #DEFAULT_SPLIT_CACHE_SIZE}.
+	 */
+	public int splitCacheSize = DEFAULT_SPLIT_CACHE_SIZE;
+
+	/**
+	 * The number of threads that interprocedural analyses supporting parallel
+	 * execution can use to analyze independent portions of the program
+	 * concurrently. Values lower than {@code 2} cause the analysis to be
+	 * executed sequentially on the calling thread. Parallel executions yield
+	 * the same results of sequential ones. Defaults to {@code 1}.
+	 */
+	public int analysisThreads = 1;
+
+	/**
+	 * Whether or not fixpoints should hash-cons the expressions computed by
+	 * each statement through an {@link it.unive.lisa.symbolic.ExpressionInterner}.
+	 * Structurally identical expressions computed at different iterations
+	 * then share the same instance, making their comparisons cheaper. The
+	 * interner is owned by a single analysis run, and it is discarded when
+	 * the run terminates. Defaults to {@code false}.
+	 */
+	public boolean useExpressionInterning = false;
+
+	/**
+	 * The {@link FixpointListener} to be notified of the events happening
+	 * during fixpoint computations (e.g., working set pops, semantics
+	 * evaluations, widenings). When {@code null}, fixpoints do not generate
+	 * events. Defaults to {@code null}.
+	 */
+	public FixpointListener fixpointListener = null;
+
+	/**
+	 * Whether or not the fixpoints of the analysis should be profiled through
+	 * a {@link FixpointProfiler}. If {@code true}, the collected metrics are
+	 * dumped in the working directory as {@value LiSA#PROFILE_NAME} and
+	 * {@value LiSA#PROFILE_CSV_NAME} at the end of the analysis. Note that
+	 * profiling slows down the analysis. Defaults to {@code false}.
+	 */
+	public boolean profileFixpoints = false;
+
+	/**
+	 * The {@link SummaryStore} holding the fixpoint summaries computed by
+	 * previous analyses, to be reused by the current one for the {@link CFG}s
+	 * that did not change. The store is updated with the results of the
+	 * analysis once it terminates, and should thus be shared among the
+	 * configurations of subsequent analyses of the same application. Stores
+	 * persisted to a file can also be shared among analyses running in
+	 * different processes. When {@code null}, all the fixpoints are computed
+	 * from scratch. Defaults to {@code null}.
+	 */
+	public SummaryStore summaryStore = null;
+
 	@Override
 	public String toString() {
 		StringBuilder res = new StringBuilder();
@@ -330,7 +423,9 @@ public class LiSAConfiguration extends BaseConfiguration {
 						res.append(": ").append(((Class<?>) value).getSimpleName());
 					else if (OpenCallPolicy.class.isAssignableFrom(field.getType()))
 						res.append(": ").append(((OpenCallPolicy) value).getClass().getSimpleName());
-					else if (Predicate.class.isAssignableFrom(field.getType()))
+					else if (Predicate.class.isAssignableFrom(field.getType())
+							|| FixpointListener.class.isAssignableFrom(field.getType())
+							|| SummaryStore.class.isAssignableFrom(field.getType()))
 						// not sure how we can get more details reliably
 						res.append(": ").append(value == null ? "unset" : "set");
 					else
@@ -370,7 +465,9 @@ public class LiSAConfiguration extends BaseConfiguration {
 						val = ((Class<?>) value).getSimpleName();
 					else if (OpenCallPolicy.class.isAssignableFrom(field.getType()))
 						val = ((OpenCallPolicy) value).getClass().getSimpleName();
-					else if (Predicate.class.isAssignableFrom(field.getType()))
+					else if (Predicate.class.isAssignableFrom(field.getType())
+							|| FixpointListener.class.isAssignableFrom(field.getType())
+							|| SummaryStore.class.isAssignableFrom(field.getType()))
 						// not sure how we can get more details reliably
 						val = value == null ? "unset" : "set";
 					else
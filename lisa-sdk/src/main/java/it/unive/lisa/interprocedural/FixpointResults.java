@@ -12,7 +12,9 @@ import org.apache.commons.lang3.tuple.Pair;
 /**
  * A {@link FunctionalLattice} from {@link CFG}s to {@link CFGResults}s. This
  * class is meant to store all fixpoint results on all token generated during
- * the interprocedural analysis for each cfg under analysis.
+ * the interprocedural analysis for each cfg under analysis. The mapping from
+ * cfgs to their results can be queried and updated concurrently, while the
+ * results of each cfg are expected to be updated by one thread at a time.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -59,9 +61,12 @@ public class FixpointResults<A extends AbstractState<A>>
 			ScopeId token,
 			AnalyzedCFG<A> result)
 			throws SemanticException {
-		if (function == null)
-			function = mkNewFunction(null, false);
-		CFGResults<A> res = function.computeIfAbsent(cfg, c -> new CFGResults<>(result.top()));
+		CFGResults<A> res;
+		synchronized (this) {
+			if (function == null)
+				function = mkNewFunction(null, false);
+			res = function.computeIfAbsent(cfg, c -> new CFGResults<>(result.top()));
+		}
 		return res.putResult(token, result);
 	}
 
@@ -72,7 +77,7 @@ public class FixpointResults<A extends AbstractState<A>>
 	 * 
 	 * @return {@code true} if that condition holds
 	 */
-	public boolean contains(
+	public synchronized boolean contains(
 			CFG cfg) {
 		return function != null && function.containsKey(cfg);
 	}
@@ -87,7 +92,7 @@ public class FixpointResults<A extends AbstractState<A>>
 	 * 
 	 * @return the result, or {@code null}
 	 */
-	public CFGResults<A> get(
+	public synchronized CFGResults<A> get(
 			CFG cfg) {
 		return function == null ? null : function.get(cfg);
 	}
@@ -107,7 +112,7 @@ public class FixpointResults<A extends AbstractState<A>>
 	 * 
 	 * @param cfg the cfg to forget
 	 */
-	public void forget(
+	public synchronized void forget(
 			CFG cfg) {
 		if (function == null)
 			return;
@@ -2,6 +2,8 @@ package it.unive.lisa.interprocedural;
 
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.call.CFGCall;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * An identifier for an {@link InterproceduralAnalysis} to distinguish different
@@ -36,4 +38,15 @@ public interface ScopeId {
 	 */
 	ScopeId push(
 			CFGCall c);
+
+	/**
+	 * Yields the calls tracked by this id, from the least recent to the most
+	 * recent one. The default implementation returns an empty list, and it is
+	 * suitable for ids that do not track calls.
+	 * 
+	 * @return the calls tracked by this id
+	 */
+	default List<CFGCall> getCallStack() {
+		return Collections.emptyList();
+	}
 }
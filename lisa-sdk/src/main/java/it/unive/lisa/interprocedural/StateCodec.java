@@ -0,0 +1,48 @@
+package it.unive.lisa.interprocedural;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import java.io.IOException;
+
+/**
+ * A codec translating {@link AnalysisState}s to and from a textual form, used
+ * by {@link SummaryStore}s to persist summaries on disk. Abstract states are
+ * not serializable in general, and each codec is thus meant to handle the
+ * states of a specific analysis.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public interface StateCodec {
+
+	/**
+	 * Encodes the given state.
+	 * 
+	 * @param state the state to encode
+	 * 
+	 * @return the textual form of the state
+	 * 
+	 * @throws IOException if the state cannot be encoded
+	 */
+	String encode(
+			AnalysisState<?> state)
+			throws IOException;
+
+	/**
+	 * Decodes a state from the textual form produced by
+	 * {@link #encode(AnalysisState)}.
+	 * 
+	 * @param <A>       the type of {@link AbstractState} contained into the
+	 *                      state
+	 * @param encoded   the textual form of the state
+	 * @param singleton an instance of the {@link AnalysisState} of the current
+	 *                      analysis, that can be used to rebuild the state
+	 * 
+	 * @return the decoded state
+	 * 
+	 * @throws IOException if the state cannot be decoded
+	 */
+	<A extends AbstractState<A>> AnalysisState<A> decode(
+			String encoded,
+			AnalysisState<A> singleton)
+			throws IOException;
+}
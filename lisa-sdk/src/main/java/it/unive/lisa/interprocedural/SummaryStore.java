@@ -0,0 +1,940 @@
+package it.unive.lisa.interprocedural;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.analysis.OptimizedAnalyzedCFG;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.interprocedural.callgraph.CallGraph;
+import it.unive.lisa.interprocedural.callgraph.CallGraphNode;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.Global;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.Unit;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeMember;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.call.CFGCall;
+import it.unive.lisa.program.cfg.statement.call.Call;
+import it.unive.lisa.util.datastructures.graph.GraphVisitor;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A store of the fixpoint summaries of {@link CFG}s that survives across
+ * different analyses of the same application, used to avoid recomputing the
+ * results of the parts of a program that did not change since the previous
+ * analysis. Stores are installed through
+ * {@link LiSAConfiguration#summaryStore}, and must be shared among the
+ * configurations of the analyses that should reuse each other's results.<br>
+ * <br>
+ * After each analysis, the store records the results of each analyzed
+ * {@link CFG} (that is, its entry states and post-states for each context it
+ * has been analyzed in), together with a structural hash of the cfg and with
+ * its callers and callees. Results do not refer to the cfg they have been
+ * computed on: statements are identified by their position in a canonical
+ * ordering of the cfg, and contexts by the signatures of the calling cfgs and
+ * by the positions of the calls in them. Before the next analysis, the store
+ * is validated against the new application: the summaries of cfgs whose hash
+ * changed (or that have been removed) are discarded, together with the ones
+ * of their transitive callers. All summaries are discarded if the
+ * configuration of the analysis changed, or if the shape of the program
+ * (units, hierarchies, globals and signatures of code members) changed, as
+ * that might change how calls are resolved. Interprocedural analyses can then
+ * query the remaining summaries through
+ * {@link #getSummary(CFG, ScopeId, AnalysisState, InterproceduralAnalysis)},
+ * that rebuilds the stored results on the cfg of the current
+ * application.<br>
+ * <br>
+ * Stores built with {@link #SummaryStore(Path, StateCodec)} are persisted to
+ * a json file after each update, and are loaded back from it when they are
+ * created, so that summaries can be reused by analyses running in different
+ * processes. Since abstract states cannot be serialized in general, states
+ * are translated through a {@link StateCodec} that is specific to the
+ * analysis being executed: contexts whose states cannot be encoded are not
+ * persisted. Note that LiSA does not provide codecs for its own domains:
+ * persistence is available only to analyses that supply one, and stores
+ * cannot be persisted without a codec.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class SummaryStore {
+
+	private static final Logger LOG = LogManager.getLogger(SummaryStore.class);
+
+	private final Map<String, Summary> summaries;
+
+	private final Map<CFG, Summary> restored;
+
+	private final Map<CFG, Map<Statement, Integer>> positions;
+
+	private final Path file;
+
+	private final StateCodec codec;
+
+	private String shape;
+
+	private String configuration;
+
+	/**
+	 * Builds an empty store, that lives in memory and can be reused by
+	 * analyses running in the same process.
+	 */
+	public SummaryStore() {
+		this(null, null);
+	}
+
+	/**
+	 * Builds a store that is persisted to the given file, loading the
+	 * summaries it contains if it exists. If the file cannot be read, the
+	 * store starts empty.
+	 * 
+	 * @param file  the file where summaries are persisted, or {@code null} if
+	 *                  the store should live in memory
+	 * @param codec the codec used to encode and decode the abstract states of
+	 *                  the summaries, that can be {@code null} only if the
+	 *                  store lives in memory
+	 * 
+	 * @throws IllegalArgumentException if a file is given without a codec
+	 */
+	public SummaryStore(
+			Path file,
+			StateCodec codec) {
+		if (file != null && codec == null)
+			throw new IllegalArgumentException("Summaries cannot be persisted to " + file + " without a codec");
+		summaries = new HashMap<>();
+		restored = new HashMap<>();
+		positions = new IdentityHashMap<>();
+		this.file = file;
+		this.codec = codec;
+		if (this.file != null && Files.exists(this.file))
+			try {
+				load();
+			} catch (IOException | RuntimeException e) {
+				LOG.warn("Unable to load summaries from " + file + ", starting from an empty store", e);
+				summaries.clear();
+				shape = null;
+				configuration = null;
+			}
+	}
+
+	/**
+	 * Validates the summaries in this store against the given application and
+	 * configuration, discarding the ones that cannot be reused. After this
+	 * call, the remaining summaries can be retrieved through
+	 * {@link #getSummary(CFG, ScopeId, AnalysisState, InterproceduralAnalysis)}.
+	 * 
+	 * @param conf the configuration of the analysis that is about to start
+	 * @param app  the application that is about to be analyzed
+	 */
+	public synchronized void validate(
+			LiSAConfiguration conf,
+			Application app) {
+		restored.clear();
+		positions.clear();
+		if (summaries.isEmpty())
+			return;
+
+		if (!configuration(conf).equals(configuration) || !shape(app).equals(shape)) {
+			LOG.info("Discarding all {} summaries since the program or the configuration changed",
+					summaries.size());
+			summaries.clear();
+			return;
+		}
+
+		Map<String, CFG> cfgs = new HashMap<>();
+		for (CFG cfg : app.getAllCFGs())
+			cfgs.put(name(cfg), cfg);
+
+		Set<String> invalid = new HashSet<>();
+		for (Entry<String, Summary> entry : summaries.entrySet()) {
+			CFG cfg = cfgs.get(entry.getKey());
+			if (cfg == null || !hash(cfg).equals(entry.getValue().hash))
+				invalid.add(entry.getKey());
+		}
+
+		// the callers of a changed cfg might compute different results
+		List<String> ws = new ArrayList<>(invalid);
+		while (!ws.isEmpty()) {
+			Summary summary = summaries.get(ws.remove(ws.size() - 1));
+			if (summary != null)
+				for (String caller : summary.callers)
+					if (invalid.add(caller))
+						ws.add(caller);
+		}
+
+		summaries.keySet().removeAll(invalid);
+		for (Entry<String, Summary> entry : summaries.entrySet())
+			restored.put(cfgs.get(entry.getKey()), entry.getValue());
+		LOG.info("{} summaries can be reused, {} have been discarded", restored.size(), invalid.size());
+	}
+
+	/**
+	 * Yields the result of a previous analysis of the given {@link CFG} in the
+	 * given context, if it can be reused in the current one. Contexts are
+	 * matched through the calls they contain, that are identified by the
+	 * signature of the calling cfg and by their position in it. The returned
+	 * result is built on the given cfg and has the given context as id.
+	 * Summaries are available only after
+	 * {@link #validate(LiSAConfiguration, Application)} has been called.
+	 * 
+	 * @param <A>             the type of {@link AbstractState} contained into
+	 *                            the result
+	 * @param cfg             the cfg
+	 * @param token           the context
+	 * @param singleton       an instance of the {@link AnalysisState} of the
+	 *                            current analysis
+	 * @param interprocedural the analysis that will own the result, used to
+	 *                            unwind results produced by optimized
+	 *                            fixpoints
+	 * 
+	 * @return the result, or {@code null} if no reusable result exists
+	 */
+	public synchronized <A extends AbstractState<A>> AnalyzedCFG<A> getSummary(
+			CFG cfg,
+			ScopeId token,
+			AnalysisState<A> singleton,
+			InterproceduralAnalysis<A> interprocedural) {
+		Summary summary = restored.get(cfg);
+		if (summary == null)
+			return null;
+		Context context = summary.contexts.get(key(token));
+		return context == null ? null : rebind(cfg, token, context, singleton, interprocedural);
+	}
+
+	/**
+	 * Yields all the results of previous analyses of the given {@link CFG}
+	 * that can be reused in the current one, built on the given cfg. Since
+	 * the calls that produced their contexts have not been evaluated by the
+	 * current analysis, the returned results are identified by
+	 * {@link ScopeId}s that carry the stable form of the original contexts,
+	 * and that have their same textual representation and hash code.
+	 * Summaries are available only after
+	 * {@link #validate(LiSAConfiguration, Application)} has been called.
+	 * 
+	 * @param <A>             the type of {@link AbstractState} contained into
+	 *                            the results
+	 * @param cfg             the cfg
+	 * @param singleton       an instance of the {@link AnalysisState} of the
+	 *                            current analysis
+	 * @param interprocedural the analysis that will own the results, used to
+	 *                            unwind results produced by optimized
+	 *                            fixpoints
+	 * 
+	 * @return the results, empty if no reusable result exists
+	 */
+	public synchronized <A extends AbstractState<A>> Collection<AnalyzedCFG<A>> getSummaries(
+			CFG cfg,
+			AnalysisState<A> singleton,
+			InterproceduralAnalysis<A> interprocedural) {
+		Summary summary = restored.get(cfg);
+		if (summary == null)
+			return Collections.emptyList();
+		Collection<AnalyzedCFG<A>> result = new ArrayList<>(summary.contexts.size());
+		for (Entry<String, Context> entry : summary.contexts.entrySet()) {
+			Context context = entry.getValue();
+			ScopeId id = new StoredScope(entry.getKey(), context.description, context.idHashCode, context.starting);
+			AnalyzedCFG<A> res = rebind(cfg, id, context, singleton, interprocedural);
+			if (res != null)
+				result.add(res);
+		}
+		return result;
+	}
+
+	private <A extends AbstractState<A>> AnalyzedCFG<A> rebind(
+			CFG cfg,
+			ScopeId id,
+			Context context,
+			AnalysisState<A> singleton,
+			InterproceduralAnalysis<A> interprocedural) {
+		if (context.entries == null)
+			try {
+				context.decode(codec, singleton);
+			} catch (IOException e) {
+				LOG.warn("Unable to decode the summary of " + name(cfg) + " in context " + context.description, e);
+				return null;
+			}
+
+		// the hash of the cfg did not change, so positions still
+		// identify the same statements
+		List<Statement> statements = statements(cfg);
+		Map<Statement, AnalysisState<A>> entries = new HashMap<>(), results = new HashMap<>();
+		if (!bind(statements, context.entries, entries) || !bind(statements, context.results, results))
+			return null;
+
+		return context.optimized && interprocedural != null
+				? new OptimizedAnalyzedCFG<>(cfg, id, singleton, entries, results, interprocedural)
+				: new AnalyzedCFG<>(cfg, id, singleton, entries, results);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <A extends AbstractState<A>> boolean bind(
+			List<Statement> statements,
+			Map<Integer, AnalysisState<?>> states,
+			Map<Statement, AnalysisState<A>> target) {
+		for (Entry<Integer, AnalysisState<?>> entry : states.entrySet()) {
+			int pos = entry.getKey();
+			if (pos < 0 || pos >= statements.size())
+				return false;
+			target.put(statements.get(pos), (AnalysisState<A>) entry.getValue());
+		}
+		return true;
+	}
+
+	/**
+	 * Yields the {@link CFG}s that are reachable through calls from the given
+	 * one, according to the call graph of the analysis that computed their
+	 * summaries, and that have a reusable summary.
+	 * 
+	 * @param cfg the cfg
+	 * 
+	 * @return the callees with a reusable summary
+	 */
+	public synchronized Collection<CFG> getSummarizedCalleesTransitively(
+			CFG cfg) {
+		Map<String, CFG> names = new HashMap<>();
+		for (CFG restoredCfg : restored.keySet())
+			names.put(name(restoredCfg), restoredCfg);
+
+		Set<CFG> result = new HashSet<>();
+		List<String> ws = new ArrayList<>();
+		ws.add(name(cfg));
+		while (!ws.isEmpty()) {
+			Summary summary = summaries.get(ws.remove(ws.size() - 1));
+			if (summary != null)
+				for (String callee : summary.callees) {
+					CFG target = names.get(callee);
+					if (target != null && result.add(target))
+						ws.add(callee);
+				}
+		}
+		return result;
+	}
+
+	/**
+	 * Records the results of an analysis in this store, replacing the
+	 * summaries of the {@link CFG}s that have been analyzed. If this store is
+	 * persisted, the summaries are then written to its file.
+	 * 
+	 * @param conf      the configuration of the analysis
+	 * @param app       the analyzed application
+	 * @param callgraph the call graph built during the analysis, or
+	 *                      {@code null}
+	 * @param results   the results of the analysis, or {@code null} if the
+	 *                      interprocedural analysis does not expose them
+	 */
+	public synchronized void update(
+			LiSAConfiguration conf,
+			Application app,
+			CallGraph callgraph,
+			FixpointResults<?> results) {
+		restored.clear();
+		positions.clear();
+		if (results == null || callgraph == null)
+			summaries.clear();
+		else {
+			String config = configuration(conf);
+			String sh = shape(app);
+			if (!config.equals(configuration) || !sh.equals(shape))
+				summaries.clear();
+			configuration = config;
+			shape = sh;
+
+			store(callgraph, results);
+			positions.clear();
+		}
+
+		if (file != null)
+			try {
+				save();
+			} catch (IOException e) {
+				LOG.warn("Unable to persist summaries to " + file, e);
+			}
+	}
+
+	private <A extends AbstractState<A>> void store(
+			CallGraph callgraph,
+			FixpointResults<A> results) {
+		for (Entry<CFG, CFGResults<A>> entry : results) {
+			CFG cfg = entry.getKey();
+			String name = name(cfg);
+			Summary summary = new Summary(hash(cfg));
+			Map<Statement, Integer> pos = positions(cfg);
+			for (Entry<ScopeId, AnalyzedCFG<A>> res : entry.getValue()) {
+				ScopeId id = res.getKey();
+				Context context = new Context(
+						id.toString(),
+						id.hashCode(),
+						id.isStartingId(),
+						res.getValue() instanceof OptimizedAnalyzedCFG);
+				context.entries = index(pos, res.getValue().getEntryStates());
+				context.results = index(pos, res.getValue().getStoredStates());
+				summary.contexts.put(key(id), context);
+			}
+
+			Summary previous = summaries.get(name);
+			if (previous != null && previous.hash.equals(summary.hash)) {
+				// calls inside reused summaries are not evaluated, and thus
+				// they are not registered in the call graph
+				summary.callers.addAll(previous.callers);
+				summary.callees.addAll(previous.callees);
+			}
+			if (callgraph.containsNode(new CallGraphNode(callgraph, cfg))) {
+				for (CodeMember caller : callgraph.getCallers(cfg))
+					summary.callers.add(name(caller));
+				for (CodeMember callee : callgraph.getCallees(cfg))
+					summary.callees.add(name(callee));
+			}
+			summaries.put(name, summary);
+		}
+	}
+
+	private static Map<Integer, AnalysisState<?>> index(
+			Map<Statement, Integer> positions,
+			Map<Statement, ? extends AnalysisState<?>> states) {
+		Map<Integer, AnalysisState<?>> result = new TreeMap<>();
+		for (Entry<Statement, ? extends AnalysisState<?>> entry : states.entrySet()) {
+			Integer pos = positions.get(original(entry.getKey()));
+			// states of statements that are not part of the cfg (e.g.,
+			// synthetic ones) cannot be rebound
+			if (pos != null)
+				result.put(pos, entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Yields the number of summaries in this store.
+	 * 
+	 * @return the number of summaries
+	 */
+	public synchronized int size() {
+		return summaries.size();
+	}
+
+	/**
+	 * Discards all the summaries in this store.
+	 */
+	public synchronized void clear() {
+		summaries.clear();
+		restored.clear();
+		positions.clear();
+		shape = null;
+		configuration = null;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "summary store with " + summaries.size() + " summaries";
+	}
+
+	private static String name(
+			CodeMember cm) {
+		return cm.getDescriptor().getFullSignatureWithParNames();
+	}
+
+	private static String configuration(
+			LiSAConfiguration conf) {
+		// only the options that can change the results of the fixpoints
+		StringBuilder sb = new StringBuilder();
+		describeLattice(conf.abstractState, sb, Collections.newSetFromMap(new IdentityHashMap<>()));
+		sb.append('|').append(conf.abstractState);
+		for (Object option : Arrays.asList(
+				conf.callGraph == null ? null : conf.callGraph.getClass().getName(),
+				conf.interproceduralAnalysis == null ? null : conf.interproceduralAnalysis.getClass().getName(),
+				conf.openCallPolicy == null ? null : conf.openCallPolicy.getClass().getName(),
+				conf.fixpointWorkingSet == null ? null : conf.fixpointWorkingSet.getName(),
+				conf.wideningThreshold,
+				conf.recursionWideningThreshold,
+				conf.glbThreshold,
+				conf.descendingPhaseType,
+				conf.optimize,
+				conf.useWideningPoints,
+				// predicates have no stable textual representation, but
+				// results missing the post-states of some hotspots are
+				// replayed when needed
+				conf.hotspots != null))
+			sb.append('|').append(option);
+		return digest(sb.toString());
+	}
+
+	private static void describeLattice(
+			Object object,
+			StringBuilder sb,
+			Set<Object> seen) {
+		// the textual representation of a state does not always tell which
+		// domains it is made of, so we also describe its inner lattices
+		if (object == null) {
+			sb.append("null");
+			return;
+		}
+		sb.append(object.getClass().getName());
+		if (!(object instanceof Lattice) || !seen.add(object))
+			return;
+		sb.append('[');
+		for (Class<?> type = object.getClass(); type != null; type = type.getSuperclass())
+			for (Field field : type.getDeclaredFields())
+				if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive())
+					try {
+						field.setAccessible(true);
+						Object value = field.get(object);
+						if (value instanceof Lattice) {
+							sb.append(field.getName()).append('=');
+							describeLattice(value, sb, seen);
+							sb.append(';');
+						}
+					} catch (IllegalAccessException | RuntimeException e) {
+						// inaccessible fields cannot contribute to the
+						// description
+					}
+		sb.append(']');
+	}
+
+	/**
+	 * Yields a structural hash of the given {@link CFG}, that depends on its
+	 * signature, on the class, textual representation and location of its
+	 * nodes and of their inner expressions, on their position in the
+	 * canonical ordering of the cfg, and on the edges connecting them.
+	 * 
+	 * @param cfg the cfg
+	 * 
+	 * @return the hash
+	 */
+	public static String hash(
+			CFG cfg) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(name(cfg)).append('\n');
+		List<Statement> statements = statements(cfg);
+		Map<Statement, Integer> positions = new IdentityHashMap<>();
+		Collection<Statement> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+		nodes.addAll(cfg.getNodes());
+		Collection<Statement> entrypoints = Collections.newSetFromMap(new IdentityHashMap<>());
+		entrypoints.addAll(cfg.getEntrypoints());
+		for (int i = 0; i < statements.size(); i++) {
+			Statement st = statements.get(i);
+			positions.put(st, i);
+			sb.append(i).append('|').append(nodes.contains(st) ? "node" : "expression").append('|')
+					.append(st.getClass().getName()).append('|').append(st).append('|').append(st.getLocation())
+					.append(entrypoints.contains(st) ? "|entry" : "").append('\n');
+		}
+
+		List<String> edges = new ArrayList<>();
+		for (Edge edge : cfg.getEdges())
+			edges.add(edge.getClass().getName() + "|" + positions.get(edge.getSource()) + "|"
+					+ positions.get(edge.getDestination()));
+		Collections.sort(edges);
+		edges.forEach(e -> sb.append(e).append('\n'));
+		return digest(sb.toString());
+	}
+
+	/**
+	 * Yields the statements of the given cfg in canonical order, that is, its
+	 * nodes sorted by location, class, textual representation and insertion
+	 * order (making the ordering total), each one followed by its inner
+	 * expressions.
+	 * 
+	 * @param cfg the cfg
+	 * 
+	 * @return the statements in canonical order
+	 */
+	private static List<Statement> statements(
+			CFG cfg) {
+		List<Statement> nodes = new ArrayList<>(cfg.getNodes());
+		Map<Statement, Integer> insertion = new IdentityHashMap<>();
+		for (Statement node : nodes)
+			insertion.put(node, insertion.size());
+		nodes.sort(Comparator
+				.comparing((
+						Statement st) -> st.getLocation())
+				.thenComparing(st -> st.getClass().getName())
+				.thenComparing(Object::toString)
+				.thenComparing(insertion::get));
+
+		List<Statement> result = new ArrayList<>();
+		GraphVisitor<CFG, Statement, Edge, List<Statement>> collector = new GraphVisitor<>() {
+
+			@Override
+			public boolean visit(
+					List<Statement> tool,
+					CFG graph,
+					Statement node) {
+				tool.add(node);
+				return true;
+			}
+
+			@Override
+			public boolean visitSubNodesFirst() {
+				return false;
+			}
+		};
+		for (Statement node : nodes)
+			node.accept(collector, result);
+		return result;
+	}
+
+	private Map<Statement, Integer> positions(
+			CFG cfg) {
+		return positions.computeIfAbsent(cfg, c -> {
+			Map<Statement, Integer> result = new IdentityHashMap<>();
+			List<Statement> statements = statements(c);
+			for (int i = 0; i < statements.size(); i++)
+				result.put(statements.get(i), i);
+			return result;
+		});
+	}
+
+	private static Statement original(
+			Statement st) {
+		if (st instanceof Call && ((Call) st).getSource() != null)
+			return ((Call) st).getSource();
+		return st;
+	}
+
+	private String key(
+			ScopeId id) {
+		if (id instanceof StoredScope)
+			return ((StoredScope) id).key;
+
+		// calls are identified by their position in the calling cfg, that
+		// does not change as long as the cfg has the same hash
+		StringBuilder sb = new StringBuilder(id.getClass().getName());
+		for (CFGCall call : id.getCallStack()) {
+			CFG caller = call.getCFG();
+			Integer pos = positions(caller).get(original(call));
+			sb.append('|').append(name(caller)).append('#')
+					.append(pos == null ? "@" + call.getLocation() : String.valueOf(pos));
+		}
+		return sb.toString();
+	}
+
+	private static String shape(
+			Application app) {
+		Collection<String> lines = new TreeSet<>();
+		for (Program program : app.getPrograms()) {
+			lines.add(describe(program));
+			for (Unit unit : program.getUnits())
+				lines.add(describe(unit));
+		}
+		for (CodeMember cm : app.getAllCodeCodeMembers())
+			lines.add(cm.getClass().getName() + "|" + name(cm));
+		return digest(String.join("\n", lines));
+	}
+
+	private static String describe(
+			Unit unit) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(unit.getClass().getName()).append('|').append(unit.getName());
+		Collection<String> globals = new TreeSet<>();
+		for (Global global : unit.getGlobals())
+			globals.add(global.toString());
+		if (unit instanceof CompilationUnit) {
+			CompilationUnit cu = (CompilationUnit) unit;
+			for (Global global : cu.getInstanceGlobals(false))
+				globals.add("instance " + global);
+			Collection<String> ancestors = new TreeSet<>();
+			for (CompilationUnit ancestor : cu.getImmediateAncestors())
+				ancestors.add(ancestor.getName());
+			sb.append('|').append(ancestors);
+		}
+		sb.append('|').append(globals);
+		return sb.toString();
+	}
+
+	private static String digest(
+			String text) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder();
+			for (byte b : hash)
+				sb.append(String.format("%02x", b));
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is required to be supported by every jvm
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private void save() throws IOException {
+		ObjectMapper mapper = new ObjectMapper();
+		ObjectNode root = mapper.createObjectNode();
+		root.put("configuration", configuration);
+		root.put("shape", shape);
+		ObjectNode cfgs = root.putObject("summaries");
+		int skipped = 0;
+		for (Entry<String, Summary> entry : new TreeMap<>(summaries).entrySet()) {
+			Summary summary = entry.getValue();
+			ObjectNode node = cfgs.putObject(entry.getKey());
+			node.put("hash", summary.hash);
+			summary.callers.stream().sorted().forEach(node.putArray("callers")::add);
+			summary.callees.stream().sorted().forEach(node.putArray("callees")::add);
+			ObjectNode contexts = node.putObject("contexts");
+			for (Entry<String, Context> ctx : new TreeMap<>(summary.contexts).entrySet())
+				try {
+					ObjectNode context = mapper.createObjectNode();
+					ctx.getValue().encode(codec, context);
+					contexts.set(ctx.getKey(), context);
+				} catch (IOException e) {
+					skipped++;
+					LOG.debug("Summary of " + entry.getKey() + " in context " + ctx.getValue().description
+							+ " cannot be persisted", e);
+				}
+		}
+		if (skipped > 0)
+			LOG.warn("{} contexts cannot be encoded by {} and have not been persisted", skipped,
+					codec.getClass().getName());
+
+		if (file.getParent() != null)
+			Files.createDirectories(file.getParent());
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
+			mapper.writeValue(writer, root);
+		}
+	}
+
+	private void load() throws IOException {
+		JsonNode root;
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			root = new ObjectMapper().readTree(reader);
+		}
+
+		configuration = root.get("configuration").asText();
+		shape = root.get("shape").asText();
+		Iterator<Entry<String, JsonNode>> cfgs = root.get("summaries").fields();
+		while (cfgs.hasNext()) {
+			Entry<String, JsonNode> entry = cfgs.next();
+			JsonNode node = entry.getValue();
+			Summary summary = new Summary(node.get("hash").asText());
+			node.get("callers").forEach(caller -> summary.callers.add(caller.asText()));
+			node.get("callees").forEach(callee -> summary.callees.add(callee.asText()));
+			Iterator<Entry<String, JsonNode>> contexts = node.get("contexts").fields();
+			while (contexts.hasNext()) {
+				Entry<String, JsonNode> ctx = contexts.next();
+				summary.contexts.put(ctx.getKey(), Context.read(ctx.getValue()));
+			}
+			summaries.put(entry.getKey(), summary);
+		}
+		LOG.info("Loaded {} summaries from {}", summaries.size(), file);
+	}
+
+	private static class Summary {
+
+		private final String hash;
+
+		private final Set<String> callers = new HashSet<>();
+
+		private final Set<String> callees = new HashSet<>();
+
+		private final Map<String, Context> contexts = new HashMap<>();
+
+		private Summary(
+				String hash) {
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * The results of a cfg in a given context, with states identified by the
+	 * position of their statement in the canonical ordering of the cfg. States
+	 * loaded from a file are kept in their encoded form until they are first
+	 * needed.
+	 */
+	private static class Context {
+
+		private final String description;
+
+		private final int idHashCode;
+
+		private final boolean starting;
+
+		private final boolean optimized;
+
+		private Map<Integer, AnalysisState<?>> entries;
+
+		private Map<Integer, AnalysisState<?>> results;
+
+		private Map<Integer, String> encodedEntries;
+
+		private Map<Integer, String> encodedResults;
+
+		private Context(
+				String description,
+				int idHashCode,
+				boolean starting,
+				boolean optimized) {
+			this.description = description;
+			this.idHashCode = idHashCode;
+			this.starting = starting;
+			this.optimized = optimized;
+		}
+
+		private <A extends AbstractState<A>> void decode(
+				StateCodec codec,
+				AnalysisState<A> singleton)
+				throws IOException {
+			if (codec == null)
+				throw new IOException("No codec available to decode states");
+			Map<Integer, AnalysisState<?>> entries = new TreeMap<>(), results = new TreeMap<>();
+			for (Entry<Integer, String> entry : encodedEntries.entrySet())
+				entries.put(entry.getKey(), codec.decode(entry.getValue(), singleton));
+			for (Entry<Integer, String> entry : encodedResults.entrySet())
+				results.put(entry.getKey(), codec.decode(entry.getValue(), singleton));
+			this.entries = entries;
+			this.results = results;
+		}
+
+		private void encode(
+				StateCodec codec,
+				ObjectNode node)
+				throws IOException {
+			node.put("description", description);
+			node.put("hashCode", idHashCode);
+			node.put("starting", starting);
+			node.put("optimized", optimized);
+			encode(codec, node.putObject("entries"), entries, encodedEntries);
+			encode(codec, node.putObject("results"), results, encodedResults);
+		}
+
+		private static void encode(
+				StateCodec codec,
+				ObjectNode node,
+				Map<Integer, AnalysisState<?>> states,
+				Map<Integer, String> encoded)
+				throws IOException {
+			if (states == null)
+				// never decoded: the loaded form is still valid
+				for (Entry<Integer, String> entry : encoded.entrySet())
+					node.put(String.valueOf(entry.getKey()), entry.getValue());
+			else
+				for (Entry<Integer, AnalysisState<?>> entry : states.entrySet())
+					node.put(String.valueOf(entry.getKey()), codec.encode(entry.getValue()));
+		}
+
+		private static Context read(
+				JsonNode node) {
+			Context context = new Context(
+					node.get("description").asText(),
+					node.get("hashCode").asInt(),
+					node.get("starting").asBoolean(),
+					node.get("optimized").asBoolean());
+			context.encodedEntries = readStates(node.get("entries"));
+			context.encodedResults = readStates(node.get("results"));
+			return context;
+		}
+
+		private static Map<Integer, String> readStates(
+				JsonNode node) {
+			Map<Integer, String> result = new TreeMap<>();
+			Iterator<Entry<String, JsonNode>> fields = node.fields();
+			while (fields.hasNext()) {
+				Entry<String, JsonNode> field = fields.next();
+				result.put(Integer.parseInt(field.getKey()), field.getValue().asText());
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * A {@link ScopeId} identifying a result restored from a summary, whose
+	 * context has been produced by calls that have not been evaluated by the
+	 * current analysis. It carries the stable form of the original context,
+	 * and it has its same textual representation and hash code.
+	 */
+	private static class StoredScope implements ScopeId {
+
+		private final String key;
+
+		private final String description;
+
+		private final int idHashCode;
+
+		private final boolean starting;
+
+		private StoredScope(
+				String key,
+				String description,
+				int idHashCode,
+				boolean starting) {
+			this.key = key;
+			this.description = description;
+			this.idHashCode = idHashCode;
+			this.starting = starting;
+		}
+
+		@Override
+		public ScopeId startingId() {
+			return starting ? this : new StoredScope(key.substring(0, key.indexOf('|')), "<empty>", idHashCode, true);
+		}
+
+		@Override
+		public boolean isStartingId() {
+			return starting;
+		}
+
+		@Override
+		public ScopeId push(
+				CFGCall c) {
+			throw new UnsupportedOperationException("Results restored from summaries cannot be used as contexts");
+		}
+
+		@Override
+		public int hashCode() {
+			// the hash code of the original context, as it is used in some
+			// filenames
+			return idHashCode;
+		}
+
+		@Override
+		public boolean equals(
+				Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			StoredScope other = (StoredScope) obj;
+			return idHashCode == other.idHashCode
+					&& starting == other.starting
+					&& Objects.equals(key, other.key)
+					&& Objects.equals(description, other.description);
+		}
+
+		@Override
+		public String toString() {
+			return description;
+		}
+	}
+}
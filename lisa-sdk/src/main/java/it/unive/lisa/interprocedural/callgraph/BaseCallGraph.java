@@ -4,6 +4,7 @@ import it.unive.lisa.analysis.symbols.Aliases;
 import it.unive.lisa.analysis.symbols.NameSymbol;
 import it.unive.lisa.analysis.symbols.QualifiedNameSymbol;
 import it.unive.lisa.analysis.symbols.QualifierSymbol;
+import it.unive.lisa.analysis.symbols.Symbol;
 import it.unive.lisa.analysis.symbols.SymbolAliasing;
 import it.unive.lisa.program.Application;
 import it.unive.lisa.program.CompilationUnit;
@@ -26,6 +27,7 @@ import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
 import it.unive.lisa.program.language.hierarchytraversal.HierarcyTraversalStrategy;
 import it.unive.lisa.program.language.resolution.ParameterMatchingStrategy;
 import it.unive.lisa.type.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -34,6 +36,7 @@ import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -45,7 +48,14 @@ import org.apache.logging.log4j.Logger;
  * <br>
  * The graph underlying this call graph is built lazily through each call to
  * resolve: querying for information about the graph before the completion of
- * the analysis might lead to wrong results.
+ * the analysis might lead to wrong results.<br>
+ * <br>
+ * Candidate targets are looked up through an index of the code members of the
+ * application, grouped by name, that is built when the call graph is
+ * initialized: resolving a call only inspects the code members named as its
+ * target (or that are aliased to it), instead of all the ones of the
+ * application. The number of resolutions and the time spent performing them
+ * are tracked, and are reported in {@link it.unive.lisa.LiSARunInfo}.
  *
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a> and
  *             <a href="mailto:pietro.ferrara@unive.it">Pietro Ferrara</a>
@@ -60,6 +70,17 @@ public abstract class BaseCallGraph extends CallGraph {
 
 	private final Map<UnresolvedCall, Map<List<Set<Type>>, Call>> resolvedCache = new IdentityHashMap<>();
 
+	private final Map<String, Collection<CodeMember>> nonInstanceMembers = new HashMap<>();
+
+	// built lazily, as only units that are receivers of calls are needed
+	private final Map<CompilationUnit, Map<String, Collection<CodeMember>>> instanceMembers = new HashMap<>();
+
+	private long resolutions;
+
+	private long cachedResolutions;
+
+	private long resolutionTime;
+
 	@Override
 	public void init(
 			Application app)
@@ -68,10 +89,51 @@ public abstract class BaseCallGraph extends CallGraph {
 		this.app = app;
 		this.callsites.clear();
 		this.resolvedCache.clear();
+		this.nonInstanceMembers.clear();
+		this.instanceMembers.clear();
+		this.resolutions = 0;
+		this.cachedResolutions = 0;
+		this.resolutionTime = 0;
+
+		for (CodeMember cm : app.getAllCodeCodeMembers())
+			if (!cm.getDescriptor().isInstance())
+				nonInstanceMembers.computeIfAbsent(cm.getDescriptor().getName(), n -> new ArrayList<>()).add(cm);
+	}
+
+	/**
+	 * Yields the number of calls that have been resolved by this call graph
+	 * since its initialization, excluding the ones whose resolution was
+	 * already cached.
+	 * 
+	 * @return the number of resolutions
+	 */
+	public synchronized long getResolutionsCount() {
+		return resolutions;
+	}
+
+	/**
+	 * Yields the number of calls whose resolution was taken from the cache of
+	 * this call graph since its initialization.
+	 * 
+	 * @return the number of cached resolutions
+	 */
+	public synchronized long getCachedResolutionsCount() {
+		return cachedResolutions;
+	}
+
+	/**
+	 * Yields the total time spent resolving calls (excluding the ones whose
+	 * resolution was already cached) since the initialization of this call
+	 * graph.
+	 * 
+	 * @return the time spent, in nanoseconds
+	 */
+	public synchronized long getResolutionTime() {
+		return resolutionTime;
 	}
 
 	@Override
-	public void registerCall(
+	public synchronized void registerCall(
 			CFGCall call) {
 		if (call.getSource() != null)
 			// this call has been generated through the resolution of an
@@ -93,17 +155,35 @@ public abstract class BaseCallGraph extends CallGraph {
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
-	public Call resolve(
+	public synchronized Call resolve(
 			UnresolvedCall call,
 			Set<Type>[] types,
 			SymbolAliasing aliasing)
 			throws CallResolutionException {
 		List<Set<Type>> typeList = Arrays.asList(types);
 		Call cached = resolvedCache.getOrDefault(call, Map.of()).get(typeList);
-		if (cached != null)
+		if (cached != null) {
+			cachedResolutions++;
 			return cached;
+		}
+
+		long begin = System.nanoTime();
+		try {
+			Call resolved = resolveUncached(call, types, aliasing);
+			resolvedCache.computeIfAbsent(call, c -> new HashMap<>()).put(typeList, resolved);
+			return resolved;
+		} finally {
+			resolutions++;
+			resolutionTime += System.nanoTime() - begin;
+		}
+	}
 
+	@SuppressWarnings("unchecked")
+	private Call resolveUncached(
+			UnresolvedCall call,
+			Set<Type>[] types,
+			SymbolAliasing aliasing)
+			throws CallResolutionException {
 		Expression[] params = call.getParameters();
 		if (types == null || types.length != params.length)
 			// we allow types to be null only for calls that we already resolved
@@ -191,7 +271,6 @@ public abstract class BaseCallGraph extends CallGraph {
 			resolved = new MultiCall(call, cfgcall, cfgcallnorec, nativecall, nativecallnorec);
 
 		resolved.setSource(call);
-		resolvedCache.computeIfAbsent(call, c -> new HashMap<>()).put(typeList, resolved);
 
 		CallGraphNode source = new CallGraphNode(this, call.getCFG());
 		if (!adjacencyMatrix.containsNode(source))
@@ -340,7 +419,7 @@ public abstract class BaseCallGraph extends CallGraph {
 			Collection<NativeCFG> natives,
 			SymbolAliasing aliasing)
 			throws CallResolutionException {
-		for (CodeMember cm : app.getAllCodeCodeMembers())
+		for (CodeMember cm : candidates(nonInstanceMembers, call, aliasing))
 			checkMember(call, types, targets, natives, aliasing, cm, false);
 	}
 
@@ -385,11 +464,62 @@ public abstract class BaseCallGraph extends CallGraph {
 			for (CompilationUnit cu : strategy.traverse(call, unit))
 				if (seen.add(cu))
 					// we inspect only the ones of the current unit
-					for (CodeMember cm : cu.getInstanceCodeMembers(false))
+					for (CodeMember cm : candidates(instanceMembersOf(cu), call, aliasing))
 						checkMember(call, types, targets, natives, aliasing, cm, true);
 		}
 	}
 
+	private Map<String, Collection<CodeMember>> instanceMembersOf(
+			CompilationUnit unit) {
+		return instanceMembers.computeIfAbsent(unit, u -> {
+			Map<String, Collection<CodeMember>> index = new HashMap<>();
+			for (CodeMember cm : u.getInstanceCodeMembers(false))
+				index.computeIfAbsent(cm.getDescriptor().getName(), n -> new ArrayList<>()).add(cm);
+			return index;
+		});
+	}
+
+	private static Collection<CodeMember> candidates(
+			Map<String, Collection<CodeMember>> index,
+			UnresolvedCall call,
+			SymbolAliasing aliasing) {
+		// candidates are the members named as the target of the call, and the
+		// ones whose name is aliased to it: qualifiers are checked later on by
+		// checkMember
+		String target = call.getTargetName();
+		Collection<CodeMember> direct = index.getOrDefault(target, Collections.emptyList());
+		if (aliasing == null)
+			return direct;
+
+		Set<String> aliased = new HashSet<>();
+		for (Entry<Symbol, Aliases> entry : aliasing) {
+			String name = nameOf(entry.getKey());
+			if (name != null && !name.equals(target) && index.containsKey(name))
+				for (Symbol alias : entry.getValue())
+					if (target.equals(nameOf(alias))) {
+						aliased.add(name);
+						break;
+					}
+		}
+
+		if (aliased.isEmpty())
+			return direct;
+		Collection<CodeMember> result = new ArrayList<>(direct);
+		for (String name : aliased)
+			result.addAll(index.get(name));
+		return result;
+	}
+
+	private static String nameOf(
+			Symbol symbol) {
+		if (symbol instanceof NameSymbol)
+			return ((NameSymbol) symbol).getName();
+		if (symbol instanceof QualifiedNameSymbol)
+			return ((QualifiedNameSymbol) symbol).getName();
+		// qualifier aliases do not change the name
+		return null;
+	}
+
 	/**
 	 * Checks if the given code member {@code cm} is a candidate target for the
 	 * given call, and proceeds to add it to the set of targets if it is.
@@ -511,8 +641,10 @@ public abstract class BaseCallGraph extends CallGraph {
 			throws CallResolutionException;
 
 	@Override
-	public Collection<Call> getCallSites(
+	public synchronized Collection<Call> getCallSites(
 			CodeMember cm) {
-		return callsites.getOrDefault(cm, Collections.emptyList());
+		Collection<Call> sites = callsites.get(cm);
+		// we return a copy as the call graph might be modified concurrently
+		return sites == null ? Collections.emptyList() : new ArrayList<>(sites);
 	}
 }
\ No newline at end of file
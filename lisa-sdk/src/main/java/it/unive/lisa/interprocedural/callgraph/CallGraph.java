@@ -10,20 +10,30 @@ import it.unive.lisa.type.Type;
 import it.unive.lisa.util.collections.workset.VisitOnceFIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.VisitOnceWorkingSet;
 import it.unive.lisa.util.datastructures.graph.BaseGraph;
-import it.unive.lisa.util.datastructures.graph.algorithms.SCCs;
+import it.unive.lisa.util.datastructures.graph.algorithms.IncrementalSCCs;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * A callgraph of the program to analyze, that knows how to resolve dynamic
- * targets of {@link UnresolvedCall}s.
+ * targets of {@link UnresolvedCall}s. Queries on the direct callers and
+ * callees of code members are synchronized on the call graph, as the latter
+ * might be updated by interprocedural analyses running on multiple threads.<br>
+ * <br>
+ * As nodes and edges are added, the call graph maintains an
+ * {@link IncrementalSCCs} index of its strongly connected components. This
+ * makes {@link #isReachable(CodeMember, CodeMember)} and the queries about
+ * recursions cheap, as they do not need to traverse the whole graph.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
 public abstract class CallGraph extends BaseGraph<CallGraph, CallGraphNode, CallGraphEdge> {
 
+	private final IncrementalSCCs<CodeMember> sccs = new IncrementalSCCs<>();
+
 	/**
 	 * Initializes the call graph of the given program. A call to this method
 	 * should effectively re-initialize the call graph as if it is yet to be
@@ -39,6 +49,39 @@ public abstract class CallGraph extends BaseGraph<CallGraph, CallGraphNode, Call
 			throws CallGraphConstructionException {
 		entrypoints.clear();
 		adjacencyMatrix.clear();
+		sccs.clear();
+	}
+
+	@Override
+	public synchronized void addNode(
+			CallGraphNode node,
+			boolean entrypoint) {
+		super.addNode(node, entrypoint);
+		sccs.addNode(node.getCodeMember());
+	}
+
+	@Override
+	public synchronized void addEdge(
+			CallGraphEdge edge) {
+		super.addEdge(edge);
+		sccs.addEdge(edge.getSource().getCodeMember(), edge.getDestination().getCodeMember());
+	}
+
+	/**
+	 * Yields whether or not {@code to} is transitively called by {@code from},
+	 * that is, if {@code to} is contained in
+	 * {@link #getCalleesTransitively(CodeMember)} of {@code from}. The returned
+	 * value might be a partial result if this call graph is not fully built.
+	 * 
+	 * @param from the caller code member
+	 * @param to   the callee code member
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public synchronized boolean isReachable(
+			CodeMember from,
+			CodeMember to) {
+		return sccs.isReachable(from, to);
 	}
 
 	/**
@@ -209,7 +252,7 @@ public abstract class CallGraph extends BaseGraph<CallGraph, CallGraphNode, Call
 	 * 
 	 * @return the collection of called code members
 	 */
-	public Collection<CodeMember> getCallees(
+	public synchronized Collection<CodeMember> getCallees(
 			CodeMember cm) {
 		return followersOf(new CallGraphNode(this, cm)).stream()
 				.map(CallGraphNode::getCodeMember)
@@ -225,7 +268,7 @@ public abstract class CallGraph extends BaseGraph<CallGraph, CallGraphNode, Call
 	 * 
 	 * @return the collection of callers code members
 	 */
-	public Collection<CodeMember> getCallers(
+	public synchronized Collection<CodeMember> getCallers(
 			CodeMember cm) {
 		return predecessorsOf(new CallGraphNode(this, cm)).stream()
 				.map(CallGraphNode::getCodeMember)
@@ -238,16 +281,8 @@ public abstract class CallGraph extends BaseGraph<CallGraph, CallGraphNode, Call
 	 * 
 	 * @return the recursions
 	 */
-	public Collection<Collection<CodeMember>> getRecursions() {
-		Collection<Collection<CallGraphNode>> sccs = new SCCs<
-				CallGraph,
-				CallGraphNode,
-				CallGraphEdge>().buildNonTrivial(this);
-		return sccs.stream()
-				.map(nodes -> nodes.stream()
-						.map(node -> node.getCodeMember())
-						.collect(Collectors.toSet()))
-				.collect(Collectors.toSet());
+	public synchronized Collection<Collection<CodeMember>> getRecursions() {
+		return sccs.getNonTrivialSCCs();
 	}
 
 	/**
@@ -259,17 +294,10 @@ public abstract class CallGraph extends BaseGraph<CallGraph, CallGraphNode, Call
 	 * 
 	 * @return the recursions
 	 */
-	public Collection<Collection<CodeMember>> getRecursionsContaining(
+	public synchronized Collection<Collection<CodeMember>> getRecursionsContaining(
 			CodeMember cm) {
-		Collection<Collection<CallGraphNode>> sccs = new SCCs<
-				CallGraph,
-				CallGraphNode,
-				CallGraphEdge>().buildNonTrivial(this);
-		return sccs.stream()
-				.map(nodes -> nodes.stream()
-						.map(node -> node.getCodeMember())
-						.collect(Collectors.toSet()))
-				.filter(members -> members.contains(cm))
-				.collect(Collectors.toSet());
+		if (!sccs.isInCycle(cm))
+			return Collections.emptySet();
+		return Collections.singleton(new HashSet<>(sccs.getSCCOf(cm)));
 	}
 }
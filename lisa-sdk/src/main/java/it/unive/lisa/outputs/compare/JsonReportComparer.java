@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
@@ -480,7 +481,14 @@ public class JsonReportComparer {
 				key -> false);
 	}
 
-	private static final Set<String> INFO_BLACKLIST = Set.of("duration", "start", "end", "version");
+	private static final Set<String> INFO_BLACKLIST = Set.of(
+			"duration",
+			"start",
+			"end",
+			"version",
+			"callResolutions",
+			"cachedCallResolutions",
+			"callResolutionTime");
 
 	private static boolean compareInfos(
 			JsonReport first,
@@ -498,7 +506,9 @@ public class JsonReportComparer {
 				// we are really only interested in code metrics here,
 				// information like timestamps and version are not useful - we
 				// still use a blacklist approach to ensure that new fields are
-				// tested by default
+				// tested by default. Call resolution statistics depend on the
+				// order of the analysis and on the implementation of the call
+				// graph, and are thus ignored as well
 				key -> INFO_BLACKLIST.contains(key));
 	}
 
@@ -509,10 +519,15 @@ public class JsonReportComparer {
 			DiffAlgorithm diff,
 			TriConsumer<String, String, String> reporter,
 			Predicate<String> ignore) {
+		// ignored keys are not compared even if they are missing from one of
+		// the bags, so that reports produced by older versions can still be
+		// compared
 		CollectionsDiffBuilder<String> builder = new CollectionsDiffBuilder<>(
 				String.class,
-				first.keySet(),
-				second.keySet());
+				first.keySet().stream().filter(k -> !ignore.test(k) || second.containsKey(k))
+						.collect(Collectors.toSet()),
+				second.keySet().stream().filter(k -> !ignore.test(k) || first.containsKey(k))
+						.collect(Collectors.toSet()));
 		builder.compute(String::compareTo);
 
 		if (!builder.getOnlyFirst().isEmpty())
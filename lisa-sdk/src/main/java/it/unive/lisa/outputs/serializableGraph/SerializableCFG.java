@@ -1,12 +1,18 @@
 package it.unive.lisa.outputs.serializableGraph;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.outputs.GraphStreamWrapper;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.statement.NaryExpression;
 import it.unive.lisa.program.cfg.statement.NaryStatement;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.util.datastructures.graph.GraphVisitor;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.LinkedList;
@@ -56,11 +62,7 @@ public class SerializableCFG {
 			CFG source,
 			BiFunction<CFG, Statement, SerializableValue> descriptionGenerator) {
 		String name = source.getDescriptor().getFullSignatureWithParNames();
-		String desc;
-		if (source instanceof AnalyzedCFG<?> && !((AnalyzedCFG<?>) source).getId().isStartingId())
-			desc = ((AnalyzedCFG<?>) source).getId().toString();
-		else
-			desc = null;
+		String desc = description(source);
 
 		SortedSet<SerializableNode> nodes = new TreeSet<>();
 		SortedSet<SerializableNodeDescription> descrs = new TreeSet<>();
@@ -81,6 +83,150 @@ public class SerializableCFG {
 		return new SerializableGraph(name, desc, nodes, edges, descrs);
 	}
 
+	/**
+	 * Dumps the {@link SerializableGraph} of the given {@link CFG}, in the same
+	 * json format of {@link SerializableGraph#dump(Writer)}, through the given
+	 * {@link Writer}, without building it in memory. Nodes and edges are
+	 * emitted while walking the cfg, and each description is generated right
+	 * before being written, so that descriptions of different nodes are never
+	 * alive at the same time. This is equivalent to
+	 * {@code fromCFG(source, descriptionGenerator).dump(writer)}.
+	 * 
+	 * @param source               the source cfg
+	 * @param descriptionGenerator the function that can generate descriptions
+	 *                                 from statements (can be {@code null})
+	 * @param writer               the writer to use for dumping the graph
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static void dump(
+			CFG source,
+			BiFunction<CFG, Statement, SerializableValue> descriptionGenerator,
+			Writer writer)
+			throws IOException {
+		dump(source, descriptionGenerator, writer, null);
+	}
+
+	/**
+	 * Dumps the {@link SerializableGraph} of the given {@link CFG} as
+	 * {@link #dump(CFG, BiFunction, Writer)} does, while also converting it
+	 * through the given {@link SerializableGraph.Converter} within the same
+	 * walk. Each description is generated only once, and it is shared between
+	 * the json and the converted graph, without ever building the
+	 * {@link SerializableGraph}. This is equivalent to dumping and converting
+	 * {@code fromCFG(source, descriptionGenerator)}.
+	 * 
+	 * @param <G>                  the type of graph produced by the converter
+	 * @param source               the source cfg
+	 * @param descriptionGenerator the function that can generate descriptions
+	 *                                 from statements (can be {@code null})
+	 * @param writer               the writer to use for dumping the graph
+	 *                                 in json format (can be {@code null},
+	 *                                 if the json is not needed)
+	 * @param converter            the converter to apply (can be
+	 *                                 {@code null}, if no conversion is
+	 *                                 needed)
+	 * 
+	 * @return the converted graph, or {@code null} if {@code converter} is
+	 *             {@code null}
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static <G extends GraphStreamWrapper> G dump(
+			CFG source,
+			BiFunction<CFG, Statement, SerializableValue> descriptionGenerator,
+			Writer writer,
+			SerializableGraph.Converter<G> converter)
+			throws IOException {
+		OffsetGenerator gen = new OffsetGenerator();
+		source.accept(gen, null);
+
+		// nodes are sorted by id in the serialized graph
+		Statement[] statements = new Statement[gen.offset];
+		for (Statement node : source.getNodes())
+			collect(node, statements, gen.result);
+
+		List<SerializableNode> nodes = new ArrayList<>(statements.length);
+		for (Statement node : statements)
+			if (node != null) {
+				Pair<Integer, List<Statement>> p = gen.result.get(node);
+				List<Integer> inners = p.getRight().stream().map(st -> gen.result.get(st).getLeft())
+						.collect(Collectors.toList());
+				nodes.add(new SerializableNode(p.getLeft(), inners, node.toString()));
+			}
+
+		SortedSet<SerializableEdge> edges = new TreeSet<>();
+		for (Edge edge : source.getEdges())
+			edges.add(new SerializableEdge(
+					gen.result.get(edge.getSource()).getLeft(),
+					gen.result.get(edge.getDestination()).getLeft(),
+					edge.getClass().getSimpleName()));
+
+		String name = source.getDescriptor().getFullSignatureWithParNames();
+		String desc = description(source);
+		// the converted graph holds all descriptions anyway, so these are
+		// only kept if there is one to build
+		SerializableValue[] descrs = converter == null ? null : new SerializableValue[statements.length];
+
+		if (writer == null) {
+			if (descriptionGenerator != null && descrs != null)
+				for (int i = 0; i < statements.length; i++)
+					if (statements[i] != null)
+						descrs[i] = descriptionGenerator.apply(source, statements[i]);
+		} else {
+			ObjectWriter json = SerializableGraph.jsonWriter();
+			try (JsonGenerator out = json.createGenerator(writer)) {
+				out.writeStartObject();
+				out.writeStringField("name", name);
+				out.writeStringField("description", desc);
+
+				out.writeArrayFieldStart("nodes");
+				for (SerializableNode node : nodes)
+					json.writeValue(out, node);
+				out.writeEndArray();
+
+				out.writeArrayFieldStart("edges");
+				for (SerializableEdge edge : edges)
+					json.writeValue(out, edge);
+				out.writeEndArray();
+
+				out.writeArrayFieldStart("descriptions");
+				if (descriptionGenerator != null)
+					for (int i = 0; i < statements.length; i++)
+						if (statements[i] != null) {
+							SerializableValue value = descriptionGenerator.apply(source, statements[i]);
+							if (value != null)
+								json.writeValue(out, new SerializableNodeDescription(i, value));
+							if (descrs != null)
+								descrs[i] = value;
+						}
+				out.writeEndArray();
+				out.writeEndObject();
+			}
+		}
+
+		if (converter == null)
+			return null;
+		return converter.convert(name, desc, nodes, edges, id -> descrs[id]);
+	}
+
+	private static String description(
+			CFG source) {
+		if (source instanceof AnalyzedCFG<?> && !((AnalyzedCFG<?>) source).getId().isStartingId())
+			return ((AnalyzedCFG<?>) source).getId().toString();
+		return null;
+	}
+
+	private static void collect(
+			Statement node,
+			Statement[] nodes,
+			Map<Statement, Pair<Integer, List<Statement>>> mapping) {
+		Pair<Integer, List<Statement>> p = mapping.get(node);
+		for (Statement inner : p.getRight())
+			collect(inner, nodes, mapping);
+		nodes[p.getLeft()] = node;
+	}
+
 	private static void process(
 			CFG source,
 			SortedSet<SerializableNode> nodes,
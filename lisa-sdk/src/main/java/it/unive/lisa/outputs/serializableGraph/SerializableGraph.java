@@ -1,14 +1,16 @@
 package it.unive.lisa.outputs.serializableGraph;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import it.unive.lisa.outputs.DotGraph;
+import it.unive.lisa.outputs.GraphStreamWrapper;
 import it.unive.lisa.outputs.GraphmlGraph;
 import it.unive.lisa.outputs.HtmlGraph;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -18,6 +20,7 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -34,6 +37,17 @@ import org.apache.commons.lang3.tuple.Pair;
  */
 public class SerializableGraph {
 
+	/**
+	 * The mapper shared by all serializations and deserializations of graphs,
+	 * that is thread-safe once configured.
+	 */
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.configure(SerializationFeature.FLUSH_AFTER_WRITE_VALUE, false);
+
+	private static final ObjectWriter COMPACT = MAPPER.writer();
+
+	private static final ObjectWriter INDENTED = MAPPER.writer().with(SerializationFeature.INDENT_OUTPUT);
+
 	private final String name;
 
 	private final String description;
@@ -185,9 +199,18 @@ public class SerializableGraph {
 	public void dump(
 			Writer writer)
 			throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.configure(SerializationFeature.INDENT_OUTPUT, System.getProperty("lisa.json.indent") != null);
-		mapper.writeValue(writer, this);
+		jsonWriter().writeValue(writer, this);
+	}
+
+	/**
+	 * Yields the {@link ObjectWriter} to be used for dumping graphs in json
+	 * format, that formats the json if the system property
+	 * {@code lisa.json.indent} is set to any value.
+	 * 
+	 * @return the writer
+	 */
+	static ObjectWriter jsonWriter() {
+		return System.getProperty("lisa.json.indent") != null ? INDENTED : COMPACT;
 	}
 
 	/**
@@ -237,29 +260,7 @@ public class SerializableGraph {
 	 * @return the converted graph
 	 */
 	public DotGraph toDot() {
-		DotGraph graph = new DotGraph(name);
-
-		Set<Integer> hasFollows = new HashSet<>();
-		Set<Integer> hasPreds = new HashSet<>();
-		Set<Integer> inners = new HashSet<>();
-		Map<Integer, SerializableValue> labels = new HashMap<>();
-
-		edges.forEach(e -> {
-			hasFollows.add(e.getSourceId());
-			hasPreds.add(e.getDestId());
-		});
-
-		descriptions.forEach(d -> labels.put(d.getNodeId(), d.getDescription()));
-		nodes.forEach(n -> inners.addAll(n.getSubNodes()));
-
-		for (SerializableNode n : nodes)
-			if (!inners.contains(n.getId()))
-				graph.addNode(n, !hasPreds.contains(n.getId()), !hasFollows.contains(n.getId()), labels.get(n.getId()));
-
-		for (SerializableEdge e : edges)
-			graph.addEdge(e);
-
-		return graph;
+		return dot().convert(name, description, nodes, edges, labels());
 	}
 
 	/**
@@ -272,50 +273,7 @@ public class SerializableGraph {
 	 */
 	public GraphmlGraph toGraphml(
 			boolean includeSubnodes) {
-		GraphmlGraph graph = new GraphmlGraph(name);
-
-		Set<Integer> hasFollows = new HashSet<>();
-		Set<Integer> hasPreds = new HashSet<>();
-		Set<Integer> rootnodes = new HashSet<>();
-		Map<SerializableNode, SerializableNode> containers = new HashMap<>();
-		Map<Integer, SerializableNode> nodemap = new HashMap<>();
-		Map<Integer, SerializableValue> labels = new HashMap<>();
-
-		edges.forEach(e -> {
-			hasFollows.add(e.getSourceId());
-			hasPreds.add(e.getDestId());
-		});
-
-		descriptions.forEach(d -> labels.put(d.getNodeId(), d.getDescription()));
-		nodes.forEach(n -> nodemap.put(n.getId(), n));
-		rootnodes.addAll(nodemap.keySet());
-		nodes.forEach(n -> {
-			n.getSubNodes().forEach(sub -> containers.put(nodemap.get(sub), n));
-			rootnodes.removeAll(n.getSubNodes());
-		});
-
-		for (SerializableNode n : nodes)
-			if (includeSubnodes || rootnodes.contains(n.getId()))
-				graph.addNode(n,
-						!hasPreds.contains(n.getId()) && rootnodes.contains(n.getId()),
-						!hasFollows.contains(n.getId()) && rootnodes.contains(n.getId()),
-						labels.get(n.getId()));
-
-		if (includeSubnodes)
-			while (!containers.isEmpty()) {
-				Set<Entry<SerializableNode, SerializableNode>> leaves = containers.entrySet().stream()
-						.filter(entry -> !containers.containsValue(entry.getKey())).collect(Collectors.toSet());
-				leaves.forEach(entry -> {
-					graph.markSubNode(entry.getValue(), entry.getKey());
-					containers.remove(entry.getKey());
-				});
-			}
-
-		for (SerializableEdge e : edges)
-			if (includeSubnodes || (rootnodes.contains(e.getSourceId()) && rootnodes.contains(e.getDestId())))
-				graph.addEdge(e);
-
-		return graph;
+		return graphml(includeSubnodes).convert(name, description, nodes, edges, labels());
 	}
 
 	/**
@@ -331,17 +289,180 @@ public class SerializableGraph {
 	public HtmlGraph toHtml(
 			boolean includeSubnodes,
 			String descriptionLabel) {
-		SerializableGraph g = new SerializableGraph(name, description, nodes, edges, Collections.emptySortedSet());
-		GraphmlGraph graphml = g.toGraphml(includeSubnodes);
+		return html(includeSubnodes, descriptionLabel).convert(name, description, nodes, edges, labels());
+	}
+
+	private IntFunction<SerializableValue> labels() {
+		Map<Integer, SerializableValue> labels = new HashMap<>();
+		descriptions.forEach(d -> labels.put(d.getNodeId(), d.getDescription()));
+		return labels::get;
+	}
+
+	/**
+	 * A conversion of the contents of a graph to a specific output format.
+	 * Converters are not bound to {@link SerializableGraph} instances, so that
+	 * they can also be fed while walking other graphs, as
+	 * {@link SerializableCFG} does when dumping a cfg.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <G> the type of graph produced by the conversion
+	 */
+	@FunctionalInterface
+	public interface Converter<G extends GraphStreamWrapper> {
+
+		/**
+		 * Converts the given graph contents.
+		 * 
+		 * @param name         the name of the graph
+		 * @param description  a description of the graph (can be
+		 *                         {@code null})
+		 * @param nodes        the nodes of the graph, sorted by id
+		 * @param edges        the edges of the graph, sorted
+		 * @param descriptions the function yielding the description of the
+		 *                         node with the given id, or {@code null} if
+		 *                         that node has none
+		 * 
+		 * @return the converted graph
+		 */
+		G convert(
+				String name,
+				String description,
+				Collection<SerializableNode> nodes,
+				Collection<SerializableEdge> edges,
+				IntFunction<SerializableValue> descriptions);
+	}
+
+	/**
+	 * Yields the {@link Converter} producing {@link DotGraph}s.
+	 * 
+	 * @return the converter
+	 */
+	public static Converter<DotGraph> dot() {
+		return (
+				name,
+				description,
+				nodes,
+				edges,
+				descriptions) -> {
+			DotGraph graph = new DotGraph(name);
+
+			Set<Integer> hasFollows = new HashSet<>();
+			Set<Integer> hasPreds = new HashSet<>();
+			Set<Integer> inners = new HashSet<>();
+
+			edges.forEach(e -> {
+				hasFollows.add(e.getSourceId());
+				hasPreds.add(e.getDestId());
+			});
+
+			nodes.forEach(n -> inners.addAll(n.getSubNodes()));
+
+			for (SerializableNode n : nodes)
+				if (!inners.contains(n.getId()))
+					graph.addNode(n,
+							!hasPreds.contains(n.getId()),
+							!hasFollows.contains(n.getId()),
+							descriptions.apply(n.getId()));
+
+			for (SerializableEdge e : edges)
+				graph.addEdge(e);
+
+			return graph;
+		};
+	}
+
+	/**
+	 * Yields the {@link Converter} producing {@link GraphmlGraph}s.
+	 * 
+	 * @param includeSubnodes whether or not sub-nodes should be part of the
+	 *                            graphs
+	 * 
+	 * @return the converter
+	 */
+	public static Converter<GraphmlGraph> graphml(
+			boolean includeSubnodes) {
+		return (
+				name,
+				description,
+				nodes,
+				edges,
+				descriptions) -> {
+			GraphmlGraph graph = new GraphmlGraph(name);
+
+			Set<Integer> hasFollows = new HashSet<>();
+			Set<Integer> hasPreds = new HashSet<>();
+			Set<Integer> rootnodes = new HashSet<>();
+			Map<SerializableNode, SerializableNode> containers = new HashMap<>();
+			Map<Integer, SerializableNode> nodemap = new HashMap<>();
+
+			edges.forEach(e -> {
+				hasFollows.add(e.getSourceId());
+				hasPreds.add(e.getDestId());
+			});
+
+			nodes.forEach(n -> nodemap.put(n.getId(), n));
+			rootnodes.addAll(nodemap.keySet());
+			nodes.forEach(n -> {
+				n.getSubNodes().forEach(sub -> containers.put(nodemap.get(sub), n));
+				rootnodes.removeAll(n.getSubNodes());
+			});
 
-		SortedMap<Integer, Pair<String, SerializableNodeDescription>> map = new TreeMap<>();
-		for (SerializableNodeDescription d : descriptions)
 			for (SerializableNode n : nodes)
-				if (d.getNodeId() == n.getId()) {
-					map.put(n.getId(), Pair.of(n.getText(), d));
-					break;
+				if (includeSubnodes || rootnodes.contains(n.getId()))
+					graph.addNode(n,
+							!hasPreds.contains(n.getId()) && rootnodes.contains(n.getId()),
+							!hasFollows.contains(n.getId()) && rootnodes.contains(n.getId()),
+							descriptions.apply(n.getId()));
+
+			if (includeSubnodes)
+				while (!containers.isEmpty()) {
+					Set<Entry<SerializableNode, SerializableNode>> leaves = containers.entrySet().stream()
+							.filter(entry -> !containers.containsValue(entry.getKey())).collect(Collectors.toSet());
+					leaves.forEach(entry -> {
+						graph.markSubNode(entry.getValue(), entry.getKey());
+						containers.remove(entry.getKey());
+					});
 				}
-		return new HtmlGraph(graphml, includeSubnodes, map, description, descriptionLabel);
+
+			for (SerializableEdge e : edges)
+				if (includeSubnodes || (rootnodes.contains(e.getSourceId()) && rootnodes.contains(e.getDestId())))
+					graph.addEdge(e);
+
+			return graph;
+		};
+	}
+
+	/**
+	 * Yields the {@link Converter} producing {@link HtmlGraph}s.
+	 * 
+	 * @param includeSubnodes  whether or not sub-nodes should be part of the
+	 *                             graphs
+	 * @param descriptionLabel the display name of the descriptions, used as
+	 *                             label in the collapse/expand toggles
+	 * 
+	 * @return the converter
+	 */
+	public static Converter<HtmlGraph> html(
+			boolean includeSubnodes,
+			String descriptionLabel) {
+		return (
+				name,
+				description,
+				nodes,
+				edges,
+				descriptions) -> {
+			// descriptions are rendered by the html page, not by the graph
+			GraphmlGraph graphml = graphml(includeSubnodes).convert(name, description, nodes, edges, id -> null);
+
+			SortedMap<Integer, Pair<String, SerializableNodeDescription>> map = new TreeMap<>();
+			for (SerializableNode n : nodes) {
+				SerializableValue d = descriptions.apply(n.getId());
+				if (d != null)
+					map.put(n.getId(), Pair.of(n.getText(), new SerializableNodeDescription(n.getId(), d)));
+			}
+			return new HtmlGraph(graphml, includeSubnodes, map, description, descriptionLabel);
+		};
 	}
 
 	/**
@@ -357,8 +478,7 @@ public class SerializableGraph {
 	public static SerializableGraph readGraph(
 			Reader reader)
 			throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		return mapper.readValue(reader, SerializableGraph.class);
+		return MAPPER.readValue(reader, SerializableGraph.class);
 	}
 
 	/**
@@ -10,6 +10,7 @@ import it.unive.lisa.program.cfg.CodeMemberDescriptor;
 import it.unive.lisa.program.cfg.NativeCFG;
 import it.unive.lisa.program.language.validation.ProgramValidationLogic;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -35,6 +36,14 @@ public abstract class CompilationUnit extends ProgramUnit {
 	 */
 	private final Map<String, CodeMember> instanceCodeMembers;
 
+	/**
+	 * The instance code members defined in this unit, indexed by
+	 * {@link CodeMemberDescriptor#getName()} and then by
+	 * {@link CodeMemberDescriptor#getSignature()}, used to restrict searches
+	 * by name or signature to the members having the same name
+	 */
+	private final Map<String, Map<String, CodeMember>> instanceCodeMembersByName;
+
 	/**
 	 * The lazily computed collection of instances of this unit, that is, the
 	 * collection of compilation units that directly or indirectly inherit from
@@ -70,6 +79,7 @@ public abstract class CompilationUnit extends ProgramUnit {
 		super(location, program, name);
 		this.sealed = sealed;
 		instanceCodeMembers = new TreeMap<>();
+		instanceCodeMembersByName = new HashMap<>();
 		instanceGlobals = new TreeMap<>();
 		instances = new HashSet<>();
 		annotations = new Annotations();
@@ -288,13 +298,28 @@ public abstract class CompilationUnit extends ProgramUnit {
 	 * 
 	 * @return the collection of matching code members
 	 */
-	@SuppressWarnings("unchecked")
 	public <T extends CodeMember> Collection<T> searchCodeMembers(
 			Predicate<CodeMember> filter,
 			boolean traverseHierarchy) {
+		return searchCodeMembers(null, filter, traverseHierarchy);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends CodeMember> Collection<T> searchCodeMembers(
+			String name,
+			Predicate<CodeMember> filter,
+			boolean traverseHierarchy) {
 		Collection<T> result = new HashSet<>();
 
-		for (CodeMember member : instanceCodeMembers.values())
+		Collection<CodeMember> candidates;
+		if (name == null)
+			candidates = instanceCodeMembers.values();
+		else {
+			Map<String, CodeMember> named = instanceCodeMembersByName.get(name);
+			candidates = named == null ? Collections.emptyList() : named.values();
+		}
+
+		for (CodeMember member : candidates)
 			if (filter.test(member))
 				result.add((T) member);
 
@@ -302,8 +327,8 @@ public abstract class CompilationUnit extends ProgramUnit {
 			return result;
 
 		for (CompilationUnit cu : getImmediateAncestors())
-			for (CodeMember sup : cu.searchCodeMembers(filter, true))
-				if (!result.stream().anyMatch(cm -> sup.getDescriptor().overriddenBy().contains(cm)))
+			for (CodeMember sup : cu.<T>searchCodeMembers(name, filter, true))
+				if (!isHidden(sup, result))
 					// we skip the ones that are overridden by code members that
 					// are already in the set, since they are "hidden" from the
 					// point of view of this unit
@@ -312,6 +337,16 @@ public abstract class CompilationUnit extends ProgramUnit {
 		return result;
 	}
 
+	private static boolean isHidden(
+			CodeMember member,
+			Collection<? extends CodeMember> visible) {
+		// both collections are hash sets: we scan the smaller one
+		Collection<CodeMember> overriders = member.getDescriptor().overriddenBy();
+		if (overriders.size() < visible.size())
+			return overriders.stream().anyMatch(visible::contains);
+		return visible.stream().anyMatch(overriders::contains);
+	}
+
 	/**
 	 * Searches among instance globals, returning a collection containing all
 	 * globals that satisfy the given condition.
@@ -377,6 +412,9 @@ public abstract class CompilationUnit extends ProgramUnit {
 	public boolean addInstanceCodeMember(
 			CodeMember cm) {
 		CodeMember c = instanceCodeMembers.putIfAbsent(cm.getDescriptor().getSignature(), cm);
+		if (c == null)
+			instanceCodeMembersByName.computeIfAbsent(cm.getDescriptor().getName(), k -> new TreeMap<>())
+					.put(cm.getDescriptor().getSignature(), cm);
 		if (sealed)
 			if (c == null)
 				cm.getDescriptor().setOverridable(false);
@@ -400,6 +438,8 @@ public abstract class CompilationUnit extends ProgramUnit {
 	public CodeMember getInstanceCodeMember(
 			String signature,
 			boolean traverseHierarchy) {
+		if (!traverseHierarchy)
+			return instanceCodeMembers.get(signature);
 		Collection<CodeMember> res = searchCodeMembers(cm -> cm.getDescriptor().getSignature().equals(signature),
 				traverseHierarchy);
 		if (res.isEmpty())
@@ -439,7 +479,7 @@ public abstract class CompilationUnit extends ProgramUnit {
 	public Collection<CodeMember> getInstanceCodeMembersByName(
 			String name,
 			boolean traverseHierarchy) {
-		return searchCodeMembers(cm -> cm.getDescriptor().getName().equals(name), traverseHierarchy);
+		return searchCodeMembers(name, cm -> true, traverseHierarchy);
 	}
 
 	/**
@@ -457,6 +497,8 @@ public abstract class CompilationUnit extends ProgramUnit {
 	public Collection<CodeMember> getMatchingInstanceCodeMembers(
 			CodeMemberDescriptor signature,
 			boolean traverseHierarchy) {
-		return searchCodeMembers(cm -> cm.getDescriptor().matchesSignature(signature), traverseHierarchy);
+		// matching signatures must have the same name
+		return searchCodeMembers(signature.getName(), cm -> cm.getDescriptor().matchesSignature(signature),
+				traverseHierarchy);
 	}
 }
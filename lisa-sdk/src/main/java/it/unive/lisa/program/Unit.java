@@ -4,11 +4,12 @@ import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CodeMember;
 import it.unive.lisa.program.cfg.CodeMemberDescriptor;
 import it.unive.lisa.program.cfg.NativeCFG;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.stream.Collectors;
 
 /**
  * A unit of the program to analyze. A unit is a logical entity that groups a
@@ -39,6 +40,14 @@ public abstract class Unit {
 	 */
 	private final Map<String, CodeMember> codeMembers;
 
+	/**
+	 * The cfgs defined in this unit, indexed by
+	 * {@link CodeMemberDescriptor#getName()} and then by
+	 * {@link CodeMemberDescriptor#getSignature()}, used to restrict signature
+	 * matching to the members having the same name
+	 */
+	private final Map<String, Map<String, CodeMember>> codeMembersByName;
+
 	/**
 	 * Builds a unit, defined at the given location.
 	 * 
@@ -49,6 +58,7 @@ public abstract class Unit {
 		this.name = name;
 		this.globals = new TreeMap<>();
 		this.codeMembers = new TreeMap<>();
+		this.codeMembersByName = new HashMap<>();
 	}
 
 	/**
@@ -119,8 +129,10 @@ public abstract class Unit {
 	 */
 	public final Collection<CodeMember> getCodeMembersByName(
 			String name) {
-		return codeMembers.values().stream().filter(c -> c.getDescriptor().getName().equals(name))
-				.collect(Collectors.toList());
+		Map<String, CodeMember> named = codeMembersByName.get(name);
+		if (named == null)
+			return new ArrayList<>();
+		return new ArrayList<>(named.values());
 	}
 
 	/**
@@ -172,7 +184,11 @@ public abstract class Unit {
 	 */
 	public final boolean addCodeMember(
 			CodeMember member) {
-		return codeMembers.putIfAbsent(member.getDescriptor().getSignature(), member) == null;
+		CodeMemberDescriptor descr = member.getDescriptor();
+		if (codeMembers.putIfAbsent(descr.getSignature(), member) != null)
+			return false;
+		codeMembersByName.computeIfAbsent(descr.getName(), k -> new TreeMap<>()).put(descr.getSignature(), member);
+		return true;
 	}
 
 	@Override
@@ -192,8 +208,12 @@ public abstract class Unit {
 	public final Collection<CodeMember> getMatchingCodeMember(
 			CodeMemberDescriptor signature) {
 		Collection<CodeMember> result = new HashSet<>();
+		Map<String, CodeMember> named = codeMembersByName.get(signature.getName());
+		if (named == null)
+			return result;
 
-		for (CodeMember member : codeMembers.values())
+		// matching signatures must have the same name
+		for (CodeMember member : named.values())
 			if (member.getDescriptor().matchesSignature(signature))
 				result.add(member);
 
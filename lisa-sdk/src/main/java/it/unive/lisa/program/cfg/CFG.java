@@ -26,6 +26,7 @@ import it.unive.lisa.program.cfg.fixpoints.BackwardAscendingFixpoint;
 import it.unive.lisa.program.cfg.fixpoints.CFGFixpoint.CompoundState;
 import it.unive.lisa.program.cfg.fixpoints.DescendingGLBFixpoint;
 import it.unive.lisa.program.cfg.fixpoints.DescendingNarrowingFixpoint;
+import it.unive.lisa.program.cfg.fixpoints.FixpointListener;
 import it.unive.lisa.program.cfg.fixpoints.OptimizedBackwardFixpoint;
 import it.unive.lisa.program.cfg.fixpoints.OptimizedFixpoint;
 import it.unive.lisa.program.cfg.statement.Expression;
@@ -50,6 +51,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -374,6 +376,27 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 			FixpointConfiguration conf,
 			ScopeId id)
 			throws FixpointException {
+		FixpointListener listener = conf.getListener();
+		if (listener == null)
+			return runFixpoint(singleton, startingPoints, interprocedural, ws, conf, id);
+
+		listener.fixpointStarted(this, id);
+		long start = System.nanoTime();
+		try {
+			return runFixpoint(singleton, startingPoints, interprocedural, ws, conf, id);
+		} finally {
+			listener.fixpointEnded(this, id, System.nanoTime() - start);
+		}
+	}
+
+	private <A extends AbstractState<A>> AnalyzedCFG<A> runFixpoint(
+			AnalysisState<A> singleton,
+			Map<Statement, AnalysisState<A>> startingPoints,
+			InterproceduralAnalysis<A> interprocedural,
+			WorkingSet<Statement> ws,
+			FixpointConfiguration conf,
+			ScopeId id)
+			throws FixpointException {
 		// we disable optimizations for ascending phases if there is a
 		// descending one: the latter will need full results to start applying
 		// glbs/narrowings from a post-fixpoint
@@ -585,6 +608,27 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 			FixpointConfiguration conf,
 			ScopeId id)
 			throws FixpointException {
+		FixpointListener listener = conf.getListener();
+		if (listener == null)
+			return runBackwardFixpoint(singleton, startingPoints, interprocedural, ws, conf, id);
+
+		listener.fixpointStarted(this, id);
+		long start = System.nanoTime();
+		try {
+			return runBackwardFixpoint(singleton, startingPoints, interprocedural, ws, conf, id);
+		} finally {
+			listener.fixpointEnded(this, id, System.nanoTime() - start);
+		}
+	}
+
+	private <A extends AbstractState<A>> AnalyzedCFG<A> runBackwardFixpoint(
+			AnalysisState<A> singleton,
+			Map<Statement, AnalysisState<A>> startingPoints,
+			InterproceduralAnalysis<A> interprocedural,
+			WorkingSet<Statement> ws,
+			FixpointConfiguration conf,
+			ScopeId id)
+			throws FixpointException {
 		// we disable optimizations for ascending phases if there is a
 		// descending one: the latter will need full results to start applying
 		// glbs/narrowings from a post-fixpoint
@@ -793,11 +837,12 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 			throw new ProgramValidationException("The matrix behind " + this + " is invalid", e);
 		}
 
+		Set<Statement> nodes = new HashSet<>(list.getNodes());
 		for (ControlFlowStructure struct : cfStructs) {
 			for (Statement st : struct.allStatements())
 				// we tolerate null values only if its the follower
 				if ((st == null && struct.getFirstFollower() != null)
-						|| (st != null && !list.containsNode(st)))
+						|| (st != null && !nodes.contains(st)))
 					throw new ProgramValidationException(this + " has a conditional structure (" + struct
 							+ ") that contains a node not in the graph: " + st);
 		}
@@ -814,9 +859,9 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 		}
 
 		// all entrypoints should be within the cfg
-		if (!list.getNodes().containsAll(entrypoints))
+		if (!nodes.containsAll(entrypoints))
 			throw new ProgramValidationException(this + " has entrypoints that are not part of the graph: "
-					+ new HashSet<>(entrypoints).retainAll(list.getNodes()));
+					+ new HashSet<>(entrypoints).retainAll(nodes));
 	}
 
 	private Collection<ControlFlowStructure> getControlFlowsContaining(
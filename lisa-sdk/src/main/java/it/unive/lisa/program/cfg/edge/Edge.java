@@ -3,6 +3,7 @@ package it.unive.lisa.program.cfg.edge;
 import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SplitCache;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.util.datastructures.graph.GraphVisitor;
@@ -129,6 +130,53 @@ public abstract class Edge implements CodeEdge<CFG, Statement, Edge> {
 			AnalysisState<A> state)
 			throws SemanticException;
 
+	/**
+	 * Traverses this edge in the forward direction, as
+	 * {@link #traverseForward(AnalysisState)}, using the given
+	 * {@link SplitCache} to reuse the splits of the source state that were
+	 * computed while traversing other edges. The default implementation
+	 * ignores the cache and delegates to
+	 * {@link #traverseForward(AnalysisState)}.
+	 * 
+	 * @param <A>   the concrete {@link AbstractState} instance
+	 * @param state the {@link AnalysisState} computed at the source of this
+	 *                  edge
+	 * @param cache the cache of splits to use, can be {@code null}
+	 * 
+	 * @return the {@link AnalysisState} after traversing this edge
+	 * 
+	 * @throws SemanticException if something goes wrong during the computation
+	 */
+	public <A extends AbstractState<A>> AnalysisState<A> traverseForward(
+			AnalysisState<A> state,
+			SplitCache cache)
+			throws SemanticException {
+		return traverseForward(state);
+	}
+
+	/**
+	 * Traverses this edge in the backward direction, as
+	 * {@link #traverseBackwards(AnalysisState)}, using the given
+	 * {@link SplitCache} to reuse the splits of the state that were computed
+	 * while traversing other edges. The default implementation ignores the
+	 * cache and delegates to {@link #traverseBackwards(AnalysisState)}.
+	 * 
+	 * @param <A>   the concrete {@link AbstractState} instance
+	 * @param state the {@link AnalysisState} computed at the destination of
+	 *                  this edge
+	 * @param cache the cache of splits to use, can be {@code null}
+	 * 
+	 * @return the {@link AnalysisState} after traversing this edge
+	 * 
+	 * @throws SemanticException if something goes wrong during the computation
+	 */
+	public <A extends AbstractState<A>> AnalysisState<A> traverseBackwards(
+			AnalysisState<A> state,
+			SplitCache cache)
+			throws SemanticException {
+		return traverseBackwards(state);
+	}
+
 	@Override
 	public <V> boolean accept(
 			GraphVisitor<CFG, Statement, Edge, V> visitor,
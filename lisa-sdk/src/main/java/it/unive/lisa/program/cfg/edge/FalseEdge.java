@@ -2,8 +2,8 @@ package it.unive.lisa.program.cfg.edge;
 
 import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
-import it.unive.lisa.analysis.Cache;
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SplitCache;
 import it.unive.lisa.analysis.lattices.ExpressionSet;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
@@ -39,32 +39,28 @@ public class FalseEdge extends Edge {
 		return "[ " + getSource() + " ] -F-> [ " + getDestination() + " ]";
 	}
 
-	static Cache.InnerKey key;
-	@SuppressWarnings("unchecked")
 	@Override
 	public <A extends AbstractState<A>> AnalysisState<A> traverseForward(
 			AnalysisState<A> state)
 			throws SemanticException {
+		return traverseForward(state, null);
+	}
 
-		AnalysisState<?> falseState;
-		Pair<AnalysisState<A>, AnalysisState<A>> splitResult;
-
+	@Override
+	public <A extends AbstractState<A>> AnalysisState<A> traverseForward(
+			AnalysisState<A> state,
+			SplitCache cache)
+			throws SemanticException {
 		AnalysisState<A> result = state.bottom();
 		ExpressionSet exprs = state.getComputedExpressions();
 
 		for (SymbolicExpression expr : exprs) {
+			AnalysisState<A> falseState;
 			if (expr instanceof BinaryExpression) {
-				BinaryExpression binary = (BinaryExpression) expr;
-				key = Cache.createKey(binary);
-
-				if (Cache.containsKeyAndState(key, state)) {
-					falseState = Cache.getAnalysisStates(key, state).getRight();
-				} else {
-					splitResult = state.split(binary, getSource(), getDestination());
-					Cache.putAnalysisStates(key, state, splitResult);
-					falseState = splitResult.getRight();
-				}
-
+				Pair<AnalysisState<A>, AnalysisState<A>> split = cache == null
+						? state.split(expr, getSource(), getDestination())
+						: cache.split(state, expr, getSource(), getDestination());
+				falseState = split.getRight();
 			} else {
 				UnaryExpression negExpr = new UnaryExpression(
 						expr.getStaticType(),
@@ -73,7 +69,7 @@ public class FalseEdge extends Edge {
 						expr.getCodeLocation());
 				falseState = state.assume(negExpr, getSource(), getDestination());
 			}
-			result = result.lub((AnalysisState<A>) falseState);
+			result = result.lub(falseState);
 		}
 
 		return result;
@@ -86,6 +82,14 @@ public class FalseEdge extends Edge {
 		return traverseForward(state);
 	}
 
+	@Override
+	public <A extends AbstractState<A>> AnalysisState<A> traverseBackwards(
+			AnalysisState<A> state,
+			SplitCache cache)
+			throws SemanticException {
+		return traverseForward(state, cache);
+	}
+
 	@Override
 	public boolean isUnconditional() {
 		return false;
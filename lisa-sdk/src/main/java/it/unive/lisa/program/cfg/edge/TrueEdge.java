@@ -2,8 +2,8 @@ package it.unive.lisa.program.cfg.edge;
 
 import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
-import it.unive.lisa.analysis.Cache;
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SplitCache;
 import it.unive.lisa.analysis.lattices.ExpressionSet;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
@@ -36,36 +36,31 @@ public class TrueEdge extends Edge {
 		return "[ " + getSource() + " ] -T-> [ " + getDestination() + " ]";
 	}
 
-	static Cache.InnerKey key;
-	@SuppressWarnings("unchecked")
 	@Override
 	public <A extends AbstractState<A>> AnalysisState<A> traverseForward(
 			AnalysisState<A> state)
 			throws SemanticException {
+		return traverseForward(state, null);
+	}
 
-		AnalysisState<?> trueState;
-		Pair<AnalysisState<A>, AnalysisState<A>> splitResult;
-
+	@Override
+	public <A extends AbstractState<A>> AnalysisState<A> traverseForward(
+			AnalysisState<A> state,
+			SplitCache cache)
+			throws SemanticException {
 		AnalysisState<A> result = state.bottom();
 		ExpressionSet exprs = state.getComputedExpressions();
 
 		for (SymbolicExpression expr : exprs) {
+			AnalysisState<A> trueState;
 			if (expr instanceof BinaryExpression) {
-				BinaryExpression binary = (BinaryExpression) expr;
-				key = Cache.createKey(binary);
-
-				if (Cache.containsKeyAndState(key, state)) {
-					trueState = Cache.getAnalysisStates(key, state).getLeft();
-				} else {
-					splitResult = state.split(binary, getSource(), getDestination());
-					Cache.putAnalysisStates(key, state, splitResult);
-					trueState = splitResult.getLeft();
-				}
-
-			} else {
+				Pair<AnalysisState<A>, AnalysisState<A>> split = cache == null
+						? state.split(expr, getSource(), getDestination())
+						: cache.split(state, expr, getSource(), getDestination());
+				trueState = split.getLeft();
+			} else
 				trueState = state.assume(expr, getSource(), getDestination());
-			}
-			result = result.lub((AnalysisState<A>) trueState);
+			result = result.lub(trueState);
 		}
 
 		return result;
@@ -78,6 +73,14 @@ public class TrueEdge extends Edge {
 		return traverseForward(state);
 	}
 
+	@Override
+	public <A extends AbstractState<A>> AnalysisState<A> traverseBackwards(
+			AnalysisState<A> state,
+			SplitCache cache)
+			throws SemanticException {
+		return traverseForward(state, cache);
+	}
+
 	@Override
 	public boolean isUnconditional() {
 		return false;
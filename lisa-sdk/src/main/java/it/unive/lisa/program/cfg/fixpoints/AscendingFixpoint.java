@@ -41,7 +41,7 @@ public class AscendingFixpoint<A extends AbstractState<A>>
 			CFG target,
 			InterproceduralAnalysis<A> interprocedural,
 			FixpointConfiguration config) {
-		super(target, interprocedural);
+		super(target, interprocedural, config.getSplitCache(), config.getExpressionInterner(), config.getListener());
 		this.config = config;
 		this.wideningPoints = config.useWideningPoints ? target.getCycleEntries() : null;
 		this.lubs = new HashMap<>(config.useWideningPoints ? wideningPoints.size() : target.getNodesCount());
@@ -55,15 +55,17 @@ public class AscendingFixpoint<A extends AbstractState<A>>
 			throws SemanticException {
 		if (config.wideningThreshold < 0)
 			// invalid threshold means always lub
-			return old.lub(approx);
+			return lub(node, approx, old);
 
 		if (config.useWideningPoints && !wideningPoints.contains(node))
 			// optimization: never apply widening on normal instructions,
 			// save time and precision and only apply to widening points
-			return old.lub(approx);
+			return lub(node, approx, old);
 
 		int lub = lubs.computeIfAbsent(node, st -> config.wideningThreshold);
 		if (lub == 0) {
+			if (listener != null)
+				listener.statesJoined(graph, node, true);
 			AnalysisState<A> post = old.postState.widening(approx.postState);
 			StatementStore<A> intermediate;
 			if (config.useWideningPoints)
@@ -77,6 +79,16 @@ public class AscendingFixpoint<A extends AbstractState<A>>
 		}
 
 		lubs.put(node, --lub);
+		return lub(node, approx, old);
+	}
+
+	private CompoundState<A> lub(
+			Statement node,
+			CompoundState<A> approx,
+			CompoundState<A> old)
+			throws SemanticException {
+		if (listener != null)
+			listener.statesJoined(graph, node, false);
 		return old.lub(approx);
 	}
 
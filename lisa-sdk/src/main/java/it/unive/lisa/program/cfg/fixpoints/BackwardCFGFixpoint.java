@@ -3,7 +3,9 @@ package it.unive.lisa.program.cfg.fixpoints;
 import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SplitCache;
 import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
 import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.VariableTableEntry;
@@ -11,6 +13,7 @@ import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.fixpoints.CFGFixpoint.CompoundState;
 import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.ExpressionInterner;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.util.datastructures.graph.algorithms.Fixpoint.FixpointImplementation;
@@ -40,6 +43,24 @@ public abstract class BackwardCFGFixpoint<A extends AbstractState<A>>
 	 */
 	protected final InterproceduralAnalysis<A> interprocedural;
 
+	/**
+	 * The {@link SplitCache} to use when traversing edges, can be
+	 * {@code null}.
+	 */
+	protected final SplitCache splitCache;
+
+	/**
+	 * The {@link ExpressionInterner} used to share the expressions computed
+	 * by statements, can be {@code null}.
+	 */
+	protected final ExpressionInterner interner;
+
+	/**
+	 * The {@link FixpointListener} to notify of fixpoint events, can be
+	 * {@code null}.
+	 */
+	protected final FixpointListener listener;
+
 	/**
 	 * Builds the fixpoint implementation.
 	 * 
@@ -50,8 +71,70 @@ public abstract class BackwardCFGFixpoint<A extends AbstractState<A>>
 	public BackwardCFGFixpoint(
 			CFG graph,
 			InterproceduralAnalysis<A> interprocedural) {
+		this(graph, interprocedural, null);
+	}
+
+	/**
+	 * Builds the fixpoint implementation.
+	 * 
+	 * @param graph           the graph targeted by this implementation
+	 * @param interprocedural the {@link InterproceduralAnalysis} to use for
+	 *                            semantics invocation
+	 * @param splitCache      the {@link SplitCache} to use when traversing
+	 *                            edges, can be {@code null}
+	 */
+	public BackwardCFGFixpoint(
+			CFG graph,
+			InterproceduralAnalysis<A> interprocedural,
+			SplitCache splitCache) {
+		this(graph, interprocedural, splitCache, null);
+	}
+
+	/**
+	 * Builds the fixpoint implementation.
+	 * 
+	 * @param graph           the graph targeted by this implementation
+	 * @param interprocedural the {@link InterproceduralAnalysis} to use for
+	 *                            semantics invocation
+	 * @param splitCache      the {@link SplitCache} to use when traversing
+	 *                            edges, can be {@code null}
+	 * @param interner        the {@link ExpressionInterner} used to share the
+	 *                            expressions computed by statements, can be
+	 *                            {@code null}
+	 */
+	public BackwardCFGFixpoint(
+			CFG graph,
+			InterproceduralAnalysis<A> interprocedural,
+			SplitCache splitCache,
+			ExpressionInterner interner) {
+		this(graph, interprocedural, splitCache, interner, null);
+	}
+
+	/**
+	 * Builds the fixpoint implementation.
+	 * 
+	 * @param graph           the graph targeted by this implementation
+	 * @param interprocedural the {@link InterproceduralAnalysis} to use for
+	 *                            semantics invocation
+	 * @param splitCache      the {@link SplitCache} to use when traversing
+	 *                            edges, can be {@code null}
+	 * @param interner        the {@link ExpressionInterner} used to share the
+	 *                            expressions computed by statements, can be
+	 *                            {@code null}
+	 * @param listener        the {@link FixpointListener} to notify of
+	 *                            fixpoint events, can be {@code null}
+	 */
+	public BackwardCFGFixpoint(
+			CFG graph,
+			InterproceduralAnalysis<A> interprocedural,
+			SplitCache splitCache,
+			ExpressionInterner interner,
+			FixpointListener listener) {
 		this.graph = graph;
 		this.interprocedural = interprocedural;
+		this.splitCache = splitCache;
+		this.interner = interner;
+		this.listener = listener;
 	}
 
 	@Override
@@ -59,21 +142,38 @@ public abstract class BackwardCFGFixpoint<A extends AbstractState<A>>
 			Statement node,
 			CompoundState<A> entrystate)
 			throws SemanticException {
+		long start = listener == null ? 0 : System.nanoTime();
 		StatementStore<A> expressions = new StatementStore<>(entrystate.postState.bottom());
 		AnalysisState<A> approx = node.backwardSemantics(entrystate.postState, interprocedural, expressions);
 		if (node instanceof Expression)
 			// we forget the meta variables now as the values are popped from
 			// the stack here
 			approx = approx.forgetIdentifiers(((Expression) node).getMetaVariables());
+		if (interner != null) {
+			// identical expressions computed at different iterations will
+			// be the same instance, making state comparisons cheaper
+			ExpressionSet computed = interner.intern(approx.getComputedExpressions());
+			if (computed != approx.getComputedExpressions())
+				approx = new AnalysisState<>(approx.getState(), computed, approx.getFixpointInformation());
+		}
+		if (listener != null)
+			listener.semanticsComputed(graph, node, approx, System.nanoTime() - start);
 		return CompoundState.of(approx, expressions);
 	}
 
+	@Override
+	public void popped(
+			Statement node) {
+		if (listener != null)
+			listener.nodePopped(graph, node);
+	}
+
 	@Override
 	public CompoundState<A> traverse(
 			Edge edge,
 			CompoundState<A> entrystate)
 			throws SemanticException {
-		AnalysisState<A> approx = edge.traverseBackwards(entrystate.postState);
+		AnalysisState<A> approx = edge.traverseBackwards(entrystate.postState, splitCache);
 
 		// we remove out of scope variables here
 		List<VariableTableEntry> toRemove = new LinkedList<>();
@@ -36,7 +36,7 @@ public class BackwardDescendingGLBFixpoint<A extends AbstractState<A>> extends B
 			CFG target,
 			InterproceduralAnalysis<A> interprocedural,
 			FixpointConfiguration config) {
-		super(target, interprocedural);
+		super(target, interprocedural, config.getSplitCache(), config.getExpressionInterner(), config.getListener());
 		this.maxGLBs = config.glbThreshold;
 		this.glbs = new HashMap<>(target.getNodesCount());
 	}
@@ -0,0 +1,182 @@
+package it.unive.lisa.program.cfg.fixpoints;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.interprocedural.ScopeId;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.call.CFGCall;
+
+/**
+ * A listener that is notified of the events happening during fixpoint
+ * computations, used to instrument analyses. Listeners are installed through
+ * {@link it.unive.lisa.conf.LiSAConfiguration#fixpointListener}, and all of
+ * their callbacks do nothing by default. When no listener is installed, no
+ * event is generated.<br>
+ * <br>
+ * Since interprocedural analyses can compute fixpoints on different threads
+ * (see {@link it.unive.lisa.conf.LiSAConfiguration#analysisThreads}),
+ * implementations must be thread-safe.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public interface FixpointListener {
+
+	/**
+	 * Callback invoked when a fixpoint over a {@link CFG} starts.
+	 * 
+	 * @param cfg the cfg targeted by the fixpoint
+	 * @param id  the {@link ScopeId} identifying the result that is being
+	 *                computed
+	 */
+	default void fixpointStarted(
+			CFG cfg,
+			ScopeId id) {
+	}
+
+	/**
+	 * Callback invoked when a fixpoint over a {@link CFG} terminates, either
+	 * successfully or abruptly.
+	 * 
+	 * @param cfg     the cfg targeted by the fixpoint
+	 * @param id      the {@link ScopeId} identifying the result that has been
+	 *                    computed
+	 * @param elapsed the time spent in the fixpoint, in nanoseconds,
+	 *                    including the fixpoints of the callees
+	 */
+	default void fixpointEnded(
+			CFG cfg,
+			ScopeId id,
+			long elapsed) {
+	}
+
+	/**
+	 * Callback invoked when a node is popped from the working set of a
+	 * fixpoint. When fixpoints work on basic blocks, this is invoked only for
+	 * the leader of each block.
+	 * 
+	 * @param cfg  the cfg targeted by the fixpoint
+	 * @param node the popped node
+	 */
+	default void nodePopped(
+			CFG cfg,
+			Statement node) {
+	}
+
+	/**
+	 * Callback invoked when the semantics of a statement has been computed.
+	 * 
+	 * @param cfg     the cfg containing the statement
+	 * @param node    the statement
+	 * @param post    the post-state computed by the statement
+	 * @param elapsed the time spent computing the semantics, in nanoseconds,
+	 *                    including the fixpoints of the callees
+	 */
+	default void semanticsComputed(
+			CFG cfg,
+			Statement node,
+			AnalysisState<?> post,
+			long elapsed) {
+	}
+
+	/**
+	 * Callback invoked when the result of a statement is joined with the one
+	 * of a previous iteration of an ascending fixpoint.
+	 * 
+	 * @param cfg      the cfg containing the statement
+	 * @param node     the statement
+	 * @param widening whether the states have been joined through widening or
+	 *                     through lub
+	 */
+	default void statesJoined(
+			CFG cfg,
+			Statement node,
+			boolean widening) {
+	}
+
+	/**
+	 * Callback invoked when an interprocedural analysis resolves the result of
+	 * a call towards a {@link CFG}, within a given context.
+	 * 
+	 * @param call   the call
+	 * @param target the cfg targeted by the call
+	 * @param token  the {@link ScopeId} of the context where the call is
+	 *                   resolved
+	 * @param reused whether the result has been reused from a previous
+	 *                   fixpoint instead of being computed with a new one
+	 */
+	default void callResolved(
+			CFGCall call,
+			CFG target,
+			ScopeId token,
+			boolean reused) {
+	}
+
+	/**
+	 * Yields a listener that forwards all events to this listener and then to
+	 * the given one.
+	 * 
+	 * @param other the other listener
+	 * 
+	 * @return the combined listener
+	 */
+	default FixpointListener andThen(
+			FixpointListener other) {
+		FixpointListener first = this;
+		return new FixpointListener() {
+
+			@Override
+			public void fixpointStarted(
+					CFG cfg,
+					ScopeId id) {
+				first.fixpointStarted(cfg, id);
+				other.fixpointStarted(cfg, id);
+			}
+
+			@Override
+			public void fixpointEnded(
+					CFG cfg,
+					ScopeId id,
+					long elapsed) {
+				first.fixpointEnded(cfg, id, elapsed);
+				other.fixpointEnded(cfg, id, elapsed);
+			}
+
+			@Override
+			public void nodePopped(
+					CFG cfg,
+					Statement node) {
+				first.nodePopped(cfg, node);
+				other.nodePopped(cfg, node);
+			}
+
+			@Override
+			public void semanticsComputed(
+					CFG cfg,
+					Statement node,
+					AnalysisState<?> post,
+					long elapsed) {
+				first.semanticsComputed(cfg, node, post, elapsed);
+				other.semanticsComputed(cfg, node, post, elapsed);
+			}
+
+			@Override
+			public void statesJoined(
+					CFG cfg,
+					Statement node,
+					boolean widening) {
+				first.statesJoined(cfg, node, widening);
+				other.statesJoined(cfg, node, widening);
+			}
+
+			@Override
+			public void callResolved(
+					CFGCall call,
+					CFG target,
+					ScopeId token,
+					boolean reused) {
+				first.callResolved(call, target, token, reused);
+				other.callResolved(call, target, token, reused);
+			}
+		};
+	}
+}
@@ -0,0 +1,245 @@
+package it.unive.lisa.program.cfg.fixpoints;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.interprocedural.ScopeId;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.call.CFGCall;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link FixpointListener} that collects metrics about fixpoint
+ * computations, that can be dumped as a json or csv profile of the analysis.
+ * For each {@link CFG}, the profile contains the number of fixpoints computed
+ * in each context, the number of times a result has been reused instead, and
+ * the overall time spent in such fixpoints. For each {@link Statement}, the
+ * profile contains the number of times it has been popped from the working
+ * set, the number of times its semantics has been computed and the overall
+ * time spent doing so, the number of lubs and widenings applied on it, and
+ * the size of the largest post-state it produced. The size of a state is the
+ * length of the textual form of its representation: while this does not
+ * account for the memory occupied by the state, it is a good indicator of
+ * which statements produce the largest states, but it makes profiled
+ * executions slower.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class FixpointProfiler implements FixpointListener {
+
+	private static final Comparator<Statement> BY_LOCATION = Comparator
+			.comparing((
+					Statement st) -> st.getLocation())
+			.thenComparing(Object::toString);
+
+	private final Map<CFG, CFGMetrics> cfgs = new ConcurrentHashMap<>();
+
+	private final Map<Statement, StatementMetrics> statements = new ConcurrentHashMap<>();
+
+	private CFGMetrics of(
+			CFG cfg) {
+		return cfgs.computeIfAbsent(cfg, k -> new CFGMetrics());
+	}
+
+	private StatementMetrics of(
+			Statement st) {
+		return statements.computeIfAbsent(st, k -> new StatementMetrics());
+	}
+
+	@Override
+	public void fixpointEnded(
+			CFG cfg,
+			ScopeId id,
+			long elapsed) {
+		CFGMetrics metrics = of(cfg);
+		metrics.time.addAndGet(elapsed);
+		metrics.context(id).fixpoints.incrementAndGet();
+	}
+
+	@Override
+	public void nodePopped(
+			CFG cfg,
+			Statement node) {
+		of(node).pops.incrementAndGet();
+	}
+
+	@Override
+	public void semanticsComputed(
+			CFG cfg,
+			Statement node,
+			AnalysisState<?> post,
+			long elapsed) {
+		StatementMetrics metrics = of(node);
+		metrics.evaluations.incrementAndGet();
+		metrics.time.addAndGet(elapsed);
+		int size = post.representation().toString().length();
+		metrics.stateSize.accumulateAndGet(size, Math::max);
+	}
+
+	@Override
+	public void statesJoined(
+			CFG cfg,
+			Statement node,
+			boolean widening) {
+		StatementMetrics metrics = of(node);
+		if (widening)
+			metrics.widenings.incrementAndGet();
+		else
+			metrics.lubs.incrementAndGet();
+	}
+
+	@Override
+	public void callResolved(
+			CFGCall call,
+			CFG target,
+			ScopeId token,
+			boolean reused) {
+		if (reused)
+			of(target).context(token).reuses.incrementAndGet();
+	}
+
+	/**
+	 * Dumps the collected metrics to the given {@link Writer} as a json
+	 * object, containing an entry for each {@link CFG} with its metrics and
+	 * the ones of the statements it contains.
+	 * 
+	 * @param writer the writer to write to
+	 * 
+	 * @throws IOException if some I/O error happens while writing to the
+	 *                         writer
+	 */
+	public void dumpJson(
+			Writer writer)
+			throws IOException {
+		Map<CFG, List<Statement>> grouped = groupStatements();
+		Map<String, Object> profile = new TreeMap<>();
+		for (Entry<CFG, List<Statement>> entry : grouped.entrySet()) {
+			Map<String, Object> cfg = new LinkedHashMap<>();
+			CFGMetrics metrics = cfgs.get(entry.getKey());
+			if (metrics != null) {
+				cfg.put("time", metrics.time.get());
+				Map<String, Object> contexts = new TreeMap<>();
+				for (Entry<String, ContextMetrics> ctx : metrics.contexts.entrySet()) {
+					Map<String, Object> context = new LinkedHashMap<>();
+					context.put("fixpoints", ctx.getValue().fixpoints.get());
+					context.put("reuses", ctx.getValue().reuses.get());
+					contexts.put(ctx.getKey(), context);
+				}
+				cfg.put("contexts", contexts);
+			}
+
+			Map<String, Object> sts = new LinkedHashMap<>();
+			for (Statement st : entry.getValue()) {
+				StatementMetrics m = statements.get(st);
+				Map<String, Object> statement = new LinkedHashMap<>();
+				statement.put("pops", m.pops.get());
+				statement.put("evaluations", m.evaluations.get());
+				statement.put("time", m.time.get());
+				statement.put("lubs", m.lubs.get());
+				statement.put("widenings", m.widenings.get());
+				statement.put("stateSize", m.stateSize.get());
+				sts.put(name(st), statement);
+			}
+			cfg.put("statements", sts);
+			profile.put(name(entry.getKey()), cfg);
+		}
+
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
+		mapper.writeValue(writer, profile);
+	}
+
+	/**
+	 * Dumps the metrics collected for each {@link Statement} to the given
+	 * {@link Writer} in csv format, one statement per line. Times are
+	 * expressed in nanoseconds.
+	 * 
+	 * @param writer the writer to write to
+	 * 
+	 * @throws IOException if some I/O error happens while writing to the
+	 *                         writer
+	 */
+	public void dumpCsv(
+			Writer writer)
+			throws IOException {
+		writer.write("cfg,statement,pops,evaluations,time,lubs,widenings,stateSize\n");
+		for (Entry<CFG, List<Statement>> entry : groupStatements().entrySet())
+			for (Statement st : entry.getValue()) {
+				StatementMetrics m = statements.get(st);
+				writer.write(escape(name(entry.getKey())) + "," + escape(name(st)) + ","
+						+ m.pops.get() + "," + m.evaluations.get() + "," + m.time.get() + ","
+						+ m.lubs.get() + "," + m.widenings.get() + "," + m.stateSize.get() + "\n");
+			}
+	}
+
+	private Map<CFG, List<Statement>> groupStatements() {
+		Map<CFG, List<Statement>> result = new TreeMap<>(Comparator.comparing(FixpointProfiler::name));
+		for (CFG cfg : cfgs.keySet())
+			result.put(cfg, new ArrayList<>());
+		for (Statement st : statements.keySet())
+			result.computeIfAbsent(st.getCFG(), k -> new ArrayList<>()).add(st);
+		for (List<Statement> sts : result.values())
+			sts.sort(BY_LOCATION);
+		return result;
+	}
+
+	private static String name(
+			CFG cfg) {
+		return cfg.getDescriptor().getFullSignatureWithParNames();
+	}
+
+	private static String name(
+			Statement st) {
+		return st.getLocation() + ": " + st;
+	}
+
+	private static String escape(
+			String value) {
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	private static class CFGMetrics {
+
+		private final AtomicLong time = new AtomicLong();
+
+		private final Map<String, ContextMetrics> contexts = new ConcurrentHashMap<>();
+
+		private ContextMetrics context(
+				ScopeId id) {
+			return contexts.computeIfAbsent(String.valueOf(id), k -> new ContextMetrics());
+		}
+	}
+
+	private static class ContextMetrics {
+
+		private final AtomicLong fixpoints = new AtomicLong();
+
+		private final AtomicLong reuses = new AtomicLong();
+	}
+
+	private static class StatementMetrics {
+
+		private final AtomicLong pops = new AtomicLong();
+
+		private final AtomicLong evaluations = new AtomicLong();
+
+		private final AtomicLong time = new AtomicLong();
+
+		private final AtomicLong lubs = new AtomicLong();
+
+		private final AtomicLong widenings = new AtomicLong();
+
+		private final AtomicLong stateSize = new AtomicLong();
+	}
+}
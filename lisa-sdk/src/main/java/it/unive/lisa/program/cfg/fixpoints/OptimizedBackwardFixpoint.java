@@ -77,6 +77,7 @@ public class OptimizedBackwardFixpoint<A extends AbstractState<A>>
 			Statement[] block = bb.getValue();
 			bbs.put(block[block.length - 1], block);
 		}
+		prepareWorkingSet(ws, startingPoints.keySet());
 		startingPoints.keySet().forEach(ws::push);
 
 		Set<Statement> toProcess = null;
@@ -91,6 +92,7 @@ public class OptimizedBackwardFixpoint<A extends AbstractState<A>>
 				throw new FixpointException("null node encountered during fixpoint in '" + graph + "'");
 			if (!graph.containsNode(current))
 				throw new FixpointException("'" + current + "' is not part of '" + graph + "'");
+			implementation.popped(current);
 
 			Statement[] bb = bbs.get(current);
 			if (bb == null)
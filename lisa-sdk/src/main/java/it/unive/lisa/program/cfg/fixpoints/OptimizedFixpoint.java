@@ -71,6 +71,7 @@ public class OptimizedFixpoint<A extends AbstractState<A>>
 				: new HashMap<>(initialResult);
 
 		Map<Statement, Statement[]> bbs = graph.getBasicBlocks();
+		prepareWorkingSet(ws, startingPoints.keySet());
 		startingPoints.keySet().forEach(ws::push);
 
 		Set<Statement> toProcess = null;
@@ -85,6 +86,7 @@ public class OptimizedFixpoint<A extends AbstractState<A>>
 				throw new FixpointException("null node encountered during fixpoint in '" + graph + "'");
 			if (!graph.containsNode(current))
 				throw new FixpointException("'" + current + "' is not part of '" + graph + "'");
+			implementation.popped(current);
 
 			Statement[] bb = bbs.get(current);
 			if (bb == null)
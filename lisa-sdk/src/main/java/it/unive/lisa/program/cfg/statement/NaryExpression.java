@@ -42,6 +42,12 @@ public abstract class NaryExpression extends Expression {
 	 */
 	private final EvaluationOrder order;
 
+	/**
+	 * The cached hash code of this expression, {@code 0} if it has not been
+	 * computed yet.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the expression, happening at the given location in the program.
 	 * The static type of this expression is {@link Untyped}. The
@@ -224,11 +230,21 @@ public abstract class NaryExpression extends Expression {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((constructName == null) ? 0 : constructName.hashCode());
-		result = prime * result + Arrays.hashCode(subExpressions);
-		return result;
+		return naryHash();
+	}
+
+	private int naryHash() {
+		// all the fields are immutable: the hash is computed only once
+		int h = hash;
+		if (h == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((constructName == null) ? 0 : constructName.hashCode());
+			result = prime * result + Arrays.hashCode(subExpressions);
+			h = result;
+			hash = h;
+		}
+		return h;
 	}
 
 	@Override
@@ -241,6 +257,10 @@ public abstract class NaryExpression extends Expression {
 		if (!(obj instanceof NaryExpression))
 			return false;
 		NaryExpression other = (NaryExpression) obj;
+		// cached hashes let us avoid visiting different trees (subclasses
+		// might not cache theirs)
+		if (naryHash() != other.naryHash())
+			return false;
 		if (constructName == null) {
 			if (other.constructName != null)
 				return false;
@@ -21,10 +21,15 @@ import it.unive.lisa.program.cfg.Parameter;
 import it.unive.lisa.program.cfg.controlFlow.ControlFlowStructure;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.util.datastructures.graph.code.NodeList;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.stream.IntStream;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -139,30 +144,77 @@ public class BaseValidationLogic implements ProgramValidationLogic {
 	 */
 	public final Set<String> processedUnits = new TreeSet<>();
 
+	/**
+	 * The instance {@link CodeMember}s of each processed
+	 * {@link CompilationUnit}, including the ones inherited from its
+	 * ancestors. Since ancestors are always finalized before their subunits,
+	 * this is computed once for each unit, the first time that one of its
+	 * subunits is finalized.
+	 */
+	private final Map<CompilationUnit, Collection<CodeMember>> hierarchyMembers = new IdentityHashMap<>();
+
+	/**
+	 * The {@link CodeMember}s whose structure still needs to be validated
+	 * through {@link CodeMember#validate()}, in the order in which they have
+	 * been reached. This is not {@code null} only while a whole
+	 * {@link Program} is being validated, and the members are validated in
+	 * parallel once all units have been finalized.
+	 */
+	private List<CodeMember> pendingMembers;
+
 	/**
 	 * {@inheritDoc} <br>
 	 * <br>
 	 * Validating a program simply causes the validation of all the
 	 * {@link Unit}s and {@link CodeMember}s defined inside it, and ensures that
-	 * all entrypoints ({@link Program#getEntryPoints()}) are defined.
+	 * all entrypoints ({@link Program#getEntryPoints()}) are defined. The
+	 * structure of the code members ({@link CodeMember#validate()}) is
+	 * validated in parallel after all units have been finalized: if more than
+	 * one member is invalid, the error of the first one that has been reached
+	 * is reported.
 	 */
 	@Override
 	public void validateAndFinalize(
 			Program program)
 			throws ProgramValidationException {
-		validateAndFinalize((Unit) program);
-
-		// all entrypoints should be within the set of cfgs
-		Collection<CFG> baseline = program.getAllCFGs();
-		Collection<CFG> entrypoints = program.getEntryPoints();
-		if (!baseline.containsAll(entrypoints)) {
-			Set<CFG> diff = new HashSet<>(entrypoints);
-			diff.retainAll(baseline);
-			throw new ProgramValidationException(format(UNKNOWN_ENTRYPOINTS, diff));
+		pendingMembers = new ArrayList<>();
+		try {
+			validateAndFinalize((Unit) program);
+
+			// all entrypoints should be within the set of cfgs
+			Collection<CFG> baseline = new HashSet<>(program.getAllCFGs());
+			Collection<CFG> entrypoints = program.getEntryPoints();
+			if (!baseline.containsAll(entrypoints)) {
+				Set<CFG> diff = new HashSet<>(entrypoints);
+				diff.retainAll(baseline);
+				throw new ProgramValidationException(format(UNKNOWN_ENTRYPOINTS, diff));
+			}
+
+			for (Unit unit : program.getUnits())
+				validateAndFinalize(unit);
+
+			validateAll(pendingMembers);
+		} finally {
+			pendingMembers = null;
 		}
+	}
+
+	private static void validateAll(
+			List<CodeMember> members)
+			throws ProgramValidationException {
+		ProgramValidationException[] errors = new ProgramValidationException[members.size()];
+		IntStream.range(0, members.size()).parallel().forEach(i -> {
+			try {
+				members.get(i).validate();
+			} catch (ProgramValidationException e) {
+				errors[i] = e;
+			}
+		});
 
-		for (Unit unit : program.getUnits())
-			validateAndFinalize(unit);
+		// errors are reported in the order in which members have been reached
+		for (ProgramValidationException e : errors)
+			if (e != null)
+				throw e;
 	}
 
 	/**
@@ -339,7 +391,8 @@ public class BaseValidationLogic implements ProgramValidationLogic {
 
 		for (CompilationUnit ancestor : unit.getImmediateAncestors()) {
 			// check overriders/implementers
-			for (CodeMember inherited : ancestor.getInstanceCodeMembers(true)) {
+			for (CodeMember inherited : hierarchyMembers.computeIfAbsent(ancestor,
+					a -> a.getInstanceCodeMembers(true))) {
 				Collection<CodeMember> localOverrides = unit.getMatchingInstanceCodeMembers(inherited.getDescriptor(),
 						false);
 				if (localOverrides.isEmpty()) {
@@ -398,7 +451,9 @@ public class BaseValidationLogic implements ProgramValidationLogic {
 	 * according to
 	 * {@link CodeMemberDescriptor#matchesSignature(CodeMemberDescriptor)}. This
 	 * avoids ambiguous call resolution. Moreover, this ensures that all
-	 * {@link CFG}s are valid, according to {@link CFG#validate()}.
+	 * {@link CFG}s are valid, according to {@link CFG#validate()}: when this
+	 * method is invoked while validating a whole {@link Program}, this last
+	 * check is deferred until all units have been finalized.
 	 * 
 	 * @param member   the code member to validate
 	 * @param instance if {@code true}, duplicates will be searched in instance
@@ -423,6 +478,10 @@ public class BaseValidationLogic implements ProgramValidationLogic {
 			throw new ProgramValidationException(
 					format(DUPLICATE_MEMBER, member.getDescriptor().getSignature(), container));
 
-		member.validate();
+		if (pendingMembers != null)
+			// the structure will be validated once all units are finalized
+			pendingMembers.add(member);
+		else
+			member.validate();
 	}
 }
\ No newline at end of file
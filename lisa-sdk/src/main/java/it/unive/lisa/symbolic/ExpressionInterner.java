@@ -0,0 +1,295 @@
+package it.unive.lisa.symbolic;
+
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapDereference;
+import it.unive.lisa.symbolic.heap.HeapReference;
+import it.unive.lisa.symbolic.heap.MemoryAllocation;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.NullConstant;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.symbolic.value.PushInv;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.symbolic.value.TernaryExpression;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A hash-consing table for {@link SymbolicExpression}s. Interning an
+ * expression yields a canonical instance that is identical to it, that is
+ * shared by all the expressions interned through the same object that are
+ * identical to it. Two expressions are identical if they are instances of the
+ * same class, have the same static type and code location, and are equal
+ * according to {@link SymbolicExpression#equals(Object)}; identifiers must
+ * also have the same weakness and annotations. Sub-expressions are interned
+ * before their parent, so that identical trees share all of their nodes and
+ * comparing them for equality amounts to a reference check.<br>
+ * <br>
+ * Only expressions whose class is one of the ones defined in this package (and
+ * its sub-packages) are interned: instances of other classes, including
+ * subclasses of the ones defined here, are returned unchanged, and expressions
+ * containing them are shared only if they contain the very same instance.
+ * Instances of this class are thread-safe, and
+ * are meant to be owned by a single analysis run (see
+ * {@link it.unive.lisa.conf.FixpointConfiguration#getExpressionInterner()}),
+ * so that the canonical instances are released when the run terminates.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class ExpressionInterner {
+
+	private final Map<Key, SymbolicExpression> table = new ConcurrentHashMap<>();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Yields the canonical instance of the given expression, interning it and
+	 * all of its sub-expressions if no instance identical to it has been
+	 * interned before.
+	 * 
+	 * @param <E>        the type of the expression
+	 * @param expression the expression to intern
+	 * 
+	 * @return the canonical instance, or {@code expression} itself if its
+	 *             class is not supported
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends SymbolicExpression> E intern(
+			E expression) {
+		if (expression == null)
+			return null;
+
+		SymbolicExpression rebuilt = rebuild(expression);
+		if (rebuilt == null)
+			return expression;
+
+		SymbolicExpression canonical = table.putIfAbsent(new Key(rebuilt), rebuilt);
+		if (canonical == null) {
+			misses.incrementAndGet();
+			canonical = rebuilt;
+		} else
+			hits.incrementAndGet();
+
+		// canonical instances have the same class of the expressions they
+		// replace
+		return (E) canonical;
+	}
+
+	/**
+	 * Yields an {@link ExpressionSet} containing the canonical instances of
+	 * the expressions in the given one, iterated in the same order. If all
+	 * the expressions are already canonical, {@code expressions} itself is
+	 * returned.
+	 * 
+	 * @param expressions the expressions to intern
+	 * 
+	 * @return the set of canonical instances
+	 */
+	public ExpressionSet intern(
+			ExpressionSet expressions) {
+		if (expressions.isTop() || expressions.isBottom())
+			return expressions;
+
+		Set<SymbolicExpression> result = new LinkedHashSet<>();
+		boolean changed = false;
+		for (SymbolicExpression e : expressions) {
+			SymbolicExpression canonical = intern(e);
+			changed |= canonical != e;
+			result.add(canonical);
+		}
+
+		return changed ? new ExpressionSet(result) : expressions;
+	}
+
+	/**
+	 * Yields the number of canonical instances stored in this interner.
+	 * 
+	 * @return the number of canonical instances
+	 */
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * Yields the number of times an expression has been replaced by a
+	 * canonical instance that was already stored.
+	 * 
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Yields the number of times an expression became a canonical instance.
+	 * 
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Removes all canonical instances from this interner.
+	 */
+	public void clear() {
+		table.clear();
+	}
+
+	/**
+	 * Yields an expression identical to the given one whose sub-expressions
+	 * are canonical, or {@code null} if the class of {@code expression} is not
+	 * supported.
+	 */
+	private SymbolicExpression rebuild(
+			SymbolicExpression expression) {
+		Class<?> type = expression.getClass();
+		if (type == Variable.class
+				|| type == Constant.class
+				|| type == NullConstant.class
+				|| type == PushAny.class
+				|| type == PushInv.class
+				|| type == Skip.class
+				|| type == MemoryAllocation.class)
+			return expression;
+
+		if (type == UnaryExpression.class) {
+			UnaryExpression e = (UnaryExpression) expression;
+			SymbolicExpression arg = intern(e.getExpression());
+			if (arg == e.getExpression())
+				return e;
+			return new UnaryExpression(e.getStaticType(), arg, e.getOperator(), e.getCodeLocation());
+		}
+
+		if (type == BinaryExpression.class) {
+			BinaryExpression e = (BinaryExpression) expression;
+			SymbolicExpression left = intern(e.getLeft());
+			SymbolicExpression right = intern(e.getRight());
+			if (left == e.getLeft() && right == e.getRight())
+				return e;
+			return new BinaryExpression(e.getStaticType(), left, right, e.getOperator(), e.getCodeLocation());
+		}
+
+		if (type == TernaryExpression.class) {
+			TernaryExpression e = (TernaryExpression) expression;
+			SymbolicExpression left = intern(e.getLeft());
+			SymbolicExpression middle = intern(e.getMiddle());
+			SymbolicExpression right = intern(e.getRight());
+			if (left == e.getLeft() && middle == e.getMiddle() && right == e.getRight())
+				return e;
+			return new TernaryExpression(e.getStaticType(), left, middle, right, e.getOperator(),
+					e.getCodeLocation());
+		}
+
+		if (type == AccessChild.class) {
+			AccessChild e = (AccessChild) expression;
+			SymbolicExpression container = intern(e.getContainer());
+			SymbolicExpression child = intern(e.getChild());
+			if (container == e.getContainer() && child == e.getChild())
+				return e;
+			return new AccessChild(e.getStaticType(), container, child, e.getCodeLocation());
+		}
+
+		if (type == HeapReference.class) {
+			HeapReference e = (HeapReference) expression;
+			SymbolicExpression arg = intern(e.getExpression());
+			if (arg == e.getExpression())
+				return e;
+			return new HeapReference(e.getStaticType(), arg, e.getCodeLocation());
+		}
+
+		if (type == HeapDereference.class) {
+			HeapDereference e = (HeapDereference) expression;
+			SymbolicExpression arg = intern(e.getExpression());
+			if (arg == e.getExpression())
+				return e;
+			return new HeapDereference(e.getStaticType(), arg, e.getCodeLocation());
+		}
+
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return "expression interner: " + size() + " expressions, " + hits + " hits, " + misses + " misses";
+	}
+
+	private static final class Key {
+
+		private final SymbolicExpression expression;
+
+		private final int hash;
+
+		private Key(
+				SymbolicExpression expression) {
+			this.expression = expression;
+			this.hash = 31 * expression.hashCode() + expression.getCodeLocation().hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(
+				Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			Key other = (Key) obj;
+			if (hash != other.hash)
+				return false;
+			SymbolicExpression e = expression;
+			SymbolicExpression o = other.expression;
+			if (e.getClass() != o.getClass()
+					|| !e.getStaticType().equals(o.getStaticType())
+					|| !e.getCodeLocation().equals(o.getCodeLocation()))
+				return false;
+			// sub-expressions are canonical: they must be the same instance,
+			// since equals might ignore some of their components (e.g., the
+			// type of identifiers)
+			if (!sameSubExpressions(e, o) || !e.equals(o))
+				return false;
+			if (e instanceof Identifier) {
+				Identifier ie = (Identifier) e;
+				Identifier io = (Identifier) o;
+				return ie.isWeak() == io.isWeak() && Objects.equals(ie.getAnnotations(), io.getAnnotations());
+			}
+			return true;
+		}
+
+		private static boolean sameSubExpressions(
+				SymbolicExpression e,
+				SymbolicExpression o) {
+			if (e instanceof UnaryExpression)
+				return ((UnaryExpression) e).getExpression() == ((UnaryExpression) o).getExpression();
+			if (e instanceof BinaryExpression)
+				return ((BinaryExpression) e).getLeft() == ((BinaryExpression) o).getLeft()
+						&& ((BinaryExpression) e).getRight() == ((BinaryExpression) o).getRight();
+			if (e instanceof TernaryExpression)
+				return ((TernaryExpression) e).getLeft() == ((TernaryExpression) o).getLeft()
+						&& ((TernaryExpression) e).getMiddle() == ((TernaryExpression) o).getMiddle()
+						&& ((TernaryExpression) e).getRight() == ((TernaryExpression) o).getRight();
+			if (e instanceof AccessChild)
+				return ((AccessChild) e).getContainer() == ((AccessChild) o).getContainer()
+						&& ((AccessChild) e).getChild() == ((AccessChild) o).getChild();
+			if (e instanceof HeapReference)
+				return ((HeapReference) e).getExpression() == ((HeapReference) o).getExpression();
+			if (e instanceof HeapDereference)
+				return ((HeapDereference) e).getExpression() == ((HeapDereference) o).getExpression();
+			return true;
+		}
+	}
+}
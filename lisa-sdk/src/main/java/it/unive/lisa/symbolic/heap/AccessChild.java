@@ -24,6 +24,12 @@ public class AccessChild extends HeapExpression {
 	 */
 	private final SymbolicExpression child;
 
+	/**
+	 * The cached hash code of this expression, {@code 0} if it has not been
+	 * computed yet.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the child access.
 	 * 
@@ -63,11 +69,17 @@ public class AccessChild extends HeapExpression {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((container == null) ? 0 : container.hashCode());
-		result = prime * result + ((child == null) ? 0 : child.hashCode());
-		return result;
+		// all the fields are immutable: the hash is computed only once
+		int h = hash;
+		if (h == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((container == null) ? 0 : container.hashCode());
+			result = prime * result + ((child == null) ? 0 : child.hashCode());
+			h = result;
+			hash = h;
+		}
+		return h;
 	}
 
 	@Override
@@ -80,6 +92,9 @@ public class AccessChild extends HeapExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		AccessChild other = (AccessChild) obj;
+		// cached hashes let us avoid visiting different trees
+		if (hashCode() != other.hashCode())
+			return false;
 		if (container == null) {
 			if (other.container != null)
 				return false;
@@ -18,6 +18,12 @@ public class HeapDereference extends HeapExpression {
 	 */
 	private final SymbolicExpression toDeref;
 
+	/**
+	 * The cached hash code of this expression, {@code 0} if it has not been
+	 * computed yet.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the heap dereference.
 	 * 
@@ -36,10 +42,16 @@ public class HeapDereference extends HeapExpression {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((toDeref == null) ? 0 : toDeref.hashCode());
-		return result;
+		// all the fields are immutable: the hash is computed only once
+		int h = hash;
+		if (h == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((toDeref == null) ? 0 : toDeref.hashCode());
+			h = result;
+			hash = h;
+		}
+		return h;
 	}
 
 	@Override
@@ -52,6 +64,9 @@ public class HeapDereference extends HeapExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		HeapDereference other = (HeapDereference) obj;
+		// cached hashes let us avoid visiting different trees
+		if (hashCode() != other.hashCode())
+			return false;
 		if (toDeref == null) {
 			if (other.toDeref != null)
 				return false;
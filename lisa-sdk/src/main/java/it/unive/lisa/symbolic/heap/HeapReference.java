@@ -18,6 +18,12 @@ public class HeapReference extends HeapExpression {
 	 */
 	private final SymbolicExpression expression;
 
+	/**
+	 * The cached hash code of this expression, {@code 0} if it has not been
+	 * computed yet.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the heap reference.
 	 * 
@@ -41,10 +47,16 @@ public class HeapReference extends HeapExpression {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((expression == null) ? 0 : expression.hashCode());
-		return result;
+		// all the fields are immutable: the hash is computed only once
+		int h = hash;
+		if (h == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((expression == null) ? 0 : expression.hashCode());
+			h = result;
+			hash = h;
+		}
+		return h;
 	}
 
 	/**
@@ -66,6 +78,9 @@ public class HeapReference extends HeapExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		HeapReference other = (HeapReference) obj;
+		// cached hashes let us avoid visiting different trees
+		if (hashCode() != other.hashCode())
+			return false;
 		if (expression == null) {
 			if (other.expression != null)
 				return false;
@@ -31,6 +31,12 @@ public class BinaryExpression extends ValueExpression {
 	 */
 	private final BinaryOperator operator;
 
+	/**
+	 * The cached hash code of this expression, {@code 0} if it has not been
+	 * computed yet.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the binary expression.
 	 * 
@@ -101,12 +107,18 @@ public class BinaryExpression extends ValueExpression {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((left == null) ? 0 : left.hashCode());
-		result = prime * result + ((operator == null) ? 0 : operator.hashCode());
-		result = prime * result + ((right == null) ? 0 : right.hashCode());
-		return result;
+		// all the fields are immutable: the hash is computed only once
+		int h = hash;
+		if (h == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((left == null) ? 0 : left.hashCode());
+			result = prime * result + ((operator == null) ? 0 : operator.hashCode());
+			result = prime * result + ((right == null) ? 0 : right.hashCode());
+			h = result;
+			hash = h;
+		}
+		return h;
 	}
 
 	@Override
@@ -119,6 +131,9 @@ public class BinaryExpression extends ValueExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		BinaryExpression other = (BinaryExpression) obj;
+		// cached hashes let us avoid visiting different trees
+		if (hashCode() != other.hashCode())
+			return false;
 		if (left == null) {
 			if (other.left != null)
 				return false;
@@ -36,6 +36,12 @@ public class TernaryExpression extends ValueExpression {
 	 */
 	private final TernaryOperator operator;
 
+	/**
+	 * The cached hash code of this expression, {@code 0} if it has not been
+	 * computed yet.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the binary expression.
 	 * 
@@ -118,13 +124,19 @@ public class TernaryExpression extends ValueExpression {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((left == null) ? 0 : left.hashCode());
-		result = prime * result + ((operator == null) ? 0 : operator.hashCode());
-		result = prime * result + ((right == null) ? 0 : right.hashCode());
-		result = prime * result + ((middle == null) ? 0 : middle.hashCode());
-		return result;
+		// all the fields are immutable: the hash is computed only once
+		int h = hash;
+		if (h == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((left == null) ? 0 : left.hashCode());
+			result = prime * result + ((operator == null) ? 0 : operator.hashCode());
+			result = prime * result + ((right == null) ? 0 : right.hashCode());
+			result = prime * result + ((middle == null) ? 0 : middle.hashCode());
+			h = result;
+			hash = h;
+		}
+		return h;
 	}
 
 	@Override
@@ -137,6 +149,9 @@ public class TernaryExpression extends ValueExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		TernaryExpression other = (TernaryExpression) obj;
+		// cached hashes let us avoid visiting different trees
+		if (hashCode() != other.hashCode())
+			return false;
 		if (left == null) {
 			if (other.left != null)
 				return false;
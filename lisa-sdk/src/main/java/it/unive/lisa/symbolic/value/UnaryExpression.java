@@ -29,6 +29,12 @@ public class UnaryExpression extends ValueExpression {
 	 */
 	private final UnaryOperator operator;
 
+	/**
+	 * The cached hash code of this expression, {@code 0} if it has not been
+	 * computed yet.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the unary expression.
 	 * 
@@ -106,11 +112,17 @@ public class UnaryExpression extends ValueExpression {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((expression == null) ? 0 : expression.hashCode());
-		result = prime * result + ((operator == null) ? 0 : operator.hashCode());
-		return result;
+		// all the fields are immutable: the hash is computed only once
+		int h = hash;
+		if (h == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((expression == null) ? 0 : expression.hashCode());
+			result = prime * result + ((operator == null) ? 0 : operator.hashCode());
+			h = result;
+			hash = h;
+		}
+		return h;
 	}
 
 	@Override
@@ -123,6 +135,9 @@ public class UnaryExpression extends ValueExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		UnaryExpression other = (UnaryExpression) obj;
+		// cached hashes let us avoid visiting different trees
+		if (hashCode() != other.hashCode())
+			return false;
 		if (expression == null) {
 			if (other.expression != null)
 				return false;
@@ -1,10 +1,14 @@
 package it.unive.lisa.type;
 
 import it.unive.lisa.program.Program;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -12,7 +16,13 @@ import java.util.stream.Collectors;
  * A type system, knowing about the types that can appear in a {@link Program}.
  * Types have to be registered through {@link #registerType(Type)} before the
  * analysis begins for them to be known to the system, and consequently to the
- * rest of the analysis.
+ * rest of the analysis. Instances of this class can be safely queried by
+ * several analysis threads at once.<br>
+ * <br>
+ * Each type system also owns an {@link ExternalSetCache} of types, that can be
+ * used to represent sets of types as bitsets (see {@link #mkTypeSet(Collection)},
+ * {@link #getTypeSet()} and {@link #getInstances(Type)}). Sets built from the
+ * same type system can be joined, intersected and compared word by word.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
@@ -23,12 +33,31 @@ public abstract class TypeSystem {
 	 */
 	private final Map<String, Type> types;
 
+	/**
+	 * The cache backing the sets of types built by this type system
+	 */
+	private final ExternalSetCache<Type> typeCache;
+
+	/**
+	 * The results of {@link #getInstances(Type)}, discarded whenever a new
+	 * type is registered
+	 */
+	private final Map<Type, ExternalSet<Type>> instances;
+
+	/**
+	 * The result of {@link #getTypeSet()}, discarded whenever a new type is
+	 * registered
+	 */
+	private volatile ExternalSet<Type> typeSet;
+
 	/**
 	 * Builds an empty type system, where only {@link #getBooleanType()},
 	 * {@link #getStringType()} and {@link #getIntegerType()} are registered.
 	 */
 	protected TypeSystem() {
-		this.types = new TreeMap<String, Type>();
+		this.types = new ConcurrentSkipListMap<String, Type>();
+		this.typeCache = new ExternalSetCache<>();
+		this.instances = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -41,6 +70,70 @@ public abstract class TypeSystem {
 		return new HashSet<>(types.values());
 	}
 
+	/**
+	 * Yields the {@link ExternalSetCache} backing the sets of types built by
+	 * this type system.
+	 * 
+	 * @return the cache of types
+	 */
+	public ExternalSetCache<Type> getTypeCache() {
+		return typeCache;
+	}
+
+	/**
+	 * Yields an {@link ExternalSet} backed by {@link #getTypeCache()} and
+	 * containing the given types. If {@code types} is already such a set, it
+	 * is returned as-is.
+	 * 
+	 * @param types the types
+	 * 
+	 * @return the set of types
+	 */
+	public ExternalSet<Type> mkTypeSet(
+			Collection<Type> types) {
+		if (types instanceof ExternalSet && ((ExternalSet<Type>) types).getCache() == typeCache)
+			return (ExternalSet<Type>) types;
+		return typeCache.mkSet(types);
+	}
+
+	/**
+	 * Yields the same types of {@link #getTypes()} as an {@link ExternalSet}
+	 * backed by {@link #getTypeCache()}. The set is computed once and then
+	 * shared between all callers until a new type is registered, and it is
+	 * thus {@link ExternalSet#unmodifiableView() unmodifiable}.
+	 * 
+	 * @return the set of all registered types
+	 */
+	public ExternalSet<Type> getTypeSet() {
+		ExternalSet<Type> result = typeSet;
+		if (result == null)
+			typeSet = result = typeCache.mkSet(types.values()).unmodifiableView();
+		return result;
+	}
+
+	/**
+	 * Yields the result of {@link Type#allInstances(TypeSystem)} for the given
+	 * type as an {@link ExternalSet} backed by {@link #getTypeCache()}. The set
+	 * is computed once per type and then shared between all callers until a
+	 * new type is registered, and it is thus
+	 * {@link ExternalSet#unmodifiableView() unmodifiable}.
+	 * 
+	 * @param type the type
+	 * 
+	 * @return the set of all instances of {@code type}
+	 */
+	public ExternalSet<Type> getInstances(
+			Type type) {
+		ExternalSet<Type> result = instances.get(type);
+		if (result == null) {
+			result = typeCache.mkSet(type.allInstances(this)).unmodifiableView();
+			ExternalSet<Type> prev = instances.putIfAbsent(type, result);
+			if (prev != null)
+				result = prev;
+		}
+		return result;
+	}
+
 	/**
 	 * Yields the {@link Type} instance with the given name.
 	 * 
@@ -64,7 +157,13 @@ public abstract class TypeSystem {
 	 */
 	public final boolean registerType(
 			Type type) {
-		return types.putIfAbsent(type.toString(), type) == null;
+		if (types.putIfAbsent(type.toString(), type) != null)
+			return false;
+
+		// new types might be instances of already known ones
+		typeSet = null;
+		instances.clear();
+		return true;
 	}
 
 	/**
@@ -44,7 +44,13 @@ public class TypeTokenType implements Type {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((types == null) ? 0 : types.hashCode());
+		// the hash of sets is the sum of the hashes of their elements, but
+		// external sets do not follow this contract
+		int hash = 0;
+		if (types != null)
+			for (Type t : types)
+				hash += t.hashCode();
+		result = prime * result + hash;
 		return result;
 	}
 
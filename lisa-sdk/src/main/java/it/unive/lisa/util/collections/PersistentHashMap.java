@@ -0,0 +1,748 @@
+package it.unive.lisa.util.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link Map} backed by a persistent hash array mapped trie, laid out as a
+ * compressed hash-array mapped prefix-tree (CHAMP). The nodes of the trie are
+ * immutable: updates copy only the path from the root to the modified entry,
+ * leaving the rest of the trie shared with the map before the update. This
+ * makes copying an instance through {@link #PersistentHashMap(Map)} a
+ * constant-time operation, while {@link #put(Object, Object)} and
+ * {@link #remove(Object)} cost {@code O(log n)} allocations. <br>
+ * <br>
+ * Instances of this class are mutable as any other {@link Map}: mutating
+ * methods replace the root of the trie, and do not affect copies of the map
+ * or iterators that were created before the mutation. Since maps that share
+ * their history also share portions of their tries, differences between two
+ * instances can be computed with {@link #keysDifferingFrom(PersistentHashMap)}
+ * by skipping all shared sub-tries by reference. This class is not
+ * thread-safe, and supports {@code null} keys and values.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+	/**
+	 * The number of hash bits consumed at each level of the trie.
+	 */
+	private static final int BITS = 5;
+
+	/**
+	 * The mask selecting {@link #BITS} bits of a hash.
+	 */
+	private static final int MASK = (1 << BITS) - 1;
+
+	/**
+	 * The maximum depth of the trie: {@code ceil(32 / BITS)} levels of bitmap
+	 * nodes, plus one level of collision nodes.
+	 */
+	private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS + 1;
+
+	/**
+	 * Marker returned by lookups when the key is not part of the map, to
+	 * distinguish missing keys from keys mapped to {@code null}.
+	 */
+	private static final Object NOT_FOUND = new Object();
+
+	/**
+	 * The empty trie.
+	 */
+	private static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0]);
+
+	/**
+	 * The root of the trie.
+	 */
+	private Node root;
+
+	/**
+	 * The number of entries in the trie.
+	 */
+	private int size;
+
+	/**
+	 * Builds an empty map.
+	 */
+	public PersistentHashMap() {
+		this.root = EMPTY;
+		this.size = 0;
+	}
+
+	/**
+	 * Builds a map containing the same mappings of the given one. If
+	 * {@code other} is an instance of this class, this is a constant-time
+	 * operation as the two maps will share the same trie.
+	 * 
+	 * @param other the map to copy
+	 */
+	@SuppressWarnings("unchecked")
+	public PersistentHashMap(
+			Map<? extends K, ? extends V> other) {
+		if (other instanceof PersistentHashMap) {
+			PersistentHashMap<K, V> o = (PersistentHashMap<K, V>) other;
+			this.root = o.root;
+			this.size = o.size;
+		} else {
+			this.root = EMPTY;
+			this.size = 0;
+			for (Entry<? extends K, ? extends V> e : other.entrySet())
+				put(e.getKey(), e.getValue());
+		}
+	}
+
+	private static int hash(
+			Object key) {
+		int h = Objects.hashCode(key);
+		return h ^ (h >>> 16);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean containsKey(
+			Object key) {
+		return root.find(key, hash(key), 0) != NOT_FOUND;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(
+			Object key) {
+		Object res = root.find(key, hash(key), 0);
+		return res == NOT_FOUND ? null : (V) res;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(
+			K key,
+			V value) {
+		Change change = new Change();
+		root = root.put(key, value, hash(key), 0, change);
+		if (change.added)
+			size++;
+		return change.previous == NOT_FOUND ? null : (V) change.previous;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V remove(
+			Object key) {
+		Change change = new Change();
+		root = root.remove(key, hash(key), 0, change);
+		if (change.previous == NOT_FOUND)
+			return null;
+		size--;
+		return (V) change.previous;
+	}
+
+	@Override
+	public void clear() {
+		root = EMPTY;
+		size = 0;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<>() {
+
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public void clear() {
+				PersistentHashMap.this.clear();
+			}
+		};
+	}
+
+	/**
+	 * Yields the keys of this map that are not mapped, in {@code other}, to
+	 * the very same value (by reference) they are mapped to in this map. That
+	 * is, the keys that are either missing from {@code other} or that are
+	 * mapped to a different object. Sub-tries shared between the two maps are
+	 * skipped without visiting them, making this operation proportional to the
+	 * portion of the two maps that has been modified since they diverged from
+	 * a common copy.
+	 * 
+	 * @param other the other map
+	 * 
+	 * @return the keys whose mapping differs in the two maps
+	 */
+	public Collection<K> keysDifferingFrom(
+			PersistentHashMap<K, V> other) {
+		List<K> result = new ArrayList<>();
+		if (root != other.root)
+			diff(root, other.root, 0, result);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K> void diff(
+			Node node,
+			Node other,
+			int shift,
+			List<K> result) {
+		if (node == other)
+			return;
+
+		if (!(node instanceof BitmapNode) || !(other instanceof BitmapNode)) {
+			// collision nodes, or nodes of different shape: lookup each entry
+			collectMissing(node, other, shift, result);
+			return;
+		}
+
+		BitmapNode n = (BitmapNode) node;
+		BitmapNode o = (BitmapNode) other;
+		for (int i = 0; i < n.payloadArity(); i++) {
+			Object key = n.keyAt(i);
+			if (o.find(key, hash(key), shift) != n.valueAt(i))
+				result.add((K) key);
+		}
+
+		for (int i = 0; i < n.nodeArity(); i++) {
+			Node sub = n.nodeAt(i);
+			int bit = n.nodeBit(i);
+			if ((o.nodeMap & bit) != 0)
+				diff(sub, o.nodeAt(index(o.nodeMap, bit)), shift + BITS, result);
+			else
+				collectMissing(sub, o, shift, result);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K> void collectMissing(
+			Node node,
+			Node other,
+			int shift,
+			List<K> result) {
+		Iterator<Object[]> it = new NodeIterator(node);
+		while (it.hasNext()) {
+			Object[] entry = it.next();
+			if (other.find(entry[0], hash(entry[0]), shift) != entry[1])
+				result.add((K) entry[0]);
+		}
+	}
+
+	@Override
+	public boolean equals(
+			Object o) {
+		if (o instanceof PersistentHashMap && ((PersistentHashMap<?, ?>) o).root == root)
+			return true;
+		return super.equals(o);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	private static int index(
+			int bitmap,
+			int bit) {
+		return Integer.bitCount(bitmap & (bit - 1));
+	}
+
+	/**
+	 * The outcome of an update operation on the trie.
+	 */
+	private static final class Change {
+
+		/**
+		 * The value previously associated with the key, or {@link #NOT_FOUND}.
+		 */
+		private Object previous = NOT_FOUND;
+
+		/**
+		 * Whether a new entry has been added to the trie.
+		 */
+		private boolean added = false;
+	}
+
+	/**
+	 * An immutable node of the trie.
+	 */
+	private abstract static class Node {
+
+		abstract Object find(
+				Object key,
+				int hash,
+				int shift);
+
+		abstract Node put(
+				Object key,
+				Object value,
+				int hash,
+				int shift,
+				Change change);
+
+		abstract Node remove(
+				Object key,
+				int hash,
+				int shift,
+				Change change);
+
+		abstract int payloadArity();
+
+		abstract Object keyAt(
+				int i);
+
+		abstract Object valueAt(
+				int i);
+
+		abstract int nodeArity();
+
+		abstract Node nodeAt(
+				int i);
+	}
+
+	/**
+	 * A node indexing its entries and its children through two bitmaps over
+	 * {@link #BITS} bits of the hash of the keys. Entries are stored inline as
+	 * key-value pairs at the beginning of {@link #content}, while children are
+	 * stored in reverse order at its end.
+	 */
+	private static final class BitmapNode extends Node {
+
+		private final int dataMap;
+
+		private final int nodeMap;
+
+		private final Object[] content;
+
+		private BitmapNode(
+				int dataMap,
+				int nodeMap,
+				Object[] content) {
+			this.dataMap = dataMap;
+			this.nodeMap = nodeMap;
+			this.content = content;
+		}
+
+		@Override
+		int payloadArity() {
+			return Integer.bitCount(dataMap);
+		}
+
+		@Override
+		Object keyAt(
+				int i) {
+			return content[2 * i];
+		}
+
+		@Override
+		Object valueAt(
+				int i) {
+			return content[2 * i + 1];
+		}
+
+		@Override
+		int nodeArity() {
+			return Integer.bitCount(nodeMap);
+		}
+
+		@Override
+		Node nodeAt(
+				int i) {
+			return (Node) content[content.length - 1 - i];
+		}
+
+		private int nodeBit(
+				int i) {
+			int map = nodeMap;
+			for (int j = 0; j < i; j++)
+				map &= map - 1;
+			return Integer.lowestOneBit(map);
+		}
+
+		@Override
+		Object find(
+				Object key,
+				int hash,
+				int shift) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((dataMap & bit) != 0) {
+				int idx = index(dataMap, bit);
+				return Objects.equals(key, content[2 * idx]) ? content[2 * idx + 1] : NOT_FOUND;
+			}
+			if ((nodeMap & bit) != 0)
+				return nodeAt(index(nodeMap, bit)).find(key, hash, shift + BITS);
+			return NOT_FOUND;
+		}
+
+		@Override
+		Node put(
+				Object key,
+				Object value,
+				int hash,
+				int shift,
+				Change change) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((dataMap & bit) != 0) {
+				int idx = index(dataMap, bit);
+				Object current = content[2 * idx];
+				if (Objects.equals(key, current)) {
+					change.previous = content[2 * idx + 1];
+					if (current == key && change.previous == value)
+						return this;
+					Object[] copy = content.clone();
+					copy[2 * idx] = key;
+					copy[2 * idx + 1] = value;
+					return new BitmapNode(dataMap, nodeMap, copy);
+				}
+
+				change.added = true;
+				Node sub = merge(current, content[2 * idx + 1], hash(current), key, value, hash, shift + BITS);
+				return moveToNode(bit, idx, sub);
+			}
+
+			if ((nodeMap & bit) != 0) {
+				int idx = index(nodeMap, bit);
+				Node sub = nodeAt(idx);
+				Node updated = sub.put(key, value, hash, shift + BITS, change);
+				if (updated == sub)
+					return this;
+				Object[] copy = content.clone();
+				copy[content.length - 1 - idx] = updated;
+				return new BitmapNode(dataMap, nodeMap, copy);
+			}
+
+			change.added = true;
+			int idx = index(dataMap, bit);
+			Object[] copy = new Object[content.length + 2];
+			System.arraycopy(content, 0, copy, 0, 2 * idx);
+			copy[2 * idx] = key;
+			copy[2 * idx + 1] = value;
+			System.arraycopy(content, 2 * idx, copy, 2 * idx + 2, content.length - 2 * idx);
+			return new BitmapNode(dataMap | bit, nodeMap, copy);
+		}
+
+		@Override
+		Node remove(
+				Object key,
+				int hash,
+				int shift,
+				Change change) {
+			int bit = 1 << ((hash >>> shift) & MASK);
+			if ((dataMap & bit) != 0) {
+				int idx = index(dataMap, bit);
+				if (!Objects.equals(key, content[2 * idx]))
+					return this;
+				change.previous = content[2 * idx + 1];
+				Object[] copy = new Object[content.length - 2];
+				System.arraycopy(content, 0, copy, 0, 2 * idx);
+				System.arraycopy(content, 2 * idx + 2, copy, 2 * idx, content.length - 2 * idx - 2);
+				return new BitmapNode(dataMap ^ bit, nodeMap, copy);
+			}
+
+			if ((nodeMap & bit) != 0) {
+				int idx = index(nodeMap, bit);
+				Node sub = nodeAt(idx);
+				Node updated = sub.remove(key, hash, shift + BITS, change);
+				if (updated == sub)
+					return this;
+				if (updated.nodeArity() == 0 && updated.payloadArity() == 1)
+					// keep the trie canonical by inlining single entries
+					return moveToData(bit, idx, updated.keyAt(0), updated.valueAt(0));
+				Object[] copy = content.clone();
+				copy[content.length - 1 - idx] = updated;
+				return new BitmapNode(dataMap, nodeMap, copy);
+			}
+
+			return this;
+		}
+
+		private Node moveToNode(
+				int bit,
+				int dataIdx,
+				Node sub) {
+			int nodeIdx = index(nodeMap, bit);
+			Object[] copy = new Object[content.length - 1];
+			// entries before and after the moved one
+			System.arraycopy(content, 0, copy, 0, 2 * dataIdx);
+			int dataEnd = 2 * payloadArity();
+			System.arraycopy(content, 2 * dataIdx + 2, copy, 2 * dataIdx, dataEnd - 2 * dataIdx - 2);
+			// children, stored in reverse order
+			int newPos = copy.length - 1 - nodeIdx;
+			System.arraycopy(content, dataEnd, copy, dataEnd - 2, newPos - (dataEnd - 2));
+			copy[newPos] = sub;
+			System.arraycopy(content, newPos + 2, copy, newPos + 1, content.length - newPos - 2);
+			return new BitmapNode(dataMap ^ bit, nodeMap | bit, copy);
+		}
+
+		private Node moveToData(
+				int bit,
+				int nodeIdx,
+				Object key,
+				Object value) {
+			int dataIdx = index(dataMap, bit);
+			Object[] copy = new Object[content.length + 1];
+			System.arraycopy(content, 0, copy, 0, 2 * dataIdx);
+			copy[2 * dataIdx] = key;
+			copy[2 * dataIdx + 1] = value;
+			int dataEnd = 2 * payloadArity();
+			System.arraycopy(content, 2 * dataIdx, copy, 2 * dataIdx + 2, dataEnd - 2 * dataIdx);
+			// children, stored in reverse order, skipping the removed one
+			int oldPos = content.length - 1 - nodeIdx;
+			System.arraycopy(content, dataEnd, copy, dataEnd + 2, oldPos - dataEnd);
+			System.arraycopy(content, oldPos + 1, copy, oldPos + 2, content.length - oldPos - 1);
+			return new BitmapNode(dataMap | bit, nodeMap ^ bit, copy);
+		}
+
+		private static Node merge(
+				Object k1,
+				Object v1,
+				int h1,
+				Object k2,
+				Object v2,
+				int h2,
+				int shift) {
+			if (shift >= Integer.SIZE)
+				return new CollisionNode(new Object[] { k1, k2 }, new Object[] { v1, v2 });
+
+			int m1 = (h1 >>> shift) & MASK;
+			int m2 = (h2 >>> shift) & MASK;
+			if (m1 != m2) {
+				Object[] content = m1 < m2 ? new Object[] { k1, v1, k2, v2 } : new Object[] { k2, v2, k1, v1 };
+				return new BitmapNode((1 << m1) | (1 << m2), 0, content);
+			}
+
+			Node sub = merge(k1, v1, h1, k2, v2, h2, shift + BITS);
+			return new BitmapNode(0, 1 << m1, new Object[] { sub });
+		}
+	}
+
+	/**
+	 * A node holding entries whose keys have the same full hash.
+	 */
+	private static final class CollisionNode extends Node {
+
+		private final Object[] keys;
+
+		private final Object[] values;
+
+		private CollisionNode(
+				Object[] keys,
+				Object[] values) {
+			this.keys = keys;
+			this.values = values;
+		}
+
+		private int indexOf(
+				Object key) {
+			for (int i = 0; i < keys.length; i++)
+				if (Objects.equals(key, keys[i]))
+					return i;
+			return -1;
+		}
+
+		@Override
+		int payloadArity() {
+			return keys.length;
+		}
+
+		@Override
+		Object keyAt(
+				int i) {
+			return keys[i];
+		}
+
+		@Override
+		Object valueAt(
+				int i) {
+			return values[i];
+		}
+
+		@Override
+		int nodeArity() {
+			return 0;
+		}
+
+		@Override
+		Node nodeAt(
+				int i) {
+			throw new IndexOutOfBoundsException(i);
+		}
+
+		@Override
+		Object find(
+				Object key,
+				int hash,
+				int shift) {
+			int idx = indexOf(key);
+			return idx < 0 ? NOT_FOUND : values[idx];
+		}
+
+		@Override
+		Node put(
+				Object key,
+				Object value,
+				int hash,
+				int shift,
+				Change change) {
+			int idx = indexOf(key);
+			if (idx >= 0) {
+				change.previous = values[idx];
+				if (keys[idx] == key && values[idx] == value)
+					return this;
+				Object[] k = keys.clone();
+				Object[] v = values.clone();
+				k[idx] = key;
+				v[idx] = value;
+				return new CollisionNode(k, v);
+			}
+
+			change.added = true;
+			Object[] k = new Object[keys.length + 1];
+			Object[] v = new Object[values.length + 1];
+			System.arraycopy(keys, 0, k, 0, keys.length);
+			System.arraycopy(values, 0, v, 0, values.length);
+			k[keys.length] = key;
+			v[values.length] = value;
+			return new CollisionNode(k, v);
+		}
+
+		@Override
+		Node remove(
+				Object key,
+				int hash,
+				int shift,
+				Change change) {
+			int idx = indexOf(key);
+			if (idx < 0)
+				return this;
+			change.previous = values[idx];
+			Object[] k = new Object[keys.length - 1];
+			Object[] v = new Object[values.length - 1];
+			System.arraycopy(keys, 0, k, 0, idx);
+			System.arraycopy(keys, idx + 1, k, idx, keys.length - idx - 1);
+			System.arraycopy(values, 0, v, 0, idx);
+			System.arraycopy(values, idx + 1, v, idx, values.length - idx - 1);
+			return new CollisionNode(k, v);
+		}
+	}
+
+	/**
+	 * An iterator over the entries of a trie, yielding them as
+	 * {@code [key, value]} pairs.
+	 */
+	private static class NodeIterator implements Iterator<Object[]> {
+
+		private final Node[] stack = new Node[MAX_DEPTH + 1];
+
+		private final int[] dataPos = new int[MAX_DEPTH + 1];
+
+		private final int[] nodePos = new int[MAX_DEPTH + 1];
+
+		private int depth;
+
+		private NodeIterator(
+				Node root) {
+			stack[0] = root;
+			depth = 0;
+			advance();
+		}
+
+		private void advance() {
+			while (depth >= 0) {
+				Node top = stack[depth];
+				if (dataPos[depth] < top.payloadArity())
+					return;
+				if (nodePos[depth] < top.nodeArity()) {
+					Node child = top.nodeAt(nodePos[depth]++);
+					depth++;
+					stack[depth] = child;
+					dataPos[depth] = 0;
+					nodePos[depth] = 0;
+				} else
+					depth--;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return depth >= 0;
+		}
+
+		@Override
+		public Object[] next() {
+			if (depth < 0)
+				throw new NoSuchElementException();
+			Node top = stack[depth];
+			int i = dataPos[depth]++;
+			Object[] result = new Object[] { top.keyAt(i), top.valueAt(i) };
+			advance();
+			return result;
+		}
+	}
+
+	/**
+	 * An iterator over the entries of this map. The iterator works on the trie
+	 * that was the root of the map when it was created, and it is thus not
+	 * affected by later modifications.
+	 */
+	private class EntryIterator implements Iterator<Entry<K, V>> {
+
+		private final NodeIterator it = new NodeIterator(root);
+
+		private Object[] last;
+
+		@Override
+		public boolean hasNext() {
+			return it.hasNext();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Entry<K, V> next() {
+			last = it.next();
+			K key = (K) last[0];
+			return new SimpleEntry<>(key, (V) last[1]) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public V setValue(
+						V value) {
+					super.setValue(value);
+					return put(key, value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			if (last == null)
+				throw new IllegalStateException();
+			PersistentHashMap.this.remove(last[0]);
+			last = null;
+		}
+	}
+}
@@ -138,6 +138,7 @@ public final class BitExternalSet<T> implements ExternalSet<T> {
 	@Override
 	public void addAll(
 			ExternalSet<T> other) {
+		other = UnmodifiableExternalSet.unwrap(other);
 		if (this == other)
 			return;
 		if (other == null)
@@ -254,7 +255,9 @@ public final class BitExternalSet<T> implements ExternalSet<T> {
 			// set.equals() will check for elements
 			return obj.equals(this);
 
-		ExternalSet other = (ExternalSet) obj;
+		ExternalSet other = UnmodifiableExternalSet.unwrap((ExternalSet) obj);
+		if (this == other)
+			return true;
 		if (cache != other.getCache() || !(other instanceof BitExternalSet)) {
 			// we make them have the same cache and be backed by the a bitset
 			BitExternalSet o = (BitExternalSet) cache.mkSet(other);
@@ -281,6 +284,7 @@ public final class BitExternalSet<T> implements ExternalSet<T> {
 	@Override
 	public boolean contains(
 			ExternalSet<T> other) {
+		other = UnmodifiableExternalSet.unwrap(other);
 		if (this == other)
 			return true;
 		if (other == null)
@@ -309,6 +313,7 @@ public final class BitExternalSet<T> implements ExternalSet<T> {
 	@Override
 	public boolean intersects(
 			ExternalSet<T> other) {
+		other = UnmodifiableExternalSet.unwrap(other);
 		if (this == other)
 			return true;
 		if (other == null)
@@ -333,6 +338,7 @@ public final class BitExternalSet<T> implements ExternalSet<T> {
 	@Override
 	public ExternalSet<T> intersection(
 			ExternalSet<T> other) {
+		other = UnmodifiableExternalSet.unwrap(other);
 		if (this == other)
 			return this;
 		if (other == null)
@@ -372,6 +378,7 @@ public final class BitExternalSet<T> implements ExternalSet<T> {
 	@Override
 	public ExternalSet<T> difference(
 			ExternalSet<T> other) {
+		other = UnmodifiableExternalSet.unwrap(other);
 		if (this == other)
 			return this;
 		if (other == null)
@@ -402,6 +409,7 @@ public final class BitExternalSet<T> implements ExternalSet<T> {
 	@Override
 	public ExternalSet<T> union(
 			ExternalSet<T> other) {
+		other = UnmodifiableExternalSet.unwrap(other);
 		if (this == other)
 			return this;
 		if (other == null)
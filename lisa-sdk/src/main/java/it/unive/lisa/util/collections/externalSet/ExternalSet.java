@@ -30,6 +30,17 @@ public interface ExternalSet<T> extends Set<T> {
 	 */
 	ExternalSetCache<T> getCache();
 
+	/**
+	 * Yields an unmodifiable view of this set, that reflects its contents but
+	 * rejects every modification. Views can be shared with code that must not
+	 * modify this set.
+	 * 
+	 * @return the unmodifiable view
+	 */
+	default ExternalSet<T> unmodifiableView() {
+		return new UnmodifiableExternalSet<>(this);
+	}
+
 	/**
 	 * Adds to this set all elements contained into {@code other}. This method
 	 * is faster than {@link #addAll(Collection)} since it directly operates on
@@ -1,15 +1,21 @@
 package it.unive.lisa.util.collections.externalSet;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A cache for creating {@link ExternalSet}s of the elements contained in this
- * cache.
+ * cache.<br>
+ * <br>
+ * Instances of this class can be shared between threads. Reading from the
+ * cache ({@link #indexOf(Object)}, {@link #get(int)}, {@link #size()}) never
+ * acquires locks: elements are stored in an append-only sequence of
+ * fixed-size segments, and each new element is published by writing it
+ * before the volatile size of the cache and its entry in a concurrent index
+ * map. Only the insertion of new elements is synchronized.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -18,24 +24,43 @@ import java.util.Map;
 public class ExternalSetCache<T> {
 
 	/**
-	 * The collection of elements in this cache
+	 * The number of bits of an index that select the position inside a
+	 * segment
 	 */
-	private final List<T> elements = new ArrayList<>(16);
+	private static final int SEGMENT_BITS = 8;
+
+	/**
+	 * The number of elements in each segment
+	 */
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+	/**
+	 * The mask selecting the position inside a segment
+	 */
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	/**
+	 * The segments containing the elements in this cache. Segments are never
+	 * moved or shrunk, and the array is replaced by a bigger copy when it is
+	 * full.
+	 */
+	private volatile Object[][] segments = new Object[1][];
 
 	/**
 	 * A map from the elements to their index
 	 */
-	private final Map<T, Integer> indexes = new HashMap<>(16);
+	private final Map<T, Integer> indexes = new ConcurrentHashMap<>(16);
 
 	/**
-	 * The next index available for new elements
+	 * The number of elements in this cache, that is also the next index
+	 * available for new elements
 	 */
-	private int nextIndex = 0;
+	private volatile int size = 0;
 
 	/**
 	 * The index assigned to the {@code null} key, if any.
 	 */
-	private int indexOfNull = -1;
+	private volatile int indexOfNull = -1;
 
 	/**
 	 * Builds an empty {@link ExternalSet} that uses this cache.
@@ -89,7 +114,7 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the index of {@code e}, or {@code -1}
 	 */
-	protected final synchronized int indexOf(
+	protected final int indexOf(
 			T e) {
 		if (e == null)
 			return indexOfNull;
@@ -106,24 +131,43 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the index of {@code e}
 	 */
-	protected final synchronized int indexOfOrAdd(
+	protected final int indexOfOrAdd(
 			T e) {
-		if (e == null) {
-			if (indexOfNull == -1) {
-				elements.add(null);
-				indexOfNull = nextIndex++;
-			}
-			return indexOfNull;
-		}
-
-		Integer result = indexes.get(e);
-		if (result == null)
-			return indexes.computeIfAbsent(e, el -> {
-				elements.add(e);
-				return nextIndex++;
-			});
+		int result = indexOf(e);
+		return result != -1 ? result : add(e);
+	}
 
-		return result;
+	/**
+	 * Adds the given element to this cache, if it is not already present.
+	 * 
+	 * @param e the element
+	 * 
+	 * @return the index of {@code e}
+	 */
+	private synchronized int add(
+			T e) {
+		// another thread might have added the element in the meantime
+		int result = indexOf(e);
+		if (result != -1)
+			return result;
+
+		int pos = size;
+		Object[][] segs = segments;
+		int seg = pos >>> SEGMENT_BITS;
+		if (seg == segs.length)
+			segs = Arrays.copyOf(segs, segs.length * 2);
+		if (segs[seg] == null)
+			segs[seg] = new Object[SEGMENT_SIZE];
+		segs[seg][pos & SEGMENT_MASK] = e;
+
+		// the element is published before its index becomes visible
+		segments = segs;
+		size = pos + 1;
+		if (e == null)
+			indexOfNull = pos;
+		else
+			indexes.put(e, pos);
+		return pos;
 	}
 
 	/**
@@ -133,19 +177,22 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the element
 	 */
-	protected final synchronized T get(
+	@SuppressWarnings("unchecked")
+	protected final T get(
 			int pos) {
-		return elements.get(pos);
+		if (pos < 0 || pos >= size)
+			throw new IndexOutOfBoundsException("Index " + pos + " out of bounds for length " + size);
+		return (T) segments[pos >>> SEGMENT_BITS][pos & SEGMENT_MASK];
 	}
 
 	/**
 	 * Cleans the cache, removing all elements.
 	 */
 	public final synchronized void clear() {
-		elements.clear();
+		size = 0;
 		indexes.clear();
 		indexOfNull = -1;
-		nextIndex = 0;
+		segments = new Object[1][];
 	}
 
 	/**
@@ -153,22 +200,41 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the number of elements
 	 */
-	public final synchronized int size() {
-		return elements.size();
+	public final int size() {
+		return size;
 	}
 
 	@Override
-	public final synchronized String toString() {
-		return elements.toString();
+	public final String toString() {
+		return getAllElements().toString();
 	}
 
 	/**
 	 * Yields an unmodifiable view of all the elements currently in the cache.
-	 * For a view that always stays up-to-date, use {@link #mkUniversalSet()}.
+	 * The view does not include elements added after this method returns: for
+	 * a view that always stays up-to-date, use {@link #mkUniversalSet()}.
 	 * 
 	 * @return a view of the elements inside this cache
 	 */
-	synchronized Collection<T> getAllElements() {
-		return Collections.unmodifiableCollection(elements);
+	Collection<T> getAllElements() {
+		// size is read before the segments, that are published before it
+		int length = size;
+		Object[][] segs = segments;
+		return new AbstractList<T>() {
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public T get(
+					int index) {
+				if (index < 0 || index >= length)
+					throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+				return (T) segs[index >>> SEGMENT_BITS][index & SEGMENT_MASK];
+			}
+
+			@Override
+			public int size() {
+				return length;
+			}
+		};
 	}
 }
@@ -115,6 +115,11 @@ public final class UniversalExternalSet<T> implements ExternalSet<T> {
 		return cache;
 	}
 
+	@Override
+	public ExternalSet<T> unmodifiableView() {
+		return this;
+	}
+
 	/**
 	 * Copying an {@link UniversalExternalSet} yields a {@link BitExternalSet}
 	 * representing a snapshot of the actual state of the cache.<br>
@@ -0,0 +1,235 @@
+package it.unive.lisa.util.collections.externalSet;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * An unmodifiable view of another {@link ExternalSet}, that can be shared
+ * without exposing the viewed set to modifications. Operations that do not
+ * modify the set are delegated to the viewed one: in particular, operations
+ * between sets are still carried out on the underlying bits when the viewed set
+ * is a {@link BitExternalSet}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <T> the type of elements inside this set
+ */
+public final class UnmodifiableExternalSet<T> implements ExternalSet<T> {
+
+	private static final String CANNOT_PERFORM_ERROR = "Cannot %s elements of an unmodifiable view of an external set";
+
+	/**
+	 * The viewed set.
+	 */
+	private final ExternalSet<T> set;
+
+	/**
+	 * Builds a view of the given set.
+	 * 
+	 * @param set the set to view
+	 */
+	UnmodifiableExternalSet(
+			ExternalSet<T> set) {
+		this.set = set;
+	}
+
+	/**
+	 * Yields the set viewed by {@code set}, if it is an
+	 * {@link UnmodifiableExternalSet}, or {@code set} itself otherwise.
+	 * 
+	 * @param <T> the type of elements inside the set
+	 * @param set the set
+	 * 
+	 * @return the viewed set
+	 */
+	static <T> ExternalSet<T> unwrap(
+			ExternalSet<T> set) {
+		return set instanceof UnmodifiableExternalSet ? ((UnmodifiableExternalSet<T>) set).set : set;
+	}
+
+	private ExternalSet<T> rewrap(
+			ExternalSet<T> result,
+			ExternalSet<T> other,
+			ExternalSet<T> unwrapped) {
+		// the viewed sets must not escape through the results
+		if (result == set)
+			return this;
+		if (result == unwrapped)
+			return other;
+		return result;
+	}
+
+	@Override
+	public ExternalSetCache<T> getCache() {
+		return set.getCache();
+	}
+
+	@Override
+	public ExternalSet<T> unmodifiableView() {
+		return this;
+	}
+
+	@Override
+	public int size() {
+		return set.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return set.isEmpty();
+	}
+
+	@Override
+	public boolean contains(
+			Object o) {
+		return set.contains(o);
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		Iterator<T> it = set.iterator();
+		return new Iterator<>() {
+
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			@Override
+			public T next() {
+				return it.next();
+			}
+		};
+	}
+
+	@Override
+	public Object[] toArray() {
+		return set.toArray();
+	}
+
+	@Override
+	public <E> E[] toArray(
+			E[] a) {
+		return set.toArray(a);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean containsAll(
+			Collection<?> c) {
+		return c instanceof ExternalSet ? set.containsAll(unwrap((ExternalSet<T>) c)) : set.containsAll(c);
+	}
+
+	@Override
+	public boolean add(
+			T e) {
+		throw new UnsupportedOperationException(String.format(CANNOT_PERFORM_ERROR, "add"));
+	}
+
+	@Override
+	public boolean remove(
+			Object o) {
+		throw new UnsupportedOperationException(String.format(CANNOT_PERFORM_ERROR, "remove"));
+	}
+
+	@Override
+	public boolean addAll(
+			Collection<? extends T> c) {
+		throw new UnsupportedOperationException(String.format(CANNOT_PERFORM_ERROR, "add"));
+	}
+
+	@Override
+	public void addAll(
+			ExternalSet<T> other) {
+		throw new UnsupportedOperationException(String.format(CANNOT_PERFORM_ERROR, "add"));
+	}
+
+	@Override
+	public boolean retainAll(
+			Collection<?> c) {
+		throw new UnsupportedOperationException(String.format(CANNOT_PERFORM_ERROR, "remove"));
+	}
+
+	@Override
+	public boolean removeAll(
+			Collection<?> c) {
+		throw new UnsupportedOperationException(String.format(CANNOT_PERFORM_ERROR, "remove"));
+	}
+
+	@Override
+	public boolean removeIf(
+			Predicate<? super T> filter) {
+		throw new UnsupportedOperationException(String.format(CANNOT_PERFORM_ERROR, "remove"));
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException(String.format(CANNOT_PERFORM_ERROR, "remove"));
+	}
+
+	/**
+	 * Copying an {@link UnmodifiableExternalSet} yields a modifiable copy of
+	 * the viewed set.<br>
+	 * <br>
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ExternalSet<T> copy() {
+		return set.copy();
+	}
+
+	@Override
+	public boolean contains(
+			ExternalSet<T> other) {
+		return set.contains(unwrap(other));
+	}
+
+	@Override
+	public boolean intersects(
+			ExternalSet<T> other) {
+		return set.intersects(unwrap(other));
+	}
+
+	@Override
+	public ExternalSet<T> intersection(
+			ExternalSet<T> other) {
+		ExternalSet<T> unwrapped = unwrap(other);
+		return rewrap(set.intersection(unwrapped), other, unwrapped);
+	}
+
+	@Override
+	public ExternalSet<T> difference(
+			ExternalSet<T> other) {
+		ExternalSet<T> unwrapped = unwrap(other);
+		return rewrap(set.difference(unwrapped), other, unwrapped);
+	}
+
+	@Override
+	public ExternalSet<T> union(
+			ExternalSet<T> other) {
+		ExternalSet<T> unwrapped = unwrap(other);
+		return rewrap(set.union(unwrapped), other, unwrapped);
+	}
+
+	@Override
+	public int hashCode() {
+		return set.hashCode();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(
+			Object obj) {
+		if (this == obj)
+			return true;
+		if (obj instanceof ExternalSet)
+			return set.equals(unwrap((ExternalSet<T>) obj));
+		return set.equals(obj);
+	}
+
+	@Override
+	public String toString() {
+		return set.toString();
+	}
+}
@@ -2,12 +2,15 @@ package it.unive.lisa.util.collections.workset;
 
 import java.util.Collection;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Set;
 
 /**
  * A LIFO working set that guarantees that, at any time, the same element cannot
  * appear more than once in it. It works by pushing elements <i>only</i> if they
- * are not already part of the working set. This implementation is <b>not</b>
+ * are not already part of the working set, that is tracked through a hash set
+ * to make each push cost constant time. This implementation is <b>not</b>
  * thread-safe.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
@@ -18,8 +21,11 @@ public final class DuplicateFreeFIFOWorkingSet<E> implements WorkingSet<E> {
 
 	private final Deque<E> ws;
 
+	private final Set<E> contents;
+
 	private DuplicateFreeFIFOWorkingSet() {
 		ws = new LinkedList<>();
+		contents = new HashSet<>();
 	}
 
 	/**
@@ -37,13 +43,15 @@ public final class DuplicateFreeFIFOWorkingSet<E> implements WorkingSet<E> {
 	@Override
 	public void push(
 			E e) {
-		if (!ws.contains(e))
+		if (contents.add(e))
 			ws.addLast(e);
 	}
 
 	@Override
 	public E pop() {
-		return ws.removeFirst();
+		E e = ws.removeFirst();
+		contents.remove(e);
+		return e;
 	}
 
 	@Override
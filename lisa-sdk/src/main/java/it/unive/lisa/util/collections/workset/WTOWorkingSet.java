@@ -0,0 +1,156 @@
+package it.unive.lisa.util.collections.workset;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A working set that pops elements according to a given order, that is meant
+ * to be a weak topological order of the nodes of a graph (see
+ * {@link it.unive.lisa.util.datastructures.graph.algorithms.WeakTopologicalOrder}).
+ * When used by a fixpoint, this lets the nodes of an inner loop stabilize
+ * before the code following it is evaluated again. Fixpoint algorithms set the
+ * order through {@link #setOrder(List)} before pushing their starting points.
+ * Elements that are not part of the order are popped after all other ones, in
+ * FIFO order. The working set guarantees that, at any time, the same element
+ * cannot appear more than once in it. This implementation is <b>not</b>
+ * thread-safe.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <E> the type of the elements that this working set contains
+ */
+public final class WTOWorkingSet<E> implements WorkingSet<E> {
+
+	private final Map<E, Integer> priorities;
+
+	private final PriorityQueue<Element<E>> ws;
+
+	private final Set<E> contents;
+
+	private long pushed;
+
+	private WTOWorkingSet() {
+		priorities = new HashMap<>();
+		ws = new PriorityQueue<>();
+		contents = new HashSet<>();
+		pushed = 0;
+	}
+
+	/**
+	 * Yields a new, empty working set.
+	 * 
+	 * @param <E> the type of the elements that the returned working set
+	 *                contains
+	 * 
+	 * @return the new working set
+	 */
+	public static <E> WTOWorkingSet<E> mk() {
+		return new WTOWorkingSet<>();
+	}
+
+	/**
+	 * Sets the order in which elements are popped from this working set,
+	 * replacing the previous one. Elements already in the working set are
+	 * reordered accordingly.
+	 * 
+	 * @param order the elements, in the order they should be popped
+	 */
+	public void setOrder(
+			List<? extends E> order) {
+		priorities.clear();
+		int i = 0;
+		for (E e : order)
+			priorities.putIfAbsent(e, i++);
+
+		if (!ws.isEmpty()) {
+			List<Element<E>> elements = new ArrayList<>(ws);
+			ws.clear();
+			for (Element<E> e : elements)
+				ws.add(new Element<>(e.element, priority(e.element), e.sequence));
+		}
+	}
+
+	private int priority(
+			E e) {
+		return priorities.getOrDefault(e, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public void push(
+			E e) {
+		if (contents.add(e))
+			ws.add(new Element<>(e, priority(e), pushed++));
+	}
+
+	@Override
+	public E pop() {
+		E e = ws.remove().element;
+		contents.remove(e);
+		return e;
+	}
+
+	@Override
+	public E peek() {
+		Element<E> e = ws.peek();
+		return e == null ? null : e.element;
+	}
+
+	@Override
+	public int size() {
+		return ws.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return ws.isEmpty();
+	}
+
+	@Override
+	public Collection<E> getContents() {
+		return Collections.unmodifiableSet(contents);
+	}
+
+	@Override
+	public String toString() {
+		List<Element<E>> elements = new ArrayList<>(ws);
+		Collections.sort(elements);
+		List<E> result = new ArrayList<>(elements.size());
+		for (Element<E> e : elements)
+			result.add(e.element);
+		return result.toString();
+	}
+
+	private static final class Element<E> implements Comparable<Element<E>> {
+
+		private final E element;
+
+		private final int priority;
+
+		private final long sequence;
+
+		private Element(
+				E element,
+				int priority,
+				long sequence) {
+			this.element = element;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(
+				Element<E> o) {
+			int cmp = Integer.compare(priority, o.priority);
+			if (cmp != 0)
+				return cmp;
+			return Long.compare(sequence, o.sequence);
+		}
+	}
+}
@@ -64,6 +64,27 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	protected Optional<Boolean> minimized;
 
+	/**
+	 * The index of the transitions of this automaton, built lazily.
+	 */
+	private TransitionTable<T> table;
+
+	/**
+	 * The minimal automaton equivalent to this one, if it has already been
+	 * computed. This is never returned to callers, that receive copies of it.
+	 */
+	private A minimal;
+
+	/**
+	 * The number of modifications this automaton underwent.
+	 */
+	private int version;
+
+	/**
+	 * The canonical form of this automaton, built lazily.
+	 */
+	private CanonicalForm canonical;
+
 	/**
 	 * Builds an empty automaton.
 	 */
@@ -95,21 +116,27 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	}
 
 	/**
-	 * Yields the set of states of this automaton.
+	 * Yields the set of states of this automaton. The returned set is an
+	 * unmodifiable view: states can only be changed through the methods of
+	 * this class, so that the information cached for this automaton is reset
+	 * accordingly.
 	 * 
 	 * @return the set of states
 	 */
 	public SortedSet<State> getStates() {
-		return states;
+		return Collections.unmodifiableSortedSet(states);
 	}
 
 	/**
-	 * Yields the set of transitions contained in this automaton.
+	 * Yields the set of transitions contained in this automaton. The returned
+	 * set is an unmodifiable view: transitions can only be changed through the
+	 * methods of this class, so that the information cached for this automaton
+	 * is reset accordingly.
 	 * 
 	 * @return the set of transitions
 	 */
 	public SortedSet<Transition<T>> getTransitions() {
-		return transitions;
+		return Collections.unmodifiableSortedSet(transitions);
 	}
 
 	/**
@@ -125,8 +152,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 		if (states.stream().filter(ss -> ss.getId() == s.getId()).findAny().isPresent())
 			throw new IllegalArgumentException("A state with id " + s.getId() + " aready exists");
 		states.add(s);
-		this.deterministic = Optional.empty();
-		this.minimized = Optional.empty();
+		changed();
 	}
 
 	/**
@@ -153,8 +179,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	public void addTransition(
 			Transition<T> t) {
 		transitions.add(t);
-		this.deterministic = Optional.empty();
-		this.minimized = Optional.empty();
+		changed();
 	}
 
 	/**
@@ -166,8 +191,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	public void removeTransitions(
 			Set<Transition<T>> ts) {
 		transitions.removeAll(ts);
-		this.deterministic = Optional.empty();
-		this.minimized = Optional.empty();
+		changed();
 	}
 
 	/**
@@ -178,13 +202,69 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	public void removeStates(
 			Set<State> ts) {
 		states.removeAll(ts);
+		changed();
+	}
+
+	/**
+	 * Resets all the information that is computed lazily and cached for this
+	 * automaton. This is invoked by all the methods of this class that modify
+	 * its states or transitions, and subclasses modifying the underlying sets
+	 * directly should invoke it afterwards.
+	 */
+	protected void changed() {
 		this.deterministic = Optional.empty();
 		this.minimized = Optional.empty();
+		this.table = null;
+		this.minimal = null;
+		this.canonical = null;
+		this.version++;
 	}
 
 	/**
-	 * Yields a minimal automaton equivalent to this one through Brzozowski's
-	 * minimization algorithm. <br>
+	 * Yields the canonical form of this automaton, building it if needed.
+	 * 
+	 * @return the canonical form
+	 */
+	CanonicalForm canonicalForm() {
+		if (canonical == null)
+			canonical = new CanonicalForm(this);
+		return canonical;
+	}
+
+	/**
+	 * Yields the index of the transitions of this automaton, building it if
+	 * needed.
+	 * 
+	 * @return the index
+	 */
+	TransitionTable<T> table() {
+		if (table == null || table.isOutdated(version))
+			table = new TransitionTable<>(states, transitions, version);
+		return table;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Transition<T>[] outgoing(
+			State s) {
+		TransitionTable<T> table = table();
+		int index = table.indexOf(s);
+		return index < 0 ? new Transition[0] : table.outgoing(index);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Transition<T>[] ingoing(
+			State s) {
+		TransitionTable<T> table = table();
+		int index = table.indexOf(s);
+		return index < 0 ? new Transition[0] : table.ingoing(index);
+	}
+
+	/**
+	 * Yields a minimal automaton equivalent to this one. The automaton is first
+	 * determinized if needed, and then minimized through Hopcroft's partition
+	 * refinement algorithm. The minimal automaton is cached until this
+	 * automaton is modified, and each invocation yields a fresh copy of it:
+	 * callers are free to modify the returned automaton.<br>
 	 * <br>
 	 * This automaton is never modified.
 	 * 
@@ -194,18 +274,20 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	public A minimize() {
 		if (minimized.isPresent() && minimized.get())
 			return (A) this;
-		A a = (A) this;
-		if (!isDeterministic())
-			a = determinize();
 
-		a = a.reverse().determinize();
-		a = a.removeUnreachableStates();
-		a = a.reverse().determinize();
-		a = a.removeUnreachableStates();
+		A min = minimal;
+		if (min == null) {
+			A a = (A) this;
+			if (!isDeterministic())
+				a = determinize();
+			min = new Minimization<>(a).minimize();
+			minimal = min;
+		}
 
-		a.deterministic = Optional.of(true);
-		a.minimized = Optional.of(true);
-		return a;
+		A copy = from(new TreeSet<>(min.states), new TreeSet<>(min.transitions));
+		copy.deterministic = Optional.of(true);
+		copy.minimized = Optional.of(true);
+		return copy;
 	}
 
 	/**
@@ -217,7 +299,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public SortedSet<Transition<T>> getOutgoingTransitionsFrom(
 			State s) {
-		return new TreeSet<>(transitions.stream().filter(t -> t.getSource().equals(s)).collect(Collectors.toSet()));
+		return new TreeSet<>(Arrays.asList(outgoing(s)));
 	}
 
 	/**
@@ -229,8 +311,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public SortedSet<Transition<T>> getIngoingTransitionsFrom(
 			State s) {
-		return new TreeSet<>(
-				transitions.stream().filter(t -> t.getDestination().equals(s)).collect(Collectors.toSet()));
+		return new TreeSet<>(Arrays.asList(ingoing(s)));
 	}
 
 	/**
@@ -295,7 +376,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 
 		do {
 			for (State s : ws)
-				for (Transition<T> t : getOutgoingTransitionsFrom(s))
+				for (Transition<T> t : outgoing(s))
 					temp.add(t.getDestination());
 
 			temp.removeAll(reachableStates);
@@ -364,7 +445,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 			partial = new TreeSet<>();
 
 			for (State reached : paths)
-				for (Transition<T> t : getOutgoingTransitionsFrom(reached))
+				for (Transition<T> t : outgoing(reached))
 					if (t.isEpsilonTransition())
 						partial.add(t.getDestination());
 
@@ -408,7 +489,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 			T sym) {
 		SortedSet<State> solution = new TreeSet<>();
 		for (State s : set)
-			for (Transition<T> t : getOutgoingTransitionsFrom(s))
+			for (Transition<T> t : outgoing(s))
 				if (t.getSymbol().equals(sym))
 					solution.add(t.getDestination());
 
@@ -446,7 +527,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 		SortedSet<T> result = new TreeSet<>();
 
 		for (State s : states)
-			for (Transition<T> t : getOutgoingTransitionsFrom(s))
+			for (Transition<T> t : outgoing(s))
 				if (!t.getSymbol().isEpsilon())
 					result.add(t.getSymbol());
 
@@ -465,7 +546,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 			State state) {
 		SortedSet<T> result = new TreeSet<>();
 
-		for (Transition<T> t : getOutgoingTransitionsFrom(state))
+		for (Transition<T> t : outgoing(state))
 			if (!t.getSymbol().isEpsilon())
 				result.add(t.getSymbol());
 
@@ -491,7 +572,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 
 		deterministic = Optional.of(false);
 		for (State s : states) {
-			Set<Transition<T>> outgoingTranisitions = getOutgoingTransitionsFrom(s);
+			Transition<T>[] outgoingTranisitions = outgoing(s);
 			for (Transition<T> t : outgoingTranisitions)
 				if (t.getSymbol().isEpsilon())
 					return false;
@@ -661,7 +742,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	public SortedSet<State> getNextStates(
 			State node) {
 		SortedSet<State> neighbors = new TreeSet<>();
-		for (Transition<T> edge : getOutgoingTransitionsFrom(node))
+		for (Transition<T> edge : outgoing(node))
 			neighbors.add(edge.getDestination());
 
 		return neighbors;
@@ -692,7 +773,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 
 		WorkingSet<Pair<String, Transition<T>>> ws = FIFOWorkingSet.mk();
 		for (State q : getInitialStates())
-			for (Transition<T> t : getOutgoingTransitionsFrom(q))
+			for (Transition<T> t : outgoing(q))
 				ws.push(Pair.of("", t));
 
 		while (!ws.isEmpty()) {
@@ -705,7 +786,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 			if (tr.getDestination().isFinal())
 				lang.add(currentString + sym);
 
-			for (Transition<T> t : getOutgoingTransitionsFrom(tr.getDestination()))
+			for (Transition<T> t : outgoing(tr.getDestination()))
 				ws.push(Pair.of(currentString + sym, t));
 		}
 
@@ -845,7 +926,13 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	/**
 	 * Yields {@code true} if and only if {@code this} is contained into
 	 * {@code other}, that is, if the language recognized by the intersection
-	 * between {@code this} and the complement of {@code other} is empty.
+	 * between {@code this} and the complement of {@code other} is empty. When
+	 * neither automaton has epsilon transitions, this is decided through an
+	 * antichain-based exploration of the product between {@code this} and the
+	 * determinization of {@code other}, that is built lazily and stops at the
+	 * first counterexample. The results computed between minimal automata are
+	 * memoized by their structure, and are thus reused for any pair of minimal
+	 * automata that are equal up to the ids of their states.
 	 * 
 	 * @param other the other automaton
 	 * 
@@ -853,6 +940,31 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public boolean isContained(
 			A other) {
+		if (hasEpsilonTransitions(this) || hasEpsilonTransitions(other) || other.getInitialState() == null)
+			return isContainedInComplement(other);
+
+		if (this == other)
+			return true;
+
+		if (!minimized.orElse(false) || !other.minimized.orElse(false))
+			return new Inclusion<>(this, other).holds();
+
+		CanonicalForm contained = canonicalForm();
+		CanonicalForm container = other.canonicalForm();
+		if (contained.equals(container))
+			return true;
+
+		Boolean cached = InclusionMemo.get(contained, container);
+		if (cached != null)
+			return cached;
+
+		boolean result = new Inclusion<>(this, other).holds();
+		InclusionMemo.put(contained, container, result);
+		return result;
+	}
+
+	private boolean isContainedInComplement(
+			A other) {
 		SortedSet<T> commonAlphabet = commonAlphabet(other);
 		A complement = other.complement(commonAlphabet);
 		A intersection = intersection(complement);
@@ -860,6 +972,14 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 		return minimal.acceptsEmptyLanguage();
 	}
 
+	private static boolean hasEpsilonTransitions(
+			Automaton<?, ?> automaton) {
+		for (Transition<?> t : automaton.transitions)
+			if (t.isEpsilonTransition())
+				return true;
+		return false;
+	}
+
 	/**
 	 * Checks if the automaton {@code this} accepts the same language as
 	 * {@code other}, implemented as:<br>
@@ -872,6 +992,9 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public boolean isEqualTo(
 			A other) {
+		if (this == other)
+			return true;
+
 		A o = (A) other;
 		if (!hasCycle() && !o.hasCycle())
 			try {
@@ -1900,7 +2023,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 			return false;
 
 		for (State s : getStates())
-			if (getOutgoingTransitionsFrom(s).size() > 1)
+			if (outgoing(s).length > 1)
 				return false;
 
 		return true;
@@ -0,0 +1,122 @@
+package it.unive.lisa.util.datastructures.automaton;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A representation of a deterministic {@link Automaton} that does not depend
+ * on the ids of its states. States reachable from the initial one are
+ * renumbered in breadth-first order, visiting the transitions leaving each
+ * state by increasing symbol, and only their finality and their transitions
+ * are kept. Since minimal deterministic automata recognizing the same language
+ * are equal up to a renaming of their states, they usually share the same
+ * canonical form. In any case, automata with equal canonical forms always
+ * recognize the same language.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+final class CanonicalForm {
+
+	private final boolean[] finals;
+
+	/**
+	 * The transitions leaving the {@code i}-th state are the ones between
+	 * {@code offsets[i]} (inclusive) and {@code offsets[i + 1]} (exclusive) in
+	 * {@link #symbols} and {@link #targets}.
+	 */
+	private final int[] offsets;
+
+	private final Object[] symbols;
+
+	private final int[] targets;
+
+	private final int hash;
+
+	/**
+	 * Builds the canonical form of the given automaton, that must have a
+	 * single initial state.
+	 * 
+	 * @param <T>       the concrete type of {@link TransitionSymbol}s that the
+	 *                      transitions of the automaton recognize
+	 * @param automaton the automaton
+	 */
+	<T extends TransitionSymbol<T>> CanonicalForm(
+			Automaton<?, T> automaton) {
+		TransitionTable<T> table = automaton.table();
+		State initial = automaton.getInitialState();
+		int n = table.size();
+		int m = 0;
+		for (int i = 0; i < n; i++)
+			m += table.outgoing(i).length;
+
+		int[] order = new int[n];
+		int[] renamed = new int[n];
+		Arrays.fill(renamed, -1);
+		int visited = 0;
+		if (initial != null) {
+			int index = table.indexOf(initial);
+			renamed[index] = 0;
+			order[visited++] = index;
+		}
+
+		Comparator<Transition<T>> bySymbol = (
+				t1,
+				t2) -> t1.getSymbol().compareTo(t2.getSymbol());
+		int[] offsets = new int[n + 1];
+		Object[] symbols = new Object[m];
+		int[] targets = new int[m];
+		int count = 0;
+		for (int i = 0; i < visited; i++) {
+			offsets[i] = count;
+			Transition<T>[] out = table.outgoing(order[i]).clone();
+			Arrays.sort(out, bySymbol);
+			for (Transition<T> t : out) {
+				int dest = table.indexOf(t.getDestination());
+				if (renamed[dest] < 0) {
+					renamed[dest] = visited;
+					order[visited++] = dest;
+				}
+				symbols[count] = t.getSymbol();
+				targets[count++] = renamed[dest];
+			}
+		}
+		offsets[visited] = count;
+
+		this.finals = new boolean[visited];
+		for (int i = 0; i < visited; i++)
+			finals[i] = table.state(order[i]).isFinal();
+		this.offsets = Arrays.copyOf(offsets, visited + 1);
+		this.symbols = Arrays.copyOf(symbols, count);
+		this.targets = Arrays.copyOf(targets, count);
+
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Arrays.hashCode(this.finals);
+		result = prime * result + Arrays.hashCode(this.offsets);
+		result = prime * result + Arrays.hashCode(this.symbols);
+		result = prime * result + Arrays.hashCode(this.targets);
+		this.hash = result;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(
+			Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CanonicalForm other = (CanonicalForm) obj;
+		return hash == other.hash
+				&& Arrays.equals(finals, other.finals)
+				&& Arrays.equals(offsets, other.offsets)
+				&& Arrays.equals(targets, other.targets)
+				&& Arrays.equals(symbols, other.symbols);
+	}
+}
@@ -0,0 +1,208 @@
+package it.unive.lisa.util.datastructures.automaton;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The check for the inclusion of the language of an automaton into the one of
+ * another automaton, computed through antichains. The product between the
+ * first automaton and the subset construction of the second one is explored
+ * lazily, without ever building the complement of the second one, and the
+ * exploration stops at the first counterexample. A pair {@code (p, S)} is
+ * discarded when a pair {@code (p, S')} with {@code S'} contained in
+ * {@code S} has already been visited, since every word accepted from the
+ * former is also a counterexample for the latter. Pairs whose first state
+ * cannot reach a final state are never explored.<br>
+ * <br>
+ * Transitions are matched by equality of their symbols, and none of the
+ * automata must have epsilon transitions.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <T> the concrete type of {@link TransitionSymbol}s of the automata
+ * 
+ * @see <a href="https://doi.org/10.1007/11817963_5">M. De Wulf, L. Doyen, T.
+ *          A. Henzinger and J.-F. Raskin. Antichains: A New Algorithm for
+ *          Checking Universality of Finite Automata. CAV 2006</a>
+ */
+final class Inclusion<T extends TransitionSymbol<T>> {
+
+	private final Automaton<?, T> left;
+
+	private final Automaton<?, T> right;
+
+	private final TransitionTable<T> lefts;
+
+	private final TransitionTable<T> rights;
+
+	private final boolean[] productive;
+
+	private final Map<BitSet, Map<T, BitSet>> posts;
+
+	private final List<List<BitSet>> antichains;
+
+	private final Deque<Node> ws;
+
+	/**
+	 * Builds the check.
+	 * 
+	 * @param left  the automaton whose language must be contained
+	 * @param right the automaton whose language must contain the other one
+	 */
+	Inclusion(
+			Automaton<?, T> left,
+			Automaton<?, T> right) {
+		this.left = left;
+		this.right = right;
+		this.lefts = left.table();
+		this.rights = right.table();
+		this.productive = productive(lefts);
+		this.posts = new HashMap<>();
+		this.antichains = new ArrayList<>(lefts.size());
+		for (int i = 0; i < lefts.size(); i++)
+			antichains.add(new ArrayList<>());
+		this.ws = new ArrayDeque<>();
+	}
+
+	/**
+	 * Yields whether or not the language of the first automaton is contained
+	 * in the one of the second automaton.
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	boolean holds() {
+		BitSet init = new BitSet(rights.size());
+		for (State s : right.getStates())
+			if (s.isInitial())
+				init.set(rights.indexOf(s));
+
+		for (State s : left.getStates())
+			if (s.isInitial() && !visit(lefts.indexOf(s), init))
+				return false;
+
+		while (!ws.isEmpty()) {
+			Node current = ws.pop();
+			for (Transition<T> t : lefts.outgoing(current.state)) {
+				int dest = lefts.indexOf(t.getDestination());
+				if (productive[dest] && !visit(dest, post(current.states, t.getSymbol())))
+					return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Visits the pair {@code (state, states)}, scheduling it for exploration
+	 * if it is not subsumed by a pair visited before.
+	 * 
+	 * @param state  the index of the state of the first automaton
+	 * @param states the indexes of the states of the second automaton
+	 * 
+	 * @return {@code false} if the pair witnesses that the inclusion does not
+	 *             hold, {@code true} otherwise
+	 */
+	private boolean visit(
+			int state,
+			BitSet states) {
+		if (!productive[state])
+			return true;
+
+		// every word read from state to a final state is a counterexample
+		if (states.isEmpty())
+			return false;
+
+		if (lefts.state(state).isFinal() && !containsFinal(states))
+			return false;
+
+		List<BitSet> antichain = antichains.get(state);
+		for (BitSet visited : antichain)
+			if (subset(visited, states))
+				return true;
+
+		for (Iterator<BitSet> it = antichain.iterator(); it.hasNext();)
+			if (subset(states, it.next()))
+				it.remove();
+
+		antichain.add(states);
+		ws.push(new Node(state, states));
+		return true;
+	}
+
+	private BitSet post(
+			BitSet states,
+			T symbol) {
+		Map<T, BitSet> cached = posts.computeIfAbsent(states, s -> new HashMap<>());
+		BitSet result = cached.get(symbol);
+		if (result != null)
+			return result;
+
+		result = new BitSet(rights.size());
+		for (int i = states.nextSetBit(0); i >= 0; i = states.nextSetBit(i + 1))
+			for (Transition<T> t : rights.outgoing(i))
+				if (t.getSymbol().equals(symbol))
+					result.set(rights.indexOf(t.getDestination()));
+
+		cached.put(symbol, result);
+		return result;
+	}
+
+	private boolean containsFinal(
+			BitSet states) {
+		for (int i = states.nextSetBit(0); i >= 0; i = states.nextSetBit(i + 1))
+			if (rights.state(i).isFinal())
+				return true;
+		return false;
+	}
+
+	private static boolean subset(
+			BitSet first,
+			BitSet second) {
+		for (int i = first.nextSetBit(0); i >= 0; i = first.nextSetBit(i + 1))
+			if (!second.get(i))
+				return false;
+		return true;
+	}
+
+	private static boolean[] productive(
+			TransitionTable<?> table) {
+		boolean[] productive = new boolean[table.size()];
+		Deque<Integer> ws = new ArrayDeque<>();
+		for (int i = 0; i < table.size(); i++)
+			if (table.state(i).isFinal()) {
+				productive[i] = true;
+				ws.push(i);
+			}
+
+		while (!ws.isEmpty())
+			for (Transition<?> t : table.ingoing(ws.pop())) {
+				int src = table.indexOf(t.getSource());
+				if (!productive[src]) {
+					productive[src] = true;
+					ws.push(src);
+				}
+			}
+
+		return productive;
+	}
+
+	private static final class Node {
+
+		private final int state;
+
+		private final BitSet states;
+
+		private Node(
+				int state,
+				BitSet states) {
+			this.state = state;
+			this.states = states;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package it.unive.lisa.util.datastructures.automaton;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A memo of the results of {@link Automaton#isContained(Automaton)} computed
+ * between minimal automata, keyed by the {@link CanonicalForm}s of the two
+ * automata. Since these do not depend on the identity of the automata nor on
+ * the ids of their states, results are shared among all the automata that
+ * are structurally equal to the ones that they have been computed for (e.g.,
+ * the fresh copies returned by {@link Automaton#minimize()}). Only the
+ * {@link #SIZE} most recently used results are kept. This class is
+ * thread-safe.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+final class InclusionMemo {
+
+	/**
+	 * The maximum number of results kept by the memo.
+	 */
+	static final int SIZE = 256;
+
+	private static final Map<Key, Boolean> RESULTS = new LinkedHashMap<>(SIZE, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<Key, Boolean> eldest) {
+			return size() > SIZE;
+		}
+	};
+
+	private InclusionMemo() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields the result stored for the given pair of automata, if any.
+	 * 
+	 * @param contained the canonical form of the automaton that might be
+	 *                      contained in the other one
+	 * @param container the canonical form of the automaton that might contain
+	 *                      the other one
+	 * 
+	 * @return the stored result, or {@code null} if there is none
+	 */
+	static Boolean get(
+			CanonicalForm contained,
+			CanonicalForm container) {
+		synchronized (RESULTS) {
+			return RESULTS.get(new Key(contained, container));
+		}
+	}
+
+	/**
+	 * Stores the result computed for the given pair of automata, evicting the
+	 * least recently used one if the memo is full.
+	 * 
+	 * @param contained the canonical form of the automaton that might be
+	 *                      contained in the other one
+	 * @param container the canonical form of the automaton that might contain
+	 *                      the other one
+	 * @param result    the result
+	 */
+	static void put(
+			CanonicalForm contained,
+			CanonicalForm container,
+			boolean result) {
+		synchronized (RESULTS) {
+			RESULTS.put(new Key(contained, container), result);
+		}
+	}
+
+	private static final class Key {
+
+		private final CanonicalForm contained;
+
+		private final CanonicalForm container;
+
+		private Key(
+				CanonicalForm contained,
+				CanonicalForm container) {
+			this.contained = contained;
+			this.container = container;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * contained.hashCode() + container.hashCode();
+		}
+
+		@Override
+		public boolean equals(
+				Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return contained.equals(other.contained) && container.equals(other.container);
+		}
+	}
+}
@@ -0,0 +1,488 @@
+package it.unive.lisa.util.datastructures.automaton;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The minimization of a deterministic automaton, computed through Hopcroft's
+ * partition refinement algorithm in the formulation for partial transition
+ * functions given by Valmari and Lehtinen.<br>
+ * <br>
+ * Automata used to be minimized through Brzozowski's algorithm (that is,
+ * reversing and determinizing twice). The minimal automaton is unique only up
+ * to the numbering of its states, but the numbering is observable:
+ * {@link Automaton#equals(Object)} compares state ids, and
+ * {@link Automaton#toRegex()} eliminates states in the order of their ids.
+ * The regular expressions reported by string analyses (e.g., {@code aa*}
+ * instead of the equivalent {@code a*a}) and the automata they compare thus
+ * depend on it, and a different numbering would change the results of
+ * existing analyses, including the expected ones of their regression tests.
+ * This class therefore computes the minimal automaton through partition
+ * refinement, and then numbers its states as Brzozowski's algorithm would
+ * have:
+ * <ul>
+ * <li>if the reverse of the automaton is deterministic, the automaton is
+ * already minimal once unreachable and unproductive states are removed, and
+ * its states are left untouched;</li>
+ * <li>if the determinization of the reverse of the automaton has a
+ * deterministic reverse, its states are numbered as that determinization
+ * would; this is detected by building the determinization, that is abandoned
+ * as soon as one of the conditions is violated or as soon as it becomes
+ * bigger than the minimal automaton;</li>
+ * <li>otherwise, states are numbered in breadth-first order from the initial
+ * state, visiting transitions in the order of their symbols.</li>
+ * </ul>
+ * If reversing symbols is not an involution, or if it maps different symbols
+ * to the same one, Brzozowski's algorithm is used directly.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <A> the concrete type of the automaton
+ * @param <T> the concrete type of {@link TransitionSymbol}s of the automaton
+ * 
+ * @see <a href="https://doi.org/10.4230/LIPIcs.STACS.2008.1328">A. Valmari and
+ *          P. Lehtinen. Efficient minimization of DFAs with partial transition
+ *          functions. STACS 2008</a>
+ */
+final class Minimization<A extends Automaton<A, T>, T extends TransitionSymbol<T>> {
+
+	private final A dfa;
+
+	private final TransitionTable<T> table;
+
+	private final Map<T, T> reversed;
+
+	/**
+	 * Builds the minimization.
+	 * 
+	 * @param dfa the automaton to minimize, that must be deterministic
+	 */
+	Minimization(
+			A dfa) {
+		this.dfa = dfa;
+		this.table = dfa.table();
+		this.reversed = new HashMap<>();
+		for (Transition<T> t : dfa.getTransitions())
+			reversed.computeIfAbsent(t.getSymbol(), T::reverse);
+	}
+
+	/**
+	 * Yields the minimal automaton equivalent to the one given at construction.
+	 * 
+	 * @return the minimal automaton
+	 */
+	A minimize() {
+		if (!reversibleSymbols())
+			return result(dfa.reverse().determinize().removeUnreachableStates()
+					.reverse().determinize().removeUnreachableStates());
+
+		int n = table.size();
+		boolean[] reachable = new boolean[n];
+		for (State s : dfa.getInitialStates())
+			visit(table.indexOf(s), reachable, true);
+		boolean[] productive = new boolean[n];
+		for (State s : dfa.getFinalStates())
+			visit(table.indexOf(s), productive, false);
+
+		if (reverseIsDeterministic())
+			return result(trim(reachable, productive));
+
+		int[] trimmed = new int[n];
+		int count = 0;
+		boolean accessible = true;
+		for (int i = 0; i < n; i++) {
+			trimmed[i] = reachable[i] && productive[i] ? count++ : -1;
+			accessible &= reachable[i];
+		}
+
+		Partition partition = count == 0 ? null : refine(trimmed, count);
+		int size = partition == null ? 0 : partition.blocks;
+
+		// if the automaton is accessible, the determinization of its reverse
+		// must be exactly as big as the minimal automaton to be kept as-is
+		A reversedSubsets = reverseSubsets(accessible && size > 0 ? size : Integer.MAX_VALUE);
+		if (reversedSubsets != null)
+			return result(reversedSubsets);
+
+		State init = dfa.getInitialState();
+		if (partition == null || init == null || trimmed[table.indexOf(init)] < 0) {
+			// the language is empty
+			SortedSet<State> states = new TreeSet<>();
+			states.add(new State(0, true, false));
+			return result(dfa.from(states, new TreeSet<>()));
+		}
+
+		return result(quotient(partition, trimmed, trimmed[table.indexOf(init)]));
+	}
+
+	private boolean reversibleSymbols() {
+		for (Map.Entry<T, T> e : reversed.entrySet())
+			if (!e.getValue().reverse().equals(e.getKey()))
+				return false;
+		return new HashSet<>(reversed.values()).size() == reversed.size();
+	}
+
+	private boolean reverseIsDeterministic() {
+		boolean finalFound = false;
+		for (State s : dfa.getStates()) {
+			if (s.isFinal()) {
+				if (finalFound)
+					return false;
+				finalFound = true;
+			}
+
+			Map<T, State> sources = new HashMap<>();
+			for (Transition<T> t : table.ingoing(table.indexOf(s))) {
+				if (t.getSymbol().isEpsilon())
+					return false;
+				State previous = sources.put(t.getSymbol(), t.getSource());
+				if (previous != null && !previous.equals(t.getSource()))
+					return false;
+			}
+		}
+
+		return true;
+	}
+
+	private A trim(
+			boolean[] reachable,
+			boolean[] productive) {
+		SortedSet<State> states = new TreeSet<>();
+		for (State s : dfa.getStates()) {
+			int i = table.indexOf(s);
+			if (reachable[i] && productive[i])
+				states.add(s);
+		}
+
+		SortedSet<Transition<T>> transitions = new TreeSet<>();
+		for (Transition<T> t : dfa.getTransitions())
+			if (states.contains(t.getSource()) && states.contains(t.getDestination()))
+				transitions.add(t);
+
+		return dfa.from(states, transitions);
+	}
+
+	private void visit(
+			int root,
+			boolean[] visited,
+			boolean forward) {
+		Deque<Integer> ws = new ArrayDeque<>();
+		visited[root] = true;
+		ws.push(root);
+		while (!ws.isEmpty()) {
+			int current = ws.pop();
+			for (Transition<T> t : forward ? table.outgoing(current) : table.ingoing(current)) {
+				int next = table.indexOf(forward ? t.getDestination() : t.getSource());
+				if (!visited[next]) {
+					visited[next] = true;
+					ws.push(next);
+				}
+			}
+		}
+	}
+
+	private Partition refine(
+			int[] trimmed,
+			int count) {
+		int[] original = new int[count];
+		for (int i = 0; i < trimmed.length; i++)
+			if (trimmed[i] >= 0)
+				original[trimmed[i]] = i;
+
+		Partition partition = new Partition(count);
+		for (int i = 0; i < count; i++)
+			if (table.state(original[i]).isFinal())
+				partition.mark(i);
+		partition.split();
+
+		// with partial transition functions, all initial blocks must be used
+		// as splitters
+		Deque<Integer> worklist = new ArrayDeque<>();
+		boolean[] pending = new boolean[count];
+		for (int b = 0; b < partition.blocks; b++) {
+			worklist.add(b);
+			pending[b] = true;
+		}
+
+		Map<T, List<Integer>> predecessors = new HashMap<>();
+		while (!worklist.isEmpty()) {
+			int splitter = worklist.poll();
+			pending[splitter] = false;
+
+			predecessors.clear();
+			for (int i = partition.first[splitter]; i < partition.end[splitter]; i++)
+				for (Transition<T> t : table.ingoing(original[partition.elements[i]])) {
+					int src = trimmed[table.indexOf(t.getSource())];
+					if (src >= 0)
+						predecessors.computeIfAbsent(t.getSymbol(), s -> new ArrayList<>()).add(src);
+				}
+
+			for (List<Integer> sources : predecessors.values()) {
+				for (int src : sources)
+					partition.mark(src);
+				int blocks = partition.blocks;
+				partition.split();
+				for (int b = blocks; b < partition.blocks; b++) {
+					int parent = partition.parent[b];
+					// it is enough to add the smaller half, unless the whole
+					// block still has to be used
+					int next = pending[parent] || partition.size(b) <= partition.size(parent) ? b : parent;
+					if (!pending[next]) {
+						worklist.add(next);
+						pending[next] = true;
+					}
+				}
+			}
+		}
+
+		partition.original = original;
+		return partition;
+	}
+
+	private A quotient(
+			Partition partition,
+			int[] trimmed,
+			int init) {
+		int[] names = new int[partition.blocks];
+		Arrays.fill(names, -1);
+		List<Integer> order = new ArrayList<>(partition.blocks);
+		List<Map<T, Integer>> successors = new ArrayList<>(partition.blocks);
+
+		names[partition.block[init]] = 0;
+		order.add(partition.block[init]);
+		for (int i = 0; i < order.size(); i++) {
+			Map<T, Integer> next = new TreeMap<>();
+			for (Transition<T> t : table.outgoing(partition.representative(order.get(i)))) {
+				int dest = trimmed[table.indexOf(t.getDestination())];
+				if (dest >= 0)
+					next.put(t.getSymbol(), partition.block[dest]);
+			}
+
+			for (int dest : next.values())
+				if (names[dest] < 0) {
+					names[dest] = order.size();
+					order.add(dest);
+				}
+			successors.add(next);
+		}
+
+		State[] states = new State[order.size()];
+		for (int i = 0; i < states.length; i++)
+			states[i] = new State(i, i == 0, table.state(partition.representative(order.get(i))).isFinal());
+
+		SortedSet<Transition<T>> transitions = new TreeSet<>();
+		for (int i = 0; i < states.length; i++)
+			for (Map.Entry<T, Integer> e : successors.get(i).entrySet())
+				transitions.add(new Transition<>(states[i], states[names[e.getValue()]], e.getKey()));
+
+		return dfa.from(new TreeSet<>(Arrays.asList(states)), transitions);
+	}
+
+	/**
+	 * Builds the determinization of the reverse of the automaton, and yields
+	 * the reverse of it (without unreachable states) if it is deterministic.
+	 * Yields {@code null} as soon as it is clear that this is not the case, or
+	 * if the determinization grows beyond {@code bound} states.
+	 */
+	private A reverseSubsets(
+			int bound) {
+		BitSet start = new BitSet();
+		BitSet initials = new BitSet();
+		for (State s : dfa.getStates()) {
+			if (s.isFinal())
+				start.set(table.indexOf(s));
+			if (s.isInitial())
+				initials.set(table.indexOf(s));
+		}
+
+		Map<BitSet, Integer> ids = new HashMap<>();
+		List<BitSet> subsets = new ArrayList<>();
+		List<Map<T, Integer>> sources = new ArrayList<>();
+		int finalSubset = -1;
+
+		ids.put(start, 0);
+		subsets.add(start);
+		sources.add(new HashMap<>());
+		if (start.intersects(initials))
+			finalSubset = 0;
+
+		for (int i = 0; i < subsets.size(); i++) {
+			// the reverse of the automaton reads the reversed symbols, and
+			// determinization visits them in their order
+			Map<T, BitSet> next = new TreeMap<>();
+			BitSet current = subsets.get(i);
+			for (int q = current.nextSetBit(0); q >= 0; q = current.nextSetBit(q + 1))
+				for (Transition<T> t : table.ingoing(q))
+					if (dfa.getStates().contains(t.getSource()))
+						next.computeIfAbsent(reversed.get(t.getSymbol()), s -> new BitSet())
+								.set(table.indexOf(t.getSource()));
+
+			for (Map.Entry<T, BitSet> e : next.entrySet()) {
+				Integer id = ids.get(e.getValue());
+				if (id == null) {
+					id = subsets.size();
+					if (id >= bound)
+						return null;
+					ids.put(e.getValue(), id);
+					subsets.add(e.getValue());
+					sources.add(new HashMap<>());
+					if (e.getValue().intersects(initials)) {
+						if (finalSubset >= 0)
+							// the reverse would have two initial states
+							return null;
+						finalSubset = id;
+					}
+				}
+
+				Integer previous = sources.get(id).put(e.getKey(), i);
+				if (previous != null && previous != i)
+					// the reverse would not be deterministic
+					return null;
+			}
+		}
+
+		// the reverse of the determinization, restricted to the states
+		// reachable from its initial one
+		State[] states = new State[subsets.size()];
+		for (int i = 0; i < states.length; i++)
+			states[i] = new State(i, i == finalSubset, i == 0);
+
+		SortedSet<State> kept = new TreeSet<>();
+		SortedSet<Transition<T>> transitions = new TreeSet<>();
+		if (finalSubset >= 0) {
+			Deque<Integer> ws = new ArrayDeque<>();
+			boolean[] seen = new boolean[states.length];
+			seen[finalSubset] = true;
+			ws.push(finalSubset);
+			while (!ws.isEmpty()) {
+				int current = ws.pop();
+				kept.add(states[current]);
+				for (Map.Entry<T, Integer> e : sources.get(current).entrySet()) {
+					int dest = e.getValue();
+					transitions.add(new Transition<>(states[current], states[dest], e.getKey().reverse()));
+					if (!seen[dest]) {
+						seen[dest] = true;
+						ws.push(dest);
+					}
+				}
+			}
+		}
+
+		return dfa.from(kept, transitions);
+	}
+
+	private A result(
+			A minimal) {
+		minimal.deterministic = Optional.of(true);
+		minimal.minimized = Optional.of(true);
+		return minimal;
+	}
+
+	/**
+	 * A refinable partition of the integers in {@code [0, n)}. Elements of
+	 * each block are stored contiguously, and the marked elements of a block
+	 * are kept at its beginning, so that marking and splitting cost constant
+	 * time per element.
+	 */
+	private static final class Partition {
+
+		private final int[] elements;
+
+		private final int[] location;
+
+		private final int[] block;
+
+		private final int[] first;
+
+		private final int[] end;
+
+		private final int[] marked;
+
+		private final int[] parent;
+
+		private final int[] touched;
+
+		private int touchedCount;
+
+		private int blocks;
+
+		// the index in the transition table of each element
+		private int[] original;
+
+		private Partition(
+				int n) {
+			elements = new int[n];
+			location = new int[n];
+			block = new int[n];
+			for (int i = 0; i < n; i++) {
+				elements[i] = i;
+				location[i] = i;
+			}
+			// there cannot be more blocks than elements
+			first = new int[n];
+			end = new int[n];
+			marked = new int[n];
+			parent = new int[n];
+			touched = new int[n];
+			end[0] = n;
+			blocks = 1;
+		}
+
+		private int size(
+				int b) {
+			return end[b] - first[b];
+		}
+
+		private int representative(
+				int b) {
+			// all elements of a block are equivalent: any of them can be used
+			return original[elements[first[b]]];
+		}
+
+		private void mark(
+				int e) {
+			int b = block[e];
+			int i = location[e];
+			int j = first[b] + marked[b];
+			if (i < j)
+				// already marked
+				return;
+			elements[i] = elements[j];
+			location[elements[i]] = i;
+			elements[j] = e;
+			location[e] = j;
+			if (marked[b]++ == 0)
+				touched[touchedCount++] = b;
+		}
+
+		private void split() {
+			while (touchedCount > 0) {
+				int b = touched[--touchedCount];
+				int m = first[b] + marked[b];
+				marked[b] = 0;
+				if (m == end[b])
+					// all elements were marked
+					continue;
+
+				int nb = blocks++;
+				first[nb] = first[b];
+				end[nb] = m;
+				parent[nb] = b;
+				first[b] = m;
+				for (int i = first[nb]; i < end[nb]; i++)
+					block[elements[i]] = nb;
+			}
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package it.unive.lisa.util.datastructures.automaton;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+/**
+ * A compact, read-only view of the transitions of an {@link Automaton}, where
+ * states are numbered densely and each of them has arrays holding its outgoing
+ * and ingoing transitions. Arrays preserve the order of the transitions in the
+ * automaton. This avoids scanning all transitions each time the ones of a
+ * single state are needed.<br>
+ * <br>
+ * A table is built from the state and transition sets it is given, and does
+ * not track later changes to them: it records the version of the automaton it
+ * was built for, and {@link #isOutdated(int)} detects that the automaton has
+ * been modified since then.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <T> the concrete type of {@link TransitionSymbol}s that the
+ *                transitions recognize
+ */
+final class TransitionTable<T extends TransitionSymbol<T>> {
+
+	private final int version;
+
+	private final List<State> states;
+
+	private final Map<State, Integer> ids;
+
+	private final Transition<T>[][] outgoing;
+
+	private final Transition<T>[][] ingoing;
+
+	/**
+	 * Builds the table.
+	 * 
+	 * @param states      the states of the automaton
+	 * @param transitions the transitions of the automaton
+	 * @param version     the number of modifications the automaton underwent
+	 */
+	@SuppressWarnings("unchecked")
+	TransitionTable(
+			SortedSet<State> states,
+			SortedSet<Transition<T>> transitions,
+			int version) {
+		this.version = version;
+		this.states = new ArrayList<>(states);
+		this.ids = new HashMap<>(states.size() * 2);
+		for (int i = 0; i < this.states.size(); i++)
+			ids.put(this.states.get(i), i);
+
+		// transitions might refer to states that are not part of the automaton
+		for (Transition<T> t : transitions) {
+			id(t.getSource());
+			id(t.getDestination());
+		}
+
+		int n = this.states.size();
+		int[] out = new int[n];
+		int[] in = new int[n];
+		for (Transition<T> t : transitions) {
+			out[ids.get(t.getSource())]++;
+			in[ids.get(t.getDestination())]++;
+		}
+
+		outgoing = new Transition[n][];
+		ingoing = new Transition[n][];
+		for (int i = 0; i < n; i++) {
+			outgoing[i] = new Transition[out[i]];
+			ingoing[i] = new Transition[in[i]];
+			out[i] = 0;
+			in[i] = 0;
+		}
+
+		for (Transition<T> t : transitions) {
+			int src = ids.get(t.getSource());
+			int dest = ids.get(t.getDestination());
+			outgoing[src][out[src]++] = t;
+			ingoing[dest][in[dest]++] = t;
+		}
+	}
+
+	private int id(
+			State s) {
+		Integer id = ids.get(s);
+		if (id != null)
+			return id;
+		ids.put(s, states.size());
+		states.add(s);
+		return states.size() - 1;
+	}
+
+	/**
+	 * Yields whether or not this table no longer reflects the automaton it was
+	 * built for, that is, if the automaton has been modified since then.
+	 * 
+	 * @param version the current number of modifications of the automaton
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	boolean isOutdated(
+			int version) {
+		return this.version != version;
+	}
+
+	/**
+	 * Yields the number of states in this table.
+	 * 
+	 * @return the number of states
+	 */
+	int size() {
+		return states.size();
+	}
+
+	/**
+	 * Yields the state with the given index.
+	 * 
+	 * @param index the index
+	 * 
+	 * @return the state
+	 */
+	State state(
+			int index) {
+		return states.get(index);
+	}
+
+	/**
+	 * Yields the index of the given state, or {@code -1} if the state is not
+	 * part of this table.
+	 * 
+	 * @param s the state
+	 * 
+	 * @return the index of {@code s}
+	 */
+	int indexOf(
+			State s) {
+		Integer id = ids.get(s);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Yields the transitions leaving the state with the given index. The
+	 * returned array must not be modified.
+	 * 
+	 * @param index the index of the state
+	 * 
+	 * @return the outgoing transitions
+	 */
+	Transition<T>[] outgoing(
+			int index) {
+		return outgoing[index];
+	}
+
+	/**
+	 * Yields the transitions reaching the state with the given index. The
+	 * returned array must not be modified.
+	 * 
+	 * @param index the index of the state
+	 * 
+	 * @return the ingoing transitions
+	 */
+	Transition<T>[] ingoing(
+			int index) {
+		return ingoing[index];
+	}
+}
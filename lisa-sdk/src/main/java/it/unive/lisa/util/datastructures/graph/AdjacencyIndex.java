@@ -0,0 +1,291 @@
+package it.unive.lisa.util.datastructures.graph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An immutable, compiled view of the adjacency of a {@link Graph}, stored in
+ * compressed sparse row (CSR) form. Each node of the graph is assigned a dense
+ * integer identifier in {@code [0, size())}, and the successors and
+ * predecessors of each node are stored as contiguous slices of flat
+ * {@code int} arrays. The edges connecting each node to its successors (resp.
+ * predecessors) are stored in arrays parallel to the ones of node identifiers.
+ * <br>
+ * <br>
+ * Each (source, destination) pair appears at most once in the index, together
+ * with the edge that {@link Graph#getEdgeConnecting(Node, Node)} yields for
+ * it. Instances of this class are snapshots: they are not updated when the
+ * graph they have been built from changes, and it is up to the graph to
+ * discard or rebuild them.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <N> the type of the {@link Node}s in the indexed graph
+ * @param <E> the type of the {@link Edge}s in the indexed graph
+ */
+public final class AdjacencyIndex<N, E> {
+
+	/**
+	 * The nodes of the graph, indexed by their identifier.
+	 */
+	private final Object[] nodes;
+
+	/**
+	 * Mapping from each node to its identifier.
+	 */
+	private final Map<N, Integer> ids;
+
+	/**
+	 * The offsets of each node's slice inside {@link #succ}: the successors of
+	 * node {@code i} are stored in {@code succ[succOffsets[i]]} (inclusive) to
+	 * {@code succ[succOffsets[i+1]]} (exclusive).
+	 */
+	private final int[] succOffsets;
+
+	/**
+	 * The identifiers of the successors of each node.
+	 */
+	private final int[] succ;
+
+	/**
+	 * The edges leading to the successors in {@link #succ}, position-wise.
+	 */
+	private final Object[] succEdges;
+
+	/**
+	 * The offsets of each node's slice inside {@link #pred}, with the same
+	 * layout of {@link #succOffsets}.
+	 */
+	private final int[] predOffsets;
+
+	/**
+	 * The identifiers of the predecessors of each node.
+	 */
+	private final int[] pred;
+
+	/**
+	 * The edges coming from the predecessors in {@link #pred}, position-wise.
+	 */
+	private final Object[] predEdges;
+
+	/**
+	 * Builds the index. All arrays are used as-is, without copying them.
+	 * 
+	 * @param nodes       the nodes of the graph, indexed by their identifier
+	 * @param ids         the mapping from each node to its identifier
+	 * @param succOffsets the offsets of each node's slice inside {@code succ},
+	 *                        of length {@code nodes.length + 1}
+	 * @param succ        the identifiers of the successors of each node
+	 * @param succEdges   the edges leading to the successors in {@code succ}
+	 * @param predOffsets the offsets of each node's slice inside {@code pred},
+	 *                        of length {@code nodes.length + 1}
+	 * @param pred        the identifiers of the predecessors of each node
+	 * @param predEdges   the edges coming from the predecessors in
+	 *                        {@code pred}
+	 */
+	public AdjacencyIndex(
+			Object[] nodes,
+			Map<N, Integer> ids,
+			int[] succOffsets,
+			int[] succ,
+			Object[] succEdges,
+			int[] predOffsets,
+			int[] pred,
+			Object[] predEdges) {
+		this.nodes = nodes;
+		this.ids = ids;
+		this.succOffsets = succOffsets;
+		this.succ = succ;
+		this.succEdges = succEdges;
+		this.predOffsets = predOffsets;
+		this.pred = pred;
+		this.predEdges = predEdges;
+	}
+
+	/**
+	 * Yields the number of nodes in this index.
+	 * 
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * Yields the identifier of the given node, or {@code -1} if the node is not
+	 * part of this index.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return the identifier of the node, or {@code -1}
+	 */
+	public int indexOf(
+			N node) {
+		Integer id = ids.get(node);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Yields the node with the given identifier.
+	 * 
+	 * @param id the identifier
+	 * 
+	 * @return the node
+	 */
+	@SuppressWarnings("unchecked")
+	public N nodeAt(
+			int id) {
+		return (N) nodes[id];
+	}
+
+	/**
+	 * Yields the number of distinct successors of the node with the given
+	 * identifier.
+	 * 
+	 * @param id the identifier of the node
+	 * 
+	 * @return the number of successors
+	 */
+	public int outDegree(
+			int id) {
+		return succOffsets[id + 1] - succOffsets[id];
+	}
+
+	/**
+	 * Yields the identifier of the {@code k}-th successor of the node with the
+	 * given identifier.
+	 * 
+	 * @param id the identifier of the node
+	 * @param k  the position of the successor, in
+	 *               {@code [0, outDegree(id))}
+	 * 
+	 * @return the identifier of the successor
+	 */
+	public int successor(
+			int id,
+			int k) {
+		return succ[succOffsets[id] + k];
+	}
+
+	/**
+	 * Yields the edge connecting the node with the given identifier to its
+	 * {@code k}-th successor.
+	 * 
+	 * @param id the identifier of the node
+	 * @param k  the position of the successor, in
+	 *               {@code [0, outDegree(id))}
+	 * 
+	 * @return the edge
+	 */
+	@SuppressWarnings("unchecked")
+	public E outgoingEdge(
+			int id,
+			int k) {
+		return (E) succEdges[succOffsets[id] + k];
+	}
+
+	/**
+	 * Yields the number of distinct predecessors of the node with the given
+	 * identifier.
+	 * 
+	 * @param id the identifier of the node
+	 * 
+	 * @return the number of predecessors
+	 */
+	public int inDegree(
+			int id) {
+		return predOffsets[id + 1] - predOffsets[id];
+	}
+
+	/**
+	 * Yields the identifier of the {@code k}-th predecessor of the node with
+	 * the given identifier.
+	 * 
+	 * @param id the identifier of the node
+	 * @param k  the position of the predecessor, in {@code [0, inDegree(id))}
+	 * 
+	 * @return the identifier of the predecessor
+	 */
+	public int predecessor(
+			int id,
+			int k) {
+		return pred[predOffsets[id] + k];
+	}
+
+	/**
+	 * Yields the edge connecting the {@code k}-th predecessor of the node with
+	 * the given identifier to the node itself.
+	 * 
+	 * @param id the identifier of the node
+	 * @param k  the position of the predecessor, in {@code [0, inDegree(id))}
+	 * 
+	 * @return the edge
+	 */
+	@SuppressWarnings("unchecked")
+	public E ingoingEdge(
+			int id,
+			int k) {
+		return (E) predEdges[predOffsets[id] + k];
+	}
+
+	/**
+	 * Yields the edge connecting the two nodes with the given identifiers, or
+	 * {@code null} if no such edge exists.
+	 * 
+	 * @param src  the identifier of the source node
+	 * @param dest the identifier of the destination node
+	 * 
+	 * @return the edge, or {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public E edgeConnecting(
+			int src,
+			int dest) {
+		for (int i = succOffsets[src]; i < succOffsets[src + 1]; i++)
+			if (succ[i] == dest)
+				return (E) succEdges[i];
+		return null;
+	}
+
+	/**
+	 * Yields the successors of the node with the given identifier, as an
+	 * unmodifiable collection.
+	 * 
+	 * @param id the identifier of the node
+	 * 
+	 * @return the successors
+	 */
+	public Collection<N> followersOf(
+			int id) {
+		return slice(succOffsets[id], succOffsets[id + 1], succ);
+	}
+
+	/**
+	 * Yields the predecessors of the node with the given identifier, as an
+	 * unmodifiable collection.
+	 * 
+	 * @param id the identifier of the node
+	 * 
+	 * @return the predecessors
+	 */
+	public Collection<N> predecessorsOf(
+			int id) {
+		return slice(predOffsets[id], predOffsets[id + 1], pred);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Collection<N> slice(
+			int from,
+			int to,
+			int[] targets) {
+		if (from == to)
+			return Collections.emptySet();
+
+		Object[] result = new Object[to - from];
+		for (int i = from; i < to; i++)
+			result[i - from] = nodes[targets[i]];
+		return (Collection<N>) Collections.unmodifiableList(Arrays.asList(result));
+	}
+}
@@ -189,6 +189,18 @@ public interface Graph<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exte
 	Collection<N> predecessorsOf(
 			N node);
 
+	/**
+	 * Yields the {@link AdjacencyIndex} of this graph, if one is available. The
+	 * index can be used by algorithms that traverse the graph many times (e.g.,
+	 * fixpoints) to query adjacency through dense node identifiers. Graphs that
+	 * do not maintain such an index yield {@code null}.
+	 * 
+	 * @return the index, or {@code null} if it is not available
+	 */
+	public default AdjacencyIndex<N, E> getAdjacencyIndex() {
+		return null;
+	}
+
 	/**
 	 * Yields an instance of {@link SerializableGraph} built from this one. The
 	 * default implementation of this method is equivalent to invoking
@@ -2,7 +2,9 @@ package it.unive.lisa.util.datastructures.graph.algorithms;
 
 import static java.lang.String.format;
 
+import it.unive.lisa.util.collections.workset.WTOWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
+import it.unive.lisa.util.datastructures.graph.AdjacencyIndex;
 import it.unive.lisa.util.datastructures.graph.Edge;
 import it.unive.lisa.util.datastructures.graph.Graph;
 import it.unive.lisa.util.datastructures.graph.Node;
@@ -110,20 +112,24 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 			Map<N, T> initialResult)
 			throws FixpointException {
 		Map<N, T> result = initialResult == null ? new HashMap<>(graph.getNodesCount()) : new HashMap<>(initialResult);
+		prepareWorkingSet(ws, startingPoints.keySet());
 		startingPoints.keySet().forEach(ws::push);
 
 		Set<N> toProcess = null;
 		if (forceFullEvaluation)
 			toProcess = new HashSet<>(graph.getNodes());
 
+		AdjacencyIndex<N, E> index = graph.getAdjacencyIndex();
 		T newApprox;
 		while (!ws.isEmpty()) {
 			N current = ws.pop();
 
 			if (current == null)
 				throw new FixpointException("null node encountered during fixpoint in '" + graph + "'");
-			if (!graph.containsNode(current))
+			int id = index == null ? -1 : index.indexOf(current);
+			if (index == null ? !graph.containsNode(current) : id == -1)
 				throw new FixpointException("'" + current + "' is not part of '" + graph + "'");
+			implementation.popped(current);
 
 			T exitstate = getExitState(current, startingPoints.get(current), implementation, result);
 			if (exitstate == null)
@@ -151,8 +157,12 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 						// equal
 						|| !implementation.equality(current, newApprox, oldApprox)) {
 					result.put(current, newApprox);
-					for (N instr : graph.predecessorsOf(current))
-						ws.push(instr);
+					if (index == null)
+						for (N instr : graph.predecessorsOf(current))
+							ws.push(instr);
+					else
+						for (int k = 0; k < index.inDegree(id); k++)
+							ws.push(index.nodeAt(index.predecessor(id, k)));
 				}
 			} catch (Exception e) {
 				throw new FixpointException(format(ERROR, "updating result", current, graph), e);
@@ -162,6 +172,23 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 		return result;
 	}
 
+	/**
+	 * Prepares the given working set for a fixpoint starting at the given
+	 * nodes. If the working set is a {@link WTOWorkingSet}, its order is set
+	 * to the weak topological order of the graph, visited backwards from
+	 * those nodes.
+	 * 
+	 * @param ws    the working set
+	 * @param roots the nodes where the fixpoint starts
+	 */
+	@SuppressWarnings("unchecked")
+	protected void prepareWorkingSet(
+			WorkingSet<N> ws,
+			Collection<N> roots) {
+		if (ws instanceof WTOWorkingSet)
+			((WTOWorkingSet<N>) ws).setOrder(new WeakTopologicalOrder<G, N, E>().buildBackward(graph, roots));
+	}
+
 	/**
 	 * Yields the exit state for the given node.
 	 * 
@@ -182,19 +209,26 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 			Fixpoint.FixpointImplementation<N, E, T> implementation,
 			Map<N, T> result)
 			throws FixpointException {
-		Collection<N> follows = graph.followersOf(node);
-		List<T> states = new ArrayList<>(follows.size());
-
-		for (N follow : follows)
-			if (result.containsKey(follow)) {
+		List<T> states;
+		AdjacencyIndex<N, E> index = graph.getAdjacencyIndex();
+		if (index == null) {
+			Collection<N> follows = graph.followersOf(node);
+			states = new ArrayList<>(follows.size());
+			for (N follow : follows)
 				// this might not have been computed yet
-				E edge = graph.getEdgeConnecting(node, follow);
-				try {
-					states.add(implementation.traverse(edge, result.get(follow)));
-				} catch (Exception e) {
-					throw new FixpointException(format(ERROR, "computing edge semantics", edge, graph), e);
-				}
+				if (result.containsKey(follow))
+					states.add(traverse(graph.getEdgeConnecting(node, follow), result.get(follow), implementation));
+		} else {
+			int id = index.indexOf(node);
+			int follows = index.outDegree(id);
+			states = new ArrayList<>(follows);
+			for (int k = 0; k < follows; k++) {
+				N follow = index.nodeAt(index.successor(id, k));
+				// this might not have been computed yet
+				if (result.containsKey(follow))
+					states.add(traverse(index.outgoingEdge(id, k), result.get(follow), implementation));
 			}
+		}
 
 		T exitstate = startstate;
 		try {
@@ -209,4 +243,16 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 
 		return exitstate;
 	}
+
+	private T traverse(
+			E edge,
+			T state,
+			Fixpoint.FixpointImplementation<N, E, T> implementation)
+			throws FixpointException {
+		try {
+			return implementation.traverse(edge, state);
+		} catch (Exception e) {
+			throw new FixpointException(format(ERROR, "computing edge semantics", edge, graph), e);
+		}
+	}
 }
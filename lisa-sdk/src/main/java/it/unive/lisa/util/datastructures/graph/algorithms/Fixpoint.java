@@ -2,7 +2,9 @@ package it.unive.lisa.util.datastructures.graph.algorithms;
 
 import static java.lang.String.format;
 
+import it.unive.lisa.util.collections.workset.WTOWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
+import it.unive.lisa.util.datastructures.graph.AdjacencyIndex;
 import it.unive.lisa.util.datastructures.graph.Edge;
 import it.unive.lisa.util.datastructures.graph.Graph;
 import it.unive.lisa.util.datastructures.graph.Node;
@@ -180,6 +182,17 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 				T approx,
 				T old)
 				throws Exception;
+
+		/**
+		 * Callback invoked each time a node is popped from the working set,
+		 * before its entry state is computed. This is meant for instrumenting
+		 * the fixpoint, and does nothing by default.
+		 * 
+		 * @param node the popped node
+		 */
+		default void popped(
+				N node) {
+		}
 	}
 
 	/**
@@ -234,20 +247,24 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 			Map<N, T> initialResult)
 			throws FixpointException {
 		Map<N, T> result = initialResult == null ? new HashMap<>(graph.getNodesCount()) : new HashMap<>(initialResult);
+		prepareWorkingSet(ws, startingPoints.keySet());
 		startingPoints.keySet().forEach(ws::push);
 
 		Set<N> toProcess = null;
 		if (forceFullEvaluation)
 			toProcess = new HashSet<>(graph.getNodes());
 
+		AdjacencyIndex<N, E> index = graph.getAdjacencyIndex();
 		T newApprox;
 		while (!ws.isEmpty()) {
 			N current = ws.pop();
 
 			if (current == null)
 				throw new FixpointException("null node encountered during fixpoint in '" + graph + "'");
-			if (!graph.containsNode(current))
+			int id = index == null ? -1 : index.indexOf(current);
+			if (index == null ? !graph.containsNode(current) : id == -1)
 				throw new FixpointException("'" + current + "' is not part of '" + graph + "'");
+			implementation.popped(current);
 
 			T entrystate = getEntryState(current, startingPoints.get(current), implementation, result);
 			if (entrystate == null)
@@ -275,8 +292,12 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 						// equal
 						|| !implementation.equality(current, newApprox, oldApprox)) {
 					result.put(current, newApprox);
-					for (N instr : graph.followersOf(current))
-						ws.push(instr);
+					if (index == null)
+						for (N instr : graph.followersOf(current))
+							ws.push(instr);
+					else
+						for (int k = 0; k < index.outDegree(id); k++)
+							ws.push(index.nodeAt(index.successor(id, k)));
 				}
 			} catch (Exception e) {
 				throw new FixpointException(format(ERROR, "updating result", current, graph), e);
@@ -286,6 +307,22 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 		return result;
 	}
 
+	/**
+	 * Prepares the given working set for a fixpoint starting at the given
+	 * nodes. If the working set is a {@link WTOWorkingSet}, its order is set
+	 * to the weak topological order of the graph, visited from those nodes.
+	 * 
+	 * @param ws    the working set
+	 * @param roots the nodes where the fixpoint starts
+	 */
+	@SuppressWarnings("unchecked")
+	protected void prepareWorkingSet(
+			WorkingSet<N> ws,
+			Collection<N> roots) {
+		if (ws instanceof WTOWorkingSet)
+			((WTOWorkingSet<N>) ws).setOrder(new WeakTopologicalOrder<G, N, E>().build(graph, roots));
+	}
+
 	/**
 	 * Yields the entry state for the given node.
 	 * 
@@ -306,19 +343,26 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 			FixpointImplementation<N, E, T> implementation,
 			Map<N, T> result)
 			throws FixpointException {
-		Collection<N> preds = graph.predecessorsOf(node);
-		List<T> states = new ArrayList<>(preds.size());
-
-		for (N pred : preds)
-			if (result.containsKey(pred)) {
+		List<T> states;
+		AdjacencyIndex<N, E> index = graph.getAdjacencyIndex();
+		if (index == null) {
+			Collection<N> preds = graph.predecessorsOf(node);
+			states = new ArrayList<>(preds.size());
+			for (N pred : preds)
 				// this might not have been computed yet
-				E edge = graph.getEdgeConnecting(pred, node);
-				try {
-					states.add(implementation.traverse(edge, result.get(pred)));
-				} catch (Exception e) {
-					throw new FixpointException(format(ERROR, "computing edge semantics", edge, graph), e);
-				}
+				if (result.containsKey(pred))
+					states.add(traverse(graph.getEdgeConnecting(pred, node), result.get(pred), implementation));
+		} else {
+			int id = index.indexOf(node);
+			int preds = index.inDegree(id);
+			states = new ArrayList<>(preds);
+			for (int k = 0; k < preds; k++) {
+				N pred = index.nodeAt(index.predecessor(id, k));
+				// this might not have been computed yet
+				if (result.containsKey(pred))
+					states.add(traverse(index.ingoingEdge(id, k), result.get(pred), implementation));
 			}
+		}
 
 		T entrystate = startstate;
 		try {
@@ -333,4 +377,16 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 
 		return entrystate;
 	}
+
+	private T traverse(
+			E edge,
+			T state,
+			FixpointImplementation<N, E, T> implementation)
+			throws FixpointException {
+		try {
+			return implementation.traverse(edge, state);
+		} catch (Exception e) {
+			throw new FixpointException(format(ERROR, "computing edge semantics", edge, graph), e);
+		}
+	}
 }
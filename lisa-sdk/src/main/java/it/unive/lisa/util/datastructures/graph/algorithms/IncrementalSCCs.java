@@ -0,0 +1,331 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index over the strongly connected components of a graph that only grows,
+ * updated incrementally as nodes and edges are added. The index keeps the
+ * condensation of the graph (the acyclic graph of its components) together
+ * with a topological order of it, following the algorithm by Pearce and Kelly:
+ * adding an edge that respects the order costs constant time, while adding an
+ * edge that violates it only reorders the components whose order lies between
+ * the ones of its endpoints. Whenever an edge closes a cycle, all the
+ * components on that cycle are merged into a single one.<br>
+ * <br>
+ * This lets {@link #isReachable(Object, Object)} answer in constant time for
+ * nodes of the same component, and prune the search to the components between
+ * the two nodes in the topological order otherwise. Non-trivial components
+ * (i.e., containing at least one edge) are also tracked as they are formed, and
+ * are available through {@link #getNonTrivialSCCs()} without traversing the
+ * graph.<br>
+ * <br>
+ * Instances of this class are not thread-safe.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <N> the type of nodes of the indexed graph
+ * 
+ * @see <a href="https://doi.org/10.1145/1187436.1210590">D. J. Pearce and P.
+ *          H. J. Kelly. A dynamic topological sort algorithm for directed
+ *          acyclic graphs. ACM Journal of Experimental Algorithmics, 2007</a>
+ */
+public class IncrementalSCCs<N> {
+
+	private final Map<N, Component<N>> components;
+
+	private final Set<Component<N>> nonTrivial;
+
+	private int nextOrder;
+
+	private int epoch;
+
+	/**
+	 * Builds an empty index.
+	 */
+	public IncrementalSCCs() {
+		components = new HashMap<>();
+		nonTrivial = new HashSet<>();
+	}
+
+	/**
+	 * Removes all nodes and edges from this index.
+	 */
+	public void clear() {
+		components.clear();
+		nonTrivial.clear();
+		nextOrder = 0;
+		epoch = 0;
+	}
+
+	/**
+	 * Adds a node to this index, if it is not already part of it. The node will
+	 * initially be the only member of its component.
+	 * 
+	 * @param node the node to add
+	 */
+	public void addNode(
+			N node) {
+		component(node);
+	}
+
+	/**
+	 * Adds an edge between two nodes to this index, adding the nodes first if
+	 * needed.
+	 * 
+	 * @param source      the source of the edge
+	 * @param destination the destination of the edge
+	 */
+	public void addEdge(
+			N source,
+			N destination) {
+		Component<N> src = find(component(source));
+		Component<N> dest = find(component(destination));
+
+		if (src == dest) {
+			// self loops make a single-node component non-trivial
+			if (!src.cyclic) {
+				src.cyclic = true;
+				nonTrivial.add(src);
+			}
+			return;
+		}
+
+		if (!src.successors.add(dest))
+			return;
+		dest.predecessors.add(src);
+
+		if (src.order < dest.order)
+			// the order is still topological
+			return;
+
+		int lower = dest.order;
+		int upper = src.order;
+		int forwardMark = ++epoch;
+		List<Component<N>> forward = new ArrayList<>();
+		boolean cycle = visit(dest, upper, true, forwardMark, src, forward);
+		int backwardMark = ++epoch;
+		List<Component<N>> backward = new ArrayList<>();
+		visit(src, lower, false, backwardMark, null, backward);
+
+		List<Integer> pool = new ArrayList<>(forward.size() + backward.size());
+		forward.forEach(c -> pool.add(c.order));
+		for (Component<N> c : backward)
+			if (c.mark[0] != forwardMark)
+				// components on a cycle are visited twice
+				pool.add(c.order);
+		Collections.sort(pool);
+
+		List<Component<N>> merged = Collections.emptyList();
+		if (cycle) {
+			// the components reachable from dest that also reach src are the
+			// ones on the new cycle
+			merged = new ArrayList<>();
+			for (Component<N> c : backward)
+				if (c.mark[0] == forwardMark)
+					merged.add(c);
+			forward.removeAll(merged);
+			backward.removeAll(merged);
+		}
+
+		Comparator<Component<N>> byOrder = (
+				c1,
+				c2) -> Integer.compare(c1.order, c2.order);
+		forward.sort(byOrder);
+		backward.sort(byOrder);
+
+		int i = 0;
+		for (Component<N> c : backward)
+			c.order = pool.get(i++);
+		if (cycle) {
+			// the merged component takes the place of all of its members
+			merge(merged).order = pool.get(i);
+			i += merged.size();
+		}
+		for (Component<N> c : forward)
+			c.order = pool.get(i++);
+	}
+
+	/**
+	 * Yields whether or not {@code to} can be reached from {@code from}
+	 * following at least one edge. Nodes that are not part of this index are
+	 * not reachable from any node.
+	 * 
+	 * @param from the node where the path starts
+	 * @param to   the node where the path ends
+	 * 
+	 * @return whether or not a non-empty path exists between the two nodes
+	 */
+	public boolean isReachable(
+			N from,
+			N to) {
+		Component<N> src = components.get(from);
+		Component<N> dest = components.get(to);
+		if (src == null || dest == null)
+			return false;
+
+		src = find(src);
+		dest = find(dest);
+		if (src == dest)
+			return src.cyclic;
+		if (src.order > dest.order)
+			// topological order: dest cannot reach src
+			return false;
+
+		return visit(src, dest.order, true, ++epoch, dest, null);
+	}
+
+	/**
+	 * Yields whether or not the given node belongs to a non-trivial strongly
+	 * connected component, that is, if it is part of a cycle.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isInCycle(
+			N node) {
+		Component<N> c = components.get(node);
+		return c != null && find(c).cyclic;
+	}
+
+	/**
+	 * Yields the strongly connected component containing the given node.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return the nodes of the component, or an empty collection if the node
+	 *             is not part of this index
+	 */
+	public Collection<N> getSCCOf(
+			N node) {
+		Component<N> c = components.get(node);
+		if (c == null)
+			return Collections.emptySet();
+		return Collections.unmodifiableSet(find(c).members);
+	}
+
+	/**
+	 * Yields all the non-trivial strongly connected components (i.e.,
+	 * containing at least one edge) of the indexed graph.
+	 * 
+	 * @return the non-trivial components
+	 */
+	public Collection<Collection<N>> getNonTrivialSCCs() {
+		Collection<Collection<N>> result = new HashSet<>();
+		for (Component<N> c : nonTrivial)
+			result.add(new HashSet<>(c.members));
+		return result;
+	}
+
+	private Component<N> component(
+			N node) {
+		return components.computeIfAbsent(node, n -> new Component<>(n, nextOrder++));
+	}
+
+	private static <N> Component<N> find(
+			Component<N> c) {
+		Component<N> root = c;
+		while (root.parent != root)
+			root = root.parent;
+		while (c != root) {
+			Component<N> next = c.parent;
+			c.parent = root;
+			c = next;
+		}
+		return root;
+	}
+
+	private boolean visit(
+			Component<N> start,
+			int bound,
+			boolean forward,
+			int mark,
+			Component<N> target,
+			List<Component<N>> visited) {
+		// forward visits stay below the bound, backward ones above it
+		int slot = forward ? 0 : 1;
+		boolean found = false;
+		List<Component<N>> stack = new ArrayList<>();
+		start.mark[slot] = mark;
+		stack.add(start);
+		while (!stack.isEmpty()) {
+			Component<N> c = stack.remove(stack.size() - 1);
+			if (visited != null)
+				visited.add(c);
+			for (Component<N> next : forward ? c.successors : c.predecessors) {
+				next = find(next);
+				if (next == target) {
+					found = true;
+					if (visited == null)
+						// only reachability was requested
+						return true;
+				}
+				if (next.mark[slot] != mark && (forward ? next.order <= bound : next.order >= bound)) {
+					next.mark[slot] = mark;
+					stack.add(next);
+				}
+			}
+		}
+		return found;
+	}
+
+	private Component<N> merge(
+			List<Component<N>> cycle) {
+		Component<N> root = cycle.get(0);
+		for (Component<N> c : cycle)
+			if (c != root) {
+				c.parent = root;
+				root.members.addAll(c.members);
+				root.successors.addAll(c.successors);
+				root.predecessors.addAll(c.predecessors);
+				nonTrivial.remove(c);
+				c.members = null;
+				c.successors = null;
+				c.predecessors = null;
+			}
+
+		root.successors.removeIf(c -> find(c) == root);
+		root.predecessors.removeIf(c -> find(c) == root);
+		root.cyclic = true;
+		nonTrivial.add(root);
+		return root;
+	}
+
+	private static final class Component<N> {
+
+		private Component<N> parent;
+
+		private Set<N> members;
+
+		// might contain components that have been merged into others
+		private Set<Component<N>> successors;
+
+		private Set<Component<N>> predecessors;
+
+		private int order;
+
+		private boolean cyclic;
+
+		// last forward and backward visits that reached this component
+		private final int[] mark = new int[2];
+
+		private Component(
+				N node,
+				int order) {
+			this.parent = this;
+			this.members = new HashSet<>();
+			this.members.add(node);
+			this.successors = new HashSet<>();
+			this.predecessors = new HashSet<>();
+			this.order = order;
+		}
+	}
+}
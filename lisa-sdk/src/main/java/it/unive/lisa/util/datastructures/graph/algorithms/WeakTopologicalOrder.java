@@ -0,0 +1,270 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import it.unive.lisa.util.datastructures.graph.Edge;
+import it.unive.lisa.util.datastructures.graph.Graph;
+import it.unive.lisa.util.datastructures.graph.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+/**
+ * An algorithm that computes a weak topological order of a graph, that is, a
+ * hierarchical ordering of its nodes where each strongly connected component
+ * is ordered recursively: its head comes first, followed by the order of its
+ * remaining nodes. Components are contiguous in the resulting order, and a
+ * node that is not the head of a component comes after all of its predecessors
+ * that are not reached through a back edge. This is implemented through
+ * Bourdoncle's algorithm, where nodes are visited starting from the given
+ * roots. The visit is iterative, so that the depth of the graph is not bounded
+ * by the size of the call stack.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <G> the type of the target {@link Graph}s
+ * @param <N> the type of {@link Node}s in the target graphs
+ * @param <E> the type of {@link Edge}s in the target graphs
+ * 
+ * @see <a href="https://doi.org/10.1007/BFb0039704">F. Bourdoncle. Efficient
+ *          chaotic iteration strategies with widenings. FMPA 1993</a>
+ */
+public class WeakTopologicalOrder<G extends Graph<G, N, E>, N extends Node<G, N, E>, E extends Edge<G, N, E>> {
+
+	private final List<N> order;
+
+	private final Set<N> heads;
+
+	/**
+	 * Builds the order. To run the algorithm, use
+	 * {@link #build(Graph, Collection)} or
+	 * {@link #buildBackward(Graph, Collection)}.
+	 */
+	public WeakTopologicalOrder() {
+		order = new ArrayList<>();
+		heads = new HashSet<>();
+	}
+
+	/**
+	 * Yields the last computed order, flattened to a list.
+	 * 
+	 * @return the order
+	 */
+	public List<N> getOrder() {
+		return order;
+	}
+
+	/**
+	 * Yields the heads of the components found while computing the last
+	 * order. These are the nodes where widening must be applied for fixpoint
+	 * iterations to terminate.
+	 * 
+	 * @return the heads of the components
+	 */
+	public Set<N> getHeads() {
+		return heads;
+	}
+
+	/**
+	 * Builds the weak topological order of the nodes of the given graph that
+	 * are reachable from the given roots, following the edges of the graph.
+	 * The returned value can also be accessed later through
+	 * {@link #getOrder()}.
+	 * 
+	 * @param graph the graph
+	 * @param roots the nodes to start from
+	 * 
+	 * @return the order
+	 */
+	public List<N> build(
+			G graph,
+			Collection<N> roots) {
+		return build(graph, roots, true);
+	}
+
+	/**
+	 * Builds the weak topological order of the nodes of the given graph that
+	 * are reachable from the given roots, following the edges of the graph
+	 * backwards. The returned value can also be accessed later through
+	 * {@link #getOrder()}.
+	 * 
+	 * @param graph the graph
+	 * @param roots the nodes to start from
+	 * 
+	 * @return the order
+	 */
+	public List<N> buildBackward(
+			G graph,
+			Collection<N> roots) {
+		return build(graph, roots, false);
+	}
+
+	private List<N> build(
+			G graph,
+			Collection<N> roots,
+			boolean forward) {
+		order.clear();
+		heads.clear();
+
+		Visit visit = new Visit(graph, forward);
+		LinkedList<N> partition = new LinkedList<>();
+		// roots are prepended: we visit them backwards to keep their order
+		List<N> rs = new ArrayList<>(roots);
+		for (int i = rs.size() - 1; i >= 0; i--)
+			if (!visit.dfn.containsKey(rs.get(i)))
+				visit.visit(rs.get(i), partition);
+
+		order.addAll(partition);
+		return order;
+	}
+
+	private class Visit {
+
+		private final G graph;
+
+		private final boolean forward;
+
+		private final Map<N, Integer> dfn = new HashMap<>();
+
+		private final Stack<N> stack = new Stack<>();
+
+		private int num = 0;
+
+		private Visit(
+				G graph,
+				boolean forward) {
+			this.graph = graph;
+			this.forward = forward;
+		}
+
+		private Collection<N> successors(
+				N node) {
+			return forward ? graph.followersOf(node) : graph.predecessorsOf(node);
+		}
+
+		private Frame enter(
+				N v,
+				LinkedList<N> partition) {
+			stack.push(v);
+			dfn.put(v, ++num);
+			return new Frame(v, partition, successors(v).iterator(), num, null);
+		}
+
+		/**
+		 * Visits the nodes reachable from {@code root} that have not been
+		 * visited yet, prepending their order to the given partition. This
+		 * follows the recursive formulation of Bourdoncle's algorithm, where
+		 * each invocation of its {@code visit} and {@code component}
+		 * procedures is a {@link Frame} on an explicit stack, so that long
+		 * paths in the graph cannot exhaust the call stack.
+		 * 
+		 * @param root      the node to start from
+		 * @param partition the partition where the order has to be prepended
+		 */
+		private void visit(
+				N root,
+				LinkedList<N> partition) {
+			Deque<Frame> frames = new ArrayDeque<>();
+			frames.push(enter(root, partition));
+			// the head returned by the last visit that ended, if any
+			int returned = 0;
+			boolean hasReturned = false;
+
+			while (!frames.isEmpty()) {
+				Frame frame = frames.peek();
+				if (hasReturned) {
+					hasReturned = false;
+					// components ignore the heads of the visits they start
+					if (frame.component == null && returned <= frame.head) {
+						frame.head = returned;
+						frame.loop = true;
+					}
+				}
+
+				if (frame.successors.hasNext()) {
+					N w = frame.successors.next();
+					int d = dfn.getOrDefault(w, 0);
+					if (d == 0)
+						frames.push(enter(w, frame.component == null ? frame.partition : frame.component));
+					else if (frame.component == null && d <= frame.head) {
+						frame.head = d;
+						frame.loop = true;
+					}
+					continue;
+				}
+
+				frames.pop();
+				if (frame.component != null) {
+					// end of component(v)
+					frame.component.addFirst(frame.node);
+					frame.partition.addAll(0, frame.component);
+				} else if (frame.head == dfn.get(frame.node)) {
+					// end of visit(v) for the head of a component
+					dfn.put(frame.node, Integer.MAX_VALUE);
+					N element = stack.pop();
+					if (frame.loop) {
+						while (element != frame.node) {
+							dfn.put(element, 0);
+							element = stack.pop();
+						}
+						heads.add(frame.node);
+						// the visit returns only after component(v) ends
+						frames.push(new Frame(frame.node, frame.partition, successors(frame.node).iterator(),
+								frame.head, new LinkedList<>()));
+						continue;
+					} else
+						frame.partition.addFirst(frame.node);
+				}
+
+				returned = frame.head;
+				hasReturned = true;
+			}
+		}
+	}
+
+	/**
+	 * An invocation of either the {@code visit} or the {@code component}
+	 * procedure of Bourdoncle's algorithm, that is suspended while the
+	 * successors of its node are processed.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private class Frame {
+
+		private final N node;
+
+		private final LinkedList<N> partition;
+
+		private final Iterator<N> successors;
+
+		/**
+		 * The partition built for the component headed by {@link #node}, or
+		 * {@code null} if this is an invocation of {@code visit}.
+		 */
+		private final LinkedList<N> component;
+
+		private int head;
+
+		private boolean loop;
+
+		private Frame(
+				N node,
+				LinkedList<N> partition,
+				Iterator<N> successors,
+				int head,
+				LinkedList<N> component) {
+			this.node = node;
+			this.partition = partition;
+			this.successors = successors;
+			this.head = head;
+			this.component = component;
+		}
+	}
+}
@@ -2,6 +2,7 @@ package it.unive.lisa.util.datastructures.graph.code;
 
 import it.unive.lisa.outputs.serializableGraph.SerializableGraph;
 import it.unive.lisa.outputs.serializableGraph.SerializableValue;
+import it.unive.lisa.util.datastructures.graph.AdjacencyIndex;
 import it.unive.lisa.util.datastructures.graph.Graph;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -187,6 +188,22 @@ public abstract class CodeGraph<G extends CodeGraph<G, N, E>, N extends CodeNode
 		return list.predecessorsOf(node);
 	}
 
+	@Override
+	public AdjacencyIndex<N, E> getAdjacencyIndex() {
+		return list.getAdjacencyIndex();
+	}
+
+	/**
+	 * Compiles the current structure of this graph into an
+	 * {@link AdjacencyIndex}, through
+	 * {@link NodeList#computeAdjacencyIndex()}. The index will then be
+	 * available through {@link #getAdjacencyIndex()} until the graph is
+	 * modified (simplifications excluded, as they rebuild the index).
+	 */
+	public void computeAdjacencyIndex() {
+		list.computeAdjacencyIndex();
+	}
+
 	@Override
 	public SerializableGraph toSerializableGraph(
 			BiFunction<G, N, SerializableValue> descriptionGenerator) {
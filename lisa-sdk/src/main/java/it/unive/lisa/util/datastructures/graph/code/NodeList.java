@@ -2,6 +2,7 @@ package it.unive.lisa.util.datastructures.graph.code;
 
 import it.unive.lisa.program.ProgramValidationException;
 import it.unive.lisa.util.collections.CollectionUtilities.SortedSetCollector;
+import it.unive.lisa.util.datastructures.graph.AdjacencyIndex;
 import it.unive.lisa.util.datastructures.graph.Edge;
 import it.unive.lisa.util.datastructures.graph.Node;
 import java.util.ArrayList;
@@ -61,6 +62,13 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	private final E sequentialSingleton;
 
+	/**
+	 * The compiled adjacency of this list, available only after
+	 * {@link #computeAdjacencyIndex()} has been invoked and until the next
+	 * modification of the list.
+	 */
+	private AdjacencyIndex<N, E> index;
+
 	/**
 	 * Builds a new list. Offsets of nodes added to this list will be set
 	 * automatically.
@@ -89,7 +97,7 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 			E sequentialSingleton,
 			boolean computeOffsets) {
 		this.sequentialSingleton = sequentialSingleton;
-		nodes = new LinkedList<>();
+		nodes = new ArrayList<>();
 		cutoff = new HashSet<>();
 		extraEdges = new HashMap<>();
 	}
@@ -102,11 +110,76 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	public NodeList(
 			NodeList<G, N, E> other) {
 		sequentialSingleton = other.sequentialSingleton;
-		nodes = new LinkedList<>(other.nodes);
+		nodes = new ArrayList<>(other.nodes);
 		cutoff = new HashSet<>(other.cutoff);
 		extraEdges = new HashMap<>();
 		for (Entry<N, NodeEdges<G, N, E>> entry : other.extraEdges.entrySet())
 			extraEdges.put(entry.getKey(), new NodeEdges<>(entry.getValue()));
+		// the index is immutable and describes the same structure
+		index = other.index;
+	}
+
+	/**
+	 * Compiles the current structure of this list into an
+	 * {@link AdjacencyIndex}, that will be used to answer adjacency queries
+	 * (e.g., {@link #followersOf(CodeNode)}, {@link #predecessorsOf(CodeNode)},
+	 * {@link #getEdgeConnecting(CodeNode, CodeNode)}) without scanning the
+	 * list. The index is discarded whenever this list is modified, with the
+	 * exception of {@link #simplify(Iterable, Collection, Collection, Map)}
+	 * that rebuilds it once the simplification is complete.
+	 */
+	public void computeAdjacencyIndex() {
+		int size = nodes.size();
+		Object[] array = nodes.toArray();
+		Map<N, Integer> ids = new HashMap<>(size * 2);
+		for (int i = 0; i < size; i++)
+			ids.putIfAbsent(nodes.get(i), i);
+
+		int[] succOffsets = new int[size + 1];
+		int[] predOffsets = new int[size + 1];
+		List<Integer> succ = new ArrayList<>(size), pred = new ArrayList<>(size);
+		List<E> succEdges = new ArrayList<>(size), predEdges = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			N node = nodes.get(i);
+
+			// we iterate over the same sets that the non-indexed queries
+			// produce, to preserve their iteration order
+			succOffsets[i] = succ.size();
+			for (N follower : followersOf(node, i)) {
+				int dest = ids.get(follower);
+				succ.add(dest);
+				succEdges.add(getEdgeConnecting(node, i, follower, dest));
+			}
+
+			predOffsets[i] = pred.size();
+			for (N predecessor : predecessorsOf(node, i)) {
+				int src = ids.get(predecessor);
+				pred.add(src);
+				predEdges.add(getEdgeConnecting(predecessor, src, node, i));
+			}
+		}
+		succOffsets[size] = succ.size();
+		predOffsets[size] = pred.size();
+
+		index = new AdjacencyIndex<>(array, ids,
+				succOffsets, succ.stream().mapToInt(Integer::intValue).toArray(), succEdges.toArray(),
+				predOffsets, pred.stream().mapToInt(Integer::intValue).toArray(), predEdges.toArray());
+	}
+
+	/**
+	 * Yields the {@link AdjacencyIndex} of this list, if it has been computed
+	 * through {@link #computeAdjacencyIndex()} and this list has not been
+	 * modified since then.
+	 * 
+	 * @return the index, or {@code null} if it is not available
+	 */
+	public AdjacencyIndex<N, E> getAdjacencyIndex() {
+		return index;
+	}
+
+	private int indexOf(
+			N node) {
+		return index == null ? nodes.indexOf(node) : index.indexOf(node);
 	}
 
 	/**
@@ -126,6 +199,7 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 			// already in the graph
 			return;
 
+		index = null;
 		int size = nodes.size();
 		if (size != 0)
 			cutoff.add(size - 1);
@@ -145,7 +219,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 		if (!containsNode(node))
 			return;
 
-		int target = nodes.indexOf(node);
+		int target = indexOf(node);
+		index = null;
 		NodeEdges<G, N, E> edges = extraEdges.get(node);
 		if (edges != null) {
 			Set<E> union = new HashSet<>(edges.ingoing);
@@ -199,14 +274,15 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public void addEdge(
 			E e) {
-		int src = nodes.indexOf(e.getSource());
+		int src = indexOf(e.getSource());
 		if (src == -1)
 			throw new UnsupportedOperationException("The source node is not in the graph");
 
-		int dest = nodes.indexOf(e.getDestination());
+		int dest = indexOf(e.getDestination());
 		if (dest == -1)
 			throw new UnsupportedOperationException("The destination node is not in the graph");
 
+		index = null;
 		if (e.isUnconditional() && src == dest - 1)
 			// just remove the cutoff
 			cutoff.remove(src);
@@ -223,11 +299,12 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public void removeEdge(
 			E e) {
-		int src = nodes.indexOf(e.getSource());
-		int dest = nodes.indexOf(e.getDestination());
+		int src = indexOf(e.getSource());
+		int dest = indexOf(e.getDestination());
 		if (src == -1 || dest == -1)
 			return;
 
+		index = null;
 		if (e.isUnconditional() && src == dest - 1)
 			// just add the cutoff
 			cutoff.add(src);
@@ -262,11 +339,21 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	public final E getEdgeConnecting(
 			N source,
 			N destination) {
-		int src = nodes.indexOf(source);
-		int dest = nodes.indexOf(destination);
+		int src = indexOf(source);
+		int dest = indexOf(destination);
 		if (src == -1 || dest == -1)
 			return null;
 
+		if (index != null)
+			return index.edgeConnecting(src, dest);
+		return getEdgeConnecting(source, src, destination, dest);
+	}
+
+	private E getEdgeConnecting(
+			N source,
+			int src,
+			N destination,
+			int dest) {
 		if (src == dest - 1 && !cutoff.contains(src))
 			return sequentialSingleton.newInstance(source, destination);
 
@@ -293,8 +380,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	public Collection<E> getEdgesConnecting(
 			N source,
 			N destination) {
-		int src = nodes.indexOf(source);
-		int dest = nodes.indexOf(destination);
+		int src = indexOf(source);
+		int dest = indexOf(destination);
 		if (src == -1 || dest == -1)
 			return Collections.emptySet();
 
@@ -320,7 +407,7 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public final Collection<E> getIngoingEdges(
 			N node) {
-		int src = nodes.indexOf(node);
+		int src = indexOf(node);
 		if (src == -1)
 			return Collections.emptySet();
 
@@ -344,7 +431,7 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public final Collection<E> getOutgoingEdges(
 			N node) {
-		int src = nodes.indexOf(node);
+		int src = indexOf(node);
 		if (src == -1)
 			return Collections.emptySet();
 
@@ -388,10 +475,18 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public final Collection<N> followersOf(
 			N node) {
-		int src = nodes.indexOf(node);
+		int src = indexOf(node);
 		if (src == -1)
 			throw new IllegalArgumentException("'" + node + "' is not in the graph");
 
+		if (index != null)
+			return index.followersOf(src);
+		return followersOf(node, src);
+	}
+
+	private Collection<N> followersOf(
+			N node,
+			int src) {
 		Set<N> result = new HashSet<>();
 		if (src != nodes.size() - 1 && !cutoff.contains(src))
 			result.add(nodes.get(src + 1));
@@ -416,10 +511,18 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public final Collection<N> predecessorsOf(
 			N node) {
-		int src = nodes.indexOf(node);
+		int src = indexOf(node);
 		if (src == -1)
 			throw new IllegalArgumentException("'" + node + "' is not in the graph");
 
+		if (index != null)
+			return index.predecessorsOf(src);
+		return predecessorsOf(node, src);
+	}
+
+	private Collection<N> predecessorsOf(
+			N node,
+			int src) {
 		Set<N> result = new HashSet<>();
 		if (src != 0 && !cutoff.contains(src - 1))
 			result.add(nodes.get(src - 1));
@@ -464,6 +567,7 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 			Map<Pair<E, E>, E> replacedEdges) {
 		removedEdges.clear();
 		replacedEdges.clear();
+		boolean indexed = index != null;
 
 		for (N t : targets) {
 			boolean entry = entrypoints.contains(t);
@@ -513,6 +617,9 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 
 			removeNode(t);
 		}
+
+		if (indexed)
+			computeAdjacencyIndex();
 	}
 
 	/**
@@ -524,7 +631,7 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public boolean containsNode(
 			N node) {
-		return nodes.contains(node);
+		return indexOf(node) != -1;
 	}
 
 	/**
@@ -536,8 +643,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public boolean containsEdge(
 			E edge) {
-		int src = nodes.indexOf(edge.getSource());
-		int dest = nodes.indexOf(edge.getDestination());
+		int src = indexOf(edge.getSource());
+		int dest = indexOf(edge.getDestination());
 		if (src == -1 || dest == -1)
 			return false;
 
@@ -768,6 +875,17 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	public void validate(
 			Collection<N> entrypoints)
 			throws ProgramValidationException {
+		// positions are computed once, instead of searching the list for
+		// each node and edge
+		Map<N, Integer> ids;
+		if (index != null)
+			ids = null;
+		else {
+			ids = new HashMap<>(nodes.size() * 2);
+			for (int i = 0; i < nodes.size(); i++)
+				ids.putIfAbsent(nodes.get(i), i);
+		}
+
 		// all edges should be connected to statements inside the list
 		for (N node : nodes) {
 			NodeEdges<G, N, E> edges = extraEdges.get(node);
@@ -775,13 +893,13 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 				continue;
 
 			for (E in : edges.ingoing)
-				validateEdge(nodes, in);
+				validateEdge(ids, in);
 
 			for (E out : edges.outgoing)
-				validateEdge(nodes, out);
+				validateEdge(ids, out);
 
 			// no deadcode
-			int idx = nodes.indexOf(node);
+			int idx = ids == null ? index.indexOf(node) : ids.get(node);
 			if (edges.ingoing.isEmpty()
 					&& (idx == 0 || cutoff.contains(idx - 1))
 					&& !entrypoints.contains(node))
@@ -791,13 +909,13 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	}
 
 	private void validateEdge(
-			Collection<N> nodes,
+			Map<N, Integer> ids,
 			E edge)
 			throws ProgramValidationException {
-		if (!nodes.contains(edge.getSource()))
+		if (!(ids == null ? containsNode(edge.getSource()) : ids.containsKey(edge.getSource())))
 			throw new ProgramValidationException("Invalid edge: '" + edge
 					+ "' originates in a node that is not part of the graph");
-		else if (!nodes.contains(edge.getDestination()))
+		else if (!(ids == null ? containsNode(edge.getDestination()) : ids.containsKey(edge.getDestination())))
 			throw new ProgramValidationException("Invalid edge: '" + edge
 					+ "' reaches a node that is not part of the graph");
 	}
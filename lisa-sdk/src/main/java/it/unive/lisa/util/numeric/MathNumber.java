@@ -7,6 +7,11 @@ import java.math.RoundingMode;
 /**
  * A wrapper around {@link BigDecimal} to represent the mathematical concept of
  * a number, that can be also plus or minus infinity, in a convenient way.
+ * Integral numbers that fit in a {@code long} (that is, the ones represented
+ * by a {@link BigDecimal} with scale {@code 0}) are stored as primitive
+ * values, and arithmetic between them is carried out on {@code long}s. Results
+ * that overflow are computed through {@link BigDecimal}s instead, so the two
+ * representations are indistinguishable from the outside.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
@@ -43,8 +48,22 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public static final MathNumber NaN = new MathNumber((byte) 3);
 
+	private static final BigDecimal MIN_COMPACT = BigDecimal.valueOf(Long.MIN_VALUE);
+
+	private static final BigDecimal MAX_COMPACT = BigDecimal.valueOf(Long.MAX_VALUE);
+
+	/**
+	 * The value of this number, {@code null} if it is infinite, NaN, or if it
+	 * is stored in {@link #value} (see {@link #isCompact()}).
+	 */
 	private final BigDecimal number;
 
+	/**
+	 * The value of this number if it is compact (see {@link #isCompact()}),
+	 * {@code 0} otherwise.
+	 */
+	private final long value;
+
 	/**
 	 * -1, 0, or 1 as this number is negative, zero, or positive. 3 means NaN.
 	 */
@@ -57,7 +76,11 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public MathNumber(
 			long number) {
-		this.number = BigDecimal.valueOf(number);
+		// the minimum value is kept as a big decimal so that negating a
+		// compact number never overflows
+		boolean compact = number != Long.MIN_VALUE;
+		this.number = compact ? null : BigDecimal.valueOf(number);
+		this.value = compact ? number : 0;
 		this.sign = number > 0 ? (byte) 1 : number == 0 ? (byte) 0 : (byte) -1;
 	}
 
@@ -68,8 +91,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public MathNumber(
 			double number) {
-		this.number = BigDecimal.valueOf(number);
-		this.sign = number > 0 ? (byte) 1 : number == 0 ? (byte) 0 : (byte) -1;
+		this(BigDecimal.valueOf(number));
 	}
 
 	/**
@@ -79,23 +101,44 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public MathNumber(
 			BigDecimal number) {
-		this.number = number;
+		boolean compact = number.scale() == 0 && number.compareTo(MIN_COMPACT) > 0
+				&& number.compareTo(MAX_COMPACT) <= 0;
+		this.number = compact ? null : number;
+		this.value = compact ? number.longValue() : 0;
 		this.sign = number.signum() > 0 ? (byte) 1 : number.signum() == 0 ? (byte) 0 : (byte) -1;
 	}
 
 	private MathNumber(
 			byte sign) {
 		this.number = null;
+		this.value = 0;
 		this.sign = sign;
 	}
 
+	/**
+	 * Yields whether or not this number is stored in {@link #value}. This holds
+	 * for all integral numbers with scale {@code 0} between
+	 * {@link Long#MIN_VALUE} (excluded) and {@link Long#MAX_VALUE}. Infinities
+	 * and NaN have a zero {@link #value} but a non-zero sign.
+	 */
+	private boolean isCompact() {
+		return number == null && (value != 0 || sign == 0);
+	}
+
+	/**
+	 * Yields the value of this finite number as a {@link BigDecimal}.
+	 */
+	private BigDecimal big() {
+		return isCompact() ? BigDecimal.valueOf(value) : number;
+	}
+
 	/**
 	 * Yields {@code true} if this number is minus infinity.
 	 * 
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean isMinusInfinity() {
-		return number == null && isNegative();
+		return number == null && !isCompact() && isNegative();
 	}
 
 	/**
@@ -104,7 +147,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean isPlusInfinity() {
-		return number == null && isPositive();
+		return number == null && !isCompact() && isPositive();
 	}
 
 	/**
@@ -136,6 +179,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public boolean is(
 			int n) {
+		if (isCompact())
+			return value == n;
 		return number != null && number.equals(new BigDecimal(n));
 	}
 
@@ -174,7 +219,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean isNaN() {
-		return number == null && sign == (byte) 3;
+		return sign == (byte) 3;
 	}
 
 	private static MathNumber cached(
@@ -213,7 +258,14 @@ public class MathNumber implements Comparable<MathNumber> {
 			// this is finite
 			return other;
 
-		return cached(new MathNumber(number.add(other.number)));
+		if (isCompact() && other.isCompact())
+			try {
+				return cached(new MathNumber(Math.addExact(value, other.value)));
+			} catch (ArithmeticException e) {
+				// overflow: we fall back to big decimals
+			}
+
+		return cached(new MathNumber(big().add(other.big())));
 	}
 
 	/**
@@ -241,7 +293,14 @@ public class MathNumber implements Comparable<MathNumber> {
 			// this is finite
 			return other.multiply(MINUS_ONE);
 
-		return cached(new MathNumber(number.subtract(other.number)));
+		if (isCompact() && other.isCompact())
+			try {
+				return cached(new MathNumber(Math.subtractExact(value, other.value)));
+			} catch (ArithmeticException e) {
+				// overflow: we fall back to big decimals
+			}
+
+		return cached(new MathNumber(big().subtract(other.big())));
 	}
 
 	/**
@@ -277,7 +336,14 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (isZero() || other.isZero())
 			return ZERO;
 
-		return cached(new MathNumber(number.multiply(other.number)));
+		if (isCompact() && other.isCompact())
+			try {
+				return cached(new MathNumber(Math.multiplyExact(value, other.value)));
+			} catch (ArithmeticException e) {
+				// overflow: we fall back to big decimals
+			}
+
+		return cached(new MathNumber(big().multiply(other.big())));
 	}
 
 	/**
@@ -308,7 +374,12 @@ public class MathNumber implements Comparable<MathNumber> {
 			else
 				return MINUS_INFINITY;
 
-		return cached(new MathNumber(number.divide(other.number, 100, RoundingMode.HALF_UP).stripTrailingZeros()));
+		// exact quotients that are not multiples of 10 are not affected by
+		// stripping trailing zeros, so they can be computed on longs
+		if (isCompact() && other.isCompact() && value % other.value == 0 && (value / other.value) % 10 != 0)
+			return cached(new MathNumber(value / other.value));
+
+		return cached(new MathNumber(big().divide(other.big(), 100, RoundingMode.HALF_UP).stripTrailingZeros()));
 	}
 
 	@Override
@@ -336,7 +407,18 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (isPlusInfinity() || other.isMinusInfinity())
 			return 1;
 
-		return CollectionUtilities.nullSafeCompare(true, number, other.number, BigDecimal::compareTo);
+		return compareFinite(other);
+	}
+
+	/**
+	 * Compares this number with the given one, assuming that both are finite
+	 * (according to {@link #isFinite()}) and not NaN.
+	 */
+	private int compareFinite(
+			MathNumber other) {
+		if (isCompact() && other.isCompact())
+			return Long.compare(value, other.value);
+		return CollectionUtilities.nullSafeCompare(true, big(), other.big(), BigDecimal::compareTo);
 	}
 
 	/**
@@ -359,7 +441,7 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (other.isMinusInfinity() || isPlusInfinity())
 			return other;
 
-		return cached(new MathNumber(number.min(other.number)));
+		return cached(compareFinite(other) <= 0 ? this : other);
 	}
 
 	/**
@@ -382,7 +464,7 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (isMinusInfinity() || other.isPlusInfinity())
 			return other;
 
-		return cached(new MathNumber(number.max(other.number)));
+		return cached(compareFinite(other) >= 0 ? this : other);
 	}
 
 	/**
@@ -449,6 +531,9 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (isMinusInfinity())
 			return PLUS_INFINITY;
 
+		if (isCompact())
+			return isNegative() ? cached(new MathNumber(-value)) : this;
+
 		return cached(new MathNumber(number.abs()));
 	}
 
@@ -463,6 +548,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	public MathNumber roundUp() {
 		if (isInfinite() || isNaN())
 			return this;
+		if (isCompact())
+			return cached(this);
 		return cached(new MathNumber(number.setScale(0, RoundingMode.CEILING)));
 	}
 
@@ -477,6 +564,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	public MathNumber roundDown() {
 		if (isInfinite() || isNaN())
 			return this;
+		if (isCompact())
+			return cached(this);
 		return cached(new MathNumber(number.setScale(0, RoundingMode.FLOOR)));
 	}
 
@@ -491,6 +580,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	public int toInt() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
+		if (isCompact())
+			return (int) value;
 		return number.intValue();
 	}
 
@@ -505,6 +596,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	public double toDouble() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
+		if (isCompact())
+			return (double) value;
 		return number.doubleValue();
 	}
 
@@ -519,6 +612,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	public byte toByte() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
+		if (isCompact())
+			return (byte) value;
 		return number.byteValue();
 	}
 
@@ -533,6 +628,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	public short toShort() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
+		if (isCompact())
+			return (short) value;
 		return number.shortValue();
 	}
 
@@ -547,6 +644,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	public float toFloat() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
+		if (isCompact())
+			return (float) value;
 		return number.floatValue();
 	}
 
@@ -561,6 +660,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	public long toLong() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
+		if (isCompact())
+			return value;
 		return number.longValue();
 	}
 
@@ -568,11 +669,25 @@ public class MathNumber implements Comparable<MathNumber> {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((number == null) ? 0 : number.hashCode());
+		// compact numbers hash as their big decimal counterparts
+		result = prime * result + hashOf(value) + ((number == null) ? 0 : number.hashCode());
 		result = prime * result + sign;
 		return result;
 	}
 
+	/**
+	 * Yields the same value of {@link BigDecimal#hashCode()} for the big
+	 * decimal with scale {@code 0} representing the given value, without
+	 * building it.
+	 */
+	private static int hashOf(
+			long value) {
+		long abs = value < 0 ? -value : value;
+		int temp = (int) (((int) (abs >>> 32)) * 31 + (abs & 0xffffffffL));
+		// the scale is 0
+		return 31 * (value < 0 ? -temp : temp);
+	}
+
 	@Override
 	public boolean equals(
 			Object obj) {
@@ -583,6 +698,10 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (getClass() != obj.getClass())
 			return false;
 		MathNumber other = (MathNumber) obj;
+		// the representation is canonical: compact numbers are never equal
+		// to non-compact ones
+		if (value != other.value)
+			return false;
 		if (number == null) {
 			if (other.number != null)
 				return false;
@@ -595,6 +714,8 @@ public class MathNumber implements Comparable<MathNumber> {
 
 	@Override
 	public String toString() {
+		if (isCompact())
+			return Long.toString(value);
 		return isNaN() ? "NaN" : isMinusInfinity() ? "-Inf" : isPlusInfinity() ? "+Inf" : number.toString();
 	}
 
@@ -620,6 +741,6 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (isMinusInfinity())
 			throw new IllegalStateException();
 
-		return number;
+		return big();
 	}
 }
@@ -0,0 +1,58 @@
+package it.unive.lisa.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import it.unive.lisa.TestAbstractState;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Untyped;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+
+public class SplitCacheTest {
+
+	private static Variable var(
+			String name) {
+		return new Variable(Untyped.INSTANCE, name, SyntheticLocation.INSTANCE);
+	}
+
+	@Test
+	public void testHitsAndMisses() throws SemanticException {
+		SplitCache cache = new SplitCache(10);
+		AnalysisState<TestAbstractState> state = new AnalysisState<>(new TestAbstractState(), new ExpressionSet());
+
+		Pair<AnalysisState<TestAbstractState>, AnalysisState<TestAbstractState>> first = cache.split(state, var("x"),
+				null, null);
+		Pair<AnalysisState<TestAbstractState>, AnalysisState<TestAbstractState>> second = cache.split(state, var("x"),
+				null, null);
+		cache.split(state, var("y"), null, null);
+
+		assertSame(first.getLeft(), second.getLeft());
+		assertSame(first.getRight(), second.getRight());
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testEviction() throws SemanticException {
+		SplitCache cache = new SplitCache(2);
+		AnalysisState<TestAbstractState> state = new AnalysisState<>(new TestAbstractState(), new ExpressionSet());
+
+		cache.split(state, var("x"), null, null);
+		cache.split(state, var("y"), null, null);
+		// x becomes the most recently used
+		cache.split(state, var("x"), null, null);
+		cache.split(state, var("z"), null, null);
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+
+		// y has been evicted, x has not
+		cache.split(state, var("x"), null, null);
+		assertEquals(2, cache.getHits());
+		cache.split(state, var("y"), null, null);
+		assertEquals(4, cache.getMisses());
+	}
+}
@@ -0,0 +1,110 @@
+package it.unive.lisa.analysis.lattices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.SemanticException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+public class FunctionalLatticeTest {
+
+	private static final GenericSetLattice<Integer> SINGLETON = new GenericSetLattice<>();
+
+	private static GenericSetLattice<Integer> set(
+			Integer... elements) {
+		return new GenericSetLattice<>(Set.of(elements), false);
+	}
+
+	private static GenericMapLattice<String, GenericSetLattice<Integer>> base() {
+		GenericMapLattice<String, GenericSetLattice<Integer>> map = new GenericMapLattice<>(SINGLETON);
+		// enough keys to have a trie with more than one level
+		for (int i = 0; i < 200; i++)
+			map = map.putState("k" + i, set(i));
+		return map;
+	}
+
+	private static GenericMapLattice<String, GenericSetLattice<Integer>> without(
+			GenericMapLattice<String, GenericSetLattice<Integer>> map,
+			String key) {
+		Map<String, GenericSetLattice<Integer>> function = map.mkNewFunction(map.function, false);
+		function.remove(key);
+		return map.mk(map.lattice, function);
+	}
+
+	private static GenericMapLattice<String, GenericSetLattice<Integer>> fullLub(
+			GenericMapLattice<String, GenericSetLattice<Integer>> first,
+			GenericMapLattice<String, GenericSetLattice<Integer>> second)
+			throws SemanticException {
+		return first.functionalLift(second, SINGLETON.bottom(), first::lubKeys, (
+				o1,
+				o2) -> o1.lub(o2));
+	}
+
+	private static GenericMapLattice<String, GenericSetLattice<Integer>> fullGlb(
+			GenericMapLattice<String, GenericSetLattice<Integer>> first,
+			GenericMapLattice<String, GenericSetLattice<Integer>> second)
+			throws SemanticException {
+		return first.functionalLift(second, SINGLETON.top(), first::glbKeys, (
+				o1,
+				o2) -> o1.glb(o2));
+	}
+
+	@Test
+	public void testSharedLiftMatchesFullLift() throws SemanticException {
+		GenericMapLattice<String, GenericSetLattice<Integer>> base = base();
+		// k1 differs in both, k2 and k4 only in first, k3 and k5 only in
+		// second, new1 and new2 only belong to one of the two
+		GenericMapLattice<String, GenericSetLattice<Integer>> first = without(base
+				.putState("k1", set(1, 1000))
+				.putState("k2", set(2000))
+				.putState("new1", set(-1)), "k3");
+		GenericMapLattice<String, GenericSetLattice<Integer>> second = without(base
+				.putState("k1", set(1, 1001))
+				.putState("k5", set(5000))
+				.putState("new2", set(-2)), "k4");
+
+		GenericMapLattice<String, GenericSetLattice<Integer>> lub = first.lub(second);
+		assertEquals(fullLub(first, second), lub);
+		assertEquals(fullLub(second, first), second.lub(first));
+		assertEquals(Set.of(1, 1000, 1001), lub.getState("k1").elements());
+		assertTrue(lub.getKeys().contains("new1"));
+		assertTrue(lub.getKeys().contains("new2"));
+
+		GenericMapLattice<String, GenericSetLattice<Integer>> glb = first.glb(second);
+		assertEquals(fullGlb(first, second), glb);
+		assertEquals(fullGlb(second, first), second.glb(first));
+		assertEquals(Set.of(1), glb.getState("k1").elements());
+		assertFalse(glb.getKeys().contains("new1"));
+		assertFalse(glb.getKeys().contains("k3"));
+		assertFalse(glb.getKeys().contains("k4"));
+	}
+
+	@Test
+	public void testOverriddenKeyLiftersAreHonored() throws SemanticException {
+		GenericMapLattice<String, GenericSetLattice<Integer>> base = base();
+		GenericMapLattice<String, GenericSetLattice<Integer>> first = new GenericMapLattice<>(SINGLETON,
+				base.putState("k1", set(1000)).function) {
+
+			@Override
+			public Set<String> lubKeys(
+					Set<String> k1,
+					Set<String> k2)
+					throws SemanticException {
+				// keys that are mapped identically are dropped too
+				Set<String> keys = new HashSet<>(super.lubKeys(k1, k2));
+				keys.remove("k0");
+				return keys;
+			}
+		};
+		GenericMapLattice<String, GenericSetLattice<Integer>> second = base.putState("k1", set(1001));
+
+		GenericMapLattice<String, GenericSetLattice<Integer>> lub = first.lub(second);
+		assertFalse(lub.getKeys().contains("k0"));
+		assertEquals(Set.of(1000, 1001), lub.getState("k1").elements());
+		assertEquals(199, lub.getKeys().size());
+	}
+}
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertTrue;
 import it.unive.lisa.TestCallGraph;
 import it.unive.lisa.TestLanguageFeatures;
 import it.unive.lisa.TestTypeSystem;
+import it.unive.lisa.analysis.symbols.NameSymbol;
 import it.unive.lisa.analysis.symbols.SymbolAliasing;
 import it.unive.lisa.program.Application;
 import it.unive.lisa.program.Program;
@@ -22,6 +23,7 @@ import it.unive.lisa.program.cfg.statement.VariableRef;
 import it.unive.lisa.program.cfg.statement.call.CFGCall;
 import it.unive.lisa.program.cfg.statement.call.Call;
 import it.unive.lisa.program.cfg.statement.call.Call.CallType;
+import it.unive.lisa.program.cfg.statement.call.OpenCall;
 import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
 import it.unive.lisa.type.BooleanType;
 import it.unive.lisa.type.StringType;
@@ -168,4 +170,54 @@ public class BaseCallGraphTest {
 		assertEquals(1, callees.size());
 		assertSame(cfg2_2, callees.iterator().next());
 	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAliasedTargets()
+			throws CallResolutionException, ProgramValidationException, CallGraphConstructionException {
+		TestCallGraph cg = new TestCallGraph();
+
+		Program p = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+
+		CFG cfg1 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake1", 0, 0), p, false, "cfg1"));
+		UnresolvedCall call = new UnresolvedCall(cfg1, new SourceCodeLocation("fake1", 1, 0), CallType.STATIC,
+				p.getName(), "alias");
+		cfg1.addNode(call, true);
+		Ret ret = new Ret(cfg1, new SourceCodeLocation("fake1", 2, 0));
+		cfg1.addNode(ret, false);
+		cfg1.addEdge(new SequentialEdge(call, ret));
+
+		CFG cfg2 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake2", 0, 0), p, false, "cfg2"));
+		cfg2.addNode(new Ret(cfg2, new SourceCodeLocation("fake2", 1, 0)), true);
+		CFG cfg3 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake3", 0, 0), p, false, "cfg3"));
+		cfg3.addNode(new Ret(cfg3, new SourceCodeLocation("fake3", 1, 0)), true);
+
+		p.addCodeMember(cfg1);
+		p.addCodeMember(cfg2);
+		p.addCodeMember(cfg3);
+		p.getFeatures().getProgramValidationLogic().validateAndFinalize(p);
+
+		Application app = new Application(p);
+		cg.init(app);
+
+		SymbolAliasing aliasing = new SymbolAliasing()
+				.alias(new NameSymbol("cfg2"), new NameSymbol("alias"))
+				.alias(new NameSymbol("cfg3"), new NameSymbol("other"));
+		CFGCall resolved = (CFGCall) cg.resolve(call, new Set[0], aliasing);
+
+		Collection<CodeMember> callees = resolved.getTargets();
+		assertEquals(1, callees.size());
+		assertSame(cfg2, callees.iterator().next());
+		assertEquals(1, cg.getResolutionsCount());
+		assertEquals(0, cg.getCachedResolutionsCount());
+
+		assertSame(resolved, cg.resolve(call, new Set[0], aliasing));
+		assertEquals(1, cg.getResolutionsCount());
+		assertEquals(1, cg.getCachedResolutionsCount());
+
+		cg.init(app);
+		assertEquals(0, cg.getResolutionsCount());
+		assertEquals(0, cg.getCachedResolutionsCount());
+		assertTrue(cg.resolve(call, new Set[0], new SymbolAliasing()) instanceof OpenCall);
+	}
 }
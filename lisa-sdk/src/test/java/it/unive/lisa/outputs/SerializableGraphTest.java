@@ -4,10 +4,14 @@ import static org.junit.Assert.assertEquals;
 
 import it.unive.lisa.TestLanguageFeatures;
 import it.unive.lisa.TestTypeSystem;
+import it.unive.lisa.outputs.serializableGraph.SerializableArray;
 import it.unive.lisa.outputs.serializableGraph.SerializableCFG;
 import it.unive.lisa.outputs.serializableGraph.SerializableEdge;
 import it.unive.lisa.outputs.serializableGraph.SerializableGraph;
 import it.unive.lisa.outputs.serializableGraph.SerializableNode;
+import it.unive.lisa.outputs.serializableGraph.SerializableObject;
+import it.unive.lisa.outputs.serializableGraph.SerializableString;
+import it.unive.lisa.outputs.serializableGraph.SerializableValue;
 import it.unive.lisa.program.ClassUnit;
 import it.unive.lisa.program.Program;
 import it.unive.lisa.program.SyntheticLocation;
@@ -21,11 +25,21 @@ import it.unive.lisa.program.cfg.statement.Assignment;
 import it.unive.lisa.program.cfg.statement.Return;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.VariableRef;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import org.graphstream.graph.Graph;
 import org.junit.Test;
 
 public class SerializableGraphTest {
@@ -454,4 +468,76 @@ public class SerializableGraphTest {
 		assertEquals(expected, graph);
 	}
 
+	@Test
+	public void testStreamedDump() throws IOException {
+		CFG cfg = new CFG(new CodeMemberDescriptor(SyntheticLocation.INSTANCE, unit, false, "streamed"));
+		VariableRef c1 = new VariableRef(cfg, SyntheticLocation.INSTANCE, "1");
+		VariableRef c2 = new VariableRef(cfg, SyntheticLocation.INSTANCE, "2");
+		VariableRef lvar = new VariableRef(cfg, SyntheticLocation.INSTANCE, "l");
+		VariableRef xvar = new VariableRef(cfg, SyntheticLocation.INSTANCE, "x");
+		Assignment condition = new Assignment(cfg, SyntheticLocation.INSTANCE, c1, c2);
+		Assignment a1 = new Assignment(cfg, SyntheticLocation.INSTANCE, lvar, new VariableRef(cfg,
+				SyntheticLocation.INSTANCE, "\"quoted\""));
+		Return ret = new Return(cfg, SyntheticLocation.INSTANCE, xvar);
+
+		cfg.addNode(condition, true);
+		cfg.addNode(a1);
+		cfg.addNode(ret);
+		cfg.addEdge(new TrueEdge(condition, a1));
+		cfg.addEdge(new SequentialEdge(a1, condition));
+		cfg.addEdge(new FalseEdge(condition, ret));
+
+		BiFunction<CFG, Statement, SerializableValue> descriptions = (
+				graph,
+				st) -> {
+			if (st == ret)
+				return null;
+			SortedMap<String, String> props = new TreeMap<>();
+			if (st instanceof Assignment)
+				props.put("kind", "assignment");
+			SerializableArray array = new SerializableArray(new TreeMap<>(),
+					List.of(new SerializableString(new TreeMap<>(), st.toString())));
+			SortedMap<String, SerializableValue> fields = new TreeMap<>();
+			fields.put("statement", new SerializableString(props, st.toString()));
+			fields.put("all", array);
+			return new SerializableObject(new TreeMap<>(), fields);
+		};
+
+		for (BiFunction<CFG, Statement, SerializableValue> generator : Arrays.asList(null, descriptions)) {
+			StringWriter expected = new StringWriter(), actual = new StringWriter();
+			SerializableCFG.fromCFG(cfg, generator).dump(expected);
+			SerializableCFG.dump(cfg, generator, actual);
+			assertEquals(expected.toString(), actual.toString());
+			assertEquals(SerializableCFG.fromCFG(cfg, generator),
+					SerializableGraph.readGraph(new StringReader(actual.toString())));
+
+			SerializableGraph graph = SerializableCFG.fromCFG(cfg, generator);
+			assertEquals(contents(graph.toDot()),
+					contents(SerializableCFG.dump(cfg, generator, null, SerializableGraph.dot())));
+			for (boolean subnodes : new boolean[] { false, true })
+				assertEquals(contents(graph.toGraphml(subnodes)),
+						contents(SerializableCFG.dump(cfg, generator, null, SerializableGraph.graphml(subnodes))));
+
+			// the json and the converted graph come from the same walk
+			actual = new StringWriter();
+			DotGraph dot = SerializableCFG.dump(cfg, generator, actual, SerializableGraph.dot());
+			assertEquals(expected.toString(), actual.toString());
+			assertEquals(contents(graph.toDot()), contents(dot));
+		}
+	}
+
+	private static Map<String, Map<String, String>> contents(
+			GraphStreamWrapper graph) {
+		Map<String, Map<String, String>> contents = new TreeMap<>();
+		Stream.concat(graph.graph.nodes(), graph.graph.edges()).forEach(e -> {
+			Map<String, String> attrs = new TreeMap<>();
+			e.attributeKeys().forEach(k -> {
+				Object v = e.getAttribute(k);
+				// nested graphs are only compared by name
+				attrs.put(k, v instanceof Graph ? ((Graph) v).getId() : String.valueOf(v));
+			});
+			contents.put(e.getId(), attrs);
+		});
+		return contents;
+	}
 }
@@ -0,0 +1,93 @@
+package it.unive.lisa.program.language.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import it.unive.lisa.TestLanguageFeatures;
+import it.unive.lisa.TestTypeSystem;
+import it.unive.lisa.program.ClassUnit;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.ProgramValidationException;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.Unit;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeMember;
+import it.unive.lisa.program.cfg.CodeMemberDescriptor;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.NoOp;
+import it.unive.lisa.program.cfg.statement.Ret;
+import java.util.Collection;
+import org.junit.Test;
+
+public class BaseValidationLogicTest {
+
+	private static final SourceCodeLocation LOC = new SourceCodeLocation("validation", 0, 0);
+
+	private static CFG mk(
+			Unit unit,
+			boolean instance,
+			boolean valid,
+			String name,
+			String... formals) {
+		Parameter[] pars = new Parameter[formals.length];
+		for (int i = 0; i < formals.length; i++)
+			pars[i] = new Parameter(LOC, formals[i]);
+		CFG cfg = new CFG(new CodeMemberDescriptor(LOC, unit, instance, name, pars));
+		// a noop without followers is not a valid exit point
+		cfg.addNode(valid ? new Ret(cfg, LOC) : new NoOp(cfg, LOC), true);
+		return cfg;
+	}
+
+	@Test
+	public void testMembersIndexedByName() {
+		Program program = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+		CFG foo = mk(program, false, true, "foo");
+		CFG fooX = mk(program, false, true, "foo", "x");
+		program.addCodeMember(foo);
+		program.addCodeMember(fooX);
+		program.addCodeMember(mk(program, false, true, "bar"));
+
+		assertEquals(2, program.getCodeMembersByName("foo").size());
+		assertTrue(program.getCodeMembersByName("baz").isEmpty());
+		Collection<CodeMember> matching = program.getMatchingCodeMember(fooX.getDescriptor());
+		assertEquals(1, matching.size());
+		assertTrue(matching.contains(fooX));
+
+		ClassUnit unit = new ClassUnit(LOC, program, "A", false);
+		CFG m = mk(unit, true, true, "m", "this");
+		unit.addInstanceCodeMember(m);
+		unit.addInstanceCodeMember(mk(unit, true, true, "n", "this"));
+		ClassUnit sub = new ClassUnit(LOC, program, "B", false);
+		sub.addAncestor(unit);
+		assertEquals(1, sub.getInstanceCodeMembersByName("m", true).size());
+		assertTrue(sub.getInstanceCodeMembersByName("m", false).isEmpty());
+		assertTrue(sub.getMatchingInstanceCodeMembers(m.getDescriptor(), true).contains(m));
+		assertEquals(m, unit.getInstanceCodeMember(m.getDescriptor().getSignature(), false));
+	}
+
+	@Test
+	public void testFirstInvalidMemberIsReported() {
+		Program program = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+		for (int i = 0; i < 50; i++)
+			program.addCodeMember(mk(program, false, i % 10 != 7, String.format("f%02d", i)));
+
+		// members are validated in parallel, but the reported error must
+		// always be the one of the first invalid member
+		for (int run = 0; run < 10; run++)
+			try {
+				new BaseValidationLogic().validateAndFinalize(program);
+				fail("Invalid program has been validated");
+			} catch (ProgramValidationException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("::f07("));
+			}
+	}
+
+	@Test
+	public void testValidProgram() throws ProgramValidationException {
+		Program program = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+		for (int i = 0; i < 50; i++)
+			program.addCodeMember(mk(program, false, true, "f" + i));
+		new BaseValidationLogic().validateAndFinalize(program);
+	}
+}
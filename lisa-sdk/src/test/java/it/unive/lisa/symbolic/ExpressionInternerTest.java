@@ -0,0 +1,104 @@
+package it.unive.lisa.symbolic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.symbolic.value.operator.binary.NumericNonOverflowingAdd;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.Untyped;
+import it.unive.lisa.type.VoidType;
+import org.junit.Test;
+
+public class ExpressionInternerTest {
+
+	private static Variable var(
+			String name,
+			Type type) {
+		return new Variable(type, name, SyntheticLocation.INSTANCE);
+	}
+
+	private static BinaryExpression add(
+			SymbolicExpression left,
+			SymbolicExpression right,
+			CodeLocation location) {
+		return new BinaryExpression(Untyped.INSTANCE, left, right, NumericNonOverflowingAdd.INSTANCE, location);
+	}
+
+	private static BinaryExpression tree(
+			Type type,
+			CodeLocation location) {
+		Constant one = new Constant(Untyped.INSTANCE, 1, SyntheticLocation.INSTANCE);
+		return add(var("x", type), add(var("y", type), one, location), location);
+	}
+
+	@Test
+	public void testIdenticalTreesAreShared() {
+		ExpressionInterner interner = new ExpressionInterner();
+		BinaryExpression first = interner.intern(tree(Untyped.INSTANCE, SyntheticLocation.INSTANCE));
+		BinaryExpression second = interner.intern(tree(Untyped.INSTANCE, SyntheticLocation.INSTANCE));
+
+		assertSame(first, second);
+		assertSame(first.getLeft(), interner.intern(var("x", Untyped.INSTANCE)));
+		assertEquals(5, interner.size());
+		assertEquals(5, interner.getMisses());
+		assertEquals(6, interner.getHits());
+	}
+
+	@Test
+	public void testSubExpressionsAreShared() {
+		ExpressionInterner interner = new ExpressionInterner();
+		BinaryExpression tree = interner.intern(tree(Untyped.INSTANCE, SyntheticLocation.INSTANCE));
+		BinaryExpression other = interner.intern(add(var("z", Untyped.INSTANCE),
+				add(var("y", Untyped.INSTANCE), new Constant(Untyped.INSTANCE, 1, SyntheticLocation.INSTANCE),
+						SyntheticLocation.INSTANCE),
+				SyntheticLocation.INSTANCE));
+
+		assertNotSame(tree, other);
+		assertSame(tree.getRight(), other.getRight());
+	}
+
+	@Test
+	public void testLocationsAndTypesAreNotMerged() {
+		ExpressionInterner interner = new ExpressionInterner();
+		BinaryExpression tree = interner.intern(tree(Untyped.INSTANCE, SyntheticLocation.INSTANCE));
+		BinaryExpression located = interner.intern(tree(Untyped.INSTANCE, new SourceCodeLocation("file", 1, 1)));
+		BinaryExpression typed = interner.intern(tree(VoidType.INSTANCE, SyntheticLocation.INSTANCE));
+
+		// equals ignores both locations and the types of identifiers
+		assertEquals(tree, located);
+		assertEquals(tree, typed);
+		assertNotSame(tree, located);
+		assertNotSame(tree, typed);
+		assertEquals(new SourceCodeLocation("file", 1, 1), located.getCodeLocation());
+		assertEquals(VoidType.INSTANCE, typed.getLeft().getStaticType());
+	}
+
+	@Test
+	public void testUnsupportedClassesAreNotInterned() {
+		ExpressionInterner interner = new ExpressionInterner();
+		Variable custom = new Variable(Untyped.INSTANCE, "x", SyntheticLocation.INSTANCE) {
+		};
+
+		assertSame(custom, interner.intern(custom));
+		assertEquals(0, interner.size());
+	}
+
+	@Test
+	public void testExpressionSets() {
+		ExpressionInterner interner = new ExpressionInterner();
+		ExpressionSet set = interner.intern(new ExpressionSet(tree(Untyped.INSTANCE, SyntheticLocation.INSTANCE)));
+		ExpressionSet other = interner.intern(new ExpressionSet(tree(Untyped.INSTANCE, SyntheticLocation.INSTANCE)));
+
+		assertEquals(set, other);
+		assertSame(set.elements().iterator().next(), other.elements().iterator().next());
+		assertSame(set, interner.intern(set));
+	}
+}
@@ -0,0 +1,174 @@
+package it.unive.lisa.util.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntFunction;
+import org.junit.Test;
+
+public class PersistentHashMapTest {
+
+	private static class Colliding {
+
+		private final int value;
+
+		private Colliding(
+				int value) {
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			// few distinct hashes, to force collision nodes
+			return value % 7;
+		}
+
+		@Override
+		public boolean equals(
+				Object obj) {
+			return obj instanceof Colliding && ((Colliding) obj).value == value;
+		}
+	}
+
+	private static <K> void randomOps(
+			int seed,
+			IntFunction<K> keys) {
+		Random random = new Random(seed);
+		Map<K, Integer> expected = new HashMap<>();
+		PersistentHashMap<K, Integer> actual = new PersistentHashMap<>();
+		for (int i = 0; i < 5000; i++) {
+			K key = keys.apply(random.nextInt(500));
+			if (random.nextInt(3) == 0)
+				assertEquals(expected.remove(key), actual.remove(key));
+			else {
+				int value = random.nextInt();
+				assertEquals(expected.put(key, value), actual.put(key, value));
+			}
+			assertEquals(expected.size(), actual.size());
+		}
+
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+		for (K key : expected.keySet())
+			assertTrue(actual.containsKey(key));
+		Set<K> iterated = new HashSet<>();
+		for (Entry<K, Integer> e : actual.entrySet()) {
+			assertTrue(iterated.add(e.getKey()));
+			assertEquals(expected.get(e.getKey()), e.getValue());
+		}
+		assertEquals(expected.keySet(), iterated);
+
+		for (K key : new HashSet<>(expected.keySet()))
+			assertEquals(expected.remove(key), actual.remove(key));
+		assertTrue(actual.isEmpty());
+		assertFalse(actual.entrySet().iterator().hasNext());
+	}
+
+	@Test
+	public void testAgainstHashMap() {
+		for (int seed = 0; seed < 10; seed++)
+			randomOps(seed, Integer::valueOf);
+	}
+
+	@Test
+	public void testCollisions() {
+		for (int seed = 0; seed < 10; seed++)
+			randomOps(seed, Colliding::new);
+	}
+
+	@Test
+	public void testNulls() {
+		PersistentHashMap<String, String> map = new PersistentHashMap<>();
+		map.put(null, "a");
+		map.put("b", null);
+		assertEquals("a", map.get(null));
+		assertTrue(map.containsKey("b"));
+		assertNull(map.get("b"));
+		assertFalse(map.containsKey("c"));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	public void testCopiesAreIndependent() {
+		PersistentHashMap<Integer, Integer> map = new PersistentHashMap<>();
+		for (int i = 0; i < 100; i++)
+			map.put(i, i);
+
+		PersistentHashMap<Integer, Integer> copy = new PersistentHashMap<>(map);
+		assertEquals(map, copy);
+		copy.put(5, -5);
+		copy.remove(6);
+		copy.put(200, 200);
+
+		assertEquals(100, map.size());
+		assertEquals(Integer.valueOf(5), map.get(5));
+		assertEquals(Integer.valueOf(6), map.get(6));
+		assertFalse(map.containsKey(200));
+		assertEquals(100, copy.size());
+		assertEquals(Integer.valueOf(-5), copy.get(5));
+		assertFalse(copy.containsKey(6));
+	}
+
+	@Test
+	public void testIteratorRemoveAndSetValue() {
+		PersistentHashMap<Integer, Integer> map = new PersistentHashMap<>();
+		for (int i = 0; i < 100; i++)
+			map.put(i, i);
+
+		Iterator<Entry<Integer, Integer>> it = map.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<Integer, Integer> e = it.next();
+			if (e.getKey() % 2 == 0)
+				it.remove();
+			else
+				e.setValue(-e.getKey());
+		}
+
+		assertEquals(50, map.size());
+		for (int i = 0; i < 100; i++)
+			if (i % 2 == 0)
+				assertFalse(map.containsKey(i));
+			else
+				assertEquals(Integer.valueOf(-i), map.get(i));
+	}
+
+	@Test
+	public void testKeysDifferingFrom() {
+		PersistentHashMap<Integer, String> map = new PersistentHashMap<>();
+		for (int i = 0; i < 1000; i++)
+			map.put(i, String.valueOf(i));
+
+		PersistentHashMap<Integer, String> copy = new PersistentHashMap<>(map);
+		assertTrue(map.keysDifferingFrom(copy).isEmpty());
+
+		copy.put(1, "one");
+		copy.remove(2);
+		copy.put(2000, "2000");
+		// an equal but distinct value is still considered different
+		copy.put(3, new String("3"));
+
+		Collection<Integer> diff = map.keysDifferingFrom(copy);
+		assertEquals(Set.of(1, 2, 3), new HashSet<>(diff));
+		assertEquals(3, diff.size());
+
+		diff = copy.keysDifferingFrom(map);
+		assertEquals(Set.of(1, 3, 2000), new HashSet<>(diff));
+
+		// unrelated tries are compared entry by entry
+		PersistentHashMap<Integer, String> other = new PersistentHashMap<>(new HashMap<>(map));
+		assertTrue(map.keysDifferingFrom(other).isEmpty());
+		other.put(4, "four");
+		assertEquals(Set.of(4), new HashSet<>(map.keysDifferingFrom(other)));
+	}
+}
@@ -0,0 +1,97 @@
+package it.unive.lisa.util.collections.externalSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class ExternalSetCacheTest {
+
+	@Test
+	public void testIndexesAcrossSegments() {
+		ExternalSetCache<Integer> cache = new ExternalSetCache<>();
+		for (int i = 0; i < 10_000; i++)
+			assertEquals(i, cache.indexOfOrAdd(i));
+		for (int i = 0; i < 10_000; i++) {
+			assertEquals(i, cache.indexOf(i));
+			assertEquals(Integer.valueOf(i), cache.get(i));
+		}
+		assertEquals(10_000, cache.size());
+		assertEquals(-1, cache.indexOf(10_000));
+		assertEquals(10_000, cache.getAllElements().size());
+		assertEquals(Integer.valueOf(9_999), new ArrayList<>(cache.getAllElements()).get(9_999));
+	}
+
+	@Test
+	public void testNull() {
+		ExternalSetCache<Object> cache = new ExternalSetCache<>();
+		cache.indexOfOrAdd("foo");
+		assertEquals(-1, cache.indexOf(null));
+		assertEquals(1, cache.indexOfOrAdd(null));
+		assertEquals(1, cache.indexOfOrAdd(null));
+		assertNull(cache.get(1));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testClear() {
+		ExternalSetCache<String> cache = new ExternalSetCache<>();
+		cache.indexOfOrAdd("foo");
+		cache.indexOfOrAdd(null);
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(-1, cache.indexOf("foo"));
+		assertEquals(-1, cache.indexOf(null));
+		assertEquals(0, cache.indexOfOrAdd("bar"));
+		assertEquals("[bar]", cache.toString());
+	}
+
+	@Test
+	public void testConcurrentInsertions() throws InterruptedException, ExecutionException {
+		ExternalSetCache<Integer> cache = new ExternalSetCache<>();
+		int threads = 8, elements = 5_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<int[]>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int offset = t;
+				// all threads add the same elements, in different orders
+				results.add(executor.submit(() -> {
+					int[] indexes = new int[elements];
+					for (int i = 0; i < elements; i++) {
+						int e = (i + offset * 997) % elements;
+						indexes[e] = cache.indexOfOrAdd(e);
+						assertEquals(Integer.valueOf(e), cache.get(indexes[e]));
+					}
+					return indexes;
+				}));
+			}
+
+			int[] expected = results.get(0).get();
+			for (Future<int[]> result : results)
+				for (int i = 0; i < elements; i++)
+					assertEquals(expected[i], result.get()[i]);
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(elements, cache.size());
+		Set<Integer> seen = new HashSet<>();
+		for (int i = 0; i < elements; i++) {
+			int index = cache.indexOf(i);
+			assertNotEquals(-1, index);
+			assertTrue(seen.add(index));
+			assertEquals(Integer.valueOf(i), cache.get(index));
+		}
+	}
+}
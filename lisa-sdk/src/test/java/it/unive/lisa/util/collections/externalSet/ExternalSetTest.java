@@ -2,9 +2,11 @@ package it.unive.lisa.util.collections.externalSet;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 import org.junit.Test;
 
@@ -78,4 +80,48 @@ public class ExternalSetTest {
 		assertTrue(universal.contains("foo"));
 		assertFalse(universal.contains(new Object()));
 	}
+
+	@Test
+	public void testUnmodifiableView() {
+		ExternalSetCache<Object> cache = new ExternalSetCache<Object>();
+		ExternalSet<Object> eset = cache.mkEmptySet();
+		eset.add("foo");
+		ExternalSet<Object> other = cache.mkSingletonSet("bar");
+		ExternalSet<Object> view = eset.unmodifiableView();
+
+		assertEquals(eset, view);
+		assertEquals(view, eset);
+		assertEquals(eset.hashCode(), view.hashCode());
+		assertSame(view, view.unmodifiableView());
+		assertEquals(eset.union(other), view.union(other.unmodifiableView()));
+		assertTrue(view.union(other).contains(other));
+		assertTrue(view.contains(eset));
+		assertFalse(view.intersects(other.unmodifiableView()));
+
+		// the viewed set does not escape through operations
+		assertSame(view, view.union(view));
+		assertSame(view, view.intersection(null));
+
+		// changes to the viewed set are reflected by the view
+		eset.add("bar");
+		assertEquals(2, view.size());
+
+		ExternalSet<Object> copy = view.copy();
+		copy.add("baz");
+		assertEquals(2, view.size());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testUnmodifiableViewRejectsAdditions() {
+		ExternalSetCache<Object> cache = new ExternalSetCache<Object>();
+		cache.mkSingletonSet("foo").unmodifiableView().add("bar");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testUnmodifiableViewRejectsRemovalsThroughIterators() {
+		ExternalSetCache<Object> cache = new ExternalSetCache<Object>();
+		Iterator<Object> it = cache.mkSingletonSet("foo").unmodifiableView().iterator();
+		it.next();
+		it.remove();
+	}
 }
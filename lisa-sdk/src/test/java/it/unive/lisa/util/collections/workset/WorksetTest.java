@@ -192,4 +192,49 @@ public class WorksetTest {
 				el) -> random(ws, lifo, false, el), "a", null, "c", "d",
 				"d", "f", "a", "b", null, "i");
 	}
+
+	@Test
+	public void DuplicateFreeWsTest() {
+		linear(DuplicateFreeFIFOWorkingSet.mk(), false, false, "a", "b", "c", "d", "d", "f", "a", "b", "i");
+		linear(DuplicateFreeFIFOWorkingSet.mk(), false, false, "a", null, "c", "d", "d", "f", "a", "b", null, "i");
+		random(DuplicateFreeFIFOWorkingSet.mk(), false, false, "a", "b", "c", "d", "d", "f", "a", "b", "i");
+
+		linear(DuplicateFreeLIFOWorkingSet.mk(), true, false, "a", "b", "c", "d", "d", "f", "a", "b", "i");
+		linear(DuplicateFreeLIFOWorkingSet.mk(), true, false, "a", null, "c", "d", "d", "f", "a", "b", null, "i");
+		random(DuplicateFreeLIFOWorkingSet.mk(), true, false, "a", "b", "c", "d", "d", "f", "a", "b", "i");
+
+		// elements can be pushed again once popped
+		WorkingSet<String> ws = DuplicateFreeFIFOWorkingSet.mk();
+		ws.push("a");
+		ws.push("a");
+		assertEquals(1, ws.size());
+		assertEquals("a", ws.pop());
+		ws.push("a");
+		assertEquals(1, ws.size());
+	}
+
+	@Test
+	public void WTOWsTest() {
+		// without an order, elements are processed in FIFO order
+		linear(WTOWorkingSet.mk(), false, false, "a", "b", "c", "d", "d", "f", "a", "b", "i");
+		random(WTOWorkingSet.mk(), false, false, "a", "b", "c", "d", "d", "f", "a", "b", "i");
+
+		WTOWorkingSet<String> ws = WTOWorkingSet.mk();
+		ws.push("x");
+		ws.push("c");
+		ws.setOrder(List.of("a", "b", "c", "d"));
+		ws.push("d");
+		ws.push("a");
+		ws.push("y");
+		ws.push("a");
+		assertEquals(5, ws.size());
+		assertEquals("[a, c, d, x, y]", ws.toString());
+
+		List<String> popped = new ArrayList<>();
+		while (!ws.isEmpty()) {
+			assertSame(ws.peek(), ws.peek());
+			popped.add(ws.pop());
+		}
+		assertEquals(List.of("a", "c", "d", "x", "y"), popped);
+	}
 }
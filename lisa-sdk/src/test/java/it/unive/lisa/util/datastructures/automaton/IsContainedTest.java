@@ -1,5 +1,8 @@
 package it.unive.lisa.util.datastructures.automaton;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
@@ -97,4 +100,119 @@ public class IsContainedTest {
 		assertTrue(a2.isContained(a));
 		assertTrue(!a.isContained(a2));
 	}
+
+	@Test
+	public void nondeterministicTest() {
+		SortedSet<State> states = new TreeSet<>();
+		State[] st = new State[3];
+		SortedSet<State> states2 = new TreeSet<>();
+		State[] st2 = new State[5];
+		SortedSet<Transition<TestSymbol>> delta = new TreeSet<>();
+		SortedSet<Transition<TestSymbol>> delta2 = new TreeSet<>();
+
+		st[0] = new State(0, true, false);
+		st[1] = new State(1, false, false);
+		st[2] = new State(2, false, true);
+		Collections.addAll(states, st);
+
+		st2[0] = new State(3, true, false);
+		st2[1] = new State(4, false, false);
+		st2[2] = new State(5, false, false);
+		st2[3] = new State(6, false, true);
+		st2[4] = new State(7, false, true);
+		Collections.addAll(states2, st2);
+
+		delta.add(new Transition<>(st[0], st[1], new TestSymbol("a")));
+		delta.add(new Transition<>(st[1], st[1], new TestSymbol("b")));
+		delta.add(new Transition<>(st[1], st[2], new TestSymbol("c")));
+
+		delta2.add(new Transition<>(st2[0], st2[1], new TestSymbol("a")));
+		delta2.add(new Transition<>(st2[0], st2[2], new TestSymbol("a")));
+		delta2.add(new Transition<>(st2[1], st2[1], new TestSymbol("b")));
+		delta2.add(new Transition<>(st2[1], st2[3], new TestSymbol("c")));
+		delta2.add(new Transition<>(st2[2], st2[4], new TestSymbol("d")));
+
+		// ab*c
+		TestAutomaton a = new TestAutomaton(states, delta);
+
+		// ab*c | ad, with two transitions reading a from the initial state
+		TestAutomaton a2 = new TestAutomaton(states2, delta2);
+
+		assertTrue(a.isContained(a2));
+		assertFalse(a2.isContained(a));
+	}
+
+	@Test
+	public void modifiedAutomatonTest() {
+		SortedSet<State> states = new TreeSet<>();
+		State[] st = new State[2];
+		SortedSet<State> states2 = new TreeSet<>();
+		State[] st2 = new State[2];
+		SortedSet<Transition<TestSymbol>> delta = new TreeSet<>();
+		SortedSet<Transition<TestSymbol>> delta2 = new TreeSet<>();
+
+		st[0] = new State(0, true, false);
+		st[1] = new State(1, false, true);
+		Collections.addAll(states, st);
+
+		st2[0] = new State(0, true, false);
+		st2[1] = new State(1, false, true);
+		Collections.addAll(states2, st2);
+
+		delta.add(new Transition<>(st[0], st[1], new TestSymbol("a")));
+		delta.add(new Transition<>(st[0], st[1], new TestSymbol("b")));
+
+		delta2.add(new Transition<>(st2[0], st2[1], new TestSymbol("a")));
+
+		// a | b
+		TestAutomaton a = new TestAutomaton(states, delta).minimize();
+
+		// a
+		TestAutomaton a2 = new TestAutomaton(states2, delta2).minimize();
+
+		assertFalse(a.isContained(a2));
+		assertFalse(a.isContained(a2));
+
+		// a | b
+		a2.addTransition(a2.getInitialState(), a2.getFinalStates().first(), new TestSymbol("b"));
+		assertTrue(a.isContained(a2));
+	}
+
+	private static TestAutomaton automaton(
+			int firstId,
+			String... symbols) {
+		SortedSet<State> states = new TreeSet<>();
+		SortedSet<Transition<TestSymbol>> delta = new TreeSet<>();
+		State init = new State(firstId, true, false);
+		State fin = new State(firstId + 7, false, true);
+		states.add(init);
+		states.add(fin);
+		for (String symbol : symbols)
+			delta.add(new Transition<>(init, fin, new TestSymbol(symbol)));
+		return new TestAutomaton(states, delta);
+	}
+
+	@Test
+	public void canonicalFormTest() {
+		// a | b, with different state ids
+		TestAutomaton a = automaton(0, "a", "b").minimize();
+		TestAutomaton b = automaton(10, "b", "a").minimize();
+		// a
+		TestAutomaton c = automaton(0, "a").minimize();
+
+		assertEquals(a.canonicalForm(), b.canonicalForm());
+		assertEquals(a.canonicalForm().hashCode(), b.canonicalForm().hashCode());
+		assertNotEquals(a.canonicalForm(), c.canonicalForm());
+	}
+
+	@Test
+	public void memoizedResultsTest() {
+		// the second check of each pair is answered by the memo, since the
+		// automata are structurally equal to the ones of the first check
+		assertTrue(automaton(0, "a").minimize().isContained(automaton(0, "a", "b").minimize()));
+		assertTrue(automaton(20, "a").minimize().isContained(automaton(30, "b", "a").minimize()));
+		assertFalse(automaton(0, "a", "b").minimize().isContained(automaton(0, "b").minimize()));
+		assertFalse(automaton(20, "a", "b").minimize().isContained(automaton(30, "b").minimize()));
+		assertTrue(automaton(0, "a", "b").minimize().isContained(automaton(40, "b", "a").minimize()));
+	}
 }
@@ -1,9 +1,13 @@
 package it.unive.lisa.util.datastructures.automaton;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 
 import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import org.junit.Test;
@@ -185,4 +189,90 @@ public class MinimizeTest {
 
 		assertSame(a, a.minimize());
 	}
+
+	@Test
+	public void cacheMinimalForm() {
+		SortedSet<State> states = new TreeSet<>();
+		SortedSet<Transition<TestSymbol>> delta = new TreeSet<>();
+		State[] st = new State[3];
+		st[0] = new State(0, true, false);
+		st[1] = new State(1, false, false);
+		st[2] = new State(2, false, true);
+		Collections.addAll(states, st);
+
+		delta.add(new Transition<>(st[0], st[1], new TestSymbol("a")));
+		delta.add(new Transition<>(st[0], st[2], new TestSymbol("a")));
+		delta.add(new Transition<>(st[1], st[2], new TestSymbol("a")));
+
+		// a | aa
+		TestAutomaton a = new TestAutomaton(states, delta);
+
+		TestAutomaton min = a.minimize();
+		TestAutomaton expected = new TestAutomaton(new TreeSet<>(min.getStates()),
+				new TreeSet<>(min.getTransitions()));
+		assertNotSame(min, a.minimize());
+		assertEquals(min, a.minimize());
+
+		// changes to a returned automaton do not affect the cached one
+		min.addTransition(min.getInitialState(), min.getInitialState(), new TestSymbol("b"));
+		assertNotEquals(expected, min);
+		assertEquals(expected, a.minimize());
+
+		// changes to the automaton invalidate the cache
+		a.addTransition(st[2], st[2], new TestSymbol("a"));
+		assertEquals(2, a.minimize().getStates().size());
+	}
+
+	@Test
+	public void rebuildTransitionTableOnChanges() {
+		SortedSet<State> states = new TreeSet<>();
+		SortedSet<Transition<TestSymbol>> delta = new TreeSet<>();
+		State[] st = new State[2];
+		st[0] = new State(0, true, false);
+		st[1] = new State(1, false, true);
+		Collections.addAll(states, st);
+		delta.add(new Transition<>(st[0], st[1], new TestSymbol("a")));
+		TestAutomaton a = new TestAutomaton(states, delta);
+		assertEquals(1, a.getOutgoingTransitionsFrom(st[0]).size());
+
+		// replacing a transition keeps the sizes unchanged
+		Transition<TestSymbol> b = new Transition<>(st[0], st[1], new TestSymbol("b"));
+		a.removeTransitions(Set.copyOf(delta));
+		a.addTransition(b);
+		assertEquals(Set.of(b), a.getOutgoingTransitionsFrom(st[0]));
+		assertEquals(Set.of(b), a.getIngoingTransitionsFrom(st[1]));
+	}
+
+	private static TestAutomaton brzozowski(
+			TestAutomaton a) {
+		TestAutomaton det = a.determinize();
+		det = det.reverse().determinize().removeUnreachableStates();
+		return det.reverse().determinize().removeUnreachableStates();
+	}
+
+	@Test
+	public void sameResultsAsBrzozowski() {
+		Random random = new Random(42);
+		String[] alphabet = { "a", "b", "c" };
+		for (int i = 0; i < 500; i++) {
+			int n = 1 + random.nextInt(8);
+			SortedSet<State> states = new TreeSet<>();
+			State[] st = new State[n];
+			for (int j = 0; j < n; j++) {
+				st[j] = new State(j, j == 0 || random.nextInt(8) == 0, random.nextInt(3) == 0);
+				states.add(st[j]);
+			}
+
+			SortedSet<Transition<TestSymbol>> delta = new TreeSet<>();
+			int edges = random.nextInt(3 * n);
+			for (int j = 0; j < edges; j++) {
+				TestSymbol sym = random.nextInt(10) == 0 ? new TestSymbol("")
+						: new TestSymbol(alphabet[random.nextInt(alphabet.length)]);
+				delta.add(new Transition<>(st[random.nextInt(n)], st[random.nextInt(n)], sym));
+			}
+
+			TestAutomaton a = new TestAutomaton(states, delta);
+			assertEquals(brzozowski(a), a.minimize());
+		}
+	}
 }
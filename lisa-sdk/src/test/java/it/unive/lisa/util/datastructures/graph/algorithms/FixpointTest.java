@@ -6,7 +6,10 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import it.unive.lisa.util.collections.workset.DuplicateFreeFIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
+import it.unive.lisa.util.collections.workset.WTOWorkingSet;
+import it.unive.lisa.util.collections.workset.WorkingSet;
 import it.unive.lisa.util.datastructures.graph.TestGraph;
 import it.unive.lisa.util.datastructures.graph.TestGraph.TestEdge;
 import it.unive.lisa.util.datastructures.graph.TestGraph.TestNode;
@@ -196,6 +199,78 @@ public class FixpointTest {
 				res);
 	}
 
+	private static class CountingTester extends FixpointTester {
+
+		private int evaluations = 0;
+
+		@Override
+		public Set<TestNode> semantics(
+				TestNode node,
+				Set<TestNode> entrystate)
+				throws Exception {
+			evaluations++;
+			return super.semantics(node, entrystate);
+		}
+	}
+
+	private static int evaluations(
+			TestGraph graph,
+			TestNode source,
+			WorkingSet<TestNode> ws,
+			Map<TestNode, Set<TestNode>> expected) {
+		CountingTester tester = new CountingTester();
+		Map<TestNode, Set<TestNode>> res = null;
+		try {
+			res = new Fixpoint<TestGraph, TestNode, TestEdge, Set<TestNode>>(graph, false).fixpoint(
+					Map.of(source, Set.of()),
+					ws,
+					tester);
+		} catch (FixpointException e) {
+			e.printStackTrace(System.err);
+			fail("The fixpoint computation has thrown an exception");
+		}
+
+		assertEquals("Fixpoint returned wrong result", expected, res);
+		return tester.evaluations;
+	}
+
+	@Test
+	public void testWTOWorkingSet() {
+		TestGraph graph = new TestGraph();
+		TestNode source = new TestNode(1);
+		TestNode outer = new TestNode(2);
+		TestNode inner = new TestNode(3);
+		TestNode body = new TestNode(4);
+		TestNode latch = new TestNode(5);
+		TestNode end = new TestNode(6);
+		graph.addNode(source, true);
+		graph.addNode(outer);
+		graph.addNode(inner);
+		graph.addNode(body);
+		graph.addNode(latch);
+		graph.addNode(end);
+		graph.addEdge(new TestEdge(source, outer));
+		graph.addEdge(new TestEdge(outer, inner));
+		graph.addEdge(new TestEdge(inner, body));
+		graph.addEdge(new TestEdge(body, inner));
+		graph.addEdge(new TestEdge(inner, latch));
+		graph.addEdge(new TestEdge(latch, outer));
+		graph.addEdge(new TestEdge(outer, end));
+
+		Set<TestNode> loop = Set.of(source, outer, inner, body, latch);
+		Map<TestNode, Set<TestNode>> expected = Map.of(source, Set.of(source),
+				outer, loop,
+				inner, loop,
+				body, loop,
+				latch, loop,
+				end, Set.of(source, outer, inner, body, latch, end));
+
+		int fifo = evaluations(graph, source, DuplicateFreeFIFOWorkingSet.mk(), expected);
+		int wto = evaluations(graph, source, WTOWorkingSet.mk(), expected);
+		assertTrue("Processing nodes in weak topological order required " + wto
+				+ " evaluations, more than the " + fifo + " required in FIFO order", wto <= fifo);
+	}
+
 	private static class ExceptionalTester implements FixpointImplementation<TestNode, TestEdge, Set<TestNode>> {
 
 		private final int type;
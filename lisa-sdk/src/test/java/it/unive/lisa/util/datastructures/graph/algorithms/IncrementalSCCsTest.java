@@ -0,0 +1,93 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.util.datastructures.graph.TestGraph;
+import it.unive.lisa.util.datastructures.graph.TestGraph.TestEdge;
+import it.unive.lisa.util.datastructures.graph.TestGraph.TestNode;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class IncrementalSCCsTest {
+
+	@Test
+	public void testCycleMerging() {
+		IncrementalSCCs<Integer> index = new IncrementalSCCs<>();
+		index.addEdge(1, 2);
+		index.addEdge(2, 3);
+		index.addEdge(3, 4);
+		assertTrue(index.isReachable(1, 4));
+		assertFalse(index.isReachable(4, 1));
+		assertFalse(index.isInCycle(2));
+		assertTrue(index.getNonTrivialSCCs().isEmpty());
+
+		index.addEdge(4, 2);
+		assertFalse(index.isReachable(4, 1));
+		assertTrue(index.isReachable(4, 2));
+		assertTrue(index.isReachable(3, 3));
+		assertFalse(index.isReachable(1, 1));
+		assertEquals(Set.of(Set.of(2, 3, 4)), index.getNonTrivialSCCs());
+		assertEquals(Set.of(2, 3, 4), new HashSet<>(index.getSCCOf(3)));
+
+		index.addEdge(5, 5);
+		assertTrue(index.isReachable(5, 5));
+		assertEquals(Set.of(Set.of(2, 3, 4), Set.of(5)), index.getNonTrivialSCCs());
+
+		index.clear();
+		assertFalse(index.isReachable(2, 3));
+		assertTrue(index.getNonTrivialSCCs().isEmpty());
+	}
+
+	private static boolean reachable(
+			TestGraph graph,
+			TestNode from,
+			TestNode to) {
+		Set<TestNode> seen = new HashSet<>();
+		Deque<TestNode> ws = new ArrayDeque<>(graph.followersOf(from));
+		while (!ws.isEmpty()) {
+			TestNode n = ws.pop();
+			if (n.equals(to))
+				return true;
+			if (seen.add(n))
+				ws.addAll(graph.followersOf(n));
+		}
+		return false;
+	}
+
+	@Test
+	public void testAgainstTarjan() {
+		for (int seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			int nodes = 30;
+			TestNode[] ns = new TestNode[nodes];
+			TestGraph graph = new TestGraph();
+			IncrementalSCCs<TestNode> index = new IncrementalSCCs<>();
+			for (int i = 0; i < nodes; i++) {
+				ns[i] = new TestNode(i);
+				graph.addNode(ns[i]);
+				index.addNode(ns[i]);
+			}
+
+			for (int e = 0; e < 45; e++) {
+				TestNode src = ns[random.nextInt(nodes)];
+				TestNode dest = ns[random.nextInt(nodes)];
+				graph.addEdge(new TestEdge(src, dest));
+				index.addEdge(src, dest);
+
+				assertEquals(new SCCs<TestGraph, TestNode, TestEdge>().buildNonTrivial(graph),
+						index.getNonTrivialSCCs());
+				for (int k = 0; k < 10; k++) {
+					TestNode from = ns[random.nextInt(nodes)];
+					TestNode to = ns[random.nextInt(nodes)];
+					assertEquals(reachable(graph, from, to), index.isReachable(from, to));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.util.datastructures.graph.TestGraph;
+import it.unive.lisa.util.datastructures.graph.TestGraph.TestEdge;
+import it.unive.lisa.util.datastructures.graph.TestGraph.TestNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class WeakTopologicalOrderTest {
+
+	@Test
+	public void testNestedLoops() {
+		TestGraph graph = new TestGraph();
+		TestNode one = new TestNode(1);
+		TestNode two = new TestNode(2);
+		TestNode three = new TestNode(3);
+		TestNode four = new TestNode(4);
+		TestNode five = new TestNode(5);
+		TestNode six = new TestNode(6);
+		graph.addNode(one, true);
+		graph.addNode(two);
+		graph.addNode(three);
+		graph.addNode(four);
+		graph.addNode(five);
+		graph.addNode(six);
+		graph.addEdge(new TestEdge(one, two));
+		graph.addEdge(new TestEdge(two, three));
+		graph.addEdge(new TestEdge(three, four));
+		graph.addEdge(new TestEdge(four, three));
+		graph.addEdge(new TestEdge(three, five));
+		graph.addEdge(new TestEdge(five, two));
+		graph.addEdge(new TestEdge(two, six));
+
+		WeakTopologicalOrder<TestGraph, TestNode, TestEdge> wto = new WeakTopologicalOrder<>();
+		assertEquals(List.of(one, two, three, four, five, six), wto.build(graph, List.of(one)));
+		assertEquals(Set.of(two, three), wto.getHeads());
+
+		assertEquals(List.of(six, two, five, three, four, one), wto.buildBackward(graph, List.of(six)));
+		assertEquals(Set.of(two, three), wto.getHeads());
+	}
+
+	@Test
+	public void testUnreachableNodes() {
+		TestGraph graph = new TestGraph();
+		TestNode one = new TestNode(1);
+		TestNode two = new TestNode(2);
+		TestNode three = new TestNode(3);
+		graph.addNode(one, true);
+		graph.addNode(two);
+		graph.addNode(three);
+		graph.addEdge(new TestEdge(one, two));
+		graph.addEdge(new TestEdge(three, two));
+
+		WeakTopologicalOrder<TestGraph, TestNode, TestEdge> wto = new WeakTopologicalOrder<>();
+		assertEquals(List.of(one, two), wto.build(graph, List.of(one)));
+		assertEquals(Set.of(), wto.getHeads());
+		assertEquals(List.of(three, one, two), wto.build(graph, List.of(three, one)));
+	}
+
+	@Test
+	public void testDeepGraph() {
+		// deep enough to exhaust the call stack with a recursive visit
+		int depth = 100_000;
+		TestGraph graph = new TestGraph();
+		List<TestNode> nodes = new ArrayList<>(depth);
+		for (int i = 0; i < depth; i++) {
+			TestNode node = new TestNode(i);
+			nodes.add(node);
+			graph.addNode(node, i == 0);
+			if (i > 0)
+				graph.addEdge(new TestEdge(nodes.get(i - 1), node));
+		}
+		// the whole chain is a single loop headed by the second node
+		graph.addEdge(new TestEdge(nodes.get(depth - 1), nodes.get(1)));
+
+		WeakTopologicalOrder<TestGraph, TestNode, TestEdge> wto = new WeakTopologicalOrder<>();
+		assertEquals(nodes, wto.build(graph, List.of(nodes.get(0))));
+		assertEquals(Set.of(nodes.get(1)), wto.getHeads());
+
+		List<TestNode> reversed = new ArrayList<>(nodes);
+		Collections.reverse(reversed);
+		assertEquals(reversed, wto.buildBackward(graph, List.of(nodes.get(depth - 1))));
+		assertEquals(Set.of(nodes.get(depth - 1)), wto.getHeads());
+	}
+}
@@ -3,14 +3,18 @@ package it.unive.lisa.util.datastructures.graph.code;
 import static org.apache.commons.collections4.CollectionUtils.isEqualCollection;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import it.unive.lisa.util.datastructures.graph.AdjacencyIndex;
 import it.unive.lisa.util.datastructures.graph.Edge;
 import it.unive.lisa.util.datastructures.graph.code.TestCodeGraph.TestCodeEdge;
 import it.unive.lisa.util.datastructures.graph.code.TestCodeGraph.TestCodeNode;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -609,4 +613,79 @@ public class NodeListTest {
 
 		verify(adj, nodes, edges, matrix, entries, exits, "after removing " + removed.toString());
 	}
+
+	@Test
+	public void testAdjacencyIndex() {
+		Collection<TestCodeNode> nodes = new HashSet<>();
+		Collection<TestCodeEdge> edges = new HashSet<>();
+		Collection<TestCodeNode> entries = new HashSet<>();
+		Collection<TestCodeNode> exits = new HashSet<>();
+		NodeList<TestCodeGraph, TestCodeNode, TestCodeEdge> matrix = new NodeList<>(new TestCodeEdge(null, null));
+		Map<TestCodeNode, Collection<TestCodeNode>> adj = populate(matrix, nodes, edges, entries, exits);
+		NodeList<TestCodeGraph, TestCodeNode, TestCodeEdge> plain = new NodeList<>(matrix);
+
+		matrix.computeAdjacencyIndex();
+		AdjacencyIndex<TestCodeNode, TestCodeEdge> index = matrix.getAdjacencyIndex();
+		assertNotNull("index not computed", index);
+		assertEquals(nodes.size(), index.size());
+		for (TestCodeNode node : nodes) {
+			int id = index.indexOf(node);
+			assertSame(node, index.nodeAt(id));
+			assertEquals(plain.followersOf(node).size(), index.outDegree(id));
+			assertEquals(plain.predecessorsOf(node).size(), index.inDegree(id));
+			for (int k = 0; k < index.outDegree(id); k++)
+				assertEquals(plain.getEdgeConnecting(node, index.nodeAt(index.successor(id, k))),
+						index.outgoingEdge(id, k));
+			for (int k = 0; k < index.inDegree(id); k++)
+				assertEquals(plain.getEdgeConnecting(index.nodeAt(index.predecessor(id, k)), node),
+						index.ingoingEdge(id, k));
+		}
+
+		// queries are answered through the index
+		verify(adj, nodes, edges, matrix, entries, exits, "with adjacency index");
+		assertSame("index discarded by read-only operations", index, matrix.getAdjacencyIndex());
+
+		TestCodeNode n = random(nodes);
+		nodes.remove(n);
+		edges.removeIf(e -> e.getSource() == n || e.getDestination() == n);
+		adj.remove(n);
+		adj.forEach((
+				nn,
+				follows) -> follows.remove(n));
+		matrix.removeNode(n);
+		assertNull("index not discarded after a modification", matrix.getAdjacencyIndex());
+
+		entries = new HashSet<>(nodes);
+		exits = new HashSet<>(nodes);
+		for (TestCodeEdge e : edges) {
+			entries.remove(e.getDestination());
+			exits.remove(e.getSource());
+		}
+		verify(adj, nodes, edges, matrix, entries, exits, "after removing " + n);
+	}
+
+	@Test
+	public void testAdjacencyIndexAfterSimplify() {
+		TestCodeGraph graph = new TestCodeGraph();
+		TestCodeNode one = new TestCodeNode(1);
+		TestCodeNode two = new TestCodeNode(2);
+		TestCodeNode three = new TestCodeNode(3);
+		graph.addNode(one, true);
+		graph.addNode(two);
+		graph.addNode(three);
+		graph.addEdge(new TestCodeEdge(one, two));
+		graph.addEdge(new TestCodeEdge(two, three));
+		graph.computeAdjacencyIndex();
+
+		graph.getNodeList().simplify(Collections.singleton(two), graph.getEntrypoints(), new ArrayList<>(),
+				new HashMap<>());
+
+		AdjacencyIndex<TestCodeNode, TestCodeEdge> index = graph.getAdjacencyIndex();
+		assertNotNull("index not rebuilt after simplification", index);
+		assertEquals(2, index.size());
+		assertEquals(-1, index.indexOf(two));
+		assertEquals(Collections.singletonList(three), new ArrayList<>(graph.followersOf(one)));
+		assertEquals(Collections.singletonList(one), new ArrayList<>(graph.predecessorsOf(three)));
+		assertEquals(new TestCodeEdge(one, three), graph.getEdgeConnecting(one, three));
+	}
 }
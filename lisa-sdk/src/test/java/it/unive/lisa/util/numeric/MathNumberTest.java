@@ -7,7 +7,9 @@ import static it.unive.lisa.util.numeric.MathNumber.ONE;
 import static it.unive.lisa.util.numeric.MathNumber.PLUS_INFINITY;
 import static it.unive.lisa.util.numeric.MathNumber.ZERO;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
+import java.math.BigDecimal;
 import org.junit.Test;
 
 public class MathNumberTest {
@@ -212,4 +214,52 @@ public class MathNumberTest {
 		assertEquals("-inf max +inf != -inf", PLUS_INFINITY, MINUS_INFINITY.max(PLUS_INFINITY));
 		assertEquals("-inf max -inf != -inf", MINUS_INFINITY, MINUS_INFINITY.max(MINUS_INFINITY));
 	}
+
+	@Test
+	public void testOverflowsArePromoted() {
+		MathNumber max = new MathNumber(Long.MAX_VALUE);
+		MathNumber min = new MathNumber(Long.MIN_VALUE);
+		BigDecimal bigMax = BigDecimal.valueOf(Long.MAX_VALUE);
+		BigDecimal bigMin = BigDecimal.valueOf(Long.MIN_VALUE);
+
+		assertEquals(new MathNumber(bigMax.add(BigDecimal.ONE)), max.add(ONE));
+		assertEquals(new MathNumber(bigMin.subtract(BigDecimal.ONE)), min.subtract(ONE));
+		assertEquals(new MathNumber(bigMax.multiply(bigMax)), max.multiply(max));
+		assertEquals(new MathNumber(bigMin.negate()), min.abs());
+		assertEquals(new MathNumber(bigMin.negate()), min.multiply(MINUS_ONE));
+		assertEquals(max, max.add(ONE).subtract(ONE));
+		assertEquals(min, min.subtract(ONE).add(ONE));
+	}
+
+	@Test
+	public void testScalesArePreserved() {
+		MathNumber two = new MathNumber(2);
+		MathNumber twoDotZero = new MathNumber(2.0);
+
+		// as for big decimals, numbers with different scales are different
+		assertNotEquals(two, twoDotZero);
+		assertEquals(0, two.compareTo(twoDotZero));
+		assertEquals("2.0", twoDotZero.toString());
+		assertEquals("4.0", two.add(twoDotZero).toString());
+		assertEquals(two, two.min(twoDotZero));
+		assertEquals(twoDotZero, twoDotZero.max(two));
+
+		assertEquals(new MathNumber(new BigDecimal("1E+1")), new MathNumber(20).divide(two));
+		assertEquals("1E+1", new MathNumber(20).divide(two).toString());
+		assertEquals(new MathNumber(-7), new MathNumber(-21).divide(new MathNumber(3)));
+		assertEquals("0.5", ONE.divide(two).toString());
+	}
+
+	@Test
+	public void testHashesMatchBigDecimals() {
+		long[] values = { 0, 1, -1, 42, -42, Integer.MAX_VALUE, Integer.MIN_VALUE, 1L << 40, -(1L << 40),
+				Long.MAX_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE };
+		for (long value : values) {
+			BigDecimal big = BigDecimal.valueOf(value);
+			int expected = 31 * (31 + big.hashCode()) + big.signum();
+			assertEquals("Wrong hash for " + value, expected, new MathNumber(value).hashCode());
+			assertEquals(new MathNumber(big), new MathNumber(value));
+			assertEquals(Long.toString(value), new MathNumber(value).toString());
+		}
+	}
 }